@@ -0,0 +1,81 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.benchmark;
+
+import io.kodokojo.brick.DefaultBrickFactory;
+import io.kodokojo.model.*;
+import io.kodokojo.model.Stack;
+import io.kodokojo.service.redis.UserValue;
+
+import java.util.*;
+
+/**
+ * Build model objects which contain <code>size</code> users and stacks, to measure how costs grow with a project.
+ */
+final class BenchmarkFixtures {
+
+    private static final String ENTITY_IDENTIFIER = "4c2d5ef0a8b1";
+
+    private static final String PROJECT_CONFIGURATION_IDENTIFIER = "6f0e1b2c3d4a";
+
+    private static final String[] BRICK_NAMES = {DefaultBrickFactory.JENKINS, DefaultBrickFactory.GITLAB, DefaultBrickFactory.NEXUS};
+
+    private BenchmarkFixtures() {
+        // Utility class.
+    }
+
+    static User createUser(int index) {
+        String username = "user" + index;
+        return new User("a1b2c3d4e5f6" + index, ENTITY_IDENTIFIER, "Jean-Pascal", "THIERY " + index, username, username + "@kodokojo.io", "password" + index, "ssh-rsa AAAAB3NzaC1yc2EAAAADAQABAAABAQC" + index + " " + username + "@kodokojo.io");
+    }
+
+    static UserValue createUserValue() {
+        return new UserValue(createUser(0), new byte[256]);
+    }
+
+    static ProjectConfiguration createProjectConfiguration(int size) {
+        DefaultBrickFactory brickFactory = new DefaultBrickFactory();
+        List<User> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(createUser(i));
+        }
+        Set<StackConfiguration> stackConfigurations = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            Set<BrickConfiguration> brickConfigurations = new HashSet<>();
+            for (String brickName : BRICK_NAMES) {
+                brickConfigurations.add(new BrickConfiguration(brickFactory.createBrick(brickName)));
+            }
+            stackConfigurations.add(new StackConfiguration("build-" + i, StackType.BUILD, brickConfigurations, "192.168.22.3", 10022 + i));
+        }
+        return new ProjectConfiguration(ENTITY_IDENTIFIER, PROJECT_CONFIGURATION_IDENTIFIER, "Acme", Collections.singletonList(users.get(0)), stackConfigurations, users);
+    }
+
+    static Project createProject(int size) {
+        Set<Stack> stacks = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            String stackName = "build-" + i;
+            Set<BrickState> brickStates = new HashSet<>();
+            brickStates.add(new BrickState(PROJECT_CONFIGURATION_IDENTIFIER, stackName, BrickType.CI.name(), DefaultBrickFactory.JENKINS, BrickState.State.RUNNING, "https://ci-" + stackName + ".acme.kodokojo.io", "1.651"));
+            brickStates.add(new BrickState(PROJECT_CONFIGURATION_IDENTIFIER, stackName, BrickType.SCM.name(), DefaultBrickFactory.GITLAB, BrickState.State.RUNNING, "https://scm-" + stackName + ".acme.kodokojo.io", "8.5.2"));
+            brickStates.add(new BrickState(PROJECT_CONFIGURATION_IDENTIFIER, stackName, BrickType.REPOSITORY.name(), DefaultBrickFactory.NEXUS, BrickState.State.STARTING, "2.13.0"));
+            stacks.add(new Stack(stackName, StackType.BUILD, brickStates));
+        }
+        return new Project("9a8b7c6d5e4f", PROJECT_CONFIGURATION_IDENTIFIER, "Acme", new Date(), stacks);
+    }
+
+}
@@ -0,0 +1,99 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.benchmark;
+
+import io.kodokojo.service.redis.AbstractRedisStore;
+import org.openjdk.jmh.annotations.*;
+import redis.clients.jedis.Jedis;
+
+import javax.crypto.KeyGenerator;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure {@link AbstractRedisStore#generateId()} against a running Redis, which may be defined with
+ * <code>-p redisHost=&lt;host&gt; -p redisPort=&lt;port&gt;</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GenerateIdBenchmark {
+
+    private static final String GENERATE_ID_KEY = "benchmarkGenerateId";
+
+    @Param("localhost")
+    public String redisHost;
+
+    @Param("6379")
+    public int redisPort;
+
+    @Param({"1", "100"})
+    public int idLeaseSize;
+
+    private BenchmarkRedisStore store;
+
+    @Setup
+    public void setup() throws NoSuchAlgorithmException {
+        Key key = KeyGenerator.getInstance("AES").generateKey();
+        store = new BenchmarkRedisStore(key, redisHost, redisPort, idLeaseSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.clean();
+        store.stop();
+    }
+
+    @Benchmark
+    public String generate_id() {
+        return store.generateId();
+    }
+
+    private static class BenchmarkRedisStore extends AbstractRedisStore {
+
+        BenchmarkRedisStore(Key key, String host, int port, int idLeaseSize) {
+            super(key, host, port, idLeaseSize);
+        }
+
+        @Override
+        protected String getStoreName() {
+            return "BenchmarkRedisStore";
+        }
+
+        @Override
+        protected String getGenerateIdKey() {
+            return GENERATE_ID_KEY;
+        }
+
+        @Override
+        protected String generateId() {
+            return super.generateId();
+        }
+
+        void clean() {
+            try (Jedis jedis = pool.getResource()) {
+                jedis.del(GENERATE_ID_KEY);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.benchmark;
+
+import io.kodokojo.endpoint.JsonTransformer;
+import io.kodokojo.endpoint.dto.ProjectConfigDto;
+import io.kodokojo.endpoint.dto.UserDto;
+import io.kodokojo.endpoint.dto.UserProjectConfigIdDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the Json rendering of the DTO returned by the REST endpoints, as done by {@link JsonTransformer}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonRenderingBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int size;
+
+    private JsonTransformer jsonTransformer;
+
+    private ProjectConfigDto projectConfigDto;
+
+    private UserDto userDto;
+
+    @Setup
+    public void setup() {
+        jsonTransformer = new JsonTransformer();
+        projectConfigDto = new ProjectConfigDto(BenchmarkFixtures.createProjectConfiguration(size));
+        userDto = new UserDto(BenchmarkFixtures.createUser(0));
+        List<UserProjectConfigIdDto> projectConfigurationIds = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UserProjectConfigIdDto userProjectConfigIdDto = new UserProjectConfigIdDto("6f0e1b2c3d4a" + i);
+            userProjectConfigIdDto.setProjectId("9a8b7c6d5e4f" + i);
+            projectConfigurationIds.add(userProjectConfigIdDto);
+        }
+        userDto.setProjectConfigurationIds(projectConfigurationIds);
+    }
+
+    @Benchmark
+    public String render_project_config_dto() throws Exception {
+        return jsonTransformer.render(projectConfigDto);
+    }
+
+    @Benchmark
+    public String render_user_dto() throws Exception {
+        return jsonTransformer.render(userDto);
+    }
+
+}
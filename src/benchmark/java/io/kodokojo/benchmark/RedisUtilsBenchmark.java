@@ -0,0 +1,55 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.benchmark;
+
+import io.kodokojo.service.redis.RedisUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RedisUtilsBenchmark {
+
+    private String identifier;
+
+    private byte[] digest;
+
+    @Setup
+    public void setup() throws NoSuchAlgorithmException {
+        identifier = "1b7e4f0c9a2d3e5f6a7b8c9d0e1f2a3b4c5d6e7f";
+        digest = MessageDigest.getInstance("SHA-1").digest(identifier.getBytes());
+    }
+
+    @Benchmark
+    public byte[] aggregate_key() {
+        return RedisUtils.aggregateKey("project/", identifier);
+    }
+
+    @Benchmark
+    public String hex_encode() {
+        return RedisUtils.hexEncode(digest);
+    }
+
+}
@@ -0,0 +1,89 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.benchmark;
+
+import io.kodokojo.model.User;
+import io.kodokojo.service.VelocityTemplateRenderer;
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the rendering of the Jenkins init script with a new Velocity engine per call, as done before, and with the
+ * shared {@link VelocityTemplateRenderer}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TemplateRenderingBenchmark {
+
+    private static final String TEMPLATE_PATH = "init_jenkins.groovy.vm";
+
+    @Param({"1", "10", "100"})
+    public int size;
+
+    private Properties properties;
+
+    private List<User> users;
+
+    @Setup
+    public void setup() {
+        properties = new Properties();
+        properties.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
+        properties.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
+        properties.setProperty("runtime.log.logsystem.class", "org.apache.velocity.runtime.log.NullLogChute");
+        users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(BenchmarkFixtures.createUser(i));
+        }
+    }
+
+    @Benchmark
+    public String render_with_new_engine() {
+        VelocityEngine ve = new VelocityEngine();
+        ve.init(properties);
+        Template template = ve.getTemplate(TEMPLATE_PATH);
+        StringWriter sw = new StringWriter();
+        template.merge(createContext(), sw);
+        return sw.toString();
+    }
+
+    @Benchmark
+    public String render_with_shared_renderer() {
+        return VelocityTemplateRenderer.getInstance().render(TEMPLATE_PATH, createContext());
+    }
+
+    private VelocityContext createContext() {
+        VelocityContext context = new VelocityContext();
+        context.put("users", users);
+        return context;
+    }
+
+}
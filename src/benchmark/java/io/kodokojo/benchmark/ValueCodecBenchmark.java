@@ -0,0 +1,177 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.benchmark;
+
+import io.kodokojo.commons.utils.RSAUtils;
+import io.kodokojo.model.Project;
+import io.kodokojo.model.ProjectConfiguration;
+import io.kodokojo.service.redis.UserValue;
+import io.kodokojo.service.redis.codec.BinaryValueCodecProvider;
+import io.kodokojo.service.redis.codec.ValueCodec;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the binary codecs used by the Redis stores with the Java serialization they replace.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ValueCodecBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ProjectState {
+
+        @Param({"1", "10", "100"})
+        public int size;
+
+        SecretKey secretKey;
+
+        ValueCodec<ProjectConfiguration> projectConfigurationCodec;
+
+        ValueCodec<Project> projectCodec;
+
+        ProjectConfiguration projectConfiguration;
+
+        Project project;
+
+        byte[] encodedProjectConfiguration;
+
+        byte[] legacyProjectConfiguration;
+
+        byte[] encodedProject;
+
+        byte[] legacyProject;
+
+        @Setup
+        public void setup() throws NoSuchAlgorithmException {
+            secretKey = KeyGenerator.getInstance("AES").generateKey();
+            BinaryValueCodecProvider codecProvider = new BinaryValueCodecProvider(secretKey);
+            projectConfigurationCodec = codecProvider.getCodec(ProjectConfiguration.class);
+            projectCodec = codecProvider.getCodec(Project.class);
+            projectConfiguration = BenchmarkFixtures.createProjectConfiguration(size);
+            project = BenchmarkFixtures.createProject(size);
+            encodedProjectConfiguration = projectConfigurationCodec.encode(projectConfiguration);
+            legacyProjectConfiguration = RSAUtils.encryptObjectWithAES(secretKey, projectConfiguration);
+            encodedProject = projectCodec.encode(project);
+            legacyProject = RSAUtils.encryptObjectWithAES(secretKey, project);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class UserValueState {
+
+        ValueCodec<UserValue> userValueCodec;
+
+        UserValue userValue;
+
+        byte[] encodedUserValue;
+
+        byte[] legacyUserValue;
+
+        @Setup
+        public void setup() throws NoSuchAlgorithmException, IOException {
+            userValueCodec = new BinaryValueCodecProvider(KeyGenerator.getInstance("AES").generateKey()).getCodec(UserValue.class);
+            userValue = BenchmarkFixtures.createUserValue();
+            encodedUserValue = userValueCodec.encode(userValue);
+            legacyUserValue = javaSerialize(userValue);
+        }
+    }
+
+    @Benchmark
+    public byte[] encode_project_configuration(ProjectState state) {
+        return state.projectConfigurationCodec.encode(state.projectConfiguration);
+    }
+
+    @Benchmark
+    public ProjectConfiguration decode_project_configuration(ProjectState state) {
+        return state.projectConfigurationCodec.decode(state.encodedProjectConfiguration);
+    }
+
+    @Benchmark
+    public byte[] legacy_encrypt_project_configuration(ProjectState state) {
+        return RSAUtils.encryptObjectWithAES(state.secretKey, state.projectConfiguration);
+    }
+
+    @Benchmark
+    public Object legacy_decrypt_project_configuration(ProjectState state) {
+        return RSAUtils.decryptObjectWithAES(state.secretKey, state.legacyProjectConfiguration);
+    }
+
+    @Benchmark
+    public byte[] encode_project(ProjectState state) {
+        return state.projectCodec.encode(state.project);
+    }
+
+    @Benchmark
+    public Project decode_project(ProjectState state) {
+        return state.projectCodec.decode(state.encodedProject);
+    }
+
+    @Benchmark
+    public byte[] legacy_encrypt_project(ProjectState state) {
+        return RSAUtils.encryptObjectWithAES(state.secretKey, state.project);
+    }
+
+    @Benchmark
+    public Object legacy_decrypt_project(ProjectState state) {
+        return RSAUtils.decryptObjectWithAES(state.secretKey, state.legacyProject);
+    }
+
+    @Benchmark
+    public byte[] encode_user_value(UserValueState state) {
+        return state.userValueCodec.encode(state.userValue);
+    }
+
+    @Benchmark
+    public UserValue decode_user_value(UserValueState state) {
+        return state.userValueCodec.decode(state.encodedUserValue);
+    }
+
+    @Benchmark
+    public byte[] legacy_serialize_user_value(UserValueState state) throws IOException {
+        return javaSerialize(state.userValue);
+    }
+
+    @Benchmark
+    public Object legacy_deserialize_user_value(UserValueState state) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(state.legacyUserValue))) {
+            return in.readObject();
+        }
+    }
+
+    private static byte[] javaSerialize(Object value) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(output)) {
+            out.writeObject(value);
+        }
+        return output.toByteArray();
+    }
+
+}
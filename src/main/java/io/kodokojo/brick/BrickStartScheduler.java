@@ -0,0 +1,216 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.brick;
+
+import io.kodokojo.model.BrickConfiguration;
+import io.kodokojo.model.BrickState;
+import io.kodokojo.model.BrickType;
+import io.kodokojo.service.lifecycle.ApplicationLifeCycleListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Start the bricks of a project following the dependencies declared by {@link BrickType#getDependencies()}.
+ * Bricks without pending prerequisite, whatever their stack, are started at once, the others are started as soon as
+ * all their prerequisites reached a final state, or once <code>prerequisiteTimeout</code> elapsed if one of them never
+ * reports. Must be registered on the {@link BrickStateMsgDispatcher} to be notified of those states.
+ */
+public class BrickStartScheduler implements BrickStateMsgListener, ApplicationLifeCycleListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BrickStartScheduler.class);
+
+    public static final long DEFAULT_PREREQUISITE_TIMEOUT = 1800000;
+
+    private final BrickConfigurationStarter brickConfigurationStarter;
+
+    private final long prerequisiteTimeout;
+
+    private final ScheduledExecutorService deadlineScheduler;
+
+    //  Bricks waiting for their prerequisites, by project identifier, guarded by this.
+    private final Map<String, Map<String, PendingBrick>> pendingBricks;
+
+    //  Deadline of the bricks waiting for their prerequisites, by project identifier, guarded by this.
+    private final Map<String, ScheduledFuture<?>> deadlines;
+
+    public BrickStartScheduler(BrickConfigurationStarter brickConfigurationStarter, long prerequisiteTimeout) {
+        if (brickConfigurationStarter == null) {
+            throw new IllegalArgumentException("brickConfigurationStarter must be defined.");
+        }
+        if (prerequisiteTimeout <= 0) {
+            throw new IllegalArgumentException("prerequisiteTimeout must be greater than 0.");
+        }
+        this.brickConfigurationStarter = brickConfigurationStarter;
+        this.prerequisiteTimeout = prerequisiteTimeout;
+        this.deadlineScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "brick-prerequisite-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pendingBricks = new HashMap<>();
+        this.deadlines = new HashMap<>();
+    }
+
+    public BrickStartScheduler(BrickConfigurationStarter brickConfigurationStarter) {
+        this(brickConfigurationStarter, DEFAULT_PREREQUISITE_TIMEOUT);
+    }
+
+    /**
+     * Start the given bricks, each one once its prerequisites among them reached a final state.
+     *
+     * @throws IllegalStateException if bricks of one of the projects are still waiting for the prerequisites of a
+     *                               previous start, nothing is started then.
+     */
+    public void schedule(List<BrickStartContext> contexts) {
+        if (contexts == null) {
+            throw new IllegalArgumentException("contexts must be defined.");
+        }
+        List<BrickStartContext> ready = new ArrayList<>();
+        synchronized (this) {
+            //  States of a previous start can't be told from the ones of this start, they are never merged.
+            for (BrickStartContext context : contexts) {
+                String projectIdentifier = context.getProjectConfiguration().getIdentifier();
+                if (pendingBricks.containsKey(projectIdentifier)) {
+                    throw new IllegalStateException("Bricks of project " + context.getProjectConfiguration().getName() + " are still waiting for their prerequisites.");
+                }
+            }
+            //  BrickType dependencies don't loop, so at least one brick of the project is always ready.
+            for (BrickStartContext context : contexts) {
+                Set<String> prerequisites = new HashSet<>();
+                Set<BrickType> dependencies = context.getBrickConfiguration().getType().getDependencies();
+                for (BrickStartContext other : contexts) {
+                    if (other != context
+                            && Objects.equals(other.getProjectConfiguration().getIdentifier(), context.getProjectConfiguration().getIdentifier())
+                            && dependencies.contains(other.getBrickConfiguration().getType())) {
+                        prerequisites.add(brickKey(other));
+                    }
+                }
+                if (prerequisites.isEmpty()) {
+                    ready.add(context);
+                } else {
+                    String projectIdentifier = context.getProjectConfiguration().getIdentifier();
+                    Map<String, PendingBrick> pendings = pendingBricks.computeIfAbsent(projectIdentifier, id -> new HashMap<>());
+                    pendings.put(brickKey(context), new PendingBrick(context, prerequisites));
+                    deadlines.computeIfAbsent(projectIdentifier, id -> deadlineScheduler.schedule(() -> expire(id, pendings), prerequisiteTimeout, TimeUnit.MILLISECONDS));
+                }
+            }
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Starting {} bricks, {} waiting for their prerequisites.", ready.size(), contexts.size() - ready.size());
+        }
+        ready.forEach(brickConfigurationStarter::start);
+    }
+
+    @Override
+    public void receive(BrickState brickState) {
+        BrickState.State state = brickState.getState();
+        if (state != BrickState.State.RUNNING && state != BrickState.State.ALREADYEXIST && state != BrickState.State.ONFAILURE) {
+            return;
+        }
+        String projectIdentifier = brickState.getProjectConfigurationIdentifier();
+        String key = brickKey(brickState.getStackName(), brickState.getBrickName());
+        List<BrickStartContext> ready = new ArrayList<>();
+        synchronized (this) {
+            Map<String, PendingBrick> pendings = pendingBricks.get(projectIdentifier);
+            if (pendings == null) {
+                return;
+            }
+            Iterator<PendingBrick> iterator = pendings.values().iterator();
+            while (iterator.hasNext()) {
+                PendingBrick pendingBrick = iterator.next();
+                if (pendingBrick.prerequisites.remove(key) && pendingBrick.prerequisites.isEmpty()) {
+                    iterator.remove();
+                    ready.add(pendingBrick.context);
+                }
+            }
+            if (pendings.isEmpty()) {
+                pendingBricks.remove(projectIdentifier);
+                ScheduledFuture<?> deadline = deadlines.remove(projectIdentifier);
+                if (deadline != null) {
+                    deadline.cancel(false);
+                }
+            }
+        }
+        if (state == BrickState.State.ONFAILURE && !ready.isEmpty()) {
+            //  Dependent bricks are started anyway, they will report their own failure rather than waiting forever.
+            LOGGER.warn("Brick {} of project {} failed, starting its dependent bricks anyway.", key, projectIdentifier);
+        }
+        ready.forEach(brickConfigurationStarter::start);
+    }
+
+    //  Dependent bricks are started anyway, as when a prerequisite fails, they will report their own failure.
+    private void expire(String projectIdentifier, Map<String, PendingBrick> pendings) {
+        synchronized (this) {
+            //  Bricks may have been released meanwhile, and the project started again.
+            if (pendingBricks.get(projectIdentifier) != pendings) {
+                return;
+            }
+            pendingBricks.remove(projectIdentifier);
+            deadlines.remove(projectIdentifier);
+        }
+        pendings.values().forEach(pendingBrick -> {
+            LOGGER.warn("Brick {} of project {} still waiting for {} after {} ms, starting it anyway.", brickKey(pendingBrick.context), projectIdentifier, pendingBrick.prerequisites, prerequisiteTimeout);
+            brickConfigurationStarter.start(pendingBrick.context);
+        });
+    }
+
+    @Override
+    public void start() {
+        //  Nothing to do.
+    }
+
+    @Override
+    public void stop() {
+        deadlineScheduler.shutdownNow();
+    }
+
+    private static String brickKey(BrickStartContext context) {
+        BrickConfiguration brickConfiguration = context.getBrickConfiguration();
+        return brickKey(context.getStackConfiguration().getName(), brickConfiguration.getName());
+    }
+
+    private static String brickKey(String stackName, String brickName) {
+        return stackName + "/" + brickName;
+    }
+
+    private static class PendingBrick {
+
+        private final BrickStartContext context;
+
+        private final Set<String> prerequisites;
+
+        private PendingBrick(BrickStartContext context, Set<String> prerequisites) {
+            this.context = context;
+            this.prerequisites = prerequisites;
+        }
+    }
+
+}
@@ -18,16 +18,55 @@
 package io.kodokojo.brick;
 
 import io.kodokojo.model.BrickState;
+import io.kodokojo.model.UserAdditionState;
+import io.kodokojo.service.lifecycle.ApplicationLifeCycleListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-public class BrickStateMsgDispatcher implements BrickStateMsgListener {
+/**
+ * Dispatch {@link BrickState} and {@link UserAdditionState} to all registered listeners. When a coalescing window is
+ * defined, brick states of a same brick received during the window are collapsed, and only the last one is dispatched
+ * at the end of the window.
+ */
+public class BrickStateMsgDispatcher implements BrickStateMsgListener, ApplicationLifeCycleListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BrickStateMsgDispatcher.class);
 
     private final Set<BrickStateMsgListener> listeners;
 
+    private final long coalescingWindow;
+
+    private final Map<String, BrickState> pendingStates;
+
+    private final ScheduledExecutorService scheduler;
+
+    public BrickStateMsgDispatcher(long coalescingWindow) {
+        this.listeners = new CopyOnWriteArraySet<>();
+        this.coalescingWindow = coalescingWindow;
+        if (coalescingWindow > 0) {
+            this.pendingStates = new ConcurrentHashMap<>();
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "brick-state-coalescer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.pendingStates = null;
+            this.scheduler = null;
+        }
+    }
+
     public BrickStateMsgDispatcher() {
-        this.listeners = new HashSet<>();
+        this(0);
     }
 
     public void addListener(BrickStateMsgListener listener) {
@@ -39,6 +78,58 @@ public class BrickStateMsgDispatcher implements BrickStateMsgListener {
 
     @Override
     public void receive(BrickState brickState) {
-        listeners.forEach(listener -> listener.receive(brickState));
+        if (scheduler == null || scheduler.isShutdown()) {
+            dispatch(brickState);
+            return;
+        }
+        String key = brickState.getProjectConfigurationIdentifier() + "/" + brickState.getStackName() + "/" + brickState.getBrickName();
+        BrickState previous = pendingStates.put(key, brickState);
+        if (previous == null) {
+            scheduler.schedule(() -> flush(key), coalescingWindow, TimeUnit.MILLISECONDS);
+        } else if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Brick state {} replaced by {} before being dispatched.", previous.getState(), brickState.getState());
+        }
+    }
+
+    //  Not coalesced, every step of a job reaches the listeners.
+    @Override
+    public void receive(UserAdditionState userAdditionState) {
+        listeners.forEach(listener -> {
+            try {
+                listener.receive(userAdditionState);
+            } catch (RuntimeException e) {
+                LOGGER.error("Listener {} failed to handle user addition state {}.", listener, userAdditionState, e);
+            }
+        });
+    }
+
+    @Override
+    public void start() {
+        //  Nothing to do.
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            new ArrayList<>(pendingStates.keySet()).forEach(this::flush);
+        }
+    }
+
+    private void flush(String key) {
+        BrickState brickState = pendingStates.remove(key);
+        if (brickState != null) {
+            dispatch(brickState);
+        }
+    }
+
+    private void dispatch(BrickState brickState) {
+        listeners.forEach(listener -> {
+            try {
+                listener.receive(brickState);
+            } catch (RuntimeException e) {
+                LOGGER.error("Listener {} failed to handle brick state {}.", listener, brickState, e);
+            }
+        });
     }
 }
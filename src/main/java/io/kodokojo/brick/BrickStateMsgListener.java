@@ -18,9 +18,14 @@
 package io.kodokojo.brick;
 
 import io.kodokojo.model.BrickState;
+import io.kodokojo.model.UserAdditionState;
 
 public interface BrickStateMsgListener {
 
     void receive(BrickState brickState);
 
+    default void receive(UserAdditionState userAdditionState) {
+        //  Only listeners notifying the users are interested.
+    }
+
 }
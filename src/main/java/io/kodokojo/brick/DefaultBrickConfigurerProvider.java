@@ -22,19 +22,36 @@ import io.kodokojo.model.Brick;
 import io.kodokojo.brick.gitlab.GitlabConfigurer;
 import io.kodokojo.brick.jenkins.JenkinsConfigurer;
 import io.kodokojo.brick.nexus.NexusConfigurer;
+import io.kodokojo.service.OkHttpClientFactory;
 
 import javax.inject.Inject;
 
 public class DefaultBrickConfigurerProvider implements BrickConfigurerProvider {
 
-    private final BrickUrlFactory brickUrlFactory;
+    private final GitlabConfigurer gitlabConfigurer;
+
+    private final JenkinsConfigurer jenkinsConfigurer;
+
+    private final NexusConfigurer nexusConfigurer;
+
+    private final DockerRegistryConfigurer dockerRegistryConfigurer;
 
     @Inject
-    public DefaultBrickConfigurerProvider(BrickUrlFactory brickUrlFactory) {
+    public DefaultBrickConfigurerProvider(BrickUrlFactory brickUrlFactory, OkHttpClientFactory httpClientFactory, UserProvisioner userProvisioner) {
         if (brickUrlFactory == null) {
             throw new IllegalArgumentException("brickUrlFactory must be defined.");
         }
-        this.brickUrlFactory = brickUrlFactory;
+        if (httpClientFactory == null) {
+            throw new IllegalArgumentException("httpClientFactory must be defined.");
+        }
+        if (userProvisioner == null) {
+            throw new IllegalArgumentException("userProvisioner must be defined.");
+        }
+        //  Configurers are stateless, shared by all the bricks.
+        this.gitlabConfigurer = new GitlabConfigurer(brickUrlFactory, httpClientFactory, userProvisioner);
+        this.jenkinsConfigurer = new JenkinsConfigurer(httpClientFactory);
+        this.nexusConfigurer = new NexusConfigurer(httpClientFactory, userProvisioner);
+        this.dockerRegistryConfigurer = new DockerRegistryConfigurer();
     }
 
     @Override
@@ -44,13 +61,13 @@ public class DefaultBrickConfigurerProvider implements BrickConfigurerProvider {
         }
         switch (brick.getName()) {
             case DefaultBrickFactory.GITLAB:
-                return new GitlabConfigurer(brickUrlFactory);
+                return gitlabConfigurer;
             case DefaultBrickFactory.JENKINS:
-                return new JenkinsConfigurer();
+                return jenkinsConfigurer;
             case DefaultBrickFactory.NEXUS:
-                return new NexusConfigurer();
+                return nexusConfigurer;
             case DefaultBrickFactory.DOCKER_REGISTRY:
-                return new DockerRegistryConfigurer();
+                return dockerRegistryConfigurer;
             default:
                 return null;
         }
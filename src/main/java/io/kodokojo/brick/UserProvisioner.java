@@ -0,0 +1,179 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.brick;
+
+import io.kodokojo.model.User;
+import io.kodokojo.service.lifecycle.ApplicationLifeCycleListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Add a batch of users on a brick with a bounded number of concurrent users, and retry the steps which fail on a
+ * transient error. A failure of a user never aborts the others, the outcome of each user is given in a
+ * {@link UserProvisioningReport}.
+ */
+public class UserProvisioner implements ApplicationLifeCycleListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserProvisioner.class);
+
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+    public static final long DEFAULT_RETRY_BACKOFF = 500;
+
+    private final int parallelism;
+
+    private final int maxAttempts;
+
+    private final long retryBackoff;
+
+    private final ExecutorService executor;
+
+    public UserProvisioner(int parallelism, int maxAttempts, long retryBackoff) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be greater than 0.");
+        }
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be greater than 0.");
+        }
+        if (retryBackoff < 0) {
+            throw new IllegalArgumentException("retryBackoff must be positive.");
+        }
+        this.parallelism = parallelism;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "user-provisioner-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static UserProvisioner getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    public UserProvisioningReport provision(List<User> users, UserProvisioning provisioning) {
+        if (users == null) {
+            throw new IllegalArgumentException("users must be defined.");
+        }
+        if (provisioning == null) {
+            throw new IllegalArgumentException("provisioning must be defined.");
+        }
+        UserProvisioningReport report = new UserProvisioningReport();
+        Queue<User> pendings = new ConcurrentLinkedQueue<>(users);
+        int workers = Math.min(parallelism, users.size());
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            futures.add(executor.submit(() -> {
+                User user;
+                while (!Thread.currentThread().isInterrupted() && (user = pendings.poll()) != null) {
+                    provision(user, provisioning, report);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(other -> other.cancel(true));
+                break;
+            } catch (ExecutionException e) {
+                LOGGER.error("Unexpected error while provisioning users.", e.getCause());
+            }
+        }
+        User user;
+        while ((user = pendings.poll()) != null) {
+            report.addFailure(user, "Provisioning interrupted.");
+        }
+        return report;
+    }
+
+    /**
+     * Call <code>callable</code> until it succeeds, fails on an error which isn't transient or runs out of attempts.
+     * Attempts are separated by an exponential backoff.
+     */
+    public <T> T retry(Callable<T> callable, Predicate<Exception> transientFailure) throws Exception {
+        if (callable == null) {
+            throw new IllegalArgumentException("callable must be defined.");
+        }
+        if (transientFailure == null) {
+            throw new IllegalArgumentException("transientFailure must be defined.");
+        }
+        long backoff = retryBackoff;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return callable.call();
+            } catch (Exception e) {
+                if (attempt >= maxAttempts || !transientFailure.test(e)) {
+                    throw e;
+                }
+                LOGGER.debug("Attempt {}/{} failed on a transient error, retry in {} ms: {}", attempt, maxAttempts, backoff, e.getMessage());
+                Thread.sleep(backoff);
+                backoff *= 2;
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        //  Nothing to do.
+    }
+
+    @Override
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private static void provision(User user, UserProvisioning provisioning, UserProvisioningReport report) {
+        try {
+            provisioning.provision(user);
+            report.addProvisioned(user);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.addFailure(user, "Provisioning interrupted.");
+        } catch (Exception e) {
+            LOGGER.error("Unable to provision user {}.", user.getUsername(), e);
+            report.addFailure(user, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    public interface UserProvisioning {
+
+        void provision(User user) throws Exception;
+
+    }
+
+    private static class DefaultHolder {
+
+        private static final UserProvisioner INSTANCE = new UserProvisioner(DEFAULT_PARALLELISM, DEFAULT_MAX_ATTEMPTS, DEFAULT_RETRY_BACKOFF);
+
+    }
+
+}
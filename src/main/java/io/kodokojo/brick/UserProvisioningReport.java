@@ -0,0 +1,72 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.brick;
+
+import io.kodokojo.model.User;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Outcome of the provisioning of each user of a batch on a brick.
+ */
+public class UserProvisioningReport {
+
+    private final Set<String> provisioned;
+
+    private final Map<String, String> failures;
+
+    public UserProvisioningReport() {
+        this.provisioned = new HashSet<>();
+        this.failures = new HashMap<>();
+    }
+
+    public synchronized void addProvisioned(User user) {
+        provisioned.add(user.getUsername());
+    }
+
+    public synchronized void addFailure(User user, String reason) {
+        failures.put(user.getUsername(), reason);
+    }
+
+    public synchronized Set<String> getProvisioned() {
+        return Collections.unmodifiableSet(new HashSet<>(provisioned));
+    }
+
+    /**
+     * @return Reason of the failure by username.
+     */
+    public synchronized Map<String, String> getFailures() {
+        return Collections.unmodifiableMap(new HashMap<>(failures));
+    }
+
+    public synchronized boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "UserProvisioningReport{" +
+                "provisioned=" + provisioned +
+                ", failures=" + failures +
+                '}';
+    }
+}
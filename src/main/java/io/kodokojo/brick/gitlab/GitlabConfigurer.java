@@ -25,7 +25,11 @@ import io.kodokojo.brick.BrickConfigurationException;
 import io.kodokojo.brick.BrickConfigurer;
 import io.kodokojo.brick.BrickConfigurerData;
 import io.kodokojo.brick.BrickUrlFactory;
+import io.kodokojo.brick.UserProvisioner;
+import io.kodokojo.brick.UserProvisioningException;
+import io.kodokojo.brick.UserProvisioningReport;
 import io.kodokojo.model.User;
+import io.kodokojo.service.OkHttpClientFactory;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -35,14 +39,9 @@ import retrofit.RetrofitError;
 import retrofit.client.OkClient;
 
 import javax.inject.Inject;
-import javax.net.ssl.*;
 import java.io.IOException;
 import java.net.*;
-import java.security.SecureRandom;
-import java.security.cert.CertificateException;
-import java.security.cert.X509Certificate;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -76,18 +75,30 @@ public class GitlabConfigurer implements BrickConfigurer {
 
     private final BrickUrlFactory brickUrlFactory;
 
+    private final OkHttpClientFactory httpClientFactory;
+
+    private final UserProvisioner userProvisioner;
+
     @Inject
-    public GitlabConfigurer(BrickUrlFactory brickUrlFactory) {
+    public GitlabConfigurer(BrickUrlFactory brickUrlFactory, OkHttpClientFactory httpClientFactory, UserProvisioner userProvisioner) {
         if (brickUrlFactory == null) {
             throw new IllegalArgumentException("brickUrlFactory must be defined.");
         }
+        if (httpClientFactory == null) {
+            throw new IllegalArgumentException("httpClientFactory must be defined.");
+        }
+        if (userProvisioner == null) {
+            throw new IllegalArgumentException("userProvisioner must be defined.");
+        }
         this.brickUrlFactory = brickUrlFactory;
+        this.httpClientFactory = httpClientFactory;
+        this.userProvisioner = userProvisioner;
     }
 
     @Override
     public BrickConfigurerData configure(BrickConfigurerData brickConfigurerData) throws BrickConfigurationException {
         String gitlabUrl = getGitlabEntryPoint(brickConfigurerData);
-        OkHttpClient httpClient = provideDefaultOkHttpClient();
+        OkHttpClient httpClient = provideOkHttpClient(httpClientFactory);
         if (signIn(httpClient, gitlabUrl, ROOT_LOGIN, OLD_PASSWORD)) {
             String token = getAuthenticityToken(httpClient, gitlabUrl + PASSWORD_FORM_URL, META_TOKEN_PATTERN);
             String newPassword = brickConfigurerData.getDefaultAdmin().getPassword();
@@ -143,13 +154,12 @@ public class GitlabConfigurer implements BrickConfigurer {
         }
 
         String gitlabEntryPoint = getGitlabEntryPoint(brickConfigurerData);
-        RestAdapter adapter = new RestAdapter.Builder().setEndpoint(gitlabEntryPoint).setClient(new OkClient(provideDefaultOkHttpClient())).build();
+        RestAdapter adapter = new RestAdapter.Builder().setEndpoint(gitlabEntryPoint).setClient(new OkClient(provideOkHttpClient(httpClientFactory))).build();
         GitlabRest gitlabRest = adapter.create(GitlabRest.class);
         String privateToken = (String) brickConfigurerData.getContext().get(GITLAB_ADMIN_TOKEN_KEY);
-        for (User user : users) {
-            if (!createUser(gitlabRest, privateToken, user)) {
-                throw new BrickConfigurationException("Unable to create user '" + user.getUsername() + "' for project " + brickConfigurerData.getProjectName() + " on url " + gitlabEntryPoint);
-            }
+        UserProvisioningReport report = userProvisioner.provision(users, user -> createUser(gitlabRest, privateToken, user));
+        if (!report.isSuccessful()) {
+            throw new UserProvisioningException("Unable to create users " + StringUtils.join(report.getFailures().keySet(), ",") + " for project " + brickConfigurerData.getProjectName() + " on url " + gitlabEntryPoint, report);
         }
 
         return brickConfigurerData;
@@ -244,39 +254,25 @@ public class GitlabConfigurer implements BrickConfigurer {
         return null;
     }
 
-    private boolean createUser(GitlabRest gitlabRest, String privateToken, User user) {
-        Response response = null;
-        int id = -1;
-        try {
-            JsonObject jsonObject = gitlabRest.createUser(privateToken, user.getUsername(), user.getPassword(), user.getEmail(), user.getName(), "false");
-            if (LOGGER.isTraceEnabled()) {
-                LOGGER.trace(jsonObject.toString());
-            }
+    private void createUser(GitlabRest gitlabRest, String privateToken, User user) throws Exception {
+        JsonObject jsonObject = gitlabRest.createUser(privateToken, user.getUsername(), user.getPassword(), user.getEmail(), user.getName(), "false");
+        if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace(jsonObject.toString());
+        }
+        String id = jsonObject.getAsJsonPrimitive("id").getAsString();
 
-            id = jsonObject.getAsJsonPrimitive("id").getAsInt();
-        } catch (RetrofitError e) {
-            LOGGER.error("unable to complete creation of user : ", e);
+        //  Gitlab may answer an internal error while the user it just created isn't fully available.
+        Response response = userProvisioner.retry(() -> gitlabRest.addSshKey(privateToken, id, "SSH Key", user.getSshPublicKey()), GitlabConfigurer::isServerError);
+        //  Gitlab may return a non 20X HTTP code even when the SSH key is added.
+        if (response != null) {
+            IOUtils.closeQuietly(response.body());
         }
+    }
 
-        if (id != -1) {
-            try {
-                try {
-                    Thread.sleep(500); // We encount some cases where Gitlab throw a 500 internal error while post the SSH key. Test if let some time to Gitlab to add user will resolv this issue ?
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-                response = gitlabRest.addSshKey(privateToken, Integer.toString(id), "SSH Key", user.getSshPublicKey());
-                return true;
-                //return response.code() >= 200 && response.code() < 300; return a non 20X HTTP code when success to push the SSH key...
-                //  Have a look on the HAproxy timeout ?
-
-            } catch (RetrofitError e) {
-                LOGGER.error("unable to add SSH keys creation of user : ", e);
-            } finally {
-                if (response != null) {
-                    IOUtils.closeQuietly(response.body());
-                }
-            }
+    private static boolean isServerError(Exception e) {
+        if (e instanceof RetrofitError) {
+            retrofit.client.Response response = ((RetrofitError) e).getResponse();
+            return response != null && response.getStatus() >= 500;
         }
         return false;
     }
@@ -290,46 +286,9 @@ public class GitlabConfigurer implements BrickConfigurer {
         return token;
     }
 
-    public static OkHttpClient provideDefaultOkHttpClient() {
-        OkHttpClient httpClient = new OkHttpClient();
-        final TrustManager[] certs = new TrustManager[]{new X509TrustManager() {
-
-            @Override
-            public X509Certificate[] getAcceptedIssuers() {
-                return null;
-            }
-
-            @Override
-            public void checkServerTrusted(final X509Certificate[] chain,
-                                           final String authType) throws CertificateException {
-            }
-
-            @Override
-            public void checkClientTrusted(final X509Certificate[] chain,
-                                           final String authType) throws CertificateException {
-            }
-        }};
-
-        SSLContext ctx = null;
-        try {
-            ctx = SSLContext.getInstance("TLS");
-            ctx.init(null, certs, new SecureRandom());
-        } catch (final java.security.GeneralSecurityException ex) {
-            //
-        }
-        httpClient.setHostnameVerifier(new HostnameVerifier() {
-            @Override
-            public boolean verify(String s, SSLSession sslSession) {
-                return true;
-            }
-        });
-        httpClient.setSslSocketFactory(ctx.getSocketFactory());
-        CookieManager cookieManager = new CookieManager(new GitlabCookieStore(), CookiePolicy.ACCEPT_ALL);
-        httpClient.setCookieHandler(cookieManager);
-        httpClient.setReadTimeout(2, TimeUnit.MINUTES);
-        httpClient.setConnectTimeout(1, TimeUnit.MINUTES);
-        httpClient.setWriteTimeout(1, TimeUnit.MINUTES);
-        return httpClient;
+    //  Each session gets its own cookies, so concurrent configurations never share a Gitlab session.
+    public static OkHttpClient provideOkHttpClient(OkHttpClientFactory httpClientFactory) {
+        return httpClientFactory.brickSessionClient(new CookieManager(new GitlabCookieStore(), CookiePolicy.ACCEPT_ALL));
     }
 
     private static class GitlabCookieStore implements CookieStore {
@@ -22,23 +22,18 @@ import com.squareup.okhttp.*;
 import io.kodokojo.brick.BrickConfigurer;
 import io.kodokojo.brick.BrickConfigurerData;
 import io.kodokojo.model.User;
+import io.kodokojo.service.OkHttpClientFactory;
+import io.kodokojo.service.VelocityTemplateRenderer;
 import org.apache.commons.io.IOUtils;
-import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.VelocityEngine;
-import org.apache.velocity.runtime.RuntimeConstants;
-import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
 
+import javax.inject.Inject;
 import java.io.IOException;
-import java.io.StringWriter;
 import java.util.Base64;
 import java.util.List;
-import java.util.Properties;
 
 public class JenkinsConfigurer implements BrickConfigurer {
 
-    private static final Properties VE_PROPERTIES = new Properties();
-
     private static final String SCRIPT_URL_SUFFIX = "/scriptText";
 
     private static final String INIT_JENKINS_GROOVY_VM = "init_jenkins.groovy.vm";
@@ -48,10 +43,14 @@ public class JenkinsConfigurer implements BrickConfigurer {
 
     private static final String SCRIPT_KEY = "script";
 
-    static {
-        VE_PROPERTIES.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
-        VE_PROPERTIES.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
-        VE_PROPERTIES.setProperty("runtime.log.logsystem.class", "org.apache.velocity.runtime.log.NullLogChute");
+    private final OkHttpClientFactory httpClientFactory;
+
+    @Inject
+    public JenkinsConfigurer(OkHttpClientFactory httpClientFactory) {
+        if (httpClientFactory == null) {
+            throw new IllegalArgumentException("httpClientFactory must be defined.");
+        }
+        this.httpClientFactory = httpClientFactory;
     }
 
     @Override
@@ -74,19 +73,10 @@ public class JenkinsConfigurer implements BrickConfigurer {
 
     private BrickConfigurerData executeGroovyScript(BrickConfigurerData brickConfigurerData, VelocityContext context, String templatePath) {
         String url = brickConfigurerData.getEntrypoint() + SCRIPT_URL_SUFFIX;
-        OkHttpClient httpClient = new OkHttpClient();
+        OkHttpClient httpClient = httpClientFactory.brickClient();
         Response response = null;
         try {
-            VelocityEngine ve = new VelocityEngine();
-            ve.init(VE_PROPERTIES);
-
-
-            Template template = ve.getTemplate(templatePath);
-
-
-            StringWriter sw = new StringWriter();
-            template.merge(context, sw);
-            String script = sw.toString();
+            String script = VelocityTemplateRenderer.getInstance().render(templatePath, context);
 
             RequestBody body = new FormEncodingBuilder().add(SCRIPT_KEY, script).build();
 
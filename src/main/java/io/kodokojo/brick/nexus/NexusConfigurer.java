@@ -21,11 +21,17 @@ import com.squareup.okhttp.*;
 import io.kodokojo.brick.BrickConfigurationException;
 import io.kodokojo.brick.BrickConfigurer;
 import io.kodokojo.brick.BrickConfigurerData;
+import io.kodokojo.brick.UserProvisioner;
+import io.kodokojo.brick.UserProvisioningException;
+import io.kodokojo.brick.UserProvisioningReport;
 import io.kodokojo.model.User;
+import io.kodokojo.service.OkHttpClientFactory;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.inject.Inject;
 import java.io.IOException;
 import java.util.Base64;
 import java.util.List;
@@ -40,6 +46,22 @@ public class NexusConfigurer implements BrickConfigurer {
 
     public static final String DEPLOYMENT_ACCOUNT_NAME = "deployment";
 
+    private final OkHttpClientFactory httpClientFactory;
+
+    private final UserProvisioner userProvisioner;
+
+    @Inject
+    public NexusConfigurer(OkHttpClientFactory httpClientFactory, UserProvisioner userProvisioner) {
+        if (httpClientFactory == null) {
+            throw new IllegalArgumentException("httpClientFactory must be defined.");
+        }
+        if (userProvisioner == null) {
+            throw new IllegalArgumentException("userProvisioner must be defined.");
+        }
+        this.httpClientFactory = httpClientFactory;
+        this.userProvisioner = userProvisioner;
+    }
+
     @Override
     public BrickConfigurerData configure(BrickConfigurerData brickConfigurerData) throws BrickConfigurationException {
 
@@ -65,17 +87,20 @@ public class NexusConfigurer implements BrickConfigurer {
         }
         OkHttpClient httpClient = provideHttpClient();
         String adminPassword = brickConfigurerData.getDefaultAdmin().getPassword();
-        for (User user : users) {
+        UserProvisioningReport report = userProvisioner.provision(users, user -> {
             String xmlBody = getCreatUserXmlBody(user);
             if (!createUser(httpClient, brickConfigurerData.getEntrypoint(), xmlBody, ADMIN_ACCOUNT_NAME, adminPassword)) {
-                throw new BrickConfigurationException("Unable to add user '" + user.getUsername() + "' on nexus " + brickConfigurerData.getEntrypoint());
+                throw new BrickConfigurationException("Nexus refused to add user '" + user.getUsername() + "'.");
             }
+        });
+        if (!report.isSuccessful()) {
+            throw new UserProvisioningException("Unable to add users " + StringUtils.join(report.getFailures().keySet(), ",") + " on nexus " + brickConfigurerData.getEntrypoint(), report);
         }
         return brickConfigurerData;
     }
 
     protected OkHttpClient provideHttpClient() {
-        return new OkHttpClient();
+        return httpClientFactory.brickClient();
     }
 
     private boolean executeRequest(OkHttpClient httpClient, String url, String xmlBody, String login, String password) {
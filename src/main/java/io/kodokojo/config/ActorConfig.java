@@ -0,0 +1,37 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.config;
+
+import io.kodokojo.commons.utils.properties.Key;
+import io.kodokojo.commons.utils.properties.PropertyConfig;
+
+public interface ActorConfig extends PropertyConfig {
+
+    String BRICK_START_POOL_SIZE = "actor.brickStart.poolSize";
+
+    String BRICK_START_ROUTEES = "actor.brickStart.routees";
+
+    //  Number of threads of the dispatcher running the blocking steps of brick starts (certificate, deploy, configure).
+    @Key(value = BRICK_START_POOL_SIZE, defaultValue = "32")
+    Integer brickStartPoolSize();
+
+    //  Number of actors receiving brick start requests, each of them may have many brick starts in flight.
+    @Key(value = BRICK_START_ROUTEES, defaultValue = "4")
+    Integer brickStartRoutees();
+
+}
@@ -0,0 +1,35 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.config;
+
+import io.kodokojo.commons.utils.properties.Key;
+import io.kodokojo.commons.utils.properties.PropertyConfig;
+
+public interface BrickStateConfig extends PropertyConfig {
+
+    String BRICK_STATE_COALESCING_WINDOW = "brick.state.coalescing.window";
+
+    //  Duration in milliseconds during which successive states of a same brick are collapsed, 0 to disable.
+    @Key(value = BRICK_STATE_COALESCING_WINDOW, defaultValue = "0")
+    Long coalescingWindow();
+
+    //  Maximum time in milliseconds a brick waits for its prerequisites, it is started anyway once elapsed.
+    @Key(value = "brick.prerequisite.timeout", defaultValue = "1800000")
+    Long prerequisiteTimeout();
+
+}
@@ -0,0 +1,51 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.config;
+
+import io.kodokojo.commons.utils.properties.Key;
+import io.kodokojo.commons.utils.properties.PropertyConfig;
+
+public interface HttpClientConfig extends PropertyConfig {
+
+    @Key(value = "http.maxIdleConnections", defaultValue = "16")
+    Integer maxIdleConnections();
+
+    //  In milliseconds.
+    @Key(value = "http.keepAliveDuration", defaultValue = "300000")
+    Long keepAliveDuration();
+
+    @Key(value = "http.maxRequestsPerHost", defaultValue = "16")
+    Integer maxRequestsPerHost();
+
+    //  In milliseconds.
+    @Key(value = "http.marathon.connectTimeout", defaultValue = "10000")
+    Long marathonConnectTimeout();
+
+    //  In milliseconds.
+    @Key(value = "http.marathon.readTimeout", defaultValue = "30000")
+    Long marathonReadTimeout();
+
+    //  In milliseconds, bricks may be slow to answer while they finish to boot.
+    @Key(value = "http.brick.connectTimeout", defaultValue = "60000")
+    Long brickConnectTimeout();
+
+    //  In milliseconds.
+    @Key(value = "http.brick.readTimeout", defaultValue = "120000")
+    Long brickReadTimeout();
+
+}
@@ -25,4 +25,8 @@ public interface MarathonConfig extends PropertyConfig {
     @Key("marathon.url")
     String url();
 
+    //  Maximum time to wait a brick is reported ready by the Marathon event stream, in milliseconds.
+    @Key(value = "marathon.brickStartTimeout", defaultValue = "1000000")
+    Long brickStartTimeout();
+
 }
@@ -22,14 +22,86 @@ import io.kodokojo.commons.utils.properties.PropertyConfig;
 
 public interface RedisConfig extends PropertyConfig {
 
+    String REDIS_MODE = "redis.mode";
+
     String REDIS_HOST = "redis.host";
 
     String REDIS_PORT = "redis.port";
 
+    String REDIS_CACHE_MAX_SIZE = "redis.cache.maxSize";
+
+    String REDIS_CACHE_TTL = "redis.cache.ttl";
+
+    String REDIS_ID_LEASE_SIZE = "redis.id.leaseSize";
+
+    String REDIS_TIMEOUT = "redis.timeout";
+
+    String REDIS_POOL_MAX_TOTAL = "redis.pool.maxTotal";
+
+    String REDIS_POOL_MAX_IDLE = "redis.pool.maxIdle";
+
+    String REDIS_POOL_MIN_IDLE = "redis.pool.minIdle";
+
+    String REDIS_POOL_MAX_WAIT = "redis.pool.maxWait";
+
+    String REDIS_POOL_TEST_ON_BORROW = "redis.pool.testOnBorrow";
+
+    String REDIS_SENTINEL_MASTER = "redis.sentinel.master";
+
+    String REDIS_SENTINEL_NODES = "redis.sentinel.nodes";
+
+    String REDIS_CLUSTER_NODES = "redis.cluster.nodes";
+
+    //  "standalone" to use redis.host and redis.port, "sentinel" or "cluster" to use the matching nodes.
+    @Key(value = REDIS_MODE, defaultValue = "standalone")
+    String mode();
+
     @Key(value = REDIS_HOST, defaultValue = "redis")
     String host();
 
     @Key(value = REDIS_PORT, defaultValue = "6379")
     Integer port();
 
+    @Key(value = REDIS_CACHE_MAX_SIZE, defaultValue = "512")
+    Integer cacheMaxSize();
+
+    @Key(value = REDIS_CACHE_TTL, defaultValue = "30000")
+    Long cacheTtl();
+
+    //  Number of identifier counter values reserved on each Redis round trip, 1 to not lease any.
+    @Key(value = REDIS_ID_LEASE_SIZE, defaultValue = "1")
+    Integer idLeaseSize();
+
+    //  Connection and socket timeout, in milliseconds.
+    @Key(value = REDIS_TIMEOUT, defaultValue = "2000")
+    Integer timeout();
+
+    @Key(value = REDIS_POOL_MAX_TOTAL, defaultValue = "64")
+    Integer poolMaxTotal();
+
+    @Key(value = REDIS_POOL_MAX_IDLE, defaultValue = "32")
+    Integer poolMaxIdle();
+
+    @Key(value = REDIS_POOL_MIN_IDLE, defaultValue = "4")
+    Integer poolMinIdle();
+
+    //  Maximum time to wait a connection when the pool is exhausted, in milliseconds.
+    @Key(value = REDIS_POOL_MAX_WAIT, defaultValue = "2000")
+    Long poolMaxWait();
+
+    //  "true" to validate connections with a PING before borrowing them.
+    @Key(value = REDIS_POOL_TEST_ON_BORROW, defaultValue = "false")
+    String poolTestOnBorrow();
+
+    @Key(value = REDIS_SENTINEL_MASTER, defaultValue = "kodokojo")
+    String sentinelMaster();
+
+    //  Comma separated list of host:port.
+    @Key(value = REDIS_SENTINEL_NODES, defaultValue = "redis:26379")
+    String sentinelNodes();
+
+    //  Comma separated list of host:port, other nodes of the cluster are discovered from them.
+    @Key(value = REDIS_CLUSTER_NODES, defaultValue = "redis:6379")
+    String clusterNodes();
+
 }
@@ -36,4 +36,10 @@ public interface SecurityConfig extends PropertyConfig {
     @Key("security.ssl.rootCa.ks.password")
     String sslRootCaKsPassword();
 
+    @Key(value = "security.authentication.cache.maxSize", defaultValue = "1024")
+    Integer authenticationCacheMaxSize();
+
+    @Key(value = "security.authentication.cache.ttl", defaultValue = "10000")
+    Long authenticationCacheTtl();
+
 }
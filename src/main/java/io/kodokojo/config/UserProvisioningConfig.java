@@ -0,0 +1,41 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.config;
+
+import io.kodokojo.commons.utils.properties.Key;
+import io.kodokojo.commons.utils.properties.PropertyConfig;
+
+public interface UserProvisioningConfig extends PropertyConfig {
+
+    //  Maximum number of users added concurrently on a brick.
+    @Key(value = "brick.users.parallelism", defaultValue = "4")
+    Integer parallelism();
+
+    //  Maximum number of attempts of a step which failed on a transient error.
+    @Key(value = "brick.users.maxAttempts", defaultValue = "5")
+    Integer maxAttempts();
+
+    //  Delay before the first retry in milliseconds, doubled on each following retry.
+    @Key(value = "brick.users.retryBackoff", defaultValue = "500")
+    Long retryBackoff();
+
+    //  Maximum number of bricks on which users are added concurrently, all projects included.
+    @Key(value = "brick.users.brickParallelism", defaultValue = "8")
+    Integer brickParallelism();
+
+}
@@ -0,0 +1,36 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.config;
+
+import io.kodokojo.commons.utils.properties.Key;
+import io.kodokojo.commons.utils.properties.PropertyConfig;
+
+public interface WebSocketConfig extends PropertyConfig {
+
+    String WEBSOCKET_OUTBOUND_QUEUE_CAPACITY = "websocket.outbound.queue.capacity";
+
+    String WEBSOCKET_OUTBOUND_OVERFLOW_POLICY = "websocket.outbound.overflowPolicy";
+
+    @Key(value = WEBSOCKET_OUTBOUND_QUEUE_CAPACITY, defaultValue = "256")
+    Integer outboundQueueCapacity();
+
+    //  One of DROP_OLDEST, COALESCE_BY_BRICK or DISCONNECT.
+    @Key(value = WEBSOCKET_OUTBOUND_OVERFLOW_POLICY, defaultValue = "COALESCE_BY_BRICK")
+    String outboundOverflowPolicy();
+
+}
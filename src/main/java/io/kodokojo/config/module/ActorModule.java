@@ -24,7 +24,10 @@ import akka.routing.RoundRobinPool;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
 import io.kodokojo.brick.BrickUrlFactory;
+import io.kodokojo.config.ActorConfig;
 import io.kodokojo.service.BrickManager;
 import io.kodokojo.brick.BrickConfigurationStarter;
 import io.kodokojo.brick.BrickStateMsgDispatcher;
@@ -41,14 +44,32 @@ public class ActorModule extends AbstractModule {
 
     @Override
     protected void configure() {
-        bind(ActorSystem.class).toInstance(ActorSystem.apply("kodokojo"));
+        //  Nothing to do.
+    }
+
+    @Provides
+    @Singleton
+    ActorSystem provideActorSystem(ActorConfig actorConfig) {
+        int poolSize = actorConfig.brickStartPoolSize();
+        //  Brick starts block on certificate generation, Marathon and brick APIs, keep them away from the default dispatcher.
+        Config dispatcherConfig = ConfigFactory.parseString(BrickConfigurationStarterActor.DISPATCHER_NAME + " {\n" +
+                "  type = Dispatcher\n" +
+                "  executor = \"thread-pool-executor\"\n" +
+                "  thread-pool-executor {\n" +
+                "    core-pool-size-min = " + poolSize + "\n" +
+                "    core-pool-size-max = " + poolSize + "\n" +
+                "  }\n" +
+                "  throughput = 1\n" +
+                "}");
+        return ActorSystem.create("kodokojo", dispatcherConfig.withFallback(ConfigFactory.load()));
     }
 
     @Provides
     @Named("brickConfigurationStarter")
-    ActorRef provideBrickConfigurationStarterActor(ActorSystem system, BrickManager brickManager, ConfigurationStore configurationStore, BrickUrlFactory brickUrlFactory, SSLCertificatProvider sslCertificatProvider, @Named("brickStateMsgEndpoint")  ActorRef stateListener) {
-        //TODO Put Router configuration in file.
-        return system.actorOf(new RoundRobinPool(4).props(Props.create(BrickConfigurationStarterActor.class, brickManager, configurationStore, brickUrlFactory,sslCertificatProvider, stateListener)),"brickConfigurationStarter");
+    ActorRef provideBrickConfigurationStarterActor(ActorSystem system, ActorConfig actorConfig, BrickManager brickManager, ConfigurationStore configurationStore, BrickUrlFactory brickUrlFactory, SSLCertificatProvider sslCertificatProvider, @Named("brickStateMsgEndpoint")  ActorRef stateListener) {
+        Props props = Props.create(BrickConfigurationStarterActor.class, brickManager, configurationStore, brickUrlFactory, sslCertificatProvider, stateListener)
+                .withDispatcher(BrickConfigurationStarterActor.DISPATCHER_NAME);
+        return system.actorOf(new RoundRobinPool(actorConfig.brickStartRoutees()).props(props), "brickConfigurationStarter");
     }
 
     @Provides
@@ -28,8 +28,11 @@ import io.kodokojo.config.ApplicationConfig;
 import io.kodokojo.config.MarathonConfig;
 import io.kodokojo.service.BrickManager;
 import io.kodokojo.service.ConfigurationStore;
+import io.kodokojo.service.OkHttpClientFactory;
 import io.kodokojo.service.marathon.MarathonBrickManager;
 import io.kodokojo.service.marathon.MarathonConfigurationStore;
+import io.kodokojo.service.marathon.MarathonEventSubscriber;
+import io.kodokojo.service.lifecycle.ApplicationLifeCycleManager;
 import io.kodokojo.service.store.ProjectStore;
 
 public class MarathonModule extends AbstractModule {
@@ -46,14 +49,25 @@ public class MarathonModule extends AbstractModule {
 
     @Provides
     @Singleton
-    BrickManager provideBrickManager(MarathonConfig marathonConfig, BrickConfigurerProvider brickConfigurerProvider, ApplicationConfig applicationConfig, ProjectStore projectStore, BrickUrlFactory brickUrlFactory) {
+    MarathonEventSubscriber provideMarathonEventSubscriber(MarathonConfig marathonConfig, OkHttpClientFactory httpClientFactory, ApplicationLifeCycleManager applicationLifeCycleManager) {
+        MarathonEventSubscriber marathonEventSubscriber = new MarathonEventSubscriber(marathonConfig.url(), httpClientFactory);
+        marathonEventSubscriber.start();
+        applicationLifeCycleManager.addService(marathonEventSubscriber);
+        return marathonEventSubscriber;
+    }
+
+    @Provides
+    @Singleton
+    BrickManager provideBrickManager(MarathonConfig marathonConfig, BrickConfigurerProvider brickConfigurerProvider, ApplicationConfig applicationConfig, ProjectStore projectStore, BrickUrlFactory brickUrlFactory, MarathonEventSubscriber marathonEventSubscriber, OkHttpClientFactory httpClientFactory, ApplicationLifeCycleManager applicationLifeCycleManager) {
         MarathonServiceLocator marathonServiceLocator = new MarathonServiceLocator(marathonConfig.url());
-        return new MarathonBrickManager(marathonConfig.url(), marathonServiceLocator, brickConfigurerProvider, projectStore, applicationConfig.domain(), brickUrlFactory);
+        MarathonBrickManager brickManager = new MarathonBrickManager(marathonConfig.url(), marathonServiceLocator, brickConfigurerProvider, projectStore, true, applicationConfig.domain(), brickUrlFactory, marathonEventSubscriber, httpClientFactory, marathonConfig.brickStartTimeout());
+        applicationLifeCycleManager.addService(brickManager);
+        return brickManager;
     }
 
     @Provides
     @Singleton
-    ConfigurationStore provideConfigurationStore(MarathonConfig marathonConfig) {
-        return new MarathonConfigurationStore(marathonConfig.url());
+    ConfigurationStore provideConfigurationStore(MarathonConfig marathonConfig, OkHttpClientFactory httpClientFactory) {
+        return new MarathonConfigurationStore(marathonConfig.url(), httpClientFactory);
     }
 }
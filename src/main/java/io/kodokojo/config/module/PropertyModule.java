@@ -124,6 +124,36 @@ public class PropertyModule extends AbstractModule {
         return createConfig(EmailConfig.class, valueProvider);
     }
 
+    @Provides
+    @Singleton
+    WebSocketConfig provideWebSocketConfig(PropertyValueProvider valueProvider) {
+        return createConfig(WebSocketConfig.class, valueProvider);
+    }
+
+    @Provides
+    @Singleton
+    BrickStateConfig provideBrickStateConfig(PropertyValueProvider valueProvider) {
+        return createConfig(BrickStateConfig.class, valueProvider);
+    }
+
+    @Provides
+    @Singleton
+    ActorConfig provideActorConfig(PropertyValueProvider valueProvider) {
+        return createConfig(ActorConfig.class, valueProvider);
+    }
+
+    @Provides
+    @Singleton
+    HttpClientConfig provideHttpClientConfig(PropertyValueProvider valueProvider) {
+        return createConfig(HttpClientConfig.class, valueProvider);
+    }
+
+    @Provides
+    @Singleton
+    UserProvisioningConfig provideUserProvisioningConfig(PropertyValueProvider valueProvider) {
+        return createConfig(UserProvisioningConfig.class, valueProvider);
+    }
+
     private <T extends PropertyConfig> T createConfig(Class<T> configClass, PropertyValueProvider valueProvider) {
         PropertyResolver resolver = new PropertyResolver(valueProvider);
         return resolver.createProxy(configClass);
@@ -24,6 +24,11 @@ import io.kodokojo.brick.BrickFactory;
 import io.kodokojo.config.ApplicationConfig;
 import io.kodokojo.config.RedisConfig;
 import io.kodokojo.service.BootstrapConfigurationProvider;
+import io.kodokojo.service.jmx.JmxUtils;
+import io.kodokojo.service.redis.MonitoredJedisPool;
+import io.kodokojo.service.redis.MonitoredJedisSentinelPool;
+import io.kodokojo.service.redis.RedisClusterPool;
+import io.kodokojo.service.redis.RedisMode;
 import io.kodokojo.service.redis.RedisEntityStore;
 import io.kodokojo.service.redis.RedisUserStore;
 import io.kodokojo.service.store.EntityStore;
@@ -33,8 +38,16 @@ import io.kodokojo.service.store.UserStore;
 import io.kodokojo.service.redis.RedisBootstrapConfigurationProvider;
 import io.kodokojo.service.redis.RedisProjectStore;
 
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.util.Pool;
+
 import javax.crypto.SecretKey;
 import javax.inject.Named;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class RedisModule extends AbstractModule {
 
@@ -48,32 +61,79 @@ public class RedisModule extends AbstractModule {
 
     @Provides
     @Singleton
-    UserStore provideRediUserManager(@Named("securityKey")SecretKey secretKey, RedisConfig redisConfig, ApplicationLifeCycleManager applicationLifeCycleManager) {
-        RedisUserStore redisUserManager = new RedisUserStore(secretKey, redisConfig.host(), redisConfig.port());
+    Pool<Jedis> provideJedisPool(RedisConfig redisConfig, ApplicationLifeCycleManager applicationLifeCycleManager) {
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(redisConfig.poolMaxTotal());
+        poolConfig.setMaxIdle(redisConfig.poolMaxIdle());
+        poolConfig.setMinIdle(redisConfig.poolMinIdle());
+        poolConfig.setMaxWaitMillis(redisConfig.poolMaxWait());
+        poolConfig.setBlockWhenExhausted(true);
+        poolConfig.setTestOnBorrow(Boolean.parseBoolean(redisConfig.poolTestOnBorrow()));
+        RedisMode mode = RedisMode.valueOf(redisConfig.mode().toUpperCase());
+        switch (mode) {
+            case SENTINEL:
+                Set<String> sentinels = parseNodes(redisConfig.sentinelNodes());
+                MonitoredJedisSentinelPool sentinelPool = new MonitoredJedisSentinelPool(redisConfig.sentinelMaster(), sentinels, poolConfig, redisConfig.timeout(), redisConfig.timeout());
+                JmxUtils.registerMBean("Redis", "pool", sentinelPool);
+                applicationLifeCycleManager.addService(sentinelPool);
+                return sentinelPool;
+            case CLUSTER:
+                //  The pool configuration applies to the pool of each cluster node.
+                Set<HostAndPort> nodes = parseNodes(redisConfig.clusterNodes()).stream().map(RedisModule::toHostAndPort).collect(Collectors.toSet());
+                RedisClusterPool clusterPool = new RedisClusterPool(nodes, poolConfig, redisConfig.timeout(), redisConfig.timeout());
+                JmxUtils.registerMBean("Redis", "pool", clusterPool);
+                applicationLifeCycleManager.addService(clusterPool);
+                return clusterPool;
+            default:
+                MonitoredJedisPool pool = new MonitoredJedisPool(poolConfig, redisConfig.host(), redisConfig.port(), redisConfig.timeout(), redisConfig.timeout());
+                JmxUtils.registerMBean("Redis", "pool", pool);
+                applicationLifeCycleManager.addService(pool);
+                return pool;
+        }
+    }
+
+    private static Set<String> parseNodes(String nodes) {
+        return Arrays.stream(nodes.split(",")).map(String::trim).filter(node -> !node.isEmpty()).collect(Collectors.toSet());
+    }
+
+    private static HostAndPort toHostAndPort(String node) {
+        int separator = node.lastIndexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Redis node " + node + " must be defined as host:port.");
+        }
+        return new HostAndPort(node.substring(0, separator), Integer.parseInt(node.substring(separator + 1)));
+    }
+
+    @Provides
+    @Singleton
+    UserStore provideRediUserManager(@Named("securityKey")SecretKey secretKey, RedisConfig redisConfig, Pool<Jedis> pool, ApplicationLifeCycleManager applicationLifeCycleManager) {
+        RedisUserStore redisUserManager = new RedisUserStore(secretKey, pool, RedisUserStore.DEFAULT_NEW_ID_TTL, redisConfig.idLeaseSize());
         applicationLifeCycleManager.addService(redisUserManager);
         return redisUserManager;
     }
 
     @Provides
     @Singleton
-    BootstrapConfigurationProvider provideBootstrapConfigurationProvider(ApplicationConfig applicationConfig, RedisConfig redisConfig, ApplicationLifeCycleManager applicationLifeCycleManager) {
-        RedisBootstrapConfigurationProvider redisBootstrapConfigurationProvider = new RedisBootstrapConfigurationProvider(redisConfig.host(), redisConfig.port(), applicationConfig.loadbalancerHost(), applicationConfig.initialSshPort());
+    BootstrapConfigurationProvider provideBootstrapConfigurationProvider(ApplicationConfig applicationConfig, Pool<Jedis> pool, ApplicationLifeCycleManager applicationLifeCycleManager) {
+        RedisBootstrapConfigurationProvider redisBootstrapConfigurationProvider = new RedisBootstrapConfigurationProvider(pool, applicationConfig.loadbalancerHost(), applicationConfig.initialSshPort());
         applicationLifeCycleManager.addService(redisBootstrapConfigurationProvider);
         return redisBootstrapConfigurationProvider;
     }
 
     @Provides
     @Singleton
-    EntityStore provideEntityStore(@Named("securityKey") SecretKey key, RedisConfig redisConfig, ApplicationLifeCycleManager applicationLifeCycleManager) {
-        RedisEntityStore entityStore = new RedisEntityStore(key, redisConfig.host(), redisConfig.port());
+    EntityStore provideEntityStore(@Named("securityKey") SecretKey key, RedisConfig redisConfig, Pool<Jedis> pool, ApplicationLifeCycleManager applicationLifeCycleManager) {
+        RedisEntityStore entityStore = new RedisEntityStore(key, pool, redisConfig.idLeaseSize());
         applicationLifeCycleManager.addService(entityStore);
         return entityStore;
     }
 
     @Provides
     @Singleton
-    ProjectStore provideProjectStore(@Named("securityKey") SecretKey key, RedisConfig redisConfig, BrickFactory brickFactory, ApplicationLifeCycleManager applicationLifeCycleManager) {
-        RedisProjectStore redisProjectStore = new RedisProjectStore(key, redisConfig.host(), redisConfig.port(), brickFactory);
+    ProjectStore provideProjectStore(@Named("securityKey") SecretKey key, RedisConfig redisConfig, Pool<Jedis> pool, BrickFactory brickFactory, ApplicationLifeCycleManager applicationLifeCycleManager) {
+        RedisProjectStore redisProjectStore = new RedisProjectStore(key, pool, brickFactory, redisConfig.cacheMaxSize(), redisConfig.cacheTtl(), redisConfig.idLeaseSize());
+        JmxUtils.registerMBean("Cache", "projectConfiguration", redisProjectStore.getProjectConfigurationCacheStatistics());
+        JmxUtils.registerMBean("Cache", "project", redisProjectStore.getProjectCacheStatistics());
         applicationLifeCycleManager.addService(redisProjectStore);
         return redisProjectStore;
     }
@@ -44,6 +44,6 @@ public class RedisUserManagerProvider implements Provider<RedisUserStore> {
     public RedisUserStore get() {
         SecretKey secretKey = secretKeyProvider.get();
         RedisConfig redisConfig = redisConfigProvider.get();
-        return new RedisUserStore(secretKey, redisConfig.host(), redisConfig.port());
+        return new RedisUserStore(secretKey, redisConfig.host(), redisConfig.port(), RedisUserStore.DEFAULT_NEW_ID_TTL, redisConfig.idLeaseSize());
     }
 }
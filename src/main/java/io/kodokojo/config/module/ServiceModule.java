@@ -24,7 +24,10 @@ import com.google.inject.TypeLiteral;
 import io.kodokojo.brick.*;
 import io.kodokojo.commons.utils.ssl.SSLKeyPair;
 import io.kodokojo.config.ApplicationConfig;
+import io.kodokojo.config.BrickStateConfig;
+import io.kodokojo.config.HttpClientConfig;
 import io.kodokojo.config.SecurityConfig;
+import io.kodokojo.config.UserProvisioningConfig;
 import io.kodokojo.endpoint.UserAuthenticator;
 import io.kodokojo.service.lifecycle.ApplicationLifeCycleManager;
 import io.kodokojo.service.*;
@@ -42,7 +45,7 @@ public class ServiceModule extends AbstractModule {
     @Override
     protected void configure() {
         bind(new TypeLiteral<UserAuthenticator<SimpleCredential>>() {/**/
-        }).toProvider(SimpleUserAuthenticatorProvider.class);
+        }).toProvider(SimpleUserAuthenticatorProvider.class).in(Singleton.class);
     }
 
     @Provides
@@ -53,8 +56,9 @@ public class ServiceModule extends AbstractModule {
 
     @Provides
     @Singleton
-    BrickStateMsgDispatcher provideBrickStateMsgDispatcher(ProjectStore projectStore) {
-        BrickStateMsgDispatcher dispatcher = new BrickStateMsgDispatcher();
+    BrickStateMsgDispatcher provideBrickStateMsgDispatcher(ProjectStore projectStore, BrickStateConfig brickStateConfig, ApplicationLifeCycleManager applicationLifeCycleManager) {
+        BrickStateMsgDispatcher dispatcher = new BrickStateMsgDispatcher(brickStateConfig.coalescingWindow());
+        applicationLifeCycleManager.addService(dispatcher);
         StoreBrickStateListener storeBrickStateListener = new StoreBrickStateListener(projectStore);
         dispatcher.addListener(storeBrickStateListener);
         return dispatcher;
@@ -68,8 +72,24 @@ public class ServiceModule extends AbstractModule {
 
     @Provides
     @Singleton
-    BrickConfigurerProvider provideBrickConfigurerProvider(BrickUrlFactory brickUrlFactory) {
-        return new DefaultBrickConfigurerProvider(brickUrlFactory);
+    OkHttpClientFactory provideOkHttpClientFactory(HttpClientConfig httpClientConfig, ApplicationLifeCycleManager applicationLifeCycleManager) {
+        OkHttpClientFactory httpClientFactory = new OkHttpClientFactory(httpClientConfig);
+        applicationLifeCycleManager.addService(httpClientFactory);
+        return httpClientFactory;
+    }
+
+    @Provides
+    @Singleton
+    UserProvisioner provideUserProvisioner(UserProvisioningConfig userProvisioningConfig, ApplicationLifeCycleManager applicationLifeCycleManager) {
+        UserProvisioner userProvisioner = new UserProvisioner(userProvisioningConfig.parallelism(), userProvisioningConfig.maxAttempts(), userProvisioningConfig.retryBackoff());
+        applicationLifeCycleManager.addService(userProvisioner);
+        return userProvisioner;
+    }
+
+    @Provides
+    @Singleton
+    BrickConfigurerProvider provideBrickConfigurerProvider(BrickUrlFactory brickUrlFactory, OkHttpClientFactory httpClientFactory, UserProvisioner userProvisioner) {
+        return new DefaultBrickConfigurerProvider(brickUrlFactory, httpClientFactory, userProvisioner);
     }
 
     @Provides
@@ -83,8 +103,19 @@ public class ServiceModule extends AbstractModule {
 
     @Provides
     @Singleton
-    ProjectManager provideProjectManager(ApplicationConfig applicationConfig,  BrickConfigurationStarter brickConfigurationStarter, ConfigurationStore configurationStore, ProjectStore projectStore, BootstrapConfigurationProvider bootstrapConfigurationProvider, DnsManager dnsManager, BrickConfigurerProvider brickConfigurerProvider, BrickUrlFactory brickUrlFactory) {
-        return new DefaultProjectManager(applicationConfig.domain(), configurationStore, projectStore, bootstrapConfigurationProvider,dnsManager, brickConfigurerProvider,  brickConfigurationStarter, brickUrlFactory);
+    BrickStartScheduler provideBrickStartScheduler(BrickConfigurationStarter brickConfigurationStarter, BrickStateMsgDispatcher brickStateMsgDispatcher, BrickStateConfig brickStateConfig, ApplicationLifeCycleManager applicationLifeCycleManager) {
+        BrickStartScheduler brickStartScheduler = new BrickStartScheduler(brickConfigurationStarter, brickStateConfig.prerequisiteTimeout());
+        applicationLifeCycleManager.addService(brickStartScheduler);
+        brickStateMsgDispatcher.addListener(brickStartScheduler);
+        return brickStartScheduler;
+    }
+
+    @Provides
+    @Singleton
+    ProjectManager provideProjectManager(ApplicationConfig applicationConfig,  BrickConfigurationStarter brickConfigurationStarter, ConfigurationStore configurationStore, ProjectStore projectStore, BootstrapConfigurationProvider bootstrapConfigurationProvider, DnsManager dnsManager, BrickConfigurerProvider brickConfigurerProvider, BrickUrlFactory brickUrlFactory, BrickStartScheduler brickStartScheduler, BrickStateMsgDispatcher brickStateMsgDispatcher, UserProvisioningConfig userProvisioningConfig, ApplicationLifeCycleManager applicationLifeCycleManager) {
+        DefaultProjectManager projectManager = new DefaultProjectManager(applicationConfig.domain(), configurationStore, projectStore, bootstrapConfigurationProvider,dnsManager, brickConfigurerProvider,  brickConfigurationStarter, brickUrlFactory, brickStartScheduler, brickStateMsgDispatcher, userProvisioningConfig.brickParallelism());
+        applicationLifeCycleManager.addService(projectManager);
+        return projectManager;
     }
 
     @Provides
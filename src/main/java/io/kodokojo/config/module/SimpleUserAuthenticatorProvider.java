@@ -18,6 +18,8 @@
 package io.kodokojo.config.module;
 
 import com.google.inject.Provider;
+import io.kodokojo.config.SecurityConfig;
+import io.kodokojo.service.jmx.JmxUtils;
 import io.kodokojo.service.store.UserStore;
 import io.kodokojo.service.authentification.SimpleCredential;
 import io.kodokojo.service.authentification.SimpleUserAuthenticator;
@@ -29,16 +31,25 @@ public class SimpleUserAuthenticatorProvider implements Provider<UserAuthenticat
 
     private final UserStore userStore;
 
+    private final SecurityConfig securityConfig;
+
     @Inject
-    public SimpleUserAuthenticatorProvider(UserStore userStore) {
+    public SimpleUserAuthenticatorProvider(UserStore userStore, SecurityConfig securityConfig) {
         if (userStore == null) {
             throw new IllegalArgumentException("userStore must be defined.");
         }
+        if (securityConfig == null) {
+            throw new IllegalArgumentException("securityConfig must be defined.");
+        }
         this.userStore = userStore;
+        this.securityConfig = securityConfig;
     }
 
     @Override
     public UserAuthenticator<SimpleCredential> get() {
-        return new SimpleUserAuthenticator(userStore);
+        SimpleUserAuthenticator userAuthenticator = new SimpleUserAuthenticator(userStore, securityConfig.authenticationCacheMaxSize(), securityConfig.authenticationCacheTtl());
+        userStore.addUserChangeListener(userAuthenticator);
+        JmxUtils.registerMBean("Cache", "authentication", userAuthenticator.getCacheStatistics());
+        return userAuthenticator;
     }
 }
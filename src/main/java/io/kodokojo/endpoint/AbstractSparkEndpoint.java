@@ -19,6 +19,7 @@ package io.kodokojo.endpoint;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import io.kodokojo.model.User;
 import io.kodokojo.service.authentification.SimpleCredential;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +36,8 @@ public abstract class AbstractSparkEndpoint implements SparkEndpoint {
 
     protected static final String JSON_CONTENT_TYPE = "application/json";
 
+    protected static final String AUTHENTICATED_USER_ATTRIBUTE = "kodokojo.authenticatedUser";
+
     protected final ThreadLocal<Gson> localGson = new ThreadLocal<Gson>() {
         @Override
         protected Gson initialValue() {
@@ -53,6 +56,26 @@ public abstract class AbstractSparkEndpoint implements SparkEndpoint {
         this.userAuthenticator = userAuthenticator;
     }
 
+    /**
+     * Get the {@link User} which send the request. This user is attached to the request by the {@link HttpEndpoint} filter
+     * once authenticated, credentials are only decoded and checked here for routes which don't require an authentication.
+     * @param request The current request.
+     * @return The authenticated user, <code>null</code> if request don't provide valid credentials.
+     */
+    protected User getRequestUser(Request request) {
+        User user = (User) request.attribute(AUTHENTICATED_USER_ATTRIBUTE);
+        if (user == null) {
+            SimpleCredential credential = extractCredential(request);
+            if (credential != null) {
+                user = userAuthenticator.authenticate(credential);
+                if (user != null) {
+                    request.attribute(AUTHENTICATED_USER_ATTRIBUTE, user);
+                }
+            }
+        }
+        return user;
+    }
+
     protected SimpleCredential extractCredential(Request request) {
         BasicAuthenticator basicAuthenticator = new BasicAuthenticator();
         try {
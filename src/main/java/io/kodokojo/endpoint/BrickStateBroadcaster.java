@@ -0,0 +1,169 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.endpoint;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import io.kodokojo.brick.BrickUrlFactory;
+import io.kodokojo.endpoint.dto.WebSocketMessage;
+import io.kodokojo.endpoint.dto.WebSocketMessageGsonAdapter;
+import io.kodokojo.model.BrickState;
+import io.kodokojo.model.ProjectConfiguration;
+import io.kodokojo.model.UserAdditionState;
+import io.kodokojo.service.store.ProjectFetcher;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Deliver {@link BrickState} and {@link UserAdditionState} notifications to the WebSocket sessions of all members of the
+ * project. Each notification is serialized once, and queued in the outbox of each distinct recipient session.
+ * <p>
+ * Members are read on each notification from the {@link ProjectFetcher}, whose cache is invalidated when the project
+ * configuration is updated, so a member added or removed is notified, or not, from the next notification.
+ * </p>
+ */
+class BrickStateBroadcaster {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BrickStateBroadcaster.class);
+
+    private final UserSessionIndex userSessionIndex;
+
+    private final ProjectFetcher projectFetcher;
+
+    private final BrickUrlFactory brickUrlFactory;
+
+    private final ThreadLocal<Gson> localGson = new ThreadLocal<Gson>() {
+        @Override
+        protected Gson initialValue() {
+            GsonBuilder builder = new GsonBuilder();
+            builder.registerTypeAdapter(WebSocketMessage.class, new WebSocketMessageGsonAdapter());
+            return builder.create();
+        }
+    };
+
+    BrickStateBroadcaster(UserSessionIndex userSessionIndex, ProjectFetcher projectFetcher, BrickUrlFactory brickUrlFactory) {
+        if (userSessionIndex == null) {
+            throw new IllegalArgumentException("userSessionIndex must be defined.");
+        }
+        if (projectFetcher == null) {
+            throw new IllegalArgumentException("projectFetcher must be defined.");
+        }
+        if (brickUrlFactory == null) {
+            throw new IllegalArgumentException("brickUrlFactory must be defined.");
+        }
+        this.userSessionIndex = userSessionIndex;
+        this.projectFetcher = projectFetcher;
+        this.brickUrlFactory = brickUrlFactory;
+    }
+
+    public void broadcast(BrickState brickState) {
+        if (brickState == null) {
+            throw new IllegalArgumentException("brickState must be defined.");
+        }
+        String coalesceKey = brickState.getProjectConfigurationIdentifier() + "/" + brickState.getStackName() + "/" + brickState.getBrickType() + "/" + brickState.getBrickName();
+        send(brickState.getProjectConfigurationIdentifier(), coalesceKey, members -> convertToWebSocketMessage(brickState, members.projectName), brickState);
+    }
+
+    public void broadcast(UserAdditionState userAdditionState) {
+        if (userAdditionState == null) {
+            throw new IllegalArgumentException("userAdditionState must be defined.");
+        }
+        String coalesceKey = userAdditionState.getJobIdentifier() + "/" + userAdditionState.getStackName() + "/" + userAdditionState.getBrickName();
+        send(userAdditionState.getProjectConfigurationIdentifier(), coalesceKey, members -> convertToWebSocketMessage(userAdditionState), userAdditionState);
+    }
+
+    private void send(String projectConfigurationIdentifier, String coalesceKey, Function<ProjectMembers, WebSocketMessage> messageFactory, Object notification) {
+        ProjectMembers members = loadProjectMembers(projectConfigurationIdentifier);
+        if (members == null) {
+            LOGGER.warn("Unable to find project configuration {}, drop notification {}.", projectConfigurationIdentifier, notification);
+            return;
+        }
+        Set<UserSession> recipients = new LinkedHashSet<>();
+        members.userIdentifiers.forEach(userIdentifier -> recipients.addAll(userSessionIndex.getByUserIdentifier(userIdentifier)));
+        if (recipients.isEmpty()) {
+            return;
+        }
+        String json = localGson.get().toJson(messageFactory.apply(members));
+        recipients.forEach(userSession -> userSession.send(coalesceKey, json));
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Following message sent to {} sessions : {}", recipients.size(), json);
+        }
+    }
+
+    private ProjectMembers loadProjectMembers(String projectConfigurationIdentifier) {
+        ProjectConfiguration projectConfiguration = projectFetcher.getProjectConfigurationById(projectConfigurationIdentifier);
+        if (projectConfiguration == null) {
+            return null;
+        }
+        Set<String> userIdentifiers = new LinkedHashSet<>();
+        projectConfiguration.getAdmins().forEachRemaining(admin -> userIdentifiers.add(admin.getIdentifier()));
+        projectConfiguration.getUsers().forEachRemaining(user -> userIdentifiers.add(user.getIdentifier()));
+        return new ProjectMembers(projectConfiguration.getName(), userIdentifiers);
+    }
+
+    private WebSocketMessage convertToWebSocketMessage(BrickState brickState, String projectName) {
+        JsonObject data = new JsonObject();
+        data.addProperty("projectConfiguration", brickState.getProjectConfigurationIdentifier());
+        data.addProperty("brickType", brickState.getBrickType());
+        data.addProperty("brickName", brickState.getBrickName());
+        data.addProperty("state", brickState.getState().name());
+        if (brickState.getState() == BrickState.State.RUNNING) {
+            data.addProperty("url", "https://" + brickUrlFactory.forgeUrl(projectName, brickState.getStackName(), brickState.getBrickType(), brickState.getBrickName()));
+        }
+        //  A running brick may carry a message, as the users which couldn't be added to it.
+        if (brickState.getState() == BrickState.State.ONFAILURE || StringUtils.isNotBlank(brickState.getMessage())) {
+            data.addProperty("message", brickState.getMessage());
+        }
+
+        return new WebSocketMessage("brick", "updateState", data);
+    }
+
+    private static WebSocketMessage convertToWebSocketMessage(UserAdditionState userAdditionState) {
+        JsonObject data = new JsonObject();
+        data.addProperty("projectConfiguration", userAdditionState.getProjectConfigurationIdentifier());
+        data.addProperty("jobId", userAdditionState.getJobIdentifier());
+        data.addProperty("brickType", userAdditionState.getBrickType());
+        data.addProperty("brickName", userAdditionState.getBrickName());
+        data.addProperty("state", userAdditionState.getState().name());
+        if (userAdditionState.getState() == UserAdditionState.State.ONFAILURE) {
+            data.addProperty("message", userAdditionState.getMessage());
+        }
+
+        return new WebSocketMessage("brick", "updateUsers", data);
+    }
+
+    private static class ProjectMembers {
+
+        private final String projectName;
+
+        private final Set<String> userIdentifiers;
+
+        private ProjectMembers(String projectName, Set<String> userIdentifiers) {
+            this.projectName = projectName;
+            this.userIdentifiers = Collections.unmodifiableSet(userIdentifiers);
+        }
+    }
+
+}
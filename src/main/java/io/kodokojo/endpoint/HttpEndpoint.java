@@ -86,6 +86,8 @@ public class HttpEndpoint extends AbstractSparkEndpoint implements ApplicationLi
                     if (user == null) {
                         LOGGER.warn("ClientIp '{}' try to access to path '{}' with invalid credentials.", request.ip(), request.pathInfo());
                         authorizationRequiered(request,response);
+                    } else {
+                        request.attribute(AUTHENTICATED_USER_ATTRIBUTE, user);
                     }
                 } else {
                     authorizationRequiered(request, response);
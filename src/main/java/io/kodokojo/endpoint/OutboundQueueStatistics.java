@@ -0,0 +1,117 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.endpoint;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters shared by all {@link SessionOutbox} of a WebSocket entry point. Queue depth by session is computed from the
+ * open outboxes when read.
+ */
+public class OutboundQueueStatistics implements OutboundQueueStatisticsMXBean {
+
+    private final AtomicLong queued = new AtomicLong();
+
+    private final AtomicLong maxQueued = new AtomicLong();
+
+    private final AtomicLong sent = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicLong disconnected = new AtomicLong();
+
+    private final Set<SessionOutbox> outboxes = ConcurrentHashMap.newKeySet();
+
+    void opened(SessionOutbox outbox) {
+        outboxes.add(outbox);
+    }
+
+    void closed(SessionOutbox outbox) {
+        outboxes.remove(outbox);
+    }
+
+    void enqueued() {
+        long current = queued.incrementAndGet();
+        maxQueued.accumulateAndGet(current, Math::max);
+    }
+
+    void dequeued(int count) {
+        queued.addAndGet(-count);
+    }
+
+    void sent() {
+        sent.incrementAndGet();
+    }
+
+    void dropped() {
+        dropped.incrementAndGet();
+    }
+
+    void failed() {
+        failed.incrementAndGet();
+    }
+
+    void disconnected() {
+        disconnected.incrementAndGet();
+    }
+
+    @Override
+    public long getQueuedMessageCount() {
+        return queued.get();
+    }
+
+    @Override
+    public long getMaxQueuedMessageCount() {
+        return maxQueued.get();
+    }
+
+    @Override
+    public int getMaxSessionQueuedMessageCount() {
+        return outboxes.stream().mapToInt(SessionOutbox::size).max().orElse(0);
+    }
+
+    @Override
+    public int getFullSessionCount() {
+        return (int) outboxes.stream().filter(SessionOutbox::isFull).count();
+    }
+
+    @Override
+    public long getSentMessageCount() {
+        return sent.get();
+    }
+
+    @Override
+    public long getDroppedMessageCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public long getFailedMessageCount() {
+        return failed.get();
+    }
+
+    @Override
+    public long getDisconnectedSessionCount() {
+        return disconnected.get();
+    }
+
+}
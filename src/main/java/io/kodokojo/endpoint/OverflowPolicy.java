@@ -0,0 +1,30 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.endpoint;
+
+/**
+ * Behaviour of a WebSocket session outbound queue when it reaches its capacity.
+ */
+public enum OverflowPolicy {
+    //  Drop the oldest pending message.
+    DROP_OLDEST,
+    //  Replace the pending message of the same brick, or drop the oldest one if there is none.
+    COALESCE_BY_BRICK,
+    //  Close the session, client must reconnect and reload its state.
+    DISCONNECT
+}
@@ -23,6 +23,7 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
 import io.kodokojo.brick.BrickFactory;
 import io.kodokojo.brick.DefaultBrickFactory;
+import io.kodokojo.endpoint.dto.AddUsersJobDto;
 import io.kodokojo.endpoint.dto.ProjectConfigDto;
 import io.kodokojo.endpoint.dto.ProjectCreationDto;
 import io.kodokojo.endpoint.dto.ProjectDto;
@@ -133,8 +134,8 @@ public class ProjectSparkEndpoint extends AbstractSparkEndpoint {
                 halt(404);
                 return "";
             }
-            SimpleCredential credential = extractCredential(request);
-            if (userStore.userIsAdminOfProjectConfiguration(credential.getUsername(), projectConfiguration)) {
+            User requester = getRequestUser(request);
+            if (userStore.userIsAdminOfProjectConfiguration(requester, projectConfiguration)) {
                 return new ProjectConfigDto(projectConfiguration);
             }
             halt(403);
@@ -142,7 +143,7 @@ public class ProjectSparkEndpoint extends AbstractSparkEndpoint {
         }, jsonResponseTransformer);
 
         put(BASE_API + "/projectconfig/:id/user", JSON_CONTENT_TYPE, ((request, response) -> {
-            SimpleCredential credential = extractCredential(request);
+            User requester = getRequestUser(request);
 
             String identifier = request.params(":id");
             ProjectConfiguration projectConfiguration = projectStore.getProjectConfigurationById(identifier);
@@ -150,23 +151,39 @@ public class ProjectSparkEndpoint extends AbstractSparkEndpoint {
                 halt(404);
                 return "";
             }
-            if (userStore.userIsAdminOfProjectConfiguration(credential.getUsername(), projectConfiguration)) {
+            if (userStore.userIsAdminOfProjectConfiguration(requester, projectConfiguration)) {
                 JsonParser parser = new JsonParser();
                 JsonArray root = (JsonArray) parser.parse(request.body());
-                List<User> users = IteratorUtils.toList(projectConfiguration.getUsers());
-                List<User> usersToAdd = new ArrayList<>();
+                List<User> requestedUsers = new ArrayList<>();
                 for (JsonElement el : root) {
                     String userToAddId = el.getAsJsonPrimitive().getAsString();
                     User userToAdd = userStore.getUserByIdentifier(userToAddId);
-                    if (userToAdd != null && !users.contains(userToAdd)) {
-                        users.add(userToAdd);
-                        usersToAdd.add(userToAdd);
+                    if (userToAdd != null) {
+                        requestedUsers.add(userToAdd);
                     }
                 }
 
-                projectConfiguration.setUsers(users);
-                projectStore.updateProjectConfiguration(projectConfiguration);
-                projectManager.addUsersToProject(projectConfiguration, usersToAdd);
+                List<User> usersToAdd = new ArrayList<>();
+                ProjectConfiguration updated = projectStore.updateProjectConfiguration(identifier, current -> {
+                    //  Applied again to the latest value when modified concurrently, users to add are computed each time.
+                    usersToAdd.clear();
+                    List<User> users = IteratorUtils.toList(current.getUsers());
+                    for (User userToAdd : requestedUsers) {
+                        if (!users.contains(userToAdd)) {
+                            users.add(userToAdd);
+                            usersToAdd.add(userToAdd);
+                        }
+                    }
+                    current.setUsers(users);
+                    return current;
+                });
+                if (updated == null) {
+                    halt(404);
+                    return "";
+                }
+                response.status(202);
+                //  Bricks are configured in background, their progress is published with the job identifier.
+                return new AddUsersJobDto(projectManager.addUsersToProjectAsync(updated, usersToAdd));
             } else {
                 halt(403,"You have not right to add user to project configuration id " + identifier + ".");
             }
@@ -175,27 +192,31 @@ public class ProjectSparkEndpoint extends AbstractSparkEndpoint {
         }), jsonResponseTransformer);
 
         delete(BASE_API + "/projectconfig/:id/user", JSON_CONTENT_TYPE, ((request, response) -> {
-            SimpleCredential credential = extractCredential(request);
-            if (credential != null) {
+            User requester = getRequestUser(request);
+            if (requester != null) {
                 String identifier = request.params(":id");
                 ProjectConfiguration projectConfiguration = projectStore.getProjectConfigurationById(identifier);
                 if (projectConfiguration == null) {
                     halt(404);
                     return "";
                 }
-                if (userStore.userIsAdminOfProjectConfiguration(credential.getUsername(), projectConfiguration)) {
+                if (userStore.userIsAdminOfProjectConfiguration(requester, projectConfiguration)) {
                     JsonParser parser = new JsonParser();
                     JsonArray root = (JsonArray) parser.parse(request.body());
-                    List<User> users = IteratorUtils.toList(projectConfiguration.getUsers());
+                    List<User> usersToDelete = new ArrayList<>();
                     for (JsonElement el : root) {
                         String userToDeleteId = el.getAsJsonPrimitive().getAsString();
                         User userToDelete = userStore.getUserByIdentifier(userToDeleteId);
                         if (userToDelete != null) {
-                            users.remove(userToDelete);
+                            usersToDelete.add(userToDelete);
                         }
                     }
-                    projectConfiguration.setUsers(users);
-                    projectStore.updateProjectConfiguration(projectConfiguration);
+                    projectStore.updateProjectConfiguration(identifier, current -> {
+                        List<User> users = IteratorUtils.toList(current.getUsers());
+                        users.removeAll(usersToDelete);
+                        current.setUsers(users);
+                        return current;
+                    });
                 } else {
                     halt(403,"You have not right to delete user to project configuration id " + identifier + ".");
                 }
@@ -207,16 +228,15 @@ public class ProjectSparkEndpoint extends AbstractSparkEndpoint {
 
         //  Start project
         post(BASE_API + "/project/:id", JSON_CONTENT_TYPE, ((request, response) -> {
-            SimpleCredential credential = extractCredential(request);
-            if (credential != null) {
-                User currentUser = userStore.getUserByUsername(credential.getUsername());
+            User currentUser = getRequestUser(request);
+            if (currentUser != null) {
                 String projectConfigurationId = request.params(":id");
                 ProjectConfiguration projectConfiguration = projectStore.getProjectConfigurationById(projectConfigurationId);
                 if (projectConfiguration == null) {
                     halt(404, "Project configuration not found.");
                     return "";
                 }
-                if (userStore.userIsAdminOfProjectConfiguration(credential.getUsername(), projectConfiguration)) {
+                if (userStore.userIsAdminOfProjectConfiguration(currentUser, projectConfiguration)) {
                     String projectId = projectStore.getProjectIdByProjectConfigurationId(projectConfigurationId);
                     if (StringUtils.isBlank(projectId)) {
                      //   projectManager.bootstrapStack(projectConfiguration.getName(), projectConfiguration.getDefaultStackConfiguration().getName(), projectConfiguration.getDefaultStackConfiguration().getType());
@@ -235,9 +255,8 @@ public class ProjectSparkEndpoint extends AbstractSparkEndpoint {
         }));
 
         get(BASE_API + "/project/:id", JSON_CONTENT_TYPE, ((request, response) -> {
-            SimpleCredential credential = extractCredential(request);
-            if (credential != null) {
-                User currentUser = userStore.getUserByUsername(credential.getUsername());
+            User currentUser = getRequestUser(request);
+            if (currentUser != null) {
                 String projectId = request.params(":id");
                 Project project = projectStore.getProjectByIdentifier(projectId);
                 if (project == null) {
@@ -245,7 +264,7 @@ public class ProjectSparkEndpoint extends AbstractSparkEndpoint {
                     return "";
                 }
                 ProjectConfiguration projectConfiguration = projectStore.getProjectConfigurationById(project.getProjectConfigurationIdentifier());
-                if (userStore.userIsAdminOfProjectConfiguration(currentUser.getUsername(), projectConfiguration)) {
+                if (userStore.userIsAdminOfProjectConfiguration(currentUser, projectConfiguration)) {
                     return new ProjectDto(project);
                 } else {
                     halt(403,"You have not right to lookup project id " + projectId + ".");
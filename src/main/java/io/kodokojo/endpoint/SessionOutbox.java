@@ -0,0 +1,244 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.endpoint;
+
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Bounded queue of messages waiting to be written to a WebSocket {@link Session}. The queue is drained on the
+ * <code>writer</code> {@link Executor} with at most one write in flight for the session, so a slow client only
+ * fills its own queue and never delays the producer or the other sessions.
+ */
+class SessionOutbox {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionOutbox.class);
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final Session session;
+
+    private final int capacity;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final Executor writer;
+
+    private final OutboundQueueStatistics statistics;
+
+    private final Deque<OutboundMessage> queue;
+
+    private long droppedCount;
+
+    private boolean writing;
+
+    private boolean closed;
+
+    SessionOutbox(Session session, int capacity, OverflowPolicy overflowPolicy, Executor writer, OutboundQueueStatistics statistics) {
+        if (session == null) {
+            throw new IllegalArgumentException("session must be defined.");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0.");
+        }
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("overflowPolicy must be defined.");
+        }
+        if (writer == null) {
+            throw new IllegalArgumentException("writer must be defined.");
+        }
+        if (statistics == null) {
+            throw new IllegalArgumentException("statistics must be defined.");
+        }
+        this.session = session;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.writer = writer;
+        this.statistics = statistics;
+        this.queue = new ArrayDeque<>(Math.min(capacity, 16));
+        statistics.opened(this);
+    }
+
+    /**
+     * Queue <code>text</code> to be written to the session.
+     *
+     * @param coalesceKey Key used by {@link OverflowPolicy#COALESCE_BY_BRICK} to replace a pending message, may be null.
+     * @param text        The message to send.
+     * @return <code>false</code> if the outbox is closed, or has been closed by the {@link OverflowPolicy#DISCONNECT} policy.
+     */
+    public boolean offer(String coalesceKey, String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("text must be defined.");
+        }
+        boolean disconnect = false;
+        boolean scheduleDrain = false;
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (queue.size() >= capacity) {
+                switch (overflowPolicy) {
+                    case DISCONNECT:
+                        disconnect = true;
+                        break;
+                    case COALESCE_BY_BRICK:
+                        if (!removePending(coalesceKey)) {
+                            dropOldest();
+                        }
+                        break;
+                    default:
+                        dropOldest();
+                }
+            }
+            if (disconnect) {
+                closeQueue();
+            } else {
+                queue.addLast(new OutboundMessage(coalesceKey, text));
+                statistics.enqueued();
+                if (!writing) {
+                    writing = true;
+                    scheduleDrain = true;
+                }
+            }
+        }
+        if (disconnect) {
+            statistics.disconnected();
+            LOGGER.warn("Outbound queue of session {} is full, closing it.", session.getRemoteAddress());
+            session.close(1008, "Client is too slow to consume messages.");
+            return false;
+        }
+        if (scheduleDrain) {
+            scheduleWrite();
+        }
+        return true;
+    }
+
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    public synchronized boolean isFull() {
+        return queue.size() >= capacity;
+    }
+
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public synchronized void close() {
+        closeQueue();
+    }
+
+    private void scheduleWrite() {
+        try {
+            writer.execute(this::writeNext);
+        } catch (RejectedExecutionException e) {
+            //  Writer stopped with the application, nothing will be sent anymore.
+            close();
+        }
+    }
+
+    private void writeNext() {
+        OutboundMessage message;
+        synchronized (this) {
+            message = queue.pollFirst();
+            if (message == null) {
+                writing = false;
+                return;
+            }
+            statistics.dequeued(1);
+        }
+        if (!session.isOpen()) {
+            close();
+            return;
+        }
+        try {
+            session.getRemote().sendString(message.text, new WriteCallback() {
+                @Override
+                public void writeFailed(Throwable x) {
+                    statistics.failed();
+                    LOGGER.error("Unable to write message to session {}.", session.getRemoteAddress(), x);
+                    scheduleWrite();
+                }
+
+                @Override
+                public void writeSuccess() {
+                    statistics.sent();
+                    scheduleWrite();
+                }
+            });
+        } catch (RuntimeException e) {
+            statistics.failed();
+            LOGGER.error("Unable to write message to session {}.", session.getRemoteAddress(), e);
+            scheduleWrite();
+        }
+    }
+
+    private boolean removePending(String coalesceKey) {
+        if (coalesceKey == null) {
+            return false;
+        }
+        Iterator<OutboundMessage> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            if (coalesceKey.equals(iterator.next().coalesceKey)) {
+                iterator.remove();
+                droppedCount++;
+                statistics.dequeued(1);
+                statistics.dropped();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void dropOldest() {
+        if (queue.pollFirst() != null) {
+            droppedCount++;
+            statistics.dequeued(1);
+            statistics.dropped();
+        }
+    }
+
+    private void closeQueue() {
+        closed = true;
+        statistics.dequeued(queue.size());
+        statistics.closed(this);
+        queue.clear();
+    }
+
+    private static class OutboundMessage {
+
+        private final String coalesceKey;
+
+        private final String text;
+
+        private OutboundMessage(String coalesceKey, String text) {
+            this.coalesceKey = coalesceKey;
+            this.text = text;
+        }
+    }
+
+}
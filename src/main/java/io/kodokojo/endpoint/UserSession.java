@@ -0,0 +1,84 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.endpoint;
+
+import io.kodokojo.model.User;
+import org.eclipse.jetty.websocket.api.Session;
+
+class UserSession {
+
+    private final Session session;
+
+    private final User user;
+
+    private final SessionOutbox outbox;
+
+    private volatile long lastActivityDate;
+
+    UserSession(Session session, User user, SessionOutbox outbox) {
+        if (session == null) {
+            throw new IllegalArgumentException("session must be defined.");
+        }
+        if (user == null) {
+            throw new IllegalArgumentException("user must be defined.");
+        }
+        if (outbox == null) {
+            throw new IllegalArgumentException("outbox must be defined.");
+        }
+        this.session = session;
+        this.user = user;
+        this.outbox = outbox;
+        this.lastActivityDate = System.currentTimeMillis();
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public long getLastActivityDate() {
+        return lastActivityDate;
+    }
+
+    public void setLastActivityDate(long lastActivityDate) {
+        if (this.lastActivityDate < lastActivityDate)
+            this.lastActivityDate = lastActivityDate;
+    }
+
+    public SessionOutbox getOutbox() {
+        return outbox;
+    }
+
+    /**
+     * Queue <code>text</code> to be written asynchronously to the session, the calling thread is never blocked by a slow client.
+     */
+    public boolean send(String text) {
+        return outbox.offer(null, text);
+    }
+
+    public boolean send(String coalesceKey, String text) {
+        return outbox.offer(coalesceKey, text);
+    }
+
+    public void close() {
+        outbox.close();
+    }
+}
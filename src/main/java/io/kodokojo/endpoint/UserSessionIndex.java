@@ -0,0 +1,82 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.endpoint;
+
+import org.eclipse.jetty.websocket.api.Session;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of authenticated WebSocket sessions, by {@link Session} and by user identifier. A user may have several
+ * sessions opened at the same time (one by browser tab). All operations are done in constant time.
+ */
+class UserSessionIndex {
+
+    private final Map<Session, UserSession> bySession = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<UserSession>> byUserIdentifier = new ConcurrentHashMap<>();
+
+    public void add(UserSession userSession) {
+        if (userSession == null) {
+            throw new IllegalArgumentException("userSession must be defined.");
+        }
+        bySession.put(userSession.getSession(), userSession);
+        byUserIdentifier.compute(userSession.getUser().getIdentifier(), (userIdentifier, userSessions) -> {
+            Set<UserSession> res = userSessions == null ? ConcurrentHashMap.newKeySet() : userSessions;
+            res.add(userSession);
+            return res;
+        });
+    }
+
+    public UserSession remove(Session session) {
+        if (session == null) {
+            throw new IllegalArgumentException("session must be defined.");
+        }
+        UserSession userSession = bySession.remove(session);
+        if (userSession != null) {
+            byUserIdentifier.computeIfPresent(userSession.getUser().getIdentifier(), (userIdentifier, userSessions) -> {
+                userSessions.remove(userSession);
+                return userSessions.isEmpty() ? null : userSessions;
+            });
+        }
+        return userSession;
+    }
+
+    public UserSession get(Session session) {
+        if (session == null) {
+            throw new IllegalArgumentException("session must be defined.");
+        }
+        return bySession.get(session);
+    }
+
+    public Set<UserSession> getByUserIdentifier(String userIdentifier) {
+        if (userIdentifier == null) {
+            throw new IllegalArgumentException("userIdentifier must be defined.");
+        }
+        Set<UserSession> userSessions = byUserIdentifier.get(userIdentifier);
+        return userSessions == null ? Collections.emptySet() : Collections.unmodifiableSet(userSessions);
+    }
+
+    public int size() {
+        return bySession.size();
+    }
+
+}
@@ -44,6 +44,7 @@ import java.security.interfaces.RSAPublicKey;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static spark.Spark.*;
@@ -112,12 +113,9 @@ public class UserSparkEndpoint extends AbstractSparkEndpoint {
                 User user = new User(identifier, username, username, email, password, RSAUtils.encodePublicKey((RSAPublicKey) keyPair.getPublic(), email));
 
                 String entityId = null;
-                SimpleCredential credential = extractCredential(request);
-                if (credential != null) {
-                    User userRequester = userAuthenticator.authenticate(credential);
-                    if (userRequester != null) {
-                        entityId = entityStore.getEntityIdOfUserId(userRequester.getIdentifier());
-                    }
+                User userRequester = getRequestUser(request);
+                if (userRequester != null) {
+                    entityId = entityStore.getEntityIdOfUserId(userRequester.getIdentifier());
                 }
                 if (entityId == null) {
                     Entity entity = new Entity(entityName, user);
@@ -137,11 +135,8 @@ public class UserSparkEndpoint extends AbstractSparkEndpoint {
 
                     if (emailSender != null) {
                         List<String> cc = null;
-                        if (credential != null) {
-                            User userRequester = userAuthenticator.authenticate(credential);
-                            if (userRequester != null) {
-                                cc = Collections.singletonList(userRequester.getEmail());
-                            }
+                        if (userRequester != null) {
+                            cc = Collections.singletonList(userRequester.getEmail());
                         }
                         String content = "<h1>Welcome on Kodo Kojo</h1>\n" +
                                 "<p>You will find all information which is bind to your account '" + userCreationDto.getUsername() + "'.</p>\n" +
@@ -187,13 +182,8 @@ public class UserSparkEndpoint extends AbstractSparkEndpoint {
         });
 
         get(BASE_API + "/user", JSON_CONTENT_TYPE, (request, response) -> {
-            SimpleCredential credential = extractCredential(request);
-            if (credential != null) {
-                User user = userStore.getUserByUsername(credential.getUsername());
-                if (user == null) {
-                    halt(404);
-                    return "";
-                }
+            User user = getRequestUser(request);
+            if (user != null) {
                 return getUserDto(user);
             }
             halt(401);
@@ -201,13 +191,12 @@ public class UserSparkEndpoint extends AbstractSparkEndpoint {
         }, jsonResponseTransformer);
 
         get(BASE_API + "/user/:id", JSON_CONTENT_TYPE, (request, response) -> {
-            SimpleCredential credential = extractCredential(request);
             String identifier = request.params(":id");
-            User requestUser = userStore.getUserByUsername(credential.getUsername());
+            User requestUser = getRequestUser(request);
             User user = userStore.getUserByIdentifier(identifier);
             if (user != null) {
                 if (user.getEntityIdentifier().equals(requestUser.getEntityIdentifier())) {
-                    if (!user.getUsername().equals(credential.getUsername())) {
+                    if (!user.getUsername().equals(requestUser.getUsername())) {
                         user = new User(user.getIdentifier(), user.getName(), user.getUsername(), user.getEmail(), "", user.getSshPublicKey());
                     }
                     return getUserDto(user);
@@ -223,11 +212,11 @@ public class UserSparkEndpoint extends AbstractSparkEndpoint {
     private UserDto getUserDto(User user) {
         UserDto res = new UserDto(user);
         Set<String> projectConfigIds = projectStore.getProjectConfigIdsByUserIdentifier(user.getIdentifier());
+        Map<String, String> projectIds = projectStore.getProjectIdsByProjectConfigurationIds(projectConfigIds);
         List<UserProjectConfigIdDto> userProjectConfigIdDtos = new ArrayList<>();
         projectConfigIds.forEach(id -> {
-            String projectId = projectStore.getProjectIdByProjectConfigurationId(id);
             UserProjectConfigIdDto userProjectConfigIdDto = new UserProjectConfigIdDto(id);
-            userProjectConfigIdDto.setProjectId(projectId);
+            userProjectConfigIdDto.setProjectId(projectIds.get(id));
             userProjectConfigIdDtos.add(userProjectConfigIdDto);
         });
         res.setProjectConfigurationIds(userProjectConfigIdDtos);
@@ -20,17 +20,24 @@ package io.kodokojo.endpoint;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
+import com.google.inject.Binding;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
 import io.kodokojo.Launcher;
 import io.kodokojo.model.BrickState;
 import io.kodokojo.brick.BrickStateMsgDispatcher;
 import io.kodokojo.brick.BrickStateMsgListener;
 import io.kodokojo.brick.BrickUrlFactory;
+import io.kodokojo.config.WebSocketConfig;
 import io.kodokojo.endpoint.dto.WebSocketMessage;
 import io.kodokojo.endpoint.dto.WebSocketMessageGsonAdapter;
-import io.kodokojo.model.ProjectConfiguration;
 import io.kodokojo.model.User;
+import io.kodokojo.model.UserAdditionState;
+import io.kodokojo.service.authentification.SimpleCredential;
+import io.kodokojo.service.jmx.JmxUtils;
+import io.kodokojo.service.lifecycle.ApplicationLifeCycleListener;
+import io.kodokojo.service.lifecycle.ApplicationLifeCycleManager;
 import io.kodokojo.service.store.ProjectStore;
-import io.kodokojo.service.store.UserStore;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketConnect;
@@ -42,10 +49,14 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.apache.commons.lang.StringUtils.isBlank;
 
 //  WebSocket colse event code https://developer.mozilla.org/fr/docs/Web/API/CloseEvent
 @WebSocket
-public class WebSocketEntryPoint implements BrickStateMsgListener {
+public class WebSocketEntryPoint implements BrickStateMsgListener, ApplicationLifeCycleListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(WebSocketEntryPoint.class);
 
@@ -53,13 +64,20 @@ public class WebSocketEntryPoint implements BrickStateMsgListener {
 
     private final Map<Session, Long> sessions;
 
-    private final Map<String, UserSession> userConnectedSession;
+    private final UserSessionIndex userSessionIndex;
+
+    private final UserAuthenticator<SimpleCredential> userAuthenticator;
+
+    private final BrickStateBroadcaster brickStateBroadcaster;
 
-    private final UserStore userStore;
+    private final int outboundQueueCapacity;
 
-    private final ProjectStore projectStore;
+    private final OverflowPolicy overflowPolicy;
 
-    private final BrickUrlFactory brickUrlFactory;
+    private final OutboundQueueStatistics outboundQueueStatistics;
+
+    //  Only hand messages to Jetty asynchronous writes, a single thread is enough.
+    private final ExecutorService writer;
 
     private final ThreadLocal<Gson> localGson = new ThreadLocal<Gson>() {
         @Override
@@ -75,10 +93,29 @@ public class WebSocketEntryPoint implements BrickStateMsgListener {
     public WebSocketEntryPoint() {
         super();
         sessions = new ConcurrentHashMap<>();
-        userConnectedSession = new ConcurrentHashMap<>();
-        userStore = Launcher.INJECTOR.getInstance(UserStore.class);
-        projectStore = Launcher.INJECTOR.getInstance(ProjectStore.class);
-        brickUrlFactory = Launcher.INJECTOR.getInstance(BrickUrlFactory.class);
+        userSessionIndex = new UserSessionIndex();
+        userAuthenticator = Launcher.INJECTOR.getInstance(Key.get(new TypeLiteral<UserAuthenticator<SimpleCredential>>() {
+        }));
+        ProjectStore projectStore = Launcher.INJECTOR.getInstance(ProjectStore.class);
+        BrickUrlFactory brickUrlFactory = Launcher.INJECTOR.getInstance(BrickUrlFactory.class);
+        brickStateBroadcaster = new BrickStateBroadcaster(userSessionIndex, projectStore, brickUrlFactory);
+        Binding<WebSocketConfig> webSocketConfigBinding = Launcher.INJECTOR.getExistingBinding(Key.get(WebSocketConfig.class));
+        if (webSocketConfigBinding == null) {
+            outboundQueueCapacity = SessionOutbox.DEFAULT_CAPACITY;
+            overflowPolicy = OverflowPolicy.COALESCE_BY_BRICK;
+        } else {
+            WebSocketConfig webSocketConfig = webSocketConfigBinding.getProvider().get();
+            outboundQueueCapacity = webSocketConfig.outboundQueueCapacity();
+            overflowPolicy = OverflowPolicy.valueOf(webSocketConfig.outboundOverflowPolicy().toUpperCase());
+        }
+        outboundQueueStatistics = new OutboundQueueStatistics();
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "websocket-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        JmxUtils.registerMBean("WebSocket", "outboundQueue", outboundQueueStatistics);
+        Launcher.INJECTOR.getInstance(ApplicationLifeCycleManager.class).addService(this);
         BrickStateMsgDispatcher msgDispatcher = Launcher.INJECTOR.getInstance(BrickStateMsgDispatcher.class);
         msgDispatcher.addListener(this);
         LOGGER.info("Create a new WebSocketEntryPoint : {}", Thread.currentThread().getStackTrace());
@@ -119,33 +156,28 @@ public class WebSocketEntryPoint implements BrickStateMsgListener {
                         String encodedCredentials = encodedAutorization.substring("Basic ".length());
                         String decoded = new String(Base64.getDecoder().decode(encodedCredentials));
                         String[] credentials = decoded.split(":");
-                        if (credentials.length != 2) {
+                        if (credentials.length != 2 || isBlank(credentials[0]) || isBlank(credentials[1])) {
                             sessions.remove(session);
                             session.close(1008, "Authorization value in data mal formatted");
                         } else {
-                            User user = userStore.getUserByUsername(credentials[0]);
+                            User user = userAuthenticator.authenticate(new SimpleCredential(credentials[0], credentials[1]));
                             if (user == null) {
                                 sessions.remove(session);
                                 session.close(4401, "Invalid credentials for user '" + credentials[0] + "'.");
                             } else {
-                                if (user.getPassword().equals(credentials[1])) {
-                                    userConnectedSession.put(user.getIdentifier(), new UserSession(session, user));
-                                    sessions.remove(session);
-                                    JsonObject dataValidate = new JsonObject();
-                                    dataValidate.addProperty("message", "success");
-                                    dataValidate.addProperty("identifier", user.getIdentifier());
-                                    WebSocketMessage response = new WebSocketMessage("user", "authentication", dataValidate);
-                                    String responseStr = gson.toJson(response);
-                                    session.getRemote().sendString(responseStr);
-                                    if (LOGGER.isDebugEnabled()) {
-                                        LOGGER.debug("Send following message to user {} : {}", user.getUsername(), responseStr);
-                                    }
-                                    LOGGER.info("Send welcome message to user {} : {}", user.getUsername(), responseStr);
-                                } else {
-                                    sessions.remove(session);
-                                    session.close(4401, "Invalid credentials.");
-
+                                UserSession newUserSession = new UserSession(session, user, new SessionOutbox(session, outboundQueueCapacity, overflowPolicy, writer, outboundQueueStatistics));
+                                userSessionIndex.add(newUserSession);
+                                sessions.remove(session);
+                                JsonObject dataValidate = new JsonObject();
+                                dataValidate.addProperty("message", "success");
+                                dataValidate.addProperty("identifier", user.getIdentifier());
+                                WebSocketMessage response = new WebSocketMessage("user", "authentication", dataValidate);
+                                String responseStr = gson.toJson(response);
+                                newUserSession.send(responseStr);
+                                if (LOGGER.isDebugEnabled()) {
+                                    LOGGER.debug("Send following message to user {} : {}", user.getUsername(), responseStr);
                                 }
+                                LOGGER.info("Send welcome message to user {} : {}", user.getUsername(), responseStr);
                             }
                         }
                     } else {
@@ -170,21 +202,13 @@ public class WebSocketEntryPoint implements BrickStateMsgListener {
         }
         LOGGER.info("Connection closed for reason '{}' with status code {}.", reason, statusCode);
         sessions.remove(session);
-        String identifier = null;
-        Iterator<Map.Entry<String, UserSession>> iterator = userConnectedSession.entrySet().iterator();
-        while (iterator.hasNext() && identifier == null) {
-            Map.Entry<String, UserSession> sessionEntry = iterator.next();
-            if (sessionEntry.getValue().getSession().equals(session)) {
-                identifier = sessionEntry.getKey();
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("Connection closed attach to user {}.", sessionEntry.getValue().getUser().getUsername());
-                }
+        UserSession userSession = userSessionIndex.remove(session);
+        if (userSession != null) {
+            userSession.close();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Connection closed attach to user {}.", userSession.getUser().getUsername());
             }
         }
-        if (identifier != null) {
-            userConnectedSession.remove(identifier);
-        }
-
     }
 
     @Override
@@ -192,101 +216,31 @@ public class WebSocketEntryPoint implements BrickStateMsgListener {
         if (brickState == null) {
             throw new IllegalArgumentException("brickState must be defined.");
         }
-        WebSocketMessage message = convertToWebSocketMessage(brickState);
-        String projectConfigurationIdentifier = brickState.getProjectConfigurationIdentifier();
-        ProjectConfiguration projectConfiguration = projectStore.getProjectConfigurationById(projectConfigurationIdentifier);
-        Iterator<User> admins = projectConfiguration.getAdmins();
-        List<String> adminIds = new ArrayList<>();
-        admins.forEachRemaining(admin -> adminIds.add(admin.getIdentifier()));
-        adminIds.stream().forEach(adminId -> {
-            UserSession ownerSession = userConnectedSession.get(adminId);
-            if (ownerSession != null) {
-                sendMessageToUser(message, ownerSession);
-                projectConfiguration.getUsers().forEachRemaining(user -> {
-                    UserSession session = userConnectedSession.get(user.getIdentifier());
-                    if (session != null && !ownerSession.getUser().getIdentifier().equals(user.getIdentifier())) {
-                        sendMessageToUser(message, session);
-                        LOGGER.info("Send message to {} :{}", ownerSession.getUser().getUsername(), message);
-                    }
-                });
-            }
-        });
+        brickStateBroadcaster.broadcast(brickState);
     }
 
-    private void sendMessageToUser(WebSocketMessage message, UserSession userSession) {
-        Gson gson = localGson.get();
-        String json = gson.toJson(message);
-        try {
-            userSession.getSession().getRemote().sendString(json);
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Following message sent to user {} : {}", userSession.getUser().getUsername(), json);
-            }
-            LOGGER.info("Following message sent to user {} : {}", userSession.getUser().getUsername(), json);
-        } catch (IOException e) {
-            LOGGER.error("Unable to notify user {}.", userSession.getUser().getUsername());
+    @Override
+    public void receive(UserAdditionState userAdditionState) {
+        if (userAdditionState == null) {
+            throw new IllegalArgumentException("userAdditionState must be defined.");
         }
+        brickStateBroadcaster.broadcast(userAdditionState);
     }
 
-    private WebSocketMessage convertToWebSocketMessage(BrickState brickState) {
-        JsonObject data = new JsonObject();
-        data.addProperty("projectConfiguration", brickState.getProjectConfigurationIdentifier());
-        data.addProperty("brickType", brickState.getBrickType());
-        data.addProperty("brickName", brickState.getBrickName());
-        data.addProperty("state", brickState.getState().name());
-        if (brickState.getState() == BrickState.State.RUNNING) {
-            ProjectConfiguration projectConfiguration = projectStore.getProjectConfigurationById(brickState.getProjectConfigurationIdentifier());
-            data.addProperty("url", "https://" + brickUrlFactory.forgeUrl(projectConfiguration.getName(), brickState.getStackName() , brickState.getBrickType(), brickState.getBrickName()));
-        }
-        if (brickState.getState() == BrickState.State.ONFAILURE) {
-            data.addProperty("message", brickState.getMessage());
-        }
+    @Override
+    public void start() {
+        //  Nothing to do.
+    }
 
-        return new WebSocketMessage("brick", "updateState", data);
+    @Override
+    public void stop() {
+        LOGGER.info("Stopping WebSocketEntryPoint.");
+        writer.shutdown();
     }
 
     private UserSession sessionIsValidated(Session session){
         assert session != null : "session must be defined";
-        UserSession res = null;
-        Iterator<UserSession> iterator = userConnectedSession.values().iterator();
-        while (res == null && iterator.hasNext()) {
-            UserSession current = iterator.next();
-            if (current.getSession().equals(session)) {
-                res = current;
-            }
-        }
-        return res;
-    }
-
-    private class UserSession {
-
-        private final Session session;
-
-        private final User user;
-
-        private long lastActivityDate;
-
-        public UserSession(Session session, User user) {
-            this.session = session;
-            this.user = user;
-            this.lastActivityDate = System.currentTimeMillis();
-        }
-
-        public Session getSession() {
-            return session;
-        }
-
-        public User getUser() {
-            return user;
-        }
-
-        public long getLastActivityDate() {
-            return lastActivityDate;
-        }
-
-        public void setLastActivityDate(long lastActivityDate) {
-            if (this.lastActivityDate < lastActivityDate)
-                this.lastActivityDate = lastActivityDate;
-        }
+        return userSessionIndex.get(session);
     }
 
 }
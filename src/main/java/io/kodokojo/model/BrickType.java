@@ -17,6 +17,8 @@
  */
 package io.kodokojo.model;
 
+import java.util.EnumSet;
+import java.util.Set;
 
 public enum BrickType {
 
@@ -54,4 +56,18 @@ public enum BrickType {
         return stackType;
     }
 
+    /**
+     * @return Types of the bricks which must be running in the project before a brick of this type can be started.
+     */
+    public Set<BrickType> getDependencies() {
+        switch (this) {
+            case CI:
+            case QA:
+                //  Need the SCM url and credentials to be configured.
+                return EnumSet.of(SCM);
+            default:
+                return EnumSet.noneOf(BrickType.class);
+        }
+    }
+
 }
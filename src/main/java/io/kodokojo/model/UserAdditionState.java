@@ -0,0 +1,122 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.model;
+
+import java.io.Serializable;
+
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+/**
+ * Progress of a job adding users to a brick of a project. Unlike {@link BrickState}, it doesn't describe the lifecycle
+ * of the brick, so it is only notified to the project members and never stored.
+ */
+public class UserAdditionState implements Serializable {
+
+    public enum State {
+        ADDING,
+        ADDED,
+        ONFAILURE
+    }
+
+    private final String jobIdentifier;
+
+    private final String projectConfigurationIdentifier;
+
+    private final String stackName;
+
+    private final String brickType;
+
+    private final String brickName;
+
+    private final State state;
+
+    private final String message;
+
+    public UserAdditionState(String jobIdentifier, String projectConfigurationIdentifier, String stackName, String brickType, String brickName, State state, String message) {
+        if (isBlank(jobIdentifier)) {
+            throw new IllegalArgumentException("jobIdentifier must be defined.");
+        }
+        if (isBlank(projectConfigurationIdentifier)) {
+            throw new IllegalArgumentException("projectConfigurationIdentifier must be defined.");
+        }
+        if (isBlank(stackName)) {
+            throw new IllegalArgumentException("stackName must be defined.");
+        }
+        if (isBlank(brickType)) {
+            throw new IllegalArgumentException("brickType must be defined.");
+        }
+        if (isBlank(brickName)) {
+            throw new IllegalArgumentException("brickName must be defined.");
+        }
+        if (state == null) {
+            throw new IllegalArgumentException("state must be defined.");
+        }
+        this.jobIdentifier = jobIdentifier;
+        this.projectConfigurationIdentifier = projectConfigurationIdentifier;
+        this.stackName = stackName;
+        this.brickType = brickType;
+        this.brickName = brickName;
+        this.state = state;
+        this.message = message;
+    }
+
+    public UserAdditionState(String jobIdentifier, String projectConfigurationIdentifier, String stackName, String brickType, String brickName, State state) {
+        this(jobIdentifier, projectConfigurationIdentifier, stackName, brickType, brickName, state, null);
+    }
+
+    public String getJobIdentifier() {
+        return jobIdentifier;
+    }
+
+    public String getProjectConfigurationIdentifier() {
+        return projectConfigurationIdentifier;
+    }
+
+    public String getStackName() {
+        return stackName;
+    }
+
+    public String getBrickType() {
+        return brickType;
+    }
+
+    public String getBrickName() {
+        return brickName;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "UserAdditionState{" +
+                "jobIdentifier='" + jobIdentifier + '\'' +
+                ", projectConfigurationIdentifier='" + projectConfigurationIdentifier + '\'' +
+                ", stackName='" + stackName + '\'' +
+                ", brickType='" + brickType + '\'' +
+                ", brickName='" + brickName + '\'' +
+                ", message=" + message +
+                ", state=" + state +
+                '}';
+    }
+}
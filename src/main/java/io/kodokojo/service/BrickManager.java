@@ -24,6 +24,7 @@ import io.kodokojo.commons.model.Service;
 import io.kodokojo.model.*;
 
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Allow to manage Brick throw a {@link ProjectConfiguration}, {@link BrickDeploymentState} and {@link BrickType}.
@@ -40,12 +41,25 @@ public interface BrickManager {
      */
     Set<Service> start(ProjectConfiguration projectConfiguration, BrickType brickType) throws BrickAlreadyExist;
 
+    /**
+     * Start a given {@link BrickType} like {@link #start(ProjectConfiguration, BrickType)}, without blocking the caller
+     * while the Brick starts.
+     * @param projectConfiguration The projectConfiguration which contain all data required to start Brick.
+     * @param brickType The BrickType to start.
+     * @return A future completed with the started endpoints once they are ready to be configured.
+     * @throws BrickAlreadyExist Throw if Brick had been already started for this Project.
+     */
+    default CompletableFuture<Set<Service>> startAsync(ProjectConfiguration projectConfiguration, BrickType brickType) throws BrickAlreadyExist {
+        return CompletableFuture.completedFuture(start(projectConfiguration, brickType));
+    }
+
     /**
      * Configure a Brick for thos ProjectConfiguration.</br>
      * This step may lookup a {@link BrickConfigurer} from a {@link BrickConfigurerProvider} and apply it.</br>
      * This step may also add all users defined in ProjectConfiguration.
      * @param projectConfiguration The projectConfiguration which contain all data required to configure Brick.
      * @param brickType The BrickType to start.
+     * @throws UsersNotProvisionedException When the Brick is configured but some users couldn't be added to it.
      */
     void configure(ProjectConfiguration projectConfiguration, BrickType brickType) throws ProjectConfigurationException;
 
@@ -23,6 +23,7 @@ import io.kodokojo.model.*;
 import io.kodokojo.model.Stack;
 import io.kodokojo.service.dns.DnsEntry;
 import io.kodokojo.service.dns.DnsManager;
+import io.kodokojo.service.lifecycle.ApplicationLifeCycleListener;
 import io.kodokojo.service.store.ProjectStore;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.IteratorUtils;
@@ -32,18 +33,25 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static org.apache.commons.lang.StringUtils.isBlank;
 
-public class DefaultProjectManager implements ProjectManager {
+public class DefaultProjectManager implements ProjectManager, ApplicationLifeCycleListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultProjectManager.class);
 
     //  Source Regexp http://sroze.io/2008/10/09/regex-ipv4-et-ipv6/
     private static final Pattern IP_PATTERN = Pattern.compile("^(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?).(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?).(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?).(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)$");
 
+    private static final int DEFAULT_ADD_USERS_POOL_SIZE = 8;
+
     private final String domain;
 
     private final ConfigurationStore configurationStore;
@@ -60,6 +68,13 @@ public class DefaultProjectManager implements ProjectManager {
 
     private final BrickConfigurerProvider brickConfigurerProvider;
 
+    private final BrickStartScheduler brickStartScheduler;
+
+    private final BrickStateMsgListener brickStateMsgListener;
+
+    //  Bricks on which users are added concurrently, whatever the project.
+    private final ThreadPoolExecutor addUsersExecutor;
+
     @Inject
     public DefaultProjectManager(String domain,
                                  ConfigurationStore configurationStore,
@@ -68,7 +83,10 @@ public class DefaultProjectManager implements ProjectManager {
                                  DnsManager dnsManager,
                                  BrickConfigurerProvider brickConfigurerProvider,
                                  BrickConfigurationStarter brickConfigurationStarter,
-                                 BrickUrlFactory brickUrlFactory) {
+                                 BrickUrlFactory brickUrlFactory,
+                                 BrickStartScheduler brickStartScheduler,
+                                 BrickStateMsgListener brickStateMsgListener,
+                                 int addUsersPoolSize) {
 
         if (isBlank(domain)) {
             throw new IllegalArgumentException("domain must be defined.");
@@ -94,6 +112,9 @@ public class DefaultProjectManager implements ProjectManager {
         if (brickUrlFactory == null) {
             throw new IllegalArgumentException("brickUrlFactory must be defined.");
         }
+        if (addUsersPoolSize <= 0) {
+            throw new IllegalArgumentException("addUsersPoolSize must be positive.");
+        }
         this.brickConfigurationStarter = brickConfigurationStarter;
         this.domain = domain;
         this.configurationStore = configurationStore;
@@ -102,6 +123,40 @@ public class DefaultProjectManager implements ProjectManager {
         this.brickConfigurerProvider = brickConfigurerProvider;
         this.dnsManager = dnsManager;
         this.brickUrlFactory = brickUrlFactory;
+        this.brickStartScheduler = brickStartScheduler;
+        this.brickStateMsgListener = brickStateMsgListener;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.addUsersExecutor = new ThreadPoolExecutor(addUsersPoolSize, addUsersPoolSize, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "project-add-users-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.addUsersExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    //  Without brick state listener, progress of users addition isn't published.
+    public DefaultProjectManager(String domain,
+                                 ConfigurationStore configurationStore,
+                                 ProjectStore projectStore,
+                                 BootstrapConfigurationProvider bootstrapConfigurationProvider,
+                                 DnsManager dnsManager,
+                                 BrickConfigurerProvider brickConfigurerProvider,
+                                 BrickConfigurationStarter brickConfigurationStarter,
+                                 BrickUrlFactory brickUrlFactory,
+                                 BrickStartScheduler brickStartScheduler) {
+        this(domain, configurationStore, projectStore, bootstrapConfigurationProvider, dnsManager, brickConfigurerProvider, brickConfigurationStarter, brickUrlFactory, brickStartScheduler, null, DEFAULT_ADD_USERS_POOL_SIZE);
+    }
+
+    //  Without scheduler, brick states aren't observed and all bricks are started at once.
+    public DefaultProjectManager(String domain,
+                                 ConfigurationStore configurationStore,
+                                 ProjectStore projectStore,
+                                 BootstrapConfigurationProvider bootstrapConfigurationProvider,
+                                 DnsManager dnsManager,
+                                 BrickConfigurerProvider brickConfigurerProvider,
+                                 BrickConfigurationStarter brickConfigurationStarter,
+                                 BrickUrlFactory brickUrlFactory) {
+        this(domain, configurationStore, projectStore, bootstrapConfigurationProvider, dnsManager, brickConfigurerProvider, brickConfigurationStarter, brickUrlFactory, null);
     }
 
     @Override
@@ -152,43 +207,97 @@ public class DefaultProjectManager implements ProjectManager {
 
         }
         dnsManager.createOrUpdateDnsEntries(dnsEntries);
-        contexts.forEach(brickConfigurationStarter::start);
+        if (brickStartScheduler == null) {
+            contexts.forEach(brickConfigurationStarter::start);
+        } else {
+            brickStartScheduler.schedule(contexts);
+        }
         Project project = new Project(projectConfiguration.getIdentifier(), projectName, new Date(), stacks);
         return project;
     }
 
     @Override
     public void addUsersToProject(ProjectConfiguration projectConfiguration, List<User> usersToAdd) {
+        if (CollectionUtils.isEmpty(usersToAdd)) {
+            throw new IllegalArgumentException("usersToAdd must be defined.");
+        }
+        addUsersToBricks(UUID.randomUUID().toString(), projectConfiguration, usersToAdd).join();
+    }
+
+    @Override
+    public String addUsersToProjectAsync(ProjectConfiguration projectConfiguration, List<User> usersToAdd) {
+        String jobId = UUID.randomUUID().toString();
+        addUsersToBricks(jobId, projectConfiguration, usersToAdd).whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                LOGGER.error("Job {} adding users to project {} ended unexpectedly.", jobId, projectConfiguration.getName(), throwable);
+            } else {
+                LOGGER.info("Job {} adding users to project {} completed.", jobId, projectConfiguration.getName());
+            }
+        });
+        return jobId;
+    }
+
+    @Override
+    public void start() {
+        //  Nothing to do.
+    }
+
+    @Override
+    public void stop() {
+        addUsersExecutor.shutdown();
+    }
+
+    private CompletableFuture<Void> addUsersToBricks(String jobId, ProjectConfiguration projectConfiguration, List<User> usersToAdd) {
         if (projectConfiguration == null) {
             throw new IllegalArgumentException("projectConfiguration must be defined.");
         }
-        if (CollectionUtils.isEmpty(usersToAdd)) {
+        if (usersToAdd == null) {
             throw new IllegalArgumentException("usersToAdd must be defined.");
         }
+        if (usersToAdd.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
 
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
         projectConfiguration.getStackConfigurations().forEach(stackConfiguration -> {
             stackConfiguration.getBrickConfigurations().forEach(brickConfiguration -> {
                 BrickConfigurer brickConfigurer = brickConfigurerProvider.provideFromBrick(brickConfiguration.getBrick());
-                String entrypoint = "http://" + brickUrlFactory.forgeUrl(projectConfiguration, stackConfiguration.getName(), brickConfiguration);
-                BrickConfigurerData brickConfigurerData = new BrickConfigurerData(projectConfiguration.getName(),
-                        stackConfiguration.getName(),
-                        entrypoint,
-                        domain,
-                        IteratorUtils.toList(projectConfiguration.getAdmins()),
-                        IteratorUtils.toList(projectConfiguration.getUsers())
-                );
-                brickConfigurerData.getContext().putAll(brickConfiguration.getCustomData());
-                try {
-                    if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug("Try to add users {} on entrypoint {}.", org.apache.commons.lang.StringUtils.join(usersToAdd, ","), entrypoint);
-                    }
-                    brickConfigurer.addUsers(brickConfigurerData, usersToAdd);
-                } catch (BrickConfigurationException e) {
-                    LOGGER.error("An error occure while add users to brick " + brickConfiguration.getName() + "[" + entrypoint + "] on project " + projectConfiguration.getName() + ".", e);
+                if (brickConfigurer != null) {
+                    futures.add(CompletableFuture.runAsync(() -> addUsersToBrick(jobId, projectConfiguration, stackConfiguration, brickConfiguration, brickConfigurer, usersToAdd), addUsersExecutor));
                 }
             });
         });
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]));
+    }
+
+    private void addUsersToBrick(String jobId, ProjectConfiguration projectConfiguration, StackConfiguration stackConfiguration, BrickConfiguration brickConfiguration, BrickConfigurer brickConfigurer, List<User> usersToAdd) {
+        String entrypoint = "http://" + brickUrlFactory.forgeUrl(projectConfiguration, stackConfiguration.getName(), brickConfiguration);
+        BrickConfigurerData brickConfigurerData = new BrickConfigurerData(projectConfiguration.getName(),
+                stackConfiguration.getName(),
+                entrypoint,
+                domain,
+                IteratorUtils.toList(projectConfiguration.getAdmins()),
+                IteratorUtils.toList(projectConfiguration.getUsers())
+        );
+        brickConfigurerData.getContext().putAll(brickConfiguration.getCustomData());
+        publishState(jobId, projectConfiguration, stackConfiguration, brickConfiguration, UserAdditionState.State.ADDING, null);
+        try {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Job {} try to add users {} on entrypoint {}.", jobId, StringUtils.join(usersToAdd, ","), entrypoint);
+            }
+            brickConfigurer.addUsers(brickConfigurerData, usersToAdd);
+            publishState(jobId, projectConfiguration, stackConfiguration, brickConfiguration, UserAdditionState.State.ADDED, null);
+        } catch (BrickConfigurationException | RuntimeException e) {
+            LOGGER.error("Job " + jobId + ": an error occure while add users to brick " + brickConfiguration.getName() + "[" + entrypoint + "] on project " + projectConfiguration.getName() + ".", e);
+            publishState(jobId, projectConfiguration, stackConfiguration, brickConfiguration, UserAdditionState.State.ONFAILURE, e.getMessage());
+        }
+    }
 
+    //  Not a BrickState: adding users doesn't change the lifecycle state of the brick, which must not be stored.
+    private void publishState(String jobId, ProjectConfiguration projectConfiguration, StackConfiguration stackConfiguration, BrickConfiguration brickConfiguration, UserAdditionState.State state, String message) {
+        if (brickStateMsgListener != null) {
+            brickStateMsgListener.receive(new UserAdditionState(jobId, projectConfiguration.getIdentifier(), stackConfiguration.getName(), brickConfiguration.getType().name(), brickConfiguration.getName(), state, message));
+        }
     }
 
     private static DnsEntry.Type getDnsType(String host) {
@@ -0,0 +1,136 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service;
+
+import com.squareup.okhttp.ConnectionPool;
+import com.squareup.okhttp.Dispatcher;
+import com.squareup.okhttp.OkHttpClient;
+import io.kodokojo.config.HttpClientConfig;
+import io.kodokojo.service.lifecycle.ApplicationLifeCycleListener;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.net.CookieHandler;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provide the {@link OkHttpClient}s used to reach Marathon and the bricks. All of them share a connection pool and a
+ * dispatcher, so connections and TLS sessions are reused from one operation to the other; only timeouts and TLS
+ * settings differ by target.
+ */
+public class OkHttpClientFactory implements ApplicationLifeCycleListener {
+
+    private final ConnectionPool connectionPool;
+
+    private final Dispatcher dispatcher;
+
+    private final OkHttpClient marathonClient;
+
+    private final OkHttpClient brickClient;
+
+    private final OkHttpClient unsecureBrickClient;
+
+    public OkHttpClientFactory(HttpClientConfig httpClientConfig) {
+        if (httpClientConfig == null) {
+            throw new IllegalArgumentException("httpClientConfig must be defined.");
+        }
+        connectionPool = new ConnectionPool(httpClientConfig.maxIdleConnections(), httpClientConfig.keepAliveDuration());
+        dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(httpClientConfig.maxRequestsPerHost());
+
+        marathonClient = createClient(httpClientConfig.marathonConnectTimeout(), httpClientConfig.marathonReadTimeout());
+        brickClient = createClient(httpClientConfig.brickConnectTimeout(), httpClientConfig.brickReadTimeout());
+
+        unsecureBrickClient = brickClient.clone();
+        unsecureBrickClient.setSslSocketFactory(createTrustAllSslContext().getSocketFactory());
+        unsecureBrickClient.setHostnameVerifier((hostname, sslSession) -> true);
+    }
+
+    public OkHttpClient marathonClient() {
+        return marathonClient;
+    }
+
+    public OkHttpClient brickClient() {
+        return brickClient;
+    }
+
+    /**
+     * @param cookieHandler Cookie handler dedicated to the session, cookies are never shared with other calls.
+     * @return A client for a brick exposed with a certificate of the Kodo Kojo CA, which trusts any certificate.
+     */
+    public OkHttpClient brickSessionClient(CookieHandler cookieHandler) {
+        if (cookieHandler == null) {
+            throw new IllegalArgumentException("cookieHandler must be defined.");
+        }
+        OkHttpClient res = unsecureBrickClient.clone();
+        res.setCookieHandler(cookieHandler);
+        return res;
+    }
+
+    @Override
+    public void start() {
+        //  Nothing to do.
+    }
+
+    @Override
+    public void stop() {
+        connectionPool.evictAll();
+        dispatcher.getExecutorService().shutdown();
+    }
+
+    private OkHttpClient createClient(long connectTimeout, long readTimeout) {
+        OkHttpClient httpClient = new OkHttpClient();
+        httpClient.setConnectionPool(connectionPool);
+        httpClient.setDispatcher(dispatcher);
+        httpClient.setConnectTimeout(connectTimeout, TimeUnit.MILLISECONDS);
+        httpClient.setReadTimeout(readTimeout, TimeUnit.MILLISECONDS);
+        httpClient.setWriteTimeout(readTimeout, TimeUnit.MILLISECONDS);
+        return httpClient;
+    }
+
+    private static SSLContext createTrustAllSslContext() {
+        TrustManager[] trustManagers = new TrustManager[]{new X509TrustManager() {
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+                //  Trust all.
+            }
+
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+                //  Trust all.
+            }
+        }};
+        try {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, trustManagers, new SecureRandom());
+            return sslContext;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to create TLS context.", e);
+        }
+    }
+
+}
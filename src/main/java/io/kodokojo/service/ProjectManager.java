@@ -51,4 +51,13 @@ public interface ProjectManager {
      * @param usersToAdd
      */
     void addUsersToProject(ProjectConfiguration projectConfiguration, List<User> usersToAdd);
+
+    /**
+     * Add a list of users to a project without waiting for the bricks to be configured. Users are added on all bricks
+     * in parallel, the progress of each brick being published as a {@link UserAdditionState}.
+     * @param projectConfiguration The project configuration on which users are added.
+     * @param usersToAdd The users to add, may be empty.
+     * @return The identifier of the job, found in the published {@link UserAdditionState}.
+     */
+    String addUsersToProjectAsync(ProjectConfiguration projectConfiguration, List<User> usersToAdd);
 }
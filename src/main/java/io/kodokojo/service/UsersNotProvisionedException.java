@@ -0,0 +1,40 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service;
+
+import io.kodokojo.brick.UserProvisioningReport;
+
+/**
+ * Thrown when a brick is configured but some of the project users could not be added to it.
+ */
+public class UsersNotProvisionedException extends ProjectConfigurationException {
+
+    private final UserProvisioningReport report;
+
+    public UsersNotProvisionedException(String message, UserProvisioningReport report) {
+        super(message);
+        if (report == null) {
+            throw new IllegalArgumentException("report must be defined.");
+        }
+        this.report = report;
+    }
+
+    public UserProvisioningReport getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
+
+import java.io.StringWriter;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+/**
+ * Render Velocity templates loaded from the classpath. A single engine is shared by the whole application and each
+ * template is parsed once, on its first use; parsed templates are thread safe and merged concurrently.
+ */
+public class VelocityTemplateRenderer {
+
+    private static final VelocityTemplateRenderer INSTANCE = new VelocityTemplateRenderer();
+
+    private final VelocityEngine velocityEngine;
+
+    private final ConcurrentMap<String, Template> templates;
+
+    VelocityTemplateRenderer() {
+        Properties properties = new Properties();
+        properties.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
+        properties.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
+        properties.setProperty("runtime.log.logsystem.class", "org.apache.velocity.runtime.log.NullLogChute");
+        velocityEngine = new VelocityEngine();
+        velocityEngine.init(properties);
+        templates = new ConcurrentHashMap<>();
+    }
+
+    public static VelocityTemplateRenderer getInstance() {
+        return INSTANCE;
+    }
+
+    public String render(String templatePath, VelocityContext context) {
+        if (isBlank(templatePath)) {
+            throw new IllegalArgumentException("templatePath must be defined.");
+        }
+        if (context == null) {
+            throw new IllegalArgumentException("context must be defined.");
+        }
+        Template template = templates.computeIfAbsent(templatePath, velocityEngine::getTemplate);
+        StringWriter sw = new StringWriter();
+        template.merge(context, sw);
+        return sw.toString();
+    }
+
+}
@@ -34,17 +34,23 @@ import io.kodokojo.brick.BrickStartContext;
 import io.kodokojo.service.ConfigurationStore;
 import io.kodokojo.service.ProjectConfigurationException;
 import io.kodokojo.service.SSLCertificatProvider;
+import io.kodokojo.service.UsersNotProvisionedException;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public class BrickConfigurationStarterActor extends AbstractActor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BrickConfigurationStarterActor.class);
 
+    public static final String DISPATCHER_NAME = "kodokojo.brick-start-dispatcher";
+
     private final BrickManager brickManager;
 
     private final ConfigurationStore configurationStore;
@@ -91,57 +97,86 @@ public class BrickConfigurationStarterActor extends AbstractActor {
         String projectName = projectConfiguration.getName();
         String url = brickUrlFactory.forgeUrl(projectConfiguration,projectConfiguration.getDefaultStackConfiguration().getName(), brickConfiguration);
         String httpsUrl = "https://" + url;
-        if (brickType.isRequiredHttpExposed()) {
+
+        //  self() and the dispatcher must not be read from the future callbacks, which run outside of the actor.
+        ActorRef self = self();
+        Executor executor = getContext().dispatcher();
+
+        //  Each step runs on the brick start dispatcher, no thread is held while Marathon brings the brick up.
+        CompletableFuture.runAsync(() -> provideCertificat(brickStartContext), executor)
+                .thenComposeAsync(aVoid -> deploy(brickStartContext, httpsUrl, self), executor)
+                .thenAcceptAsync(services -> {
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("{} for project {} started : {}", brickType, projectName, StringUtils.join(services, ","));
+                    }
+                    configure(brickStartContext, httpsUrl, self);
+                }, executor)
+                .whenComplete((aVoid, e) -> {
+                    if (e != null) {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof BrickAlreadyExist) {
+                            BrickAlreadyExist brickAlreadyExist = (BrickAlreadyExist) cause;
+                            LOGGER.error("Brick {} already exist for project {}, not reconfigure it.", brickAlreadyExist.getBrickName(), brickAlreadyExist.getProjectName());
+                            generateMsgAndSend(brickStartContext, httpsUrl, BrickState.State.ALREADYEXIST, self);
+                        } else {
+                            LOGGER.error("An error occurred while trying to start brick {} for project {}.", brickType, projectName, cause);
+                            generateMsgAndSend(brickStartContext, httpsUrl, BrickState.State.ONFAILURE, cause.getMessage(), self);
+                        }
+                    }
+                });
+    }
+
+    private void provideCertificat(BrickStartContext brickStartContext) {
+        BrickConfiguration brickConfiguration = brickStartContext.getBrickConfiguration();
+        if (brickConfiguration.getType().isRequiredHttpExposed()) {
+            String projectName = brickStartContext.getProjectConfiguration().getName();
             SSLKeyPair brickSslKeyPair = sslCertificatProvider.provideCertificat(projectName, brickStartContext.getStackConfiguration().getName(), brickConfiguration);
-            configurationStore.storeSSLKeys(projectName, brickStartContext.getBrickConfiguration().getBrick().getName().toLowerCase(), brickSslKeyPair);
+            configurationStore.storeSSLKeys(projectName, brickConfiguration.getBrick().getName().toLowerCase(), brickSslKeyPair);
         }
+    }
 
+    private CompletableFuture<Set<Service>> deploy(BrickStartContext brickStartContext, String url, ActorRef self) {
+        generateMsgAndSend(brickStartContext, url, BrickState.State.STARTING, self);
         try {
-            generateMsgAndSend(brickStartContext, httpsUrl, BrickState.State.STARTING);
-
-
-            Set<Service> services = brickManager.start(projectConfiguration, brickType);
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("{} for project {} started : {}", brickType, projectName, StringUtils.join(services, ","));
-            }
-            generateMsgAndSend(brickStartContext, httpsUrl, BrickState.State.CONFIGURING);
-
-            boolean configured = false;
-            try {
-                brickManager.configure(projectConfiguration, brickType);
-                configured = true;
-            } catch (ProjectConfigurationException e) {
-                LOGGER.error("An error occure while trying to configure project {}", projectName, e);
-                generateMsgAndSend(brickStartContext, httpsUrl, BrickState.State.ONFAILURE, e.getMessage());
-            }
-
-            if (configured) {
-                generateMsgAndSend(brickStartContext, httpsUrl, BrickState.State.RUNNING);
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("{} for project {} configured", brickType, projectName);
-                }
-            }
+            return brickManager.startAsync(brickStartContext.getProjectConfiguration(), brickStartContext.getBrickConfiguration().getType());
         } catch (BrickAlreadyExist brickAlreadyExist) {
-            LOGGER.error("Brick {} already exist for project {}, not reconfigure it.", brickAlreadyExist.getBrickName(), brickAlreadyExist.getProjectName());
-            generateMsgAndSend(brickStartContext, httpsUrl, BrickState.State.ALREADYEXIST);
-        } catch (RuntimeException e) {
-            LOGGER.error("An error occurred while trying to start brick {} for project {}.", brickType, projectName, e);
-            generateMsgAndSend(brickStartContext, httpsUrl, BrickState.State.ONFAILURE, e.getMessage());
+            throw new CompletionException(brickAlreadyExist);
         }
     }
 
+    private void configure(BrickStartContext brickStartContext, String url, ActorRef self) {
+        ProjectConfiguration projectConfiguration = brickStartContext.getProjectConfiguration();
+        BrickType brickType = brickStartContext.getBrickConfiguration().getType();
+        generateMsgAndSend(brickStartContext, url, BrickState.State.CONFIGURING, self);
+        try {
+            brickManager.configure(projectConfiguration, brickType);
+        } catch (UsersNotProvisionedException e) {
+            //  Brick is usable, the failed users are reported with its state.
+            LOGGER.warn("Brick {} of project {} configured without all its users: {}", brickType, projectConfiguration.getName(), e.getReport().getFailures());
+            generateMsgAndSend(brickStartContext, url, BrickState.State.RUNNING, e.getMessage(), self);
+            return;
+        } catch (ProjectConfigurationException e) {
+            LOGGER.error("An error occure while trying to configure project {}", projectConfiguration.getName(), e);
+            generateMsgAndSend(brickStartContext, url, BrickState.State.ONFAILURE, e.getMessage(), self);
+            return;
+        }
+        generateMsgAndSend(brickStartContext, url, BrickState.State.RUNNING, self);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("{} for project {} configured", brickType, projectConfiguration.getName());
+        }
+    }
 
-    private void generateMsgAndSend(BrickStartContext context,String url, BrickState.State state, String messageStr) {
+    private void generateMsgAndSend(BrickStartContext context,String url, BrickState.State state, String messageStr, ActorRef sender) {
         ProjectConfiguration projectConfiguration = context.getProjectConfiguration();
         StackConfiguration stackConfiguration = context.getStackConfiguration();
         BrickConfiguration brickConfiguration = context.getBrickConfiguration();
         BrickType brickType = brickConfiguration.getType();
         String brickName = brickConfiguration.getName();
         BrickState message = new BrickState(projectConfiguration.getIdentifier(),stackConfiguration.getName(),  brickType.name(), brickName, state, url, messageStr, brickConfiguration.getVersion());
-        stateListener.tell(message, self());
+        stateListener.tell(message, sender);
     }
 
-    private void generateMsgAndSend(BrickStartContext context,String url, BrickState.State state) {
-        generateMsgAndSend(context, url, state, null);
+    private void generateMsgAndSend(BrickStartContext context,String url, BrickState.State state, ActorRef sender) {
+        generateMsgAndSend(context, url, state, null, sender);
     }
 }
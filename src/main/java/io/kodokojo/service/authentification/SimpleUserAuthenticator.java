@@ -19,20 +19,52 @@ package io.kodokojo.service.authentification;
 
 import io.kodokojo.model.User;
 import io.kodokojo.endpoint.UserAuthenticator;
+import io.kodokojo.service.cache.CacheStatisticsMXBean;
+import io.kodokojo.service.cache.LocalCache;
+import io.kodokojo.service.redis.RedisUtils;
+import io.kodokojo.service.store.UserChangeListener;
 import io.kodokojo.service.store.UserStore;
 
 import javax.inject.Inject;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
-public class SimpleUserAuthenticator implements UserAuthenticator<SimpleCredential> {
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+public class SimpleUserAuthenticator implements UserAuthenticator<SimpleCredential>, UserChangeListener {
+
+    public static final int DEFAULT_CACHE_MAX_SIZE = 1024;
+
+    public static final long DEFAULT_CACHE_TTL = 10000;
 
     private final UserStore userStore;
 
-    @Inject
-    public SimpleUserAuthenticator(UserStore userStore) {
+    //  Successful authentications only, keyed by a digest of the credentials to avoid keeping clear passwords as keys.
+    private final LocalCache<String, User> authenticatedUsers;
+
+    private final ThreadLocal<MessageDigest> localMessageDigest = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException("Unable to get instance of SHA-256 digest", e);
+            }
+        }
+    };
+
+    public SimpleUserAuthenticator(UserStore userStore, int cacheMaxSize, long cacheTtl) {
         if (userStore == null) {
             throw new IllegalArgumentException("userStore must be defined.");
         }
         this.userStore = userStore;
+        this.authenticatedUsers = new LocalCache<>(cacheMaxSize, cacheTtl);
+    }
+
+    @Inject
+    public SimpleUserAuthenticator(UserStore userStore) {
+        this(userStore, DEFAULT_CACHE_MAX_SIZE, DEFAULT_CACHE_TTL);
     }
 
     @Override
@@ -40,8 +72,45 @@ public class SimpleUserAuthenticator implements UserAuthenticator<SimpleCredenti
         if (credentials == null) {
             throw new IllegalArgumentException("credentials must be defined.");
         }
-        User user = userStore.getUserByUsername(credentials.getUsername());
-        return (user != null && user.getPassword().equals(credentials.getPassword())) ? user : null;
+        String cacheKey = computeCacheKey(credentials);
+        User user = authenticatedUsers.get(cacheKey);
+        if (user == null) {
+            user = userStore.getUserByUsername(credentials.getUsername());
+            if (user != null && user.getPassword().equals(credentials.getPassword())) {
+                authenticatedUsers.put(cacheKey, user);
+            } else {
+                user = null;
+            }
+        }
+        return user;
+    }
+
+    @Override
+    public void userChanged(String username) {
+        invalidate(username);
+    }
+
+    public void invalidate(String username) {
+        if (isBlank(username)) {
+            throw new IllegalArgumentException("username must be defined.");
+        }
+        authenticatedUsers.invalidateIf((key, user) -> username.equals(user.getUsername()));
+    }
+
+    public void invalidateAll() {
+        authenticatedUsers.invalidateAll();
+    }
+
+    public CacheStatisticsMXBean getCacheStatistics() {
+        return authenticatedUsers;
+    }
+
+    private String computeCacheKey(SimpleCredential credentials) {
+        MessageDigest messageDigest = localMessageDigest.get();
+        String username = credentials.getUsername();
+        //  Prefix username by its length to avoid collision between ("ab", "c") and ("a", "bc").
+        messageDigest.update((username.length() + ":" + username).getBytes(StandardCharsets.UTF_8));
+        return RedisUtils.hexEncode(messageDigest.digest(credentials.getPassword().getBytes(StandardCharsets.UTF_8)));
     }
 
 }
@@ -0,0 +1,223 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Small in memory cache bounded in size (least recently used entries are evicted first) and in time (each entry
+ * expires after <code>timeToLive</code> milliseconds). A <code>maxSize</code> lower or equals to 0 disable the cache.
+ */
+public class LocalCache<K, V> implements CacheStatisticsMXBean {
+
+    private final int maxSize;
+
+    private final long timeToLive;
+
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private long invalidationCount = 0;
+
+    public LocalCache(int maxSize, long timeToLive) {
+        if (timeToLive < 0) {
+            throw new IllegalArgumentException("timeToLive must be positive.");
+        }
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+        this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                boolean remove = size() > LocalCache.this.maxSize;
+                if (remove) {
+                    evictionCount.incrementAndGet();
+                }
+                return remove;
+            }
+        };
+    }
+
+    public V get(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must be defined.");
+        }
+        if (!isEnabled()) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        synchronized (entries) {
+            CacheEntry<V> entry = entries.get(key);
+            if (entry == null) {
+                missCount.incrementAndGet();
+                return null;
+            }
+            if (entry.isExpired(System.currentTimeMillis())) {
+                entries.remove(key);
+                evictionCount.incrementAndGet();
+                missCount.incrementAndGet();
+                return null;
+            }
+            hitCount.incrementAndGet();
+            return entry.value;
+        }
+    }
+
+    /**
+     * Lookup the value of <code>key</code>, load it with <code>loader</code> on a miss. A value loaded while an
+     * invalidation occurred is returned but not cached, it may already be stale.
+     */
+    public V get(K key, Function<K, V> loader) {
+        if (loader == null) {
+            throw new IllegalArgumentException("loader must be defined.");
+        }
+        V value = get(key);
+        if (value == null) {
+            long stamp = currentInvalidationCount();
+            value = loader.apply(key);
+            if (value != null) {
+                putIfNotInvalidatedSince(key, value, stamp);
+            }
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must be defined.");
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("value must be defined.");
+        }
+        if (isEnabled()) {
+            synchronized (entries) {
+                entries.put(key, new CacheEntry<>(value, System.currentTimeMillis() + timeToLive));
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must be defined.");
+        }
+        synchronized (entries) {
+            invalidationCount++;
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateIf(BiPredicate<K, V> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("predicate must be defined.");
+        }
+        synchronized (entries) {
+            invalidationCount++;
+            Iterator<Map.Entry<K, CacheEntry<V>>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<K, CacheEntry<V>> entry = iterator.next();
+                if (predicate.test(entry.getKey(), entry.getValue().value)) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidationCount++;
+            entries.clear();
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    @Override
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    private boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    private long currentInvalidationCount() {
+        synchronized (entries) {
+            return invalidationCount;
+        }
+    }
+
+    private void putIfNotInvalidatedSince(K key, V value, long stamp) {
+        synchronized (entries) {
+            if (invalidationCount == stamp) {
+                put(key, value);
+            }
+        }
+    }
+
+    private static class CacheEntry<V> {
+
+        private final V value;
+
+        private final long expireAt;
+
+        private CacheEntry(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now > expireAt;
+        }
+    }
+
+}
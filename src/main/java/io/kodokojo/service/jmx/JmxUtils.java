@@ -0,0 +1,69 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.jmx;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+public class JmxUtils {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JmxUtils.class);
+
+    public static final String DOMAIN = "io.kodokojo";
+
+    private JmxUtils() {
+        //  Utility class
+    }
+
+    /**
+     * Register <code>mbean</code> in the platform MBean server as <code>io.kodokojo:type=&lt;type&gt;,name=&lt;name&gt;</code>,
+     * replacing any MBean previously registered with the same name.
+     */
+    public static void registerMBean(String type, String name, Object mbean) {
+        if (isBlank(type)) {
+            throw new IllegalArgumentException("type must be defined.");
+        }
+        if (isBlank(name)) {
+            throw new IllegalArgumentException("name must be defined.");
+        }
+        if (mbean == null) {
+            throw new IllegalArgumentException("mbean must be defined.");
+        }
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + ",name=" + name);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(mbean, objectName);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("MBean {} registered.", objectName);
+            }
+        } catch (JMException e) {
+            LOGGER.warn("Unable to register MBean of type {} with name {}.", type, name, e);
+        }
+    }
+
+}
@@ -17,19 +17,25 @@
  */
 package io.kodokojo.service.lifecycle;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 public class ApplicationLifeCycleManager {
 
-    private Set<ApplicationLifeCycleListener> listeners = new HashSet<>();
+    //  Services are stopped in the reverse order of their addition, so a service is stopped before the ones it depends on.
+    private final Set<ApplicationLifeCycleListener> listeners = new LinkedHashSet<>();
 
     public void addService(ApplicationLifeCycleListener applicationLifeCycleListener) {
         listeners.add(applicationLifeCycleListener);
     }
 
     public void stop() {
-        listeners.forEach(ApplicationLifeCycleListener::stop);
+        List<ApplicationLifeCycleListener> toStop = new ArrayList<>(listeners);
+        Collections.reverse(toStop);
+        toStop.forEach(ApplicationLifeCycleListener::stop);
     }
 
 }
@@ -17,45 +17,54 @@
  */
 package io.kodokojo.service.marathon;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import io.kodokojo.brick.*;
 import io.kodokojo.commons.model.Service;
 import io.kodokojo.commons.utils.servicelocator.marathon.MarathonServiceLocator;
 import io.kodokojo.model.*;
 import io.kodokojo.brick.BrickConfigurerData;
 import io.kodokojo.service.BrickManager;
+import io.kodokojo.service.OkHttpClientFactory;
 import io.kodokojo.service.ProjectConfigurationException;
+import io.kodokojo.service.UsersNotProvisionedException;
+import io.kodokojo.service.VelocityTemplateRenderer;
+import io.kodokojo.service.lifecycle.ApplicationLifeCycleListener;
 import io.kodokojo.service.store.ProjectStore;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.IteratorUtils;
 import org.apache.commons.lang.StringUtils;
-import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.VelocityEngine;
-import org.apache.velocity.runtime.RuntimeConstants;
-import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import retrofit.RestAdapter;
 import retrofit.RetrofitError;
+import retrofit.client.OkClient;
 import retrofit.mime.TypedString;
 
 import javax.inject.Inject;
-import java.io.StringWriter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.apache.commons.lang.StringUtils.isBlank;
 
-public class MarathonBrickManager implements BrickManager {
+public class MarathonBrickManager implements BrickManager, ApplicationLifeCycleListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MarathonBrickManager.class);
 
-    private static final Properties VE_PROPERTIES = new Properties();
+    //  In milliseconds.
+    public static final long DEFAULT_BRICK_START_TIMEOUT = 1000000;
 
-    static {
-        VE_PROPERTIES.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
-        VE_PROPERTIES.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
-        VE_PROPERTIES.setProperty("runtime.log.logsystem.class", "org.apache.velocity.runtime.log.NullLogChute");
-    }
+    //  In milliseconds.
+    private static final long SERVICE_LOOKUP_DELAY = 500;
+
+    private static final int SERVICE_LOOKUP_POOL_SIZE = 2;
 
     private final String marathonUrl;
 
@@ -73,8 +82,14 @@ public class MarathonBrickManager implements BrickManager {
 
     private final BrickUrlFactory brickUrlFactory;
 
+    private final MarathonEventSubscriber marathonEventSubscriber;
+
+    private final long brickStartTimeout;
+
+    private final ScheduledExecutorService serviceLookupExecutor;
+
     @Inject
-    public MarathonBrickManager(String marathonUrl, MarathonServiceLocator marathonServiceLocator, BrickConfigurerProvider brickConfigurerProvider, ProjectStore projectStore, boolean constrainByTypeAttribute, String domain, BrickUrlFactory brickUrlFactory) {
+    public MarathonBrickManager(String marathonUrl, MarathonServiceLocator marathonServiceLocator, BrickConfigurerProvider brickConfigurerProvider, ProjectStore projectStore, boolean constrainByTypeAttribute, String domain, BrickUrlFactory brickUrlFactory, MarathonEventSubscriber marathonEventSubscriber, OkHttpClientFactory httpClientFactory, long brickStartTimeout) {
         if (isBlank(marathonUrl)) {
             throw new IllegalArgumentException("marathonUrl must be defined.");
         }
@@ -93,8 +108,14 @@ public class MarathonBrickManager implements BrickManager {
         if (brickUrlFactory == null) {
             throw new IllegalArgumentException("brickUrlFactory must be defined.");
         }
+        if (marathonEventSubscriber == null) {
+            throw new IllegalArgumentException("marathonEventSubscriber must be defined.");
+        }
+        if (httpClientFactory == null) {
+            throw new IllegalArgumentException("httpClientFactory must be defined.");
+        }
         this.marathonUrl = marathonUrl;
-        RestAdapter adapter = new RestAdapter.Builder().setEndpoint(marathonUrl).build();
+        RestAdapter adapter = new RestAdapter.Builder().setEndpoint(marathonUrl).setClient(new OkClient(httpClientFactory.marathonClient())).build();
         marathonRestApi = adapter.create(MarathonRestApi.class);
         this.marathonServiceLocator = marathonServiceLocator;
         this.brickConfigurerProvider = brickConfigurerProvider;
@@ -102,15 +123,31 @@ public class MarathonBrickManager implements BrickManager {
         this.constrainByTypeAttribute = constrainByTypeAttribute;
         this.domain = domain;
         this.brickUrlFactory = brickUrlFactory;
+        this.marathonEventSubscriber = marathonEventSubscriber;
+        this.brickStartTimeout = brickStartTimeout;
+        AtomicInteger threadCount = new AtomicInteger();
+        //  Service lookups are blocking HTTP calls, they must not run on the common pool.
+        this.serviceLookupExecutor = Executors.newScheduledThreadPool(SERVICE_LOOKUP_POOL_SIZE, runnable -> {
+            Thread thread = new Thread(runnable, "marathon-service-lookup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
-    public MarathonBrickManager(String marathonUrl, MarathonServiceLocator marathonServiceLocator, BrickConfigurerProvider brickConfigurerProvider, ProjectStore projectStore,String domain, BrickUrlFactory brickUrlFactory) {
-        this(marathonUrl, marathonServiceLocator, brickConfigurerProvider, projectStore,true, domain, brickUrlFactory);
+    @Override
+    public Set<Service> start(ProjectConfiguration projectConfiguration, BrickType brickType) throws BrickAlreadyExist {
+        try {
+            return startAsync(projectConfiguration, brickType).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting brick " + brickType + " of project " + projectConfiguration.getName() + " to start.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to start brick " + brickType + " of project " + projectConfiguration.getName() + ".", e.getCause());
+        }
     }
 
-
     @Override
-    public Set<Service> start(ProjectConfiguration projectConfiguration, BrickType brickType) throws BrickAlreadyExist {
+    public CompletableFuture<Set<Service>> startAsync(ProjectConfiguration projectConfiguration, BrickType brickType) throws BrickAlreadyExist {
         if (projectConfiguration == null) {
             throw new IllegalArgumentException("projectConfiguration must be defined.");
         }
@@ -140,27 +177,50 @@ public class MarathonBrickManager implements BrickManager {
                 throw new BrickAlreadyExist(e,type, name);
             }
         }
-        Set<Service> res = new HashSet<>();
-        if (brickConfiguration.isWaitRunning()) {
-            marathonServiceLocator.getService(type, name);
-            boolean haveHttpService = getAnHttpService(res);
-            // TODO remove this, listen the Marathon event bus instead
-            int nbTry = 0;
-            int maxNbTry = 10000;
-            while (nbTry < maxNbTry && !haveHttpService) {
-                nbTry++;
-                res = marathonServiceLocator.getService(type, name);
-                haveHttpService = getAnHttpService(res);
-                if (!haveHttpService) {
-                    try {
-                        Thread.sleep(100);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
+        if (!brickConfiguration.isWaitRunning()) {
+            return CompletableFuture.completedFuture(new HashSet<>());
+        }
+        long deadline = System.currentTimeMillis() + brickStartTimeout;
+        //  Readiness is notified by the Marathon event stream, services are looked up once the application is ready.
+        return marathonEventSubscriber.awaitReady(id, hasHealthChecks(body), brickStartTimeout, TimeUnit.MILLISECONDS)
+                .handle((ready, e) -> {
+                    if (e != null) {
+                        LOGGER.warn("Application {} not reported ready by Marathon events, looking up its services anyway: {}", id, e.getMessage());
                     }
-                }
+                    return null;
+                })
+                .thenCompose(ignored -> {
+                    CompletableFuture<Set<Service>> services = new CompletableFuture<>();
+                    serviceLookupExecutor.execute(() -> lookupHttpServices(type, name, deadline, services));
+                    return services;
+                });
+    }
+
+    //  A running task may not expose its HTTP service yet, mostly when the application has no health checks.
+    private void lookupHttpServices(String type, String name, long deadline, CompletableFuture<Set<Service>> future) {
+        try {
+            Set<Service> services = marathonServiceLocator.getService(type, name);
+            if (getAnHttpService(services)) {
+                future.complete(services);
+            } else if (System.currentTimeMillis() >= deadline) {
+                LOGGER.warn("Unable to find http service for brick '{}' on project {} once started.", type, name);
+                future.complete(services);
+            } else {
+                serviceLookupExecutor.schedule(() -> lookupHttpServices(type, name, deadline, future), SERVICE_LOOKUP_DELAY, TimeUnit.MILLISECONDS);
             }
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private static boolean hasHealthChecks(String appBody) {
+        try {
+            JsonElement healthChecks = new JsonParser().parse(appBody).getAsJsonObject().get("healthChecks");
+            return healthChecks != null && healthChecks.isJsonArray() && healthChecks.getAsJsonArray().size() > 0;
+        } catch (JsonParseException | IllegalStateException e) {
+            LOGGER.warn("Unable to read health checks of Marathon application, wait it only runs.", e);
+            return false;
         }
-        return res;
     }
 
     @Override
@@ -189,9 +249,16 @@ public class MarathonBrickManager implements BrickManager {
                     LOGGER.error("Unable to find a valid entrypoint for brick '{}' on project {}", type, name);
                 } else {
                     List<User> users = IteratorUtils.toList(projectConfiguration.getUsers());
+                    UserProvisioningReport failedProvisioning = null;
                     try {
                         BrickConfigurerData brickConfigurerData = configurer.configure(new BrickConfigurerData(projectConfiguration.getName(), projectConfiguration.getDefaultStackConfiguration().getName(), entrypoint, domain, IteratorUtils.toList(projectConfiguration.getAdmins()), users));
-                        brickConfigurerData = configurer.addUsers(brickConfigurerData, users);
+                        try {
+                            brickConfigurerData = configurer.addUsers(brickConfigurerData, users);
+                        } catch (UserProvisioningException e) {
+                            //  Brick is configured, keep its context so the missing users may be added later.
+                            LOGGER.error("Some users haven't been added to brick {} on project {}: {}", brickType, projectConfiguration.getName(), e.getReport().getFailures());
+                            failedProvisioning = e.getReport();
+                        }
                         projectStore.setContextToBrickConfiguration(projectConfiguration.getIdentifier(), brickConfiguration, brickConfigurerData.getContext());
 
                         if (LOGGER.isDebugEnabled()) {
@@ -200,6 +267,9 @@ public class MarathonBrickManager implements BrickManager {
                     } catch (BrickConfigurationException e) {
                         throw  new ProjectConfigurationException("En error occur while trying to configure brick " + brickType.name() + " on project " +projectConfiguration.getName(), e);
                     }
+                    if (failedProvisioning != null) {
+                        throw new UsersNotProvisionedException("Unable to add users " + StringUtils.join(failedProvisioning.getFailures().keySet(), ",") + " to brick " + brickType.name() + ".", failedProvisioning);
+                    }
                 }
             } else {
                 LOGGER.error("Unable to find http service for brick '{}' on project {}.", type, name);
@@ -223,6 +293,16 @@ public class MarathonBrickManager implements BrickManager {
         return res;
     }
 
+    @Override
+    public void start() {
+        //  Nothing to do.
+    }
+
+    @Override
+    public void stop() {
+        serviceLookupExecutor.shutdownNow();
+    }
+
     @Override
     public boolean stop(BrickDeploymentState brickDeploymentState) {
         if (brickDeploymentState == null) {
@@ -243,11 +323,6 @@ public class MarathonBrickManager implements BrickManager {
     }
 
     private String provideStartAppBody(ProjectConfiguration projectConfiguration, String stackName, BrickConfiguration brickConfiguration, String id) {
-        VelocityEngine ve = new VelocityEngine();
-        ve.init(VE_PROPERTIES);
-
-        Template template = ve.getTemplate("marathon/" + brickConfiguration.getBrick().getName().toLowerCase() + ".json.vm");
-
         VelocityContext context = new VelocityContext();
         context.put("ID", id);
         context.put("marathonUrl", marathonUrl);
@@ -257,9 +332,7 @@ public class MarathonBrickManager implements BrickManager {
         context.put("brick", brickConfiguration);
         context.put("brickUrl", brickUrlFactory.forgeUrl(projectConfiguration.getName(),stackName, brickConfiguration.getType().name(), brickConfiguration.getBrick().getName()));
         context.put("constrainByTypeAttribute", this.constrainByTypeAttribute);
-        StringWriter sw = new StringWriter();
-        template.merge(context, sw);
-        return sw.toString();
+        return VelocityTemplateRenderer.getInstance().render("marathon/" + brickConfiguration.getBrick().getName().toLowerCase() + ".json.vm", context);
     }
 
     private boolean getAnHttpService(Set<Service> services) {
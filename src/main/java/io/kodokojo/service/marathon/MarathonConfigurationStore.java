@@ -24,6 +24,7 @@ import io.kodokojo.commons.utils.ssl.SSLKeyPair;
 import io.kodokojo.commons.utils.ssl.SSLUtils;
 import io.kodokojo.model.BootstrapStackData;
 import io.kodokojo.service.ConfigurationStore;
+import io.kodokojo.service.OkHttpClientFactory;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,12 +42,18 @@ public class MarathonConfigurationStore implements ConfigurationStore {
 
     private final String marathonUrl;
 
+    private final OkHttpClient httpClient;
+
     @Inject
-    public MarathonConfigurationStore(String marathonUrl) {
+    public MarathonConfigurationStore(String marathonUrl, OkHttpClientFactory httpClientFactory) {
         if (isBlank(marathonUrl)) {
             throw new IllegalArgumentException("marathonUrl must be defined.");
         }
+        if (httpClientFactory == null) {
+            throw new IllegalArgumentException("httpClientFactory must be defined.");
+        }
         this.marathonUrl = marathonUrl;
+        this.httpClient = httpClientFactory.marathonClient();
     }
 
     @Override
@@ -55,7 +62,6 @@ public class MarathonConfigurationStore implements ConfigurationStore {
             throw new IllegalArgumentException("bootstrapStackData must be defined.");
         }
         String url = marathonUrl + "/v2/artifacts/config/" + bootstrapStackData.getProjectName().toLowerCase() + ".json";
-        OkHttpClient httpClient = new OkHttpClient();
         Gson gson = new GsonBuilder().create();
         String json = gson.toJson(bootstrapStackData);
         RequestBody requestBody = new MultipartBuilder()
@@ -96,7 +102,6 @@ public class MarathonConfigurationStore implements ConfigurationStore {
             byte[] certificat = writer.toString().getBytes();
 
             String url = marathonUrl + "/v2/artifacts/ssl/" + project.toLowerCase() + "/" + entityName.toLowerCase() + "/" + project.toLowerCase() + "-" + entityName.toLowerCase() + "-server.pem";
-            OkHttpClient httpClient = new OkHttpClient();
             RequestBody requestBody = new MultipartBuilder()
                     .type(MultipartBuilder.FORM)
                     .addFormDataPart("file", project + "-" + entityName + "-server.pem",
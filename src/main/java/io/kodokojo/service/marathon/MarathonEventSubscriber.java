@@ -0,0 +1,452 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.marathon;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.squareup.okhttp.Call;
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+import io.kodokojo.service.OkHttpClientFactory;
+import io.kodokojo.service.lifecycle.ApplicationLifeCycleListener;
+import okio.BufferedSource;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+/**
+ * Subscribe to the Marathon event stream (<code>/v2/events</code>) to keep a live view of the running and healthy
+ * tasks of each application, and complete the futures returned by {@link #awaitReady(String, boolean, long, TimeUnit)}
+ * as soon as an application is ready. The stream is reopened when it is interrupted. Events sent while the stream is
+ * down are lost, so tasks of the watched applications are read again from <code>/v2/apps/&lt;id&gt;/tasks</code> on
+ * each connection and when a readiness is awaited.
+ */
+public class MarathonEventSubscriber implements ApplicationLifeCycleListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MarathonEventSubscriber.class);
+
+    static final String EVENTS_PATH = "/v2/events";
+
+    static final String APPS_PATH = "/v2/apps";
+
+    static final String STATUS_UPDATE_EVENT = "status_update_event";
+
+    static final String HEALTH_STATUS_CHANGED_EVENT = "health_status_changed_event";
+
+    static final String APP_TERMINATED_EVENT = "app_terminated_event";
+
+    private static final String TASK_RUNNING = "TASK_RUNNING";
+
+    private static final Set<String> TASK_PENDING_STATUSES = new HashSet<>(Arrays.asList("TASK_STAGING", "TASK_STARTING"));
+
+    private static final long RECONNECT_DELAY = 1000;
+
+    private static final long MAX_RECONNECT_DELAY = 30000;
+
+    private final String marathonUrl;
+
+    private final OkHttpClient httpClient;
+
+    private final OkHttpClient restClient;
+
+    private final ScheduledExecutorService timeoutScheduler;
+
+    private final ExecutorService resyncExecutor;
+
+    private final JsonParser jsonParser = new JsonParser();
+
+    //  Running tasks by application identifier, each task mapped to its last health status, null if none received yet.
+    private final Map<String, Map<String, Boolean>> tasksByApp = new HashMap<>();
+
+    private final Map<String, List<ReadinessWaiter>> waitersByApp = new HashMap<>();
+
+    private volatile boolean running;
+
+    private volatile Call currentCall;
+
+    private Thread reader;
+
+    public MarathonEventSubscriber(String marathonUrl, OkHttpClientFactory httpClientFactory) {
+        if (isBlank(marathonUrl)) {
+            throw new IllegalArgumentException("marathonUrl must be defined.");
+        }
+        if (httpClientFactory == null) {
+            throw new IllegalArgumentException("httpClientFactory must be defined.");
+        }
+        this.marathonUrl = marathonUrl;
+        this.restClient = httpClientFactory.marathonClient();
+        this.httpClient = restClient.clone();
+        //  Events may be spaced by a long time, the stream must not time out.
+        this.httpClient.setReadTimeout(0, TimeUnit.MILLISECONDS);
+        this.timeoutScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "marathon-readiness-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.resyncExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "marathon-tasks-resync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Return a future completed once <code>appId</code> has a running task, which must also be reported alive by the
+     * Marathon health checks when <code>healthChecked</code> is <code>true</code>. The future is completed
+     * exceptionally with a {@link TimeoutException} if the application isn't ready after <code>timeout</code>.
+     */
+    public CompletableFuture<Void> awaitReady(String appId, boolean healthChecked, long timeout, TimeUnit unit) {
+        if (isBlank(appId)) {
+            throw new IllegalArgumentException("appId must be defined.");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("unit must be defined.");
+        }
+        ReadinessWaiter waiter = new ReadinessWaiter(healthChecked);
+        synchronized (this) {
+            if (isReady(appId, healthChecked)) {
+                waiter.future.complete(null);
+                return waiter.future;
+            }
+            waitersByApp.computeIfAbsent(appId, key -> new ArrayList<>()).add(waiter);
+        }
+        //  The application may be ready since an event lost while the stream was down.
+        try {
+            resyncExecutor.execute(() -> resync(appId, false));
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Subscriber stopped, tasks of application {} not read again.", appId);
+        }
+        ScheduledFuture<?> timeoutTask = timeoutScheduler.schedule(() -> {
+            synchronized (this) {
+                List<ReadinessWaiter> waiters = waitersByApp.get(appId);
+                if (waiters != null && waiters.remove(waiter) && waiters.isEmpty()) {
+                    waitersByApp.remove(appId);
+                }
+            }
+            waiter.future.completeExceptionally(new TimeoutException("Application " + appId + " not ready after " + unit.toMillis(timeout) + " ms."));
+        }, timeout, unit);
+        waiter.future.whenComplete((result, e) -> timeoutTask.cancel(false));
+        return waiter.future;
+    }
+
+    public synchronized boolean isReady(String appId, boolean healthChecked) {
+        Map<String, Boolean> tasks = tasksByApp.get(appId);
+        if (tasks == null) {
+            return false;
+        }
+        return !healthChecked || tasks.values().stream().anyMatch(Boolean.TRUE::equals);
+    }
+
+    void handleEvent(String eventType, String data) {
+        JsonObject event;
+        try {
+            JsonElement element = jsonParser.parse(data);
+            if (!element.isJsonObject()) {
+                return;
+            }
+            event = element.getAsJsonObject();
+        } catch (JsonParseException e) {
+            LOGGER.warn("Unable to parse Marathon event {}: {}", eventType, data, e);
+            return;
+        }
+        String type = isBlank(eventType) ? getString(event, "eventType") : eventType;
+        String appId = getString(event, "appId");
+        if (type == null || appId == null) {
+            return;
+        }
+        List<ReadinessWaiter> readyWaiters;
+        switch (type) {
+            case STATUS_UPDATE_EVENT:
+                readyWaiters = taskStatusUpdated(appId, getString(event, "taskId"), getString(event, "taskStatus"));
+                break;
+            case HEALTH_STATUS_CHANGED_EVENT:
+                String taskId = event.has("taskId") ? getString(event, "taskId") : getString(event, "instanceId");
+                readyWaiters = taskHealthChanged(appId, taskId, event.has("alive") && event.get("alive").getAsBoolean());
+                break;
+            case APP_TERMINATED_EVENT:
+                synchronized (this) {
+                    tasksByApp.remove(appId);
+                }
+                readyWaiters = Collections.emptyList();
+                break;
+            default:
+                //  Other events don't change the application readiness.
+                readyWaiters = Collections.emptyList();
+                break;
+        }
+        //  Completed outside of the lock, dependent stages may run on this thread.
+        readyWaiters.forEach(waiter -> waiter.future.complete(null));
+    }
+
+    private synchronized List<ReadinessWaiter> taskStatusUpdated(String appId, String taskId, String taskStatus) {
+        if (taskId == null || taskStatus == null || TASK_PENDING_STATUSES.contains(taskStatus)) {
+            return Collections.emptyList();
+        }
+        if (TASK_RUNNING.equals(taskStatus)) {
+            tasksByApp.computeIfAbsent(appId, key -> new HashMap<>()).putIfAbsent(taskId, null);
+            return removeReadyWaiters(appId);
+        } else {
+            Map<String, Boolean> tasks = tasksByApp.get(appId);
+            if (tasks != null) {
+                tasks.remove(taskId);
+                if (tasks.isEmpty()) {
+                    tasksByApp.remove(appId);
+                }
+            }
+            return Collections.emptyList();
+        }
+    }
+
+    private synchronized List<ReadinessWaiter> taskHealthChanged(String appId, String taskId, boolean alive) {
+        if (taskId == null) {
+            return Collections.emptyList();
+        }
+        //  A task reported by health checks is running, even if its status update hasn't been received.
+        tasksByApp.computeIfAbsent(appId, key -> new HashMap<>()).put(taskId, alive);
+        return removeReadyWaiters(appId);
+    }
+
+    private List<ReadinessWaiter> removeReadyWaiters(String appId) {
+        List<ReadinessWaiter> waiters = waitersByApp.get(appId);
+        if (waiters == null) {
+            return Collections.emptyList();
+        }
+        List<ReadinessWaiter> res = new ArrayList<>();
+        Iterator<ReadinessWaiter> iterator = waiters.iterator();
+        while (iterator.hasNext()) {
+            ReadinessWaiter waiter = iterator.next();
+            if (isReady(appId, waiter.healthChecked)) {
+                iterator.remove();
+                res.add(waiter);
+            }
+        }
+        if (waiters.isEmpty()) {
+            waitersByApp.remove(appId);
+        }
+        return res;
+    }
+
+    /**
+     * Read the tasks of <code>appId</code> from the Marathon REST API. When <code>replace</code> is <code>true</code>
+     * the known tasks of the application are replaced, otherwise the read tasks are only added to them, as events
+     * received meanwhile may be more recent.
+     */
+    void resync(String appId, boolean replace) {
+        Map<String, Boolean> tasks = fetchTasks(appId);
+        if (tasks == null) {
+            return;
+        }
+        List<ReadinessWaiter> readyWaiters;
+        synchronized (this) {
+            if (replace) {
+                if (tasks.isEmpty()) {
+                    tasksByApp.remove(appId);
+                } else {
+                    tasksByApp.put(appId, tasks);
+                }
+            } else if (!tasks.isEmpty()) {
+                Map<String, Boolean> knownTasks = tasksByApp.computeIfAbsent(appId, key -> new HashMap<>());
+                tasks.forEach((taskId, alive) -> {
+                    if (alive == null) {
+                        knownTasks.putIfAbsent(taskId, null);
+                    } else {
+                        knownTasks.put(taskId, alive);
+                    }
+                });
+            }
+            readyWaiters = removeReadyWaiters(appId);
+        }
+        readyWaiters.forEach(waiter -> waiter.future.complete(null));
+    }
+
+    //  Running tasks mapped to their health, null if not health checked. Return null if tasks are unavailable.
+    private Map<String, Boolean> fetchTasks(String appId) {
+        Request request = new Request.Builder()
+                .url(marathonUrl + APPS_PATH + appId + "/tasks")
+                .header("Accept", "application/json")
+                .build();
+        Response response = null;
+        try {
+            response = restClient.newCall(request).execute();
+            if (!response.isSuccessful()) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Unable to read tasks of application {}, status code {}.", appId, response.code());
+                }
+                return null;
+            }
+            JsonElement tasks = jsonParser.parse(response.body().string()).getAsJsonObject().get("tasks");
+            Map<String, Boolean> res = new HashMap<>();
+            if (tasks != null && tasks.isJsonArray()) {
+                for (JsonElement element : tasks.getAsJsonArray()) {
+                    JsonObject task = element.getAsJsonObject();
+                    String taskId = getString(task, "id");
+                    String state = getString(task, "state");
+                    boolean taskRunning = state == null ? getString(task, "startedAt") != null : TASK_RUNNING.equals(state);
+                    if (taskId != null && taskRunning) {
+                        res.put(taskId, getAlive(task));
+                    }
+                }
+            }
+            return res;
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            LOGGER.warn("Unable to read tasks of application {} on {}: {}", appId, marathonUrl, e.getMessage());
+            return null;
+        } finally {
+            if (response != null) {
+                IOUtils.closeQuietly(response.body());
+            }
+        }
+    }
+
+    private static Boolean getAlive(JsonObject task) {
+        JsonElement healthCheckResults = task.get("healthCheckResults");
+        if (healthCheckResults == null || !healthCheckResults.isJsonArray() || healthCheckResults.getAsJsonArray().size() == 0) {
+            return null;
+        }
+        boolean alive = true;
+        for (JsonElement result : healthCheckResults.getAsJsonArray()) {
+            JsonElement resultAlive = result.getAsJsonObject().get("alive");
+            alive &= resultAlive != null && resultAlive.getAsBoolean();
+        }
+        return alive;
+    }
+
+    private static String getString(JsonObject event, String name) {
+        JsonElement element = event.get(name);
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+
+    private void readEvents() {
+        long reconnectDelay = RECONNECT_DELAY;
+        while (running) {
+            Request request = new Request.Builder()
+                    .url(marathonUrl + EVENTS_PATH)
+                    .header("Accept", "text/event-stream")
+                    .build();
+            Response response = null;
+            try {
+                currentCall = httpClient.newCall(request);
+                response = currentCall.execute();
+                if (response.isSuccessful()) {
+                    LOGGER.info("Subscribed to Marathon events on {}.", marathonUrl);
+                    reconnectDelay = RECONNECT_DELAY;
+                    //  Events are buffered until the stream is read, the snapshot can't override a more recent one.
+                    watchedApps().forEach(appId -> resync(appId, true));
+                    readStream(response.body().source());
+                } else {
+                    LOGGER.warn("Unable to subscribe to Marathon events on {}, status code {}.", marathonUrl, response.code());
+                }
+            } catch (IOException e) {
+                if (running) {
+                    LOGGER.warn("Marathon event stream on {} interrupted: {}", marathonUrl, e.getMessage());
+                }
+            } finally {
+                if (response != null) {
+                    IOUtils.closeQuietly(response.body());
+                }
+            }
+            if (running) {
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY);
+            }
+        }
+    }
+
+    private synchronized Set<String> watchedApps() {
+        Set<String> res = new HashSet<>(waitersByApp.keySet());
+        res.addAll(tasksByApp.keySet());
+        return res;
+    }
+
+    //  Server-Sent Events: fields of an event are on consecutive lines, events are separated by an empty line.
+    private void readStream(BufferedSource source) throws IOException {
+        String eventType = null;
+        StringBuilder data = new StringBuilder();
+        String line;
+        while (running && (line = source.readUtf8Line()) != null) {
+            if (line.isEmpty()) {
+                if (data.length() > 0) {
+                    handleEvent(eventType, data.toString());
+                }
+                eventType = null;
+                data.setLength(0);
+            } else if (line.startsWith("event:")) {
+                eventType = line.substring("event:".length()).trim();
+            } else if (line.startsWith("data:")) {
+                if (data.length() > 0) {
+                    data.append('\n');
+                }
+                data.append(line.substring("data:".length()).trim());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        reader = new Thread(this::readEvents, "marathon-event-subscriber");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @Override
+    public void stop() {
+        LOGGER.info("Stopping MarathonEventSubscriber.");
+        running = false;
+        Call call = currentCall;
+        if (call != null) {
+            call.cancel();
+        }
+        synchronized (this) {
+            if (reader != null) {
+                reader.interrupt();
+            }
+        }
+        timeoutScheduler.shutdownNow();
+        resyncExecutor.shutdownNow();
+    }
+
+    private static class ReadinessWaiter {
+
+        private final boolean healthChecked;
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private ReadinessWaiter(boolean healthChecked) {
+            this.healthChecked = healthChecked;
+        }
+    }
+
+}
@@ -18,17 +18,16 @@
 package io.kodokojo.service.redis;
 
 import io.kodokojo.service.lifecycle.ApplicationLifeCycleListener;
+import io.kodokojo.service.redis.codec.BinaryValueCodecProvider;
+import io.kodokojo.service.redis.codec.ValueCodecProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.util.Pool;
 
-import java.math.BigInteger;
 import java.security.Key;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 
 import static org.apache.commons.lang.StringUtils.isBlank;
 
@@ -36,31 +35,46 @@ public abstract class AbstractRedisStore implements ApplicationLifeCycleListener
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractRedisStore.class);
 
-    protected final String saltKey;
+    public static final int DEFAULT_ID_LEASE_SIZE = 1;
 
     protected final Key key;
 
-    protected final JedisPool pool;
+    protected final Pool<Jedis> pool;
 
-    protected final MessageDigest messageDigest;
+    protected final ValueCodecProvider valueCodecProvider;
 
-    public AbstractRedisStore(Key key, String host, int port) {
+    private final RedisIdGenerator idGenerator;
+
+    //  A pool created by this store is destroyed when the store stops, a shared pool is destroyed by its owner.
+    private final boolean ownPool;
+
+    /**
+     * Use <code>pool</code> if defined, else create a pool connected to <code>host</code> and <code>port</code>.
+     */
+    protected AbstractRedisStore(Key key, Pool<Jedis> pool, String host, int port, int idLeaseSize) {
         if (key == null) {
             throw new IllegalArgumentException("key must be defined.");
         }
-        if (isBlank(host)) {
+        if (pool == null && isBlank(host)) {
             throw new IllegalArgumentException("host must be defined.");
         }
         this.key = key;
-        pool = createJedisPool(host, port);
-        try {
-            messageDigest = MessageDigest.getInstance("SHA-1");
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Unable to get instance of SHA-1 digest");
-        }
+        this.ownPool = pool == null;
+        this.pool = ownPool ? createJedisPool(host, port) : pool;
+        valueCodecProvider = createValueCodecProvider(key);
+        idGenerator = new RedisIdGenerator(this.pool, getGenerateIdKey(), idLeaseSize);
+    }
+
+    public AbstractRedisStore(Key key, Pool<Jedis> pool, int idLeaseSize) {
+        this(key, requirePool(pool), null, 0, idLeaseSize);
+    }
+
+    public AbstractRedisStore(Key key, String host, int port, int idLeaseSize) {
+        this(key, null, host, port, idLeaseSize);
+    }
 
-        SecureRandom secureRandom = new SecureRandom();
-        saltKey = new BigInteger(128, secureRandom).toString(10);
+    public AbstractRedisStore(Key key, String host, int port) {
+        this(key, host, port, DEFAULT_ID_LEASE_SIZE);
     }
 
     protected abstract String getStoreName();
@@ -71,6 +85,30 @@ public abstract class AbstractRedisStore implements ApplicationLifeCycleListener
         return new JedisPool(new JedisPoolConfig(), host, port);
     }
 
+    /**
+     * Borrow a connection able to run commands on <code>key</code>. On a Redis Cluster, all keys used with the returned
+     * connection must share the hash tag of <code>key</code>.
+     */
+    protected Jedis getResource(byte[] key) {
+        return RedisUtils.getResource(pool, key);
+    }
+
+    protected boolean isClustered() {
+        return pool instanceof RedisClusterPool;
+    }
+
+    /**
+     * Build the key of an entry. On a Redis Cluster, <code>id</code> is used as hash tag so all keys of an entry live in
+     * the same slot.
+     */
+    protected byte[] aggregateKey(String prefix, String id) {
+        return isClustered() ? RedisUtils.aggregateHashTaggedKey(prefix, id) : RedisUtils.aggregateKey(prefix, id);
+    }
+
+    protected ValueCodecProvider createValueCodecProvider(Key key) {
+        return new BinaryValueCodecProvider(key);
+    }
+
     @Override
     public void start() {
         //  Nothing to do
@@ -79,20 +117,20 @@ public abstract class AbstractRedisStore implements ApplicationLifeCycleListener
     @Override
     public void stop() {
         LOGGER.info("Stopping {}.", getStoreName());
-        if (pool != null) {
+        if (ownPool && pool != null) {
             pool.destroy();
         }
     }
 
-    protected String generateId() {
-        try (Jedis jedis = pool.getResource()) {
-
-            SecureRandom secureRandom = new SecureRandom();
-            String rand = new BigInteger(128, secureRandom).toString(10);
-            String id = saltKey + rand +  jedis.incr(getGenerateIdKey()).toString();
-            String newId = RedisUtils.hexEncode(messageDigest.digest(id.getBytes()));
-            return newId;
+    static Pool<Jedis> requirePool(Pool<Jedis> pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool must be defined.");
         }
+        return pool;
+    }
+
+    protected String generateId() {
+        return idGenerator.generateId();
     }
 
 }
@@ -0,0 +1,85 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Measure the time spent to borrow a connection from a pool and count borrows failed because the pool was exhausted.
+ * Wait times are exposed in milliseconds.
+ */
+class BorrowStatistics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BorrowStatistics.class);
+
+    private final AtomicLong borrowCount = new AtomicLong();
+
+    private final AtomicLong exhaustedCount = new AtomicLong();
+
+    private final AtomicLong totalBorrowWaitTime = new AtomicLong();
+
+    private final AtomicLong maxBorrowWaitTime = new AtomicLong();
+
+    Jedis borrow(Supplier<Jedis> resource, IntSupplier numActive) {
+        long begin = System.nanoTime();
+        try {
+            return resource.get();
+        } catch (JedisException e) {
+            if (e.getCause() instanceof NoSuchElementException) {
+                long exhausted = exhaustedCount.incrementAndGet();
+                LOGGER.warn("Redis pool exhausted, {} connections in use ({} times since start).", numActive.getAsInt(), exhausted);
+            }
+            throw e;
+        } finally {
+            long waitTime = System.nanoTime() - begin;
+            borrowCount.incrementAndGet();
+            totalBorrowWaitTime.addAndGet(waitTime);
+            maxBorrowWaitTime.accumulateAndGet(waitTime, Math::max);
+        }
+    }
+
+    long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    long getExhaustedCount() {
+        return exhaustedCount.get();
+    }
+
+    double getMeanBorrowWaitTime() {
+        long count = borrowCount.get();
+        return count == 0 ? 0 : toMillis(totalBorrowWaitTime.get()) / count;
+    }
+
+    double getMaxBorrowWaitTime() {
+        return toMillis(maxBorrowWaitTime.get());
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1000000d;
+    }
+
+}
@@ -0,0 +1,88 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis;
+
+import io.kodokojo.service.lifecycle.ApplicationLifeCycleListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Protocol;
+
+/**
+ * A {@link JedisPool} which measures the time spent to borrow a connection and counts borrows failed because the pool
+ * was exhausted. Wait times are exposed in milliseconds.
+ */
+public class MonitoredJedisPool extends JedisPool implements JedisPoolStatisticsMXBean, ApplicationLifeCycleListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MonitoredJedisPool.class);
+
+    static final String CLIENT_NAME = "kodokojo";
+
+    private final int maxTotal;
+
+    private final BorrowStatistics statistics = new BorrowStatistics();
+
+    public MonitoredJedisPool(JedisPoolConfig poolConfig, String host, int port, int connectionTimeout, int soTimeout) {
+        super(poolConfig, host, port, connectionTimeout, soTimeout, null, Protocol.DEFAULT_DATABASE, CLIENT_NAME);
+        this.maxTotal = poolConfig.getMaxTotal();
+    }
+
+    @Override
+    public Jedis getResource() {
+        return statistics.borrow(super::getResource, this::getNumActive);
+    }
+
+    @Override
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return statistics.getBorrowCount();
+    }
+
+    @Override
+    public long getExhaustedCount() {
+        return statistics.getExhaustedCount();
+    }
+
+    @Override
+    public double getMeanBorrowWaitTime() {
+        return statistics.getMeanBorrowWaitTime();
+    }
+
+    @Override
+    public double getMaxBorrowWaitTime() {
+        return statistics.getMaxBorrowWaitTime();
+    }
+
+    @Override
+    public void start() {
+        //  Nothing to do
+    }
+
+    @Override
+    public void stop() {
+        LOGGER.info("Stopping Redis pool.");
+        destroy();
+    }
+
+}
@@ -0,0 +1,92 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis;
+
+import io.kodokojo.service.lifecycle.ApplicationLifeCycleListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisSentinelPool;
+import redis.clients.jedis.Protocol;
+
+import java.util.Set;
+
+/**
+ * A {@link JedisSentinelPool} which follows the master elected by the Redis Sentinels and exposes the same borrow
+ * statistics as {@link MonitoredJedisPool}.
+ */
+public class MonitoredJedisSentinelPool extends JedisSentinelPool implements JedisPoolStatisticsMXBean, ApplicationLifeCycleListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MonitoredJedisSentinelPool.class);
+
+    private final int maxTotal;
+
+    private final BorrowStatistics statistics = new BorrowStatistics();
+
+    /**
+     * @param masterName The name of the master monitored by the Sentinels.
+     * @param sentinels  The Sentinels addresses, formatted as <code>host:port</code>.
+     */
+    public MonitoredJedisSentinelPool(String masterName, Set<String> sentinels, JedisPoolConfig poolConfig, int connectionTimeout, int soTimeout) {
+        super(masterName, sentinels, poolConfig, connectionTimeout, soTimeout, null, Protocol.DEFAULT_DATABASE, MonitoredJedisPool.CLIENT_NAME);
+        this.maxTotal = poolConfig.getMaxTotal();
+    }
+
+    @Override
+    public Jedis getResource() {
+        return statistics.borrow(super::getResource, this::getNumActive);
+    }
+
+    @Override
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return statistics.getBorrowCount();
+    }
+
+    @Override
+    public long getExhaustedCount() {
+        return statistics.getExhaustedCount();
+    }
+
+    @Override
+    public double getMeanBorrowWaitTime() {
+        return statistics.getMeanBorrowWaitTime();
+    }
+
+    @Override
+    public double getMaxBorrowWaitTime() {
+        return statistics.getMaxBorrowWaitTime();
+    }
+
+    @Override
+    public void start() {
+        //  Nothing to do
+    }
+
+    @Override
+    public void stop() {
+        LOGGER.info("Stopping Redis Sentinel pool of master {}.", getCurrentHostMaster());
+        destroy();
+    }
+
+}
@@ -24,6 +24,7 @@ import org.slf4j.LoggerFactory;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.util.Pool;
 
 import static org.apache.commons.lang.StringUtils.isBlank;
 
@@ -35,28 +36,36 @@ public class RedisBootstrapConfigurationProvider implements BootstrapConfigurati
 
     public static final String DEFAULT_SSH_PORT = "sshPort";
 
-    private final JedisPool pool;
+    private final Pool<Jedis> pool;
 
-    public RedisBootstrapConfigurationProvider(String host, int port, String defaultLbIp, int initSshPort) {
+    private final boolean ownPool;
 
-        if (isBlank(host)) {
+    private RedisBootstrapConfigurationProvider(Pool<Jedis> pool, String host, int port, String defaultLbIp, int initSshPort) {
+        if (pool == null && isBlank(host)) {
             throw new IllegalArgumentException("host must be defined.");
         }
         if (isBlank(defaultLbIp)) {
             throw new IllegalArgumentException("defaultLbIp must be defined.");
         }
-        pool = createJedisPool(host, port);
+        this.ownPool = pool == null;
+        this.pool = ownPool ? createJedisPool(host, port) : pool;
 
-        try (Jedis jedis = pool.getResource()) {
-            if (!jedis.exists(DEFAULT_LB_IP_KEY)) {
-                jedis.set(DEFAULT_LB_IP_KEY, defaultLbIp);
-            }
-            if (!jedis.exists(DEFAULT_SSH_PORT)) {
-                jedis.set(DEFAULT_SSH_PORT, "" + initSshPort);
-            }
+        try (Jedis jedis = getResource(DEFAULT_LB_IP_KEY)) {
+            jedis.setnx(DEFAULT_LB_IP_KEY, defaultLbIp);
+        }
+        try (Jedis jedis = getResource(DEFAULT_SSH_PORT)) {
+            jedis.setnx(DEFAULT_SSH_PORT, "" + initSshPort);
         }
     }
 
+    public RedisBootstrapConfigurationProvider(Pool<Jedis> pool, String defaultLbIp, int initSshPort) {
+        this(AbstractRedisStore.requirePool(pool), null, 0, defaultLbIp, initSshPort);
+    }
+
+    public RedisBootstrapConfigurationProvider(String host, int port, String defaultLbIp, int initSshPort) {
+        this(null, host, port, defaultLbIp, initSshPort);
+    }
+
     @Override
     public String provideLoadBalancerHost(String projectName, String stackName) {
         if (isBlank(projectName)) {
@@ -66,13 +75,15 @@ public class RedisBootstrapConfigurationProvider implements BootstrapConfigurati
             throw new IllegalArgumentException("stackName must be defined.");
         }
         String lbKey = RedisProjectStore.PROJECT_PREFIX + projectName + "/" + stackName + "/lbHost";
-        try (Jedis jedis = pool.getResource()) {
-            if (jedis.exists(lbKey)) {
-                return jedis.get(lbKey);
-            } else {
-                return jedis.get(DEFAULT_LB_IP_KEY);
+        try (Jedis jedis = getResource(lbKey)) {
+            String lbHost = jedis.get(lbKey);
+            if (lbHost != null) {
+                return lbHost;
             }
         }
+        try (Jedis jedis = getResource(DEFAULT_LB_IP_KEY)) {
+            return jedis.get(DEFAULT_LB_IP_KEY);
+        }
     }
 
     @Override
@@ -84,13 +95,19 @@ public class RedisBootstrapConfigurationProvider implements BootstrapConfigurati
             throw new IllegalArgumentException("stackName must be defined.");
         }
         String sshPortKey = RedisProjectStore.PROJECT_PREFIX + projectName + "/" + stackName + "/sshPort";
-        try (Jedis jedis = pool.getResource()) {
-            if (jedis.exists(sshPortKey)) {
-                return Integer.parseInt(jedis.get(sshPortKey));
-            } else {
-                return jedis.incr(DEFAULT_SSH_PORT).intValue();
+        try (Jedis jedis = getResource(sshPortKey)) {
+            String sshPort = jedis.get(sshPortKey);
+            if (sshPort != null) {
+                return Integer.parseInt(sshPort);
             }
         }
+        try (Jedis jedis = getResource(DEFAULT_SSH_PORT)) {
+            return jedis.incr(DEFAULT_SSH_PORT).intValue();
+        }
+    }
+
+    private Jedis getResource(String key) {
+        return RedisUtils.getResource(pool, key.getBytes());
     }
 
     protected JedisPool createJedisPool(String host, int port) {
@@ -105,7 +122,7 @@ public class RedisBootstrapConfigurationProvider implements BootstrapConfigurati
     @Override
     public void stop() {
         LOGGER.info("Stopping RedisBootstrapConfigurationProvider.");
-        if (pool != null) {
+        if (ownPool && pool != null) {
             pool.destroy();
         }
     }
@@ -0,0 +1,180 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis;
+
+import io.kodokojo.service.lifecycle.ApplicationLifeCycleListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisSlotBasedConnectionHandler;
+import redis.clients.util.JedisClusterCRC16;
+import redis.clients.util.Pool;
+import redis.clients.util.SafeEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+/**
+ * Give connections to the nodes of a Redis Cluster. {@link #getResource(byte[])} returns a connection to the master
+ * which owns the slot of the given key, {@link #getResource()} a connection to any node.
+ * Connections are taken from one pool per node and go back to it on {@link Jedis#close()}.
+ * <p>
+ * A command is only routed by its key: commands of a same connection, including a <code>MULTI</code>, must use keys
+ * sharing the same hash tag. The slot map is reloaded periodically to follow resharding and failovers.
+ * </p>
+ * <p>
+ * Statistics are aggregated over the pools of all nodes, wait times are exposed in milliseconds.
+ * </p>
+ */
+public class RedisClusterPool extends Pool<Jedis> implements JedisPoolStatisticsMXBean, ApplicationLifeCycleListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisClusterPool.class);
+
+    private static final long SLOT_CACHE_REFRESH_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+
+    private final JedisSlotBasedConnectionHandler connectionHandler;
+
+    private final AtomicLong lastSlotCacheRefresh;
+
+    private final int nodeMaxTotal;
+
+    private final BorrowStatistics statistics = new BorrowStatistics();
+
+    public RedisClusterPool(Set<HostAndPort> nodes, JedisPoolConfig poolConfig, int connectionTimeout, int soTimeout) {
+        if (nodes == null || nodes.isEmpty()) {
+            throw new IllegalArgumentException("nodes must be defined.");
+        }
+        if (poolConfig == null) {
+            throw new IllegalArgumentException("poolConfig must be defined.");
+        }
+        connectionHandler = new JedisSlotBasedConnectionHandler(nodes, poolConfig, connectionTimeout, soTimeout);
+        lastSlotCacheRefresh = new AtomicLong(System.currentTimeMillis());
+        nodeMaxTotal = poolConfig.getMaxTotal();
+    }
+
+    @Override
+    public Jedis getResource() {
+        return statistics.borrow(connectionHandler::getConnection, this::getNumActive);
+    }
+
+    public Jedis getResource(byte[] key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must be defined.");
+        }
+        refreshSlotCacheIfExpired();
+        int slot = getSlot(key);
+        return statistics.borrow(() -> connectionHandler.getConnectionFromSlot(slot), this::getNumActive);
+    }
+
+    /**
+     * @return The pools of the nodes currently serving as master, to run a command on every key of the cluster like
+     * <code>SCAN</code>.
+     */
+    public List<JedisPool> getMasterPools() {
+        refreshSlotCacheIfExpired();
+        List<JedisPool> masterPools = new ArrayList<>();
+        for (JedisPool nodePool : connectionHandler.getNodes().values()) {
+            try (Jedis jedis = nodePool.getResource()) {
+                if (jedis.info("replication").contains("role:master")) {
+                    masterPools.add(nodePool);
+                }
+            }
+        }
+        return masterPools;
+    }
+
+    static int getSlot(byte[] key) {
+        return JedisClusterCRC16.getSlot(SafeEncoder.encode(key));
+    }
+
+    private void refreshSlotCacheIfExpired() {
+        long last = lastSlotCacheRefresh.get();
+        long now = System.currentTimeMillis();
+        if (now - last > SLOT_CACHE_REFRESH_INTERVAL && lastSlotCacheRefresh.compareAndSet(last, now)) {
+            connectionHandler.renewSlotCache();
+        }
+    }
+
+    @Override
+    public int getNumActive() {
+        return sumOverNodes(JedisPool::getNumActive);
+    }
+
+    @Override
+    public int getNumIdle() {
+        return sumOverNodes(JedisPool::getNumIdle);
+    }
+
+    @Override
+    public int getNumWaiters() {
+        return sumOverNodes(JedisPool::getNumWaiters);
+    }
+
+    @Override
+    public int getMaxTotal() {
+        return nodeMaxTotal * connectionHandler.getNodes().size();
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return statistics.getBorrowCount();
+    }
+
+    @Override
+    public long getExhaustedCount() {
+        return statistics.getExhaustedCount();
+    }
+
+    @Override
+    public double getMeanBorrowWaitTime() {
+        return statistics.getMeanBorrowWaitTime();
+    }
+
+    @Override
+    public double getMaxBorrowWaitTime() {
+        return statistics.getMaxBorrowWaitTime();
+    }
+
+    private int sumOverNodes(ToIntFunction<JedisPool> value) {
+        return connectionHandler.getNodes().values().stream().mapToInt(value).sum();
+    }
+
+    @Override
+    public void destroy() {
+        connectionHandler.getNodes().values().forEach(JedisPool::destroy);
+    }
+
+    @Override
+    public void start() {
+        //  Nothing to do
+    }
+
+    @Override
+    public void stop() {
+        LOGGER.info("Stopping Redis Cluster pools.");
+        destroy();
+    }
+
+}
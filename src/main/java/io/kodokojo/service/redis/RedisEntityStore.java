@@ -18,17 +18,16 @@
 package io.kodokojo.service.redis;
 
 import io.kodokojo.brick.BrickFactory;
-import io.kodokojo.commons.utils.RSAUtils;
 import io.kodokojo.model.Entity;
 import io.kodokojo.model.User;
+import io.kodokojo.service.redis.codec.ValueCodec;
 import io.kodokojo.service.store.EntityStore;
 import org.apache.commons.collections4.IteratorUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisPool;
-import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.util.Pool;
 
 import javax.inject.Inject;
 import java.math.BigInteger;
@@ -53,9 +52,24 @@ public class RedisEntityStore extends AbstractRedisStore implements EntityStore
 
     public static final String ENTITY_USER_PREFIX = "entityUsers/";
 
+    private final ValueCodec<Entity> entityCodec;
+
+    private RedisEntityStore(Key key, Pool<Jedis> pool, String host, int port, int idLeaseSize) {
+        super(key, pool, host, port, idLeaseSize);
+        entityCodec = valueCodecProvider.getCodec(Entity.class);
+    }
+
+    public RedisEntityStore(Key key, Pool<Jedis> pool, int idLeaseSize) {
+        this(key, requirePool(pool), null, 0, idLeaseSize);
+    }
+
+    public RedisEntityStore(Key key, String host, int port, int idLeaseSize) {
+        this(key, null, host, port, idLeaseSize);
+    }
+
     @Inject
     public RedisEntityStore(Key key, String host, int port) {
-        super(key, host, port);
+        this(key, host, port, DEFAULT_ID_LEASE_SIZE);
     }
 
     @Override
@@ -76,27 +90,28 @@ public class RedisEntityStore extends AbstractRedisStore implements EntityStore
         if (StringUtils.isNotBlank(entity.getIdentifier())) {
             throw  new IllegalArgumentException("entity had already an id.");
         }
-        try (Jedis jedis = pool.getResource()) {
-            String id = generateId();
-            List<User> admins = IteratorUtils.toList(entity.getAdmins());
-            List<User> users = IteratorUtils.toList(entity.getUsers());
-            Entity entityToWrite = new Entity(id, entity.getName(), entity.isConcrete(),
-                    IteratorUtils.toList(entity.getProjectConfigurations()),
-                    admins,
-                    users);
-
-            List<User> allUsers = new ArrayList<>(users);
-            allUsers.addAll(admins);
-            Set<String> userIds = allUsers.stream().map(User::getIdentifier).collect(Collectors.toSet());
-
-            userIds.stream().forEach(userId -> {
-                addUserToEntity(userId, id);
-            });
-
-            byte[] encryptedObject = RSAUtils.encryptObjectWithAES(key, entityToWrite);
-            jedis.set(RedisUtils.aggregateKey(ENTITY_PREFIX, id), encryptedObject);
-            return id;
+        String id = generateId();
+        List<User> admins = IteratorUtils.toList(entity.getAdmins());
+        List<User> users = IteratorUtils.toList(entity.getUsers());
+        Entity entityToWrite = new Entity(id, entity.getName(), entity.isConcrete(),
+                IteratorUtils.toList(entity.getProjectConfigurations()),
+                admins,
+                users);
+
+        List<User> allUsers = new ArrayList<>(users);
+        allUsers.addAll(admins);
+        Set<String> userIds = allUsers.stream().map(User::getIdentifier).collect(Collectors.toSet());
+
+        userIds.stream().forEach(userId -> {
+            addUserToEntity(userId, id);
+        });
+
+        byte[] encryptedObject = entityCodec.encode(entityToWrite);
+        byte[] entityKey = aggregateKey(ENTITY_PREFIX, id);
+        try (Jedis jedis = getResource(entityKey)) {
+            jedis.set(entityKey, encryptedObject);
         }
+        return id;
     }
 
     @Override
@@ -104,12 +119,11 @@ public class RedisEntityStore extends AbstractRedisStore implements EntityStore
         if (isBlank(entityIdentifier)) {
             throw new IllegalArgumentException("entityIdentifier must be defined.");
         }
-        try (Jedis jedis = pool.getResource()) {
-            byte[] entityKey = RedisUtils.aggregateKey(ENTITY_PREFIX, entityIdentifier);
-            if (jedis.exists(entityKey)) {
-                byte[] encrypted = jedis.get(entityKey);
-                Entity entity = (Entity) RSAUtils.decryptObjectWithAES(key, encrypted);
-                return entity;
+        byte[] entityKey = aggregateKey(ENTITY_PREFIX, entityIdentifier);
+        try (Jedis jedis = getResource(entityKey)) {
+            byte[] encrypted = jedis.get(entityKey);
+            if (encrypted != null) {
+                return entityCodec.decode(encrypted);
             }
         }
         return null;
@@ -120,10 +134,11 @@ public class RedisEntityStore extends AbstractRedisStore implements EntityStore
         if (isBlank(userIdentifier)) {
             throw new IllegalArgumentException("userIdentifier must be defined.");
         }
-        try (Jedis jedis = pool.getResource()) {
-            byte[] key = RedisUtils.aggregateKey(ENTITY_USER_PREFIX, userIdentifier);
-            if (jedis.exists(key)) {
-                return new String(jedis.get(key));
+        byte[] key = aggregateKey(ENTITY_USER_PREFIX, userIdentifier);
+        try (Jedis jedis = getResource(key)) {
+            byte[] entityId = jedis.get(key);
+            if (entityId != null) {
+                return new String(entityId);
             }
         }
         return null;
@@ -137,10 +152,15 @@ public class RedisEntityStore extends AbstractRedisStore implements EntityStore
         if (isBlank(entityIdentifier)) {
             throw new IllegalArgumentException("entityIdentifier must be defined.");
         }
-        try (Jedis jedis = pool.getResource()){
-            if (jedis.exists(RedisUtils.aggregateKey(ENTITY_PREFIX, entityIdentifier))) {
-                jedis.set(RedisUtils.aggregateKey(ENTITY_USER_PREFIX, userIdentifier), entityIdentifier.getBytes());
+        byte[] entityKey = aggregateKey(ENTITY_PREFIX, entityIdentifier);
+        try (Jedis jedis = getResource(entityKey)) {
+            if (!jedis.exists(entityKey)) {
+                return;
             }
         }
+        byte[] entityUserKey = aggregateKey(ENTITY_USER_PREFIX, userIdentifier);
+        try (Jedis jedis = getResource(entityUserKey)) {
+            jedis.set(entityUserKey, entityIdentifier.getBytes());
+        }
     }
 }
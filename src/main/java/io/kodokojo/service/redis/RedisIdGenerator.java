@@ -0,0 +1,125 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.util.Pool;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+/**
+ * Generate identifiers from a SHA-1 of a random salt, random bytes and a Redis counter. This class is thread safe.
+ * When <code>leaseSize</code> is greater than 1, a block of counter values is leased with a single <code>INCRBY</code>,
+ * then consumed locally.
+ */
+public class RedisIdGenerator {
+
+    private static final int SALT_SIZE = 16;
+
+    private static final int RANDOM_SIZE = 16;
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private static final ThreadLocal<MessageDigest> MESSAGE_DIGEST = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException("Unable to get instance of SHA-1 digest", e);
+            }
+        }
+    };
+
+    private static final ThreadLocal<byte[]> RANDOM_BUFFER = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[RANDOM_SIZE];
+        }
+    };
+
+    private final Pool<Jedis> pool;
+
+    private final String counterKey;
+
+    private final byte[] routingKey;
+
+    private final int leaseSize;
+
+    private final byte[] salt;
+
+    private long nextCounter;
+
+    private long leaseEnd;
+
+    public RedisIdGenerator(Pool<Jedis> pool, String counterKey, int leaseSize) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool must be defined.");
+        }
+        if (isBlank(counterKey)) {
+            throw new IllegalArgumentException("counterKey must be defined.");
+        }
+        if (leaseSize < 1) {
+            throw new IllegalArgumentException("leaseSize must be greater than 0.");
+        }
+        this.pool = pool;
+        this.counterKey = counterKey;
+        this.routingKey = counterKey.getBytes();
+        this.leaseSize = leaseSize;
+        this.salt = new byte[SALT_SIZE];
+        SECURE_RANDOM.nextBytes(salt);
+        this.nextCounter = 1;
+        this.leaseEnd = 0;
+    }
+
+    public String generateId() {
+        long counter = nextCounter();
+        byte[] random = RANDOM_BUFFER.get();
+        SECURE_RANDOM.nextBytes(random);
+
+        MessageDigest messageDigest = MESSAGE_DIGEST.get();
+        messageDigest.update(salt);
+        messageDigest.update(random);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            messageDigest.update((byte) (counter >>> shift));
+        }
+        return RedisUtils.hexEncode(messageDigest.digest());
+    }
+
+    private long nextCounter() {
+        if (leaseSize == 1) {
+            try (Jedis jedis = RedisUtils.getResource(pool, routingKey)) {
+                return jedis.incr(counterKey);
+            }
+        }
+        synchronized (this) {
+            if (nextCounter > leaseEnd) {
+                try (Jedis jedis = RedisUtils.getResource(pool, routingKey)) {
+                    leaseEnd = jedis.incrBy(counterKey, leaseSize);
+                }
+                nextCounter = leaseEnd - leaseSize + 1;
+            }
+            return nextCounter++;
+        }
+    }
+
+}
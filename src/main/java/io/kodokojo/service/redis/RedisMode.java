@@ -0,0 +1,30 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis;
+
+/**
+ * Topology of the Redis servers used by the stores.
+ */
+public enum RedisMode {
+    //  A single Redis server.
+    STANDALONE,
+    //  A master and its replicas, the current master is discovered from Redis Sentinels.
+    SENTINEL,
+    //  A Redis Cluster, keys are sharded between masters by hash slot.
+    CLUSTER
+}
@@ -17,9 +17,12 @@
  */
 package io.kodokojo.service.redis;
 
-import io.kodokojo.commons.utils.RSAUtils;
 import io.kodokojo.model.*;
+import io.kodokojo.model.Stack;
 import io.kodokojo.brick.BrickFactory;
+import io.kodokojo.service.cache.CacheStatisticsMXBean;
+import io.kodokojo.service.cache.LocalCache;
+import io.kodokojo.service.redis.codec.ValueCodec;
 import io.kodokojo.service.store.ProjectStore;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.IteratorUtils;
@@ -27,10 +30,13 @@ import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Transaction;
+import redis.clients.util.Pool;
 
 import java.io.Serializable;
 import java.security.Key;
 import java.util.*;
+import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -51,16 +57,58 @@ public class RedisProjectStore  extends  AbstractRedisStore implements ProjectSt
 
     public static final String USER_TO_PROJECTCONFIGS_PREFIX = "userToprojectConfigurations/";
 
+    //  Hash of the brick states of a project, by "stackName/brickName". Brick states are always read from it, so a brick
+    //  state change is a single HSET instead of a rewrite of the whole project.
+    public static final String PROJECT_BRICK_STATES_PREFIX = "projectBrickStates/";
+
     private static final Pattern PROJECT_NAME_PATTERN = Pattern.compile("([a-zA-Z0-9\\-_]){4,20}");
 
+    public static final int DEFAULT_CACHE_MAX_SIZE = 512;
+
+    public static final long DEFAULT_CACHE_TTL = 30000;
+
+    public static final int UPDATE_MAX_ATTEMPTS = 32;
+
     private final BrickFactory brickFactory;
 
-    public RedisProjectStore(Key key, String host, int port, BrickFactory brickFactory) {
-        super(key, host, port);
+    //  Decoded objects are cached locally, another Kodo Kojo instance sharing the same Redis may see a stale value during at most the cache TTL.
+    private final LocalCache<String, ProjectConfiguration> projectConfigurationCache;
+
+    private final LocalCache<String, Project> projectCache;
+
+    private final ValueCodec<ProjectConfiguration> projectConfigurationCodec;
+
+    private final ValueCodec<Project> projectCodec;
+
+    private final ValueCodec<BrickState> brickStateCodec;
+
+    private RedisProjectStore(Key key, Pool<Jedis> pool, String host, int port, BrickFactory brickFactory, int cacheMaxSize, long cacheTtl, int idLeaseSize) {
+        super(key, pool, host, port, idLeaseSize);
         if (brickFactory == null) {
             throw new IllegalArgumentException("brickFactory must be defined.");
         }
         this.brickFactory = brickFactory;
+        this.projectConfigurationCodec = valueCodecProvider.getCodec(ProjectConfiguration.class);
+        this.projectCodec = valueCodecProvider.getCodec(Project.class);
+        this.brickStateCodec = valueCodecProvider.getCodec(BrickState.class);
+        this.projectConfigurationCache = new LocalCache<>(cacheMaxSize, cacheTtl);
+        this.projectCache = new LocalCache<>(cacheMaxSize, cacheTtl);
+    }
+
+    public RedisProjectStore(Key key, Pool<Jedis> pool, BrickFactory brickFactory, int cacheMaxSize, long cacheTtl, int idLeaseSize) {
+        this(key, requirePool(pool), null, 0, brickFactory, cacheMaxSize, cacheTtl, idLeaseSize);
+    }
+
+    public RedisProjectStore(Key key, String host, int port, BrickFactory brickFactory, int cacheMaxSize, long cacheTtl, int idLeaseSize) {
+        this(key, null, host, port, brickFactory, cacheMaxSize, cacheTtl, idLeaseSize);
+    }
+
+    public RedisProjectStore(Key key, String host, int port, BrickFactory brickFactory, int cacheMaxSize, long cacheTtl) {
+        this(key, host, port, brickFactory, cacheMaxSize, cacheTtl, DEFAULT_ID_LEASE_SIZE);
+    }
+
+    public RedisProjectStore(Key key, String host, int port, BrickFactory brickFactory) {
+        this(key, host, port, brickFactory, DEFAULT_CACHE_MAX_SIZE, DEFAULT_CACHE_TTL);
     }
 
     @Override
@@ -80,8 +128,8 @@ public class RedisProjectStore  extends  AbstractRedisStore implements ProjectSt
         }
         Matcher matcher = PROJECT_NAME_PATTERN.matcher(projectName);
         if (matcher.matches()) {
-            try (Jedis jedis = pool.getResource()) {
-                byte[] key = RedisUtils.aggregateKey(PROJECT_PREFIX, projectName);
+            byte[] key = aggregateKey(PROJECT_PREFIX, projectName);
+            try (Jedis jedis = getResource(key)) {
                 return !jedis.exists(key);
             }
         }
@@ -122,20 +170,67 @@ public class RedisProjectStore  extends  AbstractRedisStore implements ProjectSt
         if (context == null) {
             throw new IllegalArgumentException("context must be defined.");
         }
-        ProjectConfiguration projectConfiguration = getProjectConfigurationById(projectConfigurationId);
-        BrickConfiguration current = null;
-        Iterator<BrickConfiguration> defaultBrickConfigurations = projectConfiguration.getDefaultBrickConfigurations();
-        while(defaultBrickConfigurations.hasNext() && current == null) {
-            BrickConfiguration tmp = defaultBrickConfigurations.next();
-            if (brickConfiguration.getName().equals(tmp.getName()) && brickConfiguration.getType() == tmp.getType()) {
-                current = tmp;
+        updateProjectConfiguration(projectConfigurationId, projectConfiguration -> {
+            BrickConfiguration current = null;
+            Iterator<BrickConfiguration> defaultBrickConfigurations = projectConfiguration.getDefaultBrickConfigurations();
+            while(defaultBrickConfigurations.hasNext() && current == null) {
+                BrickConfiguration tmp = defaultBrickConfigurations.next();
+                if (brickConfiguration.getName().equals(tmp.getName()) && brickConfiguration.getType() == tmp.getType()) {
+                    current = tmp;
+                }
+            }
+            if(current != null) {
+                current.setCustomData(context);
             }
+            return projectConfiguration;
+        });
+
+    }
+
+    @Override
+    public ProjectConfiguration updateProjectConfiguration(String projectConfigurationIdentifier, UnaryOperator<ProjectConfiguration> update) {
+        if (isBlank(projectConfigurationIdentifier)) {
+            throw new IllegalArgumentException("projectConfigurationIdentifier must be defined.");
         }
-        if(current != null) {
-            current.setCustomData(context);
-            updateProjectConfiguration(projectConfiguration);
+        if (update == null) {
+            throw new IllegalArgumentException("update must be defined.");
         }
-
+        byte[] projectConfigKey = aggregateKey(PROJECTCONFIGURATION_PREFIX, projectConfigurationIdentifier);
+        try (Jedis jedis = getResource(projectConfigKey)) {
+            //  The current value is read from Redis, never from the cache which may be stale when several instances share
+            //  the same Redis. EXEC is aborted if another instance writes the project configuration meanwhile, then we retry.
+            for (int attempt = 1; attempt <= UPDATE_MAX_ATTEMPTS; attempt++) {
+                jedis.watch(projectConfigKey);
+                byte[] encrypted = jedis.get(projectConfigKey);
+                if (encrypted == null) {
+                    jedis.unwatch();
+                    return null;
+                }
+                ProjectConfiguration updated = update.apply(decodeProjectConfiguration(encrypted));
+                ProjectConfiguration toInsert = new ProjectConfiguration(updated.getEntityIdentifier(), projectConfigurationIdentifier, updated.getName(), IteratorUtils.toList(updated.getAdmins()), updated.getStackConfigurations(), IteratorUtils.toList(updated.getUsers()));
+                Transaction transaction = jedis.multi();
+                transaction.set(projectConfigKey, projectConfigurationCodec.encode(toInsert));
+                if (!isClustered()) {
+                    writeUserToProjectConfigurationId(transaction, toInsert.getAdmins(), projectConfigurationIdentifier);
+                    writeUserToProjectConfigurationId(transaction, toInsert.getUsers(), projectConfigurationIdentifier);
+                }
+                List<Object> result = transaction.exec();
+                if (CollectionUtils.isNotEmpty(result)) {
+                    if (isClustered()) {
+                        //  Reverse indexes live in the slot of their user, they are written once the project configuration is stored.
+                        writeUserToProjectConfigurationId(toInsert.getAdmins(), projectConfigurationIdentifier);
+                        writeUserToProjectConfigurationId(toInsert.getUsers(), projectConfigurationIdentifier);
+                    }
+                    return toInsert;
+                }
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Project configuration {} modified concurrently, retry update (attempt {}).", projectConfigurationIdentifier, attempt);
+                }
+            }
+        } finally {
+            projectConfigurationCache.invalidate(projectConfigurationIdentifier);
+        }
+        throw new IllegalStateException("Unable to update project configuration " + projectConfigurationIdentifier + " after " + UPDATE_MAX_ATTEMPTS + " attempts.");
     }
 
     @Override
@@ -143,18 +238,40 @@ public class RedisProjectStore  extends  AbstractRedisStore implements ProjectSt
         if (isBlank(identifier)) {
             throw new IllegalArgumentException("identifier must be defined.");
         }
-        try (Jedis jedis = pool.getResource()) {
-            byte[] projectConfigKey = RedisUtils.aggregateKey(PROJECTCONFIGURATION_PREFIX, identifier);
-            if (jedis.exists(projectConfigKey)) {
-                byte[] encrypted = jedis.get(projectConfigKey);
-                ProjectConfiguration projectConfiguration = (ProjectConfiguration) RSAUtils.decryptObjectWithAES(key, encrypted);
-                projectConfiguration.getStackConfigurations().forEach(this::fillStackConfigurationBrick);
-                return projectConfiguration;
+        ProjectConfiguration projectConfiguration = projectConfigurationCache.get(identifier, this::readProjectConfiguration);
+        //  Callers are allowed to modify the returned ProjectConfiguration, never give them the cached instance.
+        return projectConfiguration == null ? null : copyProjectConfiguration(projectConfiguration);
+    }
+
+    private ProjectConfiguration readProjectConfiguration(String identifier) {
+        byte[] projectConfigKey = aggregateKey(PROJECTCONFIGURATION_PREFIX, identifier);
+        try (Jedis jedis = getResource(projectConfigKey)) {
+            byte[] encrypted = jedis.get(projectConfigKey);
+            if (encrypted != null) {
+                return decodeProjectConfiguration(encrypted);
             }
         }
         return null;
     }
 
+    private ProjectConfiguration decodeProjectConfiguration(byte[] encrypted) {
+        ProjectConfiguration projectConfiguration = projectConfigurationCodec.decode(encrypted);
+        projectConfiguration.getStackConfigurations().forEach(this::fillStackConfigurationBrick);
+        return projectConfiguration;
+    }
+
+    private static ProjectConfiguration copyProjectConfiguration(ProjectConfiguration projectConfiguration) {
+        Set<StackConfiguration> stackConfigurations = projectConfiguration.getStackConfigurations().stream().map(stackConfiguration -> {
+            Set<BrickConfiguration> brickConfigurations = stackConfiguration.getBrickConfigurations().stream().map(brickConfiguration -> {
+                BrickConfiguration res = new BrickConfiguration(brickConfiguration.getBrick(), brickConfiguration.getName(), brickConfiguration.getType(), brickConfiguration.getUrl(), brickConfiguration.getVersion(), brickConfiguration.isWaitRunning());
+                res.setCustomData(new HashMap<>(brickConfiguration.getCustomData()));
+                return res;
+            }).collect(Collectors.toSet());
+            return new StackConfiguration(stackConfiguration.getName(), stackConfiguration.getType(), brickConfigurations, stackConfiguration.getLoadBalancerHost(), stackConfiguration.getScmSshPort());
+        }).collect(Collectors.toSet());
+        return new ProjectConfiguration(projectConfiguration.getEntityIdentifier(), projectConfiguration.getIdentifier(), projectConfiguration.getName(), IteratorUtils.toList(projectConfiguration.getAdmins()), stackConfigurations, IteratorUtils.toList(projectConfiguration.getUsers()));
+    }
+
     private void fillStackConfigurationBrick(StackConfiguration stackConfiguration) {
         List<BrickConfiguration> brickConfigurationUpdated = new ArrayList<>();
         if (CollectionUtils.isNotEmpty(stackConfiguration.getBrickConfigurations())) {
@@ -176,14 +293,28 @@ public class RedisProjectStore  extends  AbstractRedisStore implements ProjectSt
             throw new IllegalArgumentException("projectConfigurationIdentifier must be defined.");
         }
         if (projectNameIsValid(project.getName())) {
-            try (Jedis jedis = pool.getResource()) {
-                String identifier = generateId();
-                Project toAdd = new Project(identifier, projectConfigurationIdentifier, project.getName(), project.getSnapshotDate(), project.getStacks());
-                byte[] encryptedObject = RSAUtils.encryptObjectWithAES(key, toAdd);
-                jedis.set(RedisUtils.aggregateKey(PROJECT_PREFIX, identifier), encryptedObject);
-                jedis.set(RedisUtils.aggregateKey(PROJECTCONFIG_TO_PROJECT_PREFIX, projectConfigurationIdentifier), identifier.getBytes());
-                return identifier;
+            String identifier = generateId();
+            Project toAdd = new Project(identifier, projectConfigurationIdentifier, project.getName(), project.getSnapshotDate(), project.getStacks());
+            byte[] encryptedObject = projectCodec.encode(toAdd);
+            byte[] projectKey = aggregateKey(PROJECT_PREFIX, identifier);
+            byte[] projectConfigKey = aggregateKey(PROJECTCONFIG_TO_PROJECT_PREFIX, projectConfigurationIdentifier);
+            if (isClustered()) {
+                //  Both keys don't share a slot, the project is written first so the index never targets a missing project.
+                try (Jedis jedis = getResource(projectKey)) {
+                    jedis.set(projectKey, encryptedObject);
+                }
+                try (Jedis jedis = getResource(projectConfigKey)) {
+                    jedis.set(projectConfigKey, identifier.getBytes());
+                }
+            } else {
+                try (Jedis jedis = getResource(projectKey)) {
+                    Transaction transaction = jedis.multi();
+                    transaction.set(projectKey, encryptedObject);
+                    transaction.set(projectConfigKey, identifier.getBytes());
+                    transaction.exec();
+                }
             }
+            return identifier;
         }
         return null;
     }
@@ -196,9 +327,83 @@ public class RedisProjectStore  extends  AbstractRedisStore implements ProjectSt
         if (isBlank(project.getIdentifier())) {
             throw new IllegalArgumentException("Project identifier() must be defined.");
         }
-        try (Jedis jedis= pool.getResource()) {
-            byte[] encryptedObject = RSAUtils.encryptObjectWithAES(key, project);
-            jedis.set(RedisUtils.aggregateKey(PROJECT_PREFIX, project.getIdentifier()), encryptedObject);
+        byte[] projectKey = aggregateKey(PROJECT_PREFIX, project.getIdentifier());
+        byte[] brickStatesKey = aggregateKey(PROJECT_BRICK_STATES_PREFIX, project.getIdentifier());
+        try (Jedis jedis = getResource(projectKey)) {
+            Transaction transaction = jedis.multi();
+            writeProject(transaction, projectKey, brickStatesKey, project);
+            transaction.exec();
+        } finally {
+            projectCache.invalidate(project.getIdentifier());
+        }
+    }
+
+    @Override
+    public Project updateProject(String projectIdentifier, UnaryOperator<Project> update) {
+        if (isBlank(projectIdentifier)) {
+            throw new IllegalArgumentException("projectIdentifier must be defined.");
+        }
+        if (update == null) {
+            throw new IllegalArgumentException("update must be defined.");
+        }
+        byte[] projectKey = aggregateKey(PROJECT_PREFIX, projectIdentifier);
+        //  Both keys share the same hash tag in cluster mode, so they can be watched and written in the same transaction.
+        byte[] brickStatesKey = aggregateKey(PROJECT_BRICK_STATES_PREFIX, projectIdentifier);
+        try (Jedis jedis = getResource(projectKey)) {
+            //  Optimistic locking: EXEC is aborted if the project or its brick states have been written since WATCH, then we retry on the new values.
+            for (int attempt = 1; attempt <= UPDATE_MAX_ATTEMPTS; attempt++) {
+                jedis.watch(projectKey, brickStatesKey);
+                byte[] encrypted = jedis.get(projectKey);
+                if (encrypted == null) {
+                    jedis.unwatch();
+                    return null;
+                }
+                Project current = mergeBrickStates(projectCodec.decode(encrypted), jedis.hgetAll(brickStatesKey));
+                Project updated = update.apply(current);
+                Transaction transaction = jedis.multi();
+                writeProject(transaction, projectKey, brickStatesKey, updated);
+                List<Object> result = transaction.exec();
+                if (CollectionUtils.isNotEmpty(result)) {
+                    return updated;
+                }
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Project {} modified concurrently, retry update (attempt {}).", projectIdentifier, attempt);
+                }
+            }
+        } finally {
+            projectCache.invalidate(projectIdentifier);
+        }
+        throw new IllegalStateException("Unable to update project " + projectIdentifier + " after " + UPDATE_MAX_ATTEMPTS + " attempts.");
+    }
+
+    //  Brick states of the hash are the ones read, they are replaced by the states of the written project in the same transaction.
+    private void writeProject(Transaction transaction, byte[] projectKey, byte[] brickStatesKey, Project project) {
+        transaction.set(projectKey, projectCodec.encode(project));
+        transaction.del(brickStatesKey);
+        Map<byte[], byte[]> brickStates = new HashMap<>();
+        project.getStacks().forEach(stack -> stack.getBrickStates().forEach(brickState -> brickStates.put(brickStateField(brickState), brickStateCodec.encode(brickState))));
+        if (!brickStates.isEmpty()) {
+            transaction.hmset(brickStatesKey, brickStates);
+        }
+    }
+
+    private static byte[] brickStateField(BrickState brickState) {
+        return (brickState.getStackName() + "/" + brickState.getBrickName()).getBytes();
+    }
+
+    @Override
+    public void updateBrickState(String projectIdentifier, BrickState brickState) {
+        if (isBlank(projectIdentifier)) {
+            throw new IllegalArgumentException("projectIdentifier must be defined.");
+        }
+        if (brickState == null) {
+            throw new IllegalArgumentException("brickState must be defined.");
+        }
+        byte[] brickStatesKey = aggregateKey(PROJECT_BRICK_STATES_PREFIX, projectIdentifier);
+        try (Jedis jedis = getResource(brickStatesKey)) {
+            jedis.hset(brickStatesKey, brickStateField(brickState), brickStateCodec.encode(brickState));
+        } finally {
+            projectCache.invalidate(projectIdentifier);
         }
     }
 
@@ -208,11 +413,9 @@ public class RedisProjectStore  extends  AbstractRedisStore implements ProjectSt
             throw new IllegalArgumentException("userIdentifier must be defined.");
         }
                 Set<String> res = new HashSet<>();
-        try (Jedis jedis = pool.getResource()) {
-            byte[] projectConfigKey = RedisUtils.aggregateKey(USER_TO_PROJECTCONFIGS_PREFIX, userIdentifier);
-            if (jedis.exists(projectConfigKey)) {
-                res.addAll(jedis.smembers(projectConfigKey).stream().map(String::new).collect(Collectors.toSet()));
-            }
+        byte[] projectConfigKey = aggregateKey(USER_TO_PROJECTCONFIGS_PREFIX, userIdentifier);
+        try (Jedis jedis = getResource(projectConfigKey)) {
+            res.addAll(jedis.smembers(projectConfigKey).stream().map(String::new).collect(Collectors.toSet()));
         }
         return res;
     }
@@ -222,26 +425,58 @@ public class RedisProjectStore  extends  AbstractRedisStore implements ProjectSt
         if (isBlank(projectConfigurationId)) {
             throw new IllegalArgumentException("projectConfigurationId must be defined.");
         }
-        try (Jedis jedis = pool.getResource()) {
-            byte[] projectConfigKey = RedisUtils.aggregateKey(PROJECTCONFIG_TO_PROJECT_PREFIX, projectConfigurationId);
-            if (jedis.exists(projectConfigKey)) {
-                return new String(jedis.get(projectConfigKey));
+        byte[] projectConfigKey = aggregateKey(PROJECTCONFIG_TO_PROJECT_PREFIX, projectConfigurationId);
+        try (Jedis jedis = getResource(projectConfigKey)) {
+            byte[] projectId = jedis.get(projectConfigKey);
+            if (projectId != null) {
+                return new String(projectId);
             }
         }
         return null;
     }
 
+    @Override
+    public Map<String, String> getProjectIdsByProjectConfigurationIds(Set<String> projectConfigurationIds) {
+        if (projectConfigurationIds == null) {
+            throw new IllegalArgumentException("projectConfigurationIds must be defined.");
+        }
+        Map<String, String> res = new HashMap<>();
+        if (projectConfigurationIds.isEmpty()) {
+            return res;
+        }
+        if (isClustered()) {
+            //  Keys of a MGET must share a slot on a Redis Cluster.
+            Map<Integer, List<String>> idsBySlot = projectConfigurationIds.stream()
+                    .collect(Collectors.groupingBy(id -> RedisClusterPool.getSlot(aggregateKey(PROJECTCONFIG_TO_PROJECT_PREFIX, id))));
+            idsBySlot.values().forEach(ids -> readProjectIds(ids, res));
+        } else {
+            readProjectIds(new ArrayList<>(projectConfigurationIds), res);
+        }
+        return res;
+    }
+
+    private void readProjectIds(List<String> projectConfigurationIds, Map<String, String> res) {
+        byte[][] keys = new byte[projectConfigurationIds.size()][];
+        for (int i = 0; i < projectConfigurationIds.size(); i++) {
+            keys[i] = aggregateKey(PROJECTCONFIG_TO_PROJECT_PREFIX, projectConfigurationIds.get(i));
+        }
+        try (Jedis jedis = getResource(keys[0])) {
+            List<byte[]> projectIds = jedis.mget(keys);
+            for (int i = 0; i < projectConfigurationIds.size(); i++) {
+                byte[] projectId = projectIds.get(i);
+                res.put(projectConfigurationIds.get(i), projectId == null ? null : new String(projectId));
+            }
+        }
+    }
+
     @Override
     public Project getProjectByProjectConfigurationId(String projectConfigurationId) {
         if (isBlank(projectConfigurationId)) {
             throw new IllegalArgumentException("projectConfigurationId must be defined.");
         }
-        try (Jedis jedis = pool.getResource()) {
-            byte[] projectConfigKey = RedisUtils.aggregateKey(PROJECTCONFIG_TO_PROJECT_PREFIX, projectConfigurationId);
-            if (jedis.exists(projectConfigKey)) {
-                String projectId = new String(jedis.get(projectConfigKey));
-                return getProjectByIdentifier(projectId);
-            }
+        String projectId = getProjectIdByProjectConfigurationId(projectConfigurationId);
+        if (projectId != null) {
+            return getProjectByIdentifier(projectId);
         }
         return null;
     }
@@ -251,36 +486,114 @@ public class RedisProjectStore  extends  AbstractRedisStore implements ProjectSt
         if (isBlank(identifier)) {
             throw new IllegalArgumentException("identifier must be defined.");
         }
-        try (Jedis jedis = pool.getResource()) {
-            byte[] projectKey = RedisUtils.aggregateKey(PROJECT_PREFIX, identifier);
-            if (jedis.exists(projectKey)) {
-                byte[] encrypted = jedis.get(projectKey);
-                return (Project) RSAUtils.decryptObjectWithAES(key, encrypted);
+        Project project = projectCache.get(identifier, this::readProject);
+        //  As for ProjectConfiguration, the cached instance must not be modified through the returned one.
+        return project == null ? null : copyProject(project);
+    }
+
+    private static Project copyProject(Project project) {
+        Set<Stack> stacks = project.getStacks().stream()
+                .map(stack -> new Stack(stack.getName(), stack.getStackType(), stack.getBrickStates() == null ? null : new HashSet<>(stack.getBrickStates())))
+                .collect(Collectors.toSet());
+        return new Project(project.getIdentifier(), project.getProjectConfigurationIdentifier(), project.getName(), new Date(project.getSnapshotDate().getTime()), stacks);
+    }
+
+    private Project readProject(String identifier) {
+        //  Project and brick states keys share the project identifier as hash tag, they can be read on the same connection.
+        byte[] projectKey = aggregateKey(PROJECT_PREFIX, identifier);
+        try (Jedis jedis = getResource(projectKey)) {
+            byte[] encrypted = jedis.get(projectKey);
+            if (encrypted != null) {
+                Project project = projectCodec.decode(encrypted);
+                Map<byte[], byte[]> brickStates = jedis.hgetAll(aggregateKey(PROJECT_BRICK_STATES_PREFIX, identifier));
+                return mergeBrickStates(project, brickStates);
             }
         }
         return null;
     }
 
+    //  States stored in the brick states hash are more recent than the ones written with the project, which only keeps
+    //  the states known when the project was last written.
+    private Project mergeBrickStates(Project project, Map<byte[], byte[]> encryptedBrickStates) {
+        if (encryptedBrickStates == null || encryptedBrickStates.isEmpty()) {
+            return project;
+        }
+        Map<String, Map<String, BrickState>> brickStatesByStack = new HashMap<>();
+        for (byte[] encryptedBrickState : encryptedBrickStates.values()) {
+            BrickState brickState = brickStateCodec.decode(encryptedBrickState);
+            brickStatesByStack.computeIfAbsent(brickState.getStackName(), stackName -> new HashMap<>()).put(brickState.getBrickName(), brickState);
+        }
+        Set<Stack> stacks = project.getStacks().stream().map(stack -> {
+            Map<String, BrickState> stackBrickStates = brickStatesByStack.get(stack.getName());
+            if (stackBrickStates == null) {
+                return stack;
+            }
+            Map<String, BrickState> merged = new HashMap<>();
+            stack.getBrickStates().forEach(brickState -> merged.put(brickState.getBrickName(), brickState));
+            merged.putAll(stackBrickStates);
+            return new Stack(stack.getName(), stack.getStackType(), new HashSet<>(merged.values()));
+        }).collect(Collectors.toSet());
+        return new Project(project.getIdentifier(), project.getProjectConfigurationIdentifier(), project.getName(), project.getSnapshotDate(), stacks);
+    }
+
 
     private String writeProjectConfiguration(ProjectConfiguration projectConfiguration) {
-        try (Jedis jedis = pool.getResource()) {
+        try {
             String identifier = projectConfiguration.getIdentifier();
 
             ProjectConfiguration toInsert = new ProjectConfiguration(projectConfiguration.getEntityIdentifier(), identifier, projectConfiguration.getName(), IteratorUtils.toList(projectConfiguration.getAdmins()), projectConfiguration.getStackConfigurations(), IteratorUtils.toList(projectConfiguration.getUsers()));
-            byte[] encryptedObject = RSAUtils.encryptObjectWithAES(key, toInsert);
-            jedis.set(RedisUtils.aggregateKey(PROJECTCONFIGURATION_PREFIX, identifier), encryptedObject);
-            writeUserToProjectConfigurationId(jedis, toInsert.getAdmins(), toInsert.getIdentifier());
-            writeUserToProjectConfigurationId(jedis, toInsert.getUsers(), toInsert.getIdentifier());
+            byte[] encryptedObject = projectConfigurationCodec.encode(toInsert);
+            byte[] projectConfigKey = aggregateKey(PROJECTCONFIGURATION_PREFIX, identifier);
+            if (isClustered()) {
+                //  Reverse indexes live in the slot of their user, they are written once the project configuration is stored.
+                try (Jedis jedis = getResource(projectConfigKey)) {
+                    jedis.set(projectConfigKey, encryptedObject);
+                }
+                writeUserToProjectConfigurationId(toInsert.getAdmins(), identifier);
+                writeUserToProjectConfigurationId(toInsert.getUsers(), identifier);
+            } else {
+                try (Jedis jedis = getResource(projectConfigKey)) {
+                    //  Project configuration and its reverse indexes are queued in a MULTI and sent to Redis in a single round trip on EXEC.
+                    Transaction transaction = jedis.multi();
+                    transaction.set(projectConfigKey, encryptedObject);
+                    writeUserToProjectConfigurationId(transaction, toInsert.getAdmins(), identifier);
+                    writeUserToProjectConfigurationId(transaction, toInsert.getUsers(), identifier);
+                    transaction.exec();
+                }
+            }
             return identifier;
+        } finally {
+            if (projectConfiguration.getIdentifier() != null) {
+                projectConfigurationCache.invalidate(projectConfiguration.getIdentifier());
+            }
         }
     }
 
-    private void writeUserToProjectConfigurationId(Jedis jedis, Iterator<User> users, String projectConfigurationId) {
+    public CacheStatisticsMXBean getProjectConfigurationCacheStatistics() {
+        return projectConfigurationCache;
+    }
+
+    public CacheStatisticsMXBean getProjectCacheStatistics() {
+        return projectCache;
+    }
+
+    private void writeUserToProjectConfigurationId(Transaction transaction, Iterator<User> users, String projectConfigurationId) {
         byte[] projectConfId = projectConfigurationId.getBytes();
         while(users.hasNext()) {
             User user = users.next();
-            byte[] key = RedisUtils.aggregateKey(USER_TO_PROJECTCONFIGS_PREFIX, user.getIdentifier());
-            jedis.sadd(key, projectConfId);
+            byte[] key = aggregateKey(USER_TO_PROJECTCONFIGS_PREFIX, user.getIdentifier());
+            transaction.sadd(key, projectConfId);
+        }
+    }
+
+    private void writeUserToProjectConfigurationId(Iterator<User> users, String projectConfigurationId) {
+        byte[] projectConfId = projectConfigurationId.getBytes();
+        while(users.hasNext()) {
+            User user = users.next();
+            byte[] key = aggregateKey(USER_TO_PROJECTCONFIGS_PREFIX, user.getIdentifier());
+            try (Jedis jedis = getResource(key)) {
+                jedis.sadd(key, projectConfId);
+            }
         }
     }
 
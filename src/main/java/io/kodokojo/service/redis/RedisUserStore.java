@@ -24,17 +24,21 @@ import io.kodokojo.service.lifecycle.ApplicationLifeCycleListener;
 import io.kodokojo.model.User;
 import io.kodokojo.model.UserService;
 import io.kodokojo.commons.utils.RSAUtils;
+import io.kodokojo.service.redis.codec.ValueCodec;
+import io.kodokojo.service.store.UserChangeListener;
 import io.kodokojo.service.store.UserStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.Jedis;
+import redis.clients.util.Pool;
 
-import java.io.*;
 import java.security.*;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 import static org.apache.commons.lang.StringUtils.isBlank;
 
@@ -46,7 +50,7 @@ public class RedisUserStore extends AbstractRedisStore implements UserStore, App
 
     private static final byte[] NEW_USER_CONTENT = new byte[]{0, 1, 1, 0};
 
-    private static final int DEFAULT_NEW_ID_TTL = 5 * 60; //5 minutes
+    public static final int DEFAULT_NEW_ID_TTL = 5 * 60; //5 minutes
 
     public static final String NEW_ID_PREFIX = "newId/";
 
@@ -58,20 +62,32 @@ public class RedisUserStore extends AbstractRedisStore implements UserStore, App
 
     public static final String USERSERVICENAME_PREFIX = "userservicename/";
 
-    private final MessageDigest messageDigest;
-
     private final int newIdExpirationTime;
 
-    public RedisUserStore(Key key, String host, int port, int newIdExpirationTime) {
-        super(key, host, port);
+    private final Set<UserChangeListener> userChangeListeners = new CopyOnWriteArraySet<>();
+
+    private final ValueCodec<UserValue> userValueCodec;
+
+    private final ValueCodec<UserServiceValue> userServiceValueCodec;
+
+    private RedisUserStore(Key key, Pool<Jedis> pool, String host, int port, int newIdExpirationTime, int idLeaseSize) {
+        super(key, pool, host, port, idLeaseSize);
+        this.userValueCodec = valueCodecProvider.getCodec(UserValue.class);
+        this.userServiceValueCodec = valueCodecProvider.getCodec(UserServiceValue.class);
 
         this.newIdExpirationTime = newIdExpirationTime;
-        try {
-            messageDigest = MessageDigest.getInstance("SHA-1");
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Unable to get instance of SHA-1 digest");
-        }
+    }
+
+    public RedisUserStore(Key key, Pool<Jedis> pool, int newIdExpirationTime, int idLeaseSize) {
+        this(key, requirePool(pool), null, 0, newIdExpirationTime, idLeaseSize);
+    }
 
+    public RedisUserStore(Key key, String host, int port, int newIdExpirationTime, int idLeaseSize) {
+        this(key, null, host, port, newIdExpirationTime, idLeaseSize);
+    }
+
+    public RedisUserStore(Key key, String host, int port, int newIdExpirationTime) {
+        this(key, host, port, newIdExpirationTime, DEFAULT_ID_LEASE_SIZE);
     }
 
     public RedisUserStore(Key key, String host, int port) {
@@ -85,17 +101,15 @@ public class RedisUserStore extends AbstractRedisStore implements UserStore, App
 
     @Override
     protected String getGenerateIdKey() {
-        return NEW_ID_PREFIX;
+        return ID_KEY;
     }
 
     @Override
     public String generateId() {
-        try (Jedis jedis = pool.getResource()) {
-            String id = saltKey + jedis.incr(ID_KEY).toString();
-            String newId = RedisUtils.hexEncode(messageDigest.digest(id.getBytes()));
-            byte[] prefixedKey = RedisUtils.aggregateKey(NEW_ID_PREFIX, newId);
-            jedis.set(prefixedKey, NEW_USER_CONTENT);
-            jedis.expire(prefixedKey, newIdExpirationTime);
+        String newId = super.generateId();
+        byte[] newIdKey = aggregateKey(NEW_ID_PREFIX, newId);
+        try (Jedis jedis = getResource(newIdKey)) {
+            jedis.setex(newIdKey, newIdExpirationTime, NEW_USER_CONTENT);
             return newId;
         }
     }
@@ -105,8 +119,9 @@ public class RedisUserStore extends AbstractRedisStore implements UserStore, App
         if (isBlank(generatedId)) {
             throw new IllegalArgumentException("generatedId must be defined.");
         }
-        try (Jedis jedis = pool.getResource()) {
-            return jedis.exists(RedisUtils.aggregateKey(NEW_ID_PREFIX, generatedId));
+        byte[] newIdKey = aggregateKey(NEW_ID_PREFIX, generatedId);
+        try (Jedis jedis = getResource(newIdKey)) {
+            return jedis.exists(newIdKey);
         }
     }
 
@@ -115,28 +130,32 @@ public class RedisUserStore extends AbstractRedisStore implements UserStore, App
         if (user == null) {
             throw new IllegalArgumentException("user must be defined.");
         }
-        ByteArrayOutputStream byteArray = new ByteArrayOutputStream();
-        try (ObjectOutputStream out = new ObjectOutputStream(byteArray); Jedis jedis = pool.getResource()) {
-            if (jedis.get(RedisUtils.aggregateKey(USERNAME_PREFIX, user.getUsername())) == null) {
-                byte[] previous = jedis.get(RedisUtils.aggregateKey(NEW_ID_PREFIX, user.getIdentifier()));
-                if (Arrays.equals(previous, NEW_USER_CONTENT) &&
-                        !jedis.exists(RedisUtils.aggregateKey(USER_PREFIX, user.getIdentifier()))) {
-                    byte[] password = RSAUtils.encryptWithAES(key,user.getPassword());
-
-                    UserValue userValue = new UserValue(user, password);
-                    out.writeObject(userValue);
+        byte[] usernameKey = aggregateKey(USERNAME_PREFIX, user.getUsername());
+        byte[] newIdKey = aggregateKey(NEW_ID_PREFIX, user.getIdentifier());
+        byte[] userKey = aggregateKey(USER_PREFIX, user.getIdentifier());
+        //  Username and identifier keys may live on different Cluster nodes, each one is accessed with its own connection.
+        try (Jedis jedis = getResource(usernameKey)) {
+            if (jedis.get(usernameKey) != null) {
+                return false;
+            }
+        }
+        try (Jedis jedis = getResource(userKey)) {
+            byte[] previous = jedis.get(newIdKey);
+            if (!Arrays.equals(previous, NEW_USER_CONTENT) || jedis.exists(userKey)) {
+                return false;
+            }
+            byte[] password = RSAUtils.encryptWithAES(key,user.getPassword());
 
-                    jedis.set(RedisUtils.aggregateKey(USER_PREFIX, user.getIdentifier()), byteArray.toByteArray());
-                    jedis.set(USERNAME_PREFIX + user.getUsername(), user.getIdentifier());
-                    jedis.del((NEW_ID_PREFIX + user.getIdentifier()).getBytes());
-                    return true;
-                }
+            UserValue userValue = new UserValue(user, password);
 
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Unable to serialized UserValue.", e);
+            jedis.set(userKey, userValueCodec.encode(userValue));
+            jedis.del(newIdKey);
+        }
+        try (Jedis jedis = getResource(usernameKey)) {
+            jedis.set(usernameKey, user.getIdentifier().getBytes());
         }
-        return false;
+        userChangeListeners.forEach(listener -> listener.userChanged(user.getUsername()));
+        return true;
     }
 
 
@@ -145,20 +164,28 @@ public class RedisUserStore extends AbstractRedisStore implements UserStore, App
         if (userService == null) {
             throw new IllegalArgumentException("userService must be defined.");
         }
-        ByteArrayOutputStream byteArray = new ByteArrayOutputStream();
-        try (ObjectOutputStream out = new ObjectOutputStream(byteArray); Jedis jedis = pool.getResource()) {
-            byte[] password = RSAUtils.encryptWithAES(key, userService.getPassword());
-            byte[] privateKey = RSAUtils.wrap(key, userService.getPrivateKey());
-            byte[] publicKey = RSAUtils.wrap(key, userService.getPublicKey());
+        byte[] password = RSAUtils.encryptWithAES(key, userService.getPassword());
+        byte[] privateKey = RSAUtils.wrap(key, userService.getPrivateKey());
+        byte[] publicKey = RSAUtils.wrap(key, userService.getPublicKey());
+
+        UserServiceValue userServiceValue = new UserServiceValue(userService, password, privateKey, publicKey);
+        byte[] userServiceKey = aggregateKey(USERSERVICE_PREFIX, userService.getIdentifier());
+        try (Jedis jedis = getResource(userServiceKey)) {
+            jedis.set(userServiceKey, userServiceValueCodec.encode(userServiceValue));
+        }
+        byte[] userServiceNameKey = aggregateKey(USERSERVICENAME_PREFIX, userService.getName());
+        try (Jedis jedis = getResource(userServiceNameKey)) {
+            jedis.set(userServiceNameKey, userService.getIdentifier().getBytes());
+        }
+        return true;
+    }
 
-            UserServiceValue userServiceValue = new UserServiceValue(userService, password, privateKey, publicKey);
-            out.writeObject(userServiceValue);
-            jedis.set(RedisUtils.aggregateKey(USERSERVICE_PREFIX, userService.getIdentifier()), byteArray.toByteArray());
-            jedis.set(USERSERVICENAME_PREFIX + userService.getName(), userService.getIdentifier());
-            return true;
-        } catch (IOException e) {
-            throw new RuntimeException("Unable to serialized UserValue.", e);
+    @Override
+    public void addUserChangeListener(UserChangeListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must be defined.");
         }
+        userChangeListeners.add(listener);
     }
 
     @Override
@@ -166,13 +193,11 @@ public class RedisUserStore extends AbstractRedisStore implements UserStore, App
         if (isBlank(username)) {
             throw new IllegalArgumentException("username must be defined.");
         }
-        try (Jedis jedis = pool.getResource()) {
-            String identifier = jedis.get(USERNAME_PREFIX + username);
-            if (isBlank(identifier)) {
-                return null;
-            }
-            return getUserByIdentifier(identifier);
+        String identifier = readIdentifier(aggregateKey(USERNAME_PREFIX, username));
+        if (isBlank(identifier)) {
+            return null;
         }
+        return getUserByIdentifier(identifier);
     }
 
     @Override
@@ -180,27 +205,43 @@ public class RedisUserStore extends AbstractRedisStore implements UserStore, App
         if (isBlank(name)) {
             throw new IllegalArgumentException("username must be defined.");
         }
-        try (Jedis jedis = pool.getResource()) {
-            String identifier = jedis.get(USERSERVICENAME_PREFIX + name);
-            if (isBlank(identifier)) {
-                return null;
-            }
-            UserServiceValue userServiceValue = (UserServiceValue) RedisUtils.readFromRedis(pool, RedisUtils.aggregateKey(USERSERVICE_PREFIX, identifier));
-            if (userServiceValue == null) {
-                return null;
-            }
-            String password = RSAUtils.decryptWithAES(key, userServiceValue.getPassword());
-            RSAPrivateKey privateKey = RSAUtils.unwrapPrivateRsaKey(key, userServiceValue.getPrivateKey());
-            RSAPublicKey publicKey = RSAUtils.unwrapPublicRsaKey(key, userServiceValue.getPublicKey());
-            RSAUtils.unwrap(key, userServiceValue.getPublicKey());
-            return new UserService(userServiceValue.getLogin(), userServiceValue.getName(), userServiceValue.getLogin(), password, privateKey, publicKey);
+        String identifier = readIdentifier(aggregateKey(USERSERVICENAME_PREFIX, name));
+        if (isBlank(identifier)) {
+            return null;
+        }
+        UserServiceValue userServiceValue = RedisUtils.readFromRedis(pool, aggregateKey(USERSERVICE_PREFIX, identifier), userServiceValueCodec);
+        if (userServiceValue == null) {
+            return null;
+        }
+        String password = RSAUtils.decryptWithAES(key, userServiceValue.getPassword());
+        RSAPrivateKey privateKey = RSAUtils.unwrapPrivateRsaKey(key, userServiceValue.getPrivateKey());
+        RSAPublicKey publicKey = RSAUtils.unwrapPublicRsaKey(key, userServiceValue.getPublicKey());
+        RSAUtils.unwrap(key, userServiceValue.getPublicKey());
+        return new UserService(userServiceValue.getLogin(), userServiceValue.getName(), userServiceValue.getLogin(), password, privateKey, publicKey);
+    }
+
+    private String readIdentifier(byte[] indexKey) {
+        try (Jedis jedis = getResource(indexKey)) {
+            byte[] identifier = jedis.get(indexKey);
+            return identifier == null ? null : new String(identifier);
         }
     }
 
     @Override
     public boolean userIsAdminOfProjectConfiguration(String username, ProjectConfiguration projectConfiguration) {
-        boolean res = false;
         User current = getUserByUsername(username);
+        return userIsAdminOfProjectConfiguration(current, projectConfiguration);
+    }
+
+    @Override
+    public boolean userIsAdminOfProjectConfiguration(User current, ProjectConfiguration projectConfiguration) {
+        if (current == null) {
+            throw new IllegalArgumentException("current must be defined.");
+        }
+        if (projectConfiguration == null) {
+            throw new IllegalArgumentException("projectConfiguration must be defined.");
+        }
+        boolean res = false;
         String userIdentifier = current.getIdentifier();
         Iterator<User> admins = projectConfiguration.getAdmins();
         while (!res && admins.hasNext()) {
@@ -215,7 +256,7 @@ public class RedisUserStore extends AbstractRedisStore implements UserStore, App
         if (isBlank(identifier)) {
             throw new IllegalArgumentException("identifier must be defined.");
         }
-        UserValue userValue = (UserValue) RedisUtils.readFromRedis(pool, RedisUtils.aggregateKey(USER_PREFIX, identifier));
+        UserValue userValue = RedisUtils.readFromRedis(pool, aggregateKey(USER_PREFIX, identifier), userValueCodec);
         if (userValue == null) {
             return null;
         }
@@ -17,8 +17,9 @@
  */
 package io.kodokojo.service.redis;
 
+import io.kodokojo.service.redis.codec.ValueCodec;
 import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisPool;
+import redis.clients.util.Pool;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
@@ -35,6 +36,8 @@ import static org.apache.commons.lang.StringUtils.isNotBlank;
 
 public class RedisUtils {
 
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     private RedisUtils() {
         // Utility class.
     }
@@ -45,10 +48,10 @@ public class RedisUtils {
      * @param key The key where find the expected Object
      * @return The serialized Object.
      */
-    public static Object readFromRedis(JedisPool pool, byte[] key) {
-        try (Jedis jedis = pool.getResource()) {
-            if (jedis.exists(key)) {
-                byte[] buffer = jedis.get(key);
+    public static Object readFromRedis(Pool<Jedis> pool, byte[] key) {
+        try (Jedis jedis = getResource(pool, key)) {
+            byte[] buffer = jedis.get(key);
+            if (buffer != null) {
                 ByteArrayInputStream input = new ByteArrayInputStream(buffer);
                 try (ObjectInputStream in = new ObjectInputStream(input)) {
                     return in.readObject();
@@ -62,6 +65,33 @@ public class RedisUtils {
         return null;
     }
 
+    /**
+     * Read a Redis value and decode it with <code>codec</code>
+     * @param pool Jedis pool to connect to Redis
+     * @param key The key where find the expected Object
+     * @param codec The codec used to decode the value
+     * @return The decoded Object, or <code>null</code> if key doesn't exist.
+     */
+    public static <T> T readFromRedis(Pool<Jedis> pool, byte[] key, ValueCodec<T> codec) {
+        try (Jedis jedis = getResource(pool, key)) {
+            return codec.decode(jedis.get(key));
+        }
+    }
+
+    /**
+     * Borrow a connection able to run commands on <code>key</code>: the master owning the slot of the key for a Redis
+     * Cluster, the server of the pool otherwise.
+     * @param pool Jedis pool to connect to Redis
+     * @param key The key which will be read or written
+     * @return A connection to close once used.
+     */
+    public static Jedis getResource(Pool<Jedis> pool, byte[] key) {
+        if (pool instanceof RedisClusterPool) {
+            return ((RedisClusterPool) pool).getResource(key);
+        }
+        return pool.getResource();
+    }
+
     /**
      * Aggregate to Sring and return byte Array. Usefull to create a Redis key.
      * @param prefix The key prefix
@@ -74,15 +104,25 @@ public class RedisUtils {
         return (prefix + key).getBytes();
     }
 
+    /**
+     * Same as {@link #aggregateKey(String, String)}, but <code>key</code> is used as hash tag: Redis Cluster stores all
+     * keys sharing a hash tag in the same slot.
+     * @param prefix The key prefix
+     * @param key The key
+     * @return An aggregate key
+     */
+    public static byte[] aggregateHashTaggedKey(String prefix, String key) {
+        return aggregateKey(prefix, "{" + key + "}");
+    }
+
     public static String hexEncode(byte[] aInput) {
-        StringBuilder result = new StringBuilder();
-        char[] digits = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+        char[] result = new char[aInput.length * 2];
         for (int idx = 0; idx < aInput.length; ++idx) {
-            byte b = aInput[idx];
-            result.append(digits[(b & 0xf0) >> 4]);
-            result.append(digits[b & 0x0f]);
+            int b = aInput[idx] & 0xff;
+            result[idx * 2] = HEX_DIGITS[b >>> 4];
+            result[idx * 2 + 1] = HEX_DIGITS[b & 0x0f];
         }
-        return result.toString();
+        return new String(result);
     }
 
 }
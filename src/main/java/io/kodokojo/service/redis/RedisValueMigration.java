@@ -0,0 +1,222 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
+import io.kodokojo.brick.BrickFactory;
+import io.kodokojo.brick.DefaultBrickFactory;
+import io.kodokojo.config.module.PropertyModule;
+import io.kodokojo.config.module.RedisModule;
+import io.kodokojo.config.module.SecurityModule;
+import io.kodokojo.model.BrickState;
+import io.kodokojo.model.Entity;
+import io.kodokojo.model.Project;
+import io.kodokojo.model.ProjectConfiguration;
+import io.kodokojo.service.redis.codec.BinaryValueCodecProvider;
+import io.kodokojo.service.redis.codec.ValueCodec;
+import io.kodokojo.service.lifecycle.ApplicationLifeCycleManager;
+import io.kodokojo.service.redis.codec.ValueCodecProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.Transaction;
+import redis.clients.util.Pool;
+
+import javax.crypto.SecretKey;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrite in place the values stored by the Redis stores with the current {@link ValueCodec}. Values already in the
+ * current format are left untouched, so the migration may be run again safely, and while Kodo Kojo is running: a value
+ * modified during its migration is not overwritten.
+ * <p>
+ * Run it with the same properties than Kodo Kojo, to use the same Redis, in the same <code>redis.mode</code>, and
+ * security key. On a Redis Cluster, keys are scanned on every master and each value is rewritten on the master owning
+ * its slot.
+ * </p>
+ */
+public class RedisValueMigration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisValueMigration.class);
+
+    private static final int SCAN_COUNT = 500;
+
+    private final Pool<Jedis> pool;
+
+    private final ValueCodecProvider valueCodecProvider;
+
+    public RedisValueMigration(Pool<Jedis> pool, ValueCodecProvider valueCodecProvider) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool must be defined.");
+        }
+        if (valueCodecProvider == null) {
+            throw new IllegalArgumentException("valueCodecProvider must be defined.");
+        }
+        this.pool = pool;
+        this.valueCodecProvider = valueCodecProvider;
+    }
+
+    public int migrate() {
+        int migrated = 0;
+        migrated += migrateValues(RedisUserStore.USER_PREFIX, valueCodecProvider.getCodec(UserValue.class));
+        migrated += migrateValues(RedisUserStore.USERSERVICE_PREFIX, valueCodecProvider.getCodec(UserServiceValue.class));
+        migrated += migrateValues(RedisEntityStore.ENTITY_PREFIX, valueCodecProvider.getCodec(Entity.class));
+        migrated += migrateValues(RedisProjectStore.PROJECTCONFIGURATION_PREFIX, valueCodecProvider.getCodec(ProjectConfiguration.class));
+        migrated += migrateValues(RedisProjectStore.PROJECT_PREFIX, valueCodecProvider.getCodec(Project.class));
+        migrated += migrateHashValues(RedisProjectStore.PROJECT_BRICK_STATES_PREFIX, valueCodecProvider.getCodec(BrickState.class));
+        return migrated;
+    }
+
+    <T> int migrateValues(String prefix, ValueCodec<T> codec) {
+        int migrated = 0;
+        for (String key : scanKeys(prefix)) {
+            byte[] redisKey = key.getBytes();
+            try (Jedis jedis = RedisUtils.getResource(pool, redisKey)) {
+                jedis.watch(redisKey);
+                byte[] value = jedis.get(redisKey);
+                byte[] encoded = value == null || codec.isCurrentFormat(value) ? null : reencode(codec, value, key);
+                if (encoded == null) {
+                    jedis.unwatch();
+                } else {
+                    Transaction transaction = jedis.multi();
+                    transaction.set(redisKey, encoded);
+                    if (isCommitted(transaction.exec(), key)) {
+                        migrated++;
+                    }
+                }
+            }
+        }
+        LOGGER.info("{} values migrated for keys {}*.", migrated, prefix);
+        return migrated;
+    }
+
+    <T> int migrateHashValues(String prefix, ValueCodec<T> codec) {
+        int migrated = 0;
+        for (String key : scanKeys(prefix)) {
+            byte[] redisKey = key.getBytes();
+            try (Jedis jedis = RedisUtils.getResource(pool, redisKey)) {
+                jedis.watch(redisKey);
+                Map<byte[], byte[]> toMigrate = new HashMap<>();
+                boolean decodable = true;
+                for (Map.Entry<byte[], byte[]> entry : jedis.hgetAll(redisKey).entrySet()) {
+                    if (!codec.isCurrentFormat(entry.getValue())) {
+                        byte[] encoded = reencode(codec, entry.getValue(), key);
+                        if (encoded == null) {
+                            decodable = false;
+                            break;
+                        }
+                        toMigrate.put(entry.getKey(), encoded);
+                    }
+                }
+                if (!decodable || toMigrate.isEmpty()) {
+                    jedis.unwatch();
+                } else {
+                    Transaction transaction = jedis.multi();
+                    transaction.hmset(redisKey, toMigrate);
+                    if (isCommitted(transaction.exec(), key)) {
+                        migrated += toMigrate.size();
+                    }
+                }
+            }
+        }
+        LOGGER.info("{} hash values migrated for keys {}*.", migrated, prefix);
+        return migrated;
+    }
+
+    //  Returns null when the value can't be decoded, the key is then skipped.
+    private static <T> byte[] reencode(ValueCodec<T> codec, byte[] value, String key) {
+        try {
+            return codec.encode(codec.decode(value));
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to decode value of key {}, it is kept as is.", key, e);
+            return null;
+        }
+    }
+
+    //  A Redis Cluster node only scans its own keys, so every master is scanned.
+    List<String> scanKeys(String prefix) {
+        if (pool instanceof RedisClusterPool) {
+            List<String> keys = new ArrayList<>();
+            for (JedisPool masterPool : ((RedisClusterPool) pool).getMasterPools()) {
+                try (Jedis jedis = masterPool.getResource()) {
+                    keys.addAll(scanKeys(jedis, prefix));
+                }
+            }
+            return keys;
+        }
+        try (Jedis jedis = pool.getResource()) {
+            return scanKeys(jedis, prefix);
+        }
+    }
+
+    //  Only keys made of the prefix followed by an identifier are store values, others like project/<name>/<stack>/lbHost are plain text.
+    static List<String> scanKeys(Jedis jedis, String prefix) {
+        List<String> keys = new ArrayList<>();
+        ScanParams scanParams = new ScanParams().match(prefix + "*").count(SCAN_COUNT);
+        String cursor = ScanParams.SCAN_POINTER_START;
+        do {
+            ScanResult<String> scanResult = jedis.scan(cursor, scanParams);
+            scanResult.getResult().stream()
+                    .filter(key -> key.indexOf('/', prefix.length()) < 0)
+                    .forEach(keys::add);
+            cursor = scanResult.getStringCursor();
+        } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+        return keys;
+    }
+
+    private static boolean isCommitted(List<Object> result, String key) {
+        if (result == null || result.isEmpty()) {
+            LOGGER.warn("Value of key {} modified during its migration, it is kept as is.", key);
+            return false;
+        }
+        return true;
+    }
+
+    public static void main(String[] args) {
+        ApplicationLifeCycleManager applicationLifeCycleManager = new ApplicationLifeCycleManager();
+        Injector injector = Guice.createInjector(new PropertyModule(args), new SecurityModule(), new RedisModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                //  Only what the providers of RedisModule need, instead of the whole ServiceModule.
+                bind(ApplicationLifeCycleManager.class).toInstance(applicationLifeCycleManager);
+                bind(BrickFactory.class).to(DefaultBrickFactory.class);
+            }
+        });
+        SecretKey secretKey = injector.getInstance(Key.get(SecretKey.class, Names.named("securityKey")));
+        Pool<Jedis> pool = injector.getInstance(Key.get(new TypeLiteral<Pool<Jedis>>() {/**/
+        }));
+        try {
+            RedisValueMigration migration = new RedisValueMigration(pool, new BinaryValueCodecProvider(secretKey));
+            LOGGER.info("Migration done, {} values rewritten.", migration.migrate());
+        } finally {
+            applicationLifeCycleManager.stop();
+        }
+    }
+
+}
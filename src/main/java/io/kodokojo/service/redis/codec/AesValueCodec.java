@@ -0,0 +1,131 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis.codec;
+
+import io.kodokojo.commons.utils.RSAUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Encrypt values encoded by a {@link BinaryValueCodec} with AES. Values which don't start with the {@link #MAGIC}
+ * header are decrypted with {@link RSAUtils#decryptObjectWithAES(Key, byte[])}, the format used before.
+ */
+public class AesValueCodec<T> implements ValueCodec<T> {
+
+    static final byte[] MAGIC = {'K', 'K', 'E'};
+
+    private static final byte VERSION = 1;
+
+    private static final int HEADER_SIZE = MAGIC.length + 1;
+
+    private static final int IV_SIZE = 16;
+
+    private static final String TRANSFORMATION = "AES/CBC/PKCS5Padding";
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private static final ThreadLocal<Cipher> CIPHER = new ThreadLocal<Cipher>() {
+        @Override
+        protected Cipher initialValue() {
+            try {
+                return Cipher.getInstance(TRANSFORMATION);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to get instance of " + TRANSFORMATION + " cipher.", e);
+            }
+        }
+    };
+
+    private final Key key;
+
+    private final BinaryValueCodec<T> delegate;
+
+    public AesValueCodec(Key key, BinaryValueCodec<T> delegate) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must be defined.");
+        }
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate must be defined.");
+        }
+        this.key = key;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public byte[] encode(T value) {
+        byte[] plain = delegate.encode(value);
+        byte[] iv = new byte[IV_SIZE];
+        SECURE_RANDOM.nextBytes(iv);
+        try {
+            Cipher cipher = CIPHER.get();
+            cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+            byte[] res = new byte[HEADER_SIZE + IV_SIZE + cipher.getOutputSize(plain.length)];
+            System.arraycopy(MAGIC, 0, res, 0, MAGIC.length);
+            res[MAGIC.length] = VERSION;
+            System.arraycopy(iv, 0, res, HEADER_SIZE, IV_SIZE);
+            int length = cipher.doFinal(plain, 0, plain.length, res, HEADER_SIZE + IV_SIZE);
+            return length == res.length - HEADER_SIZE - IV_SIZE ? res : Arrays.copyOf(res, HEADER_SIZE + IV_SIZE + length);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to encrypt value of type " + delegate.getType().getName() + ".", e);
+        }
+    }
+
+    @Override
+    public T decode(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (isCurrentFormat(data)) {
+            byte[] plain;
+            try {
+                Cipher cipher = CIPHER.get();
+                cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(data, HEADER_SIZE, IV_SIZE));
+                plain = cipher.doFinal(data, HEADER_SIZE + IV_SIZE, data.length - HEADER_SIZE - IV_SIZE);
+            } catch (GeneralSecurityException e) {
+                //  An encrypted legacy value may start with the same bytes than our header.
+                return decodeLegacy(data, e);
+            }
+            if (BinaryValueCodec.hasHeader(plain, BinaryValueCodec.MAGIC)) {
+                return delegate.decode(plain);
+            }
+            return decodeLegacy(data, null);
+        }
+        return decodeLegacy(data, null);
+    }
+
+    @Override
+    public boolean isCurrentFormat(byte[] data) {
+        return data != null && data.length >= HEADER_SIZE + IV_SIZE && BinaryValueCodec.hasHeader(data, MAGIC) && data[MAGIC.length] == VERSION;
+    }
+
+    private T decodeLegacy(byte[] data, GeneralSecurityException cause) {
+        try {
+            return delegate.getType().cast(RSAUtils.decryptObjectWithAES(key, data));
+        } catch (RuntimeException e) {
+            if (cause != null) {
+                e.addSuppressed(cause);
+            }
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+public class BinaryInput {
+
+    private final DataInputStream in;
+
+    public BinaryInput(byte[] data, int offset) {
+        if (data == null) {
+            throw new IllegalArgumentException("data must be defined.");
+        }
+        in = new DataInputStream(new ByteArrayInputStream(data, offset, data.length - offset));
+    }
+
+    public byte[] readBytes() {
+        try {
+            int length = in.readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] res = new byte[length];
+            in.readFully(res);
+            return res;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read bytes.", e);
+        }
+    }
+
+    public String readString() {
+        byte[] value = readBytes();
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    public <E extends Enum<E>> E readEnum(Class<E> enumType) {
+        String name = readString();
+        return name == null ? null : Enum.valueOf(enumType, name);
+    }
+
+    public int readInt() {
+        try {
+            return in.readInt();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read int.", e);
+        }
+    }
+
+    public long readLong() {
+        try {
+            return in.readLong();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read long.", e);
+        }
+    }
+
+    public boolean readBoolean() {
+        try {
+            return in.readBoolean();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read boolean.", e);
+        }
+    }
+
+    public Date readDate() {
+        return readBoolean() ? new Date(readLong()) : null;
+    }
+
+    public Serializable readSerializable() {
+        byte[] value = readBytes();
+        if (value == null) {
+            return null;
+        }
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(value))) {
+            return (Serializable) objectIn.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Unable to deserialize value.", e);
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+public class BinaryOutput {
+
+    private final ByteArrayOutputStream buffer;
+
+    private final DataOutputStream out;
+
+    public BinaryOutput(int initialSize) {
+        buffer = new ByteArrayOutputStream(initialSize);
+        out = new DataOutputStream(buffer);
+    }
+
+    public BinaryOutput writeBytes(byte[] value) {
+        try {
+            if (value == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(value.length);
+                out.write(value);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write bytes.", e);
+        }
+        return this;
+    }
+
+    public BinaryOutput writeString(String value) {
+        return writeBytes(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public BinaryOutput writeEnum(Enum<?> value) {
+        return writeString(value == null ? null : value.name());
+    }
+
+    public BinaryOutput writeByte(byte value) {
+        try {
+            out.writeByte(value);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write byte.", e);
+        }
+        return this;
+    }
+
+    public BinaryOutput writeInt(int value) {
+        try {
+            out.writeInt(value);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write int.", e);
+        }
+        return this;
+    }
+
+    public BinaryOutput writeLong(long value) {
+        try {
+            out.writeLong(value);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write long.", e);
+        }
+        return this;
+    }
+
+    public BinaryOutput writeBoolean(boolean value) {
+        try {
+            out.writeBoolean(value);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write boolean.", e);
+        }
+        return this;
+    }
+
+    public BinaryOutput writeDate(Date value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeLong(value.getTime());
+        }
+        return this;
+    }
+
+    //  Only used for free form values, like brick custom data, which have no fixed schema.
+    public BinaryOutput writeSerializable(Serializable value) {
+        if (value == null) {
+            return writeBytes(null);
+        }
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(serialized)) {
+            objectOut.writeObject(value);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to serialize " + value.getClass().getName() + ".", e);
+        }
+        return writeBytes(serialized.toByteArray());
+    }
+
+    public byte[] toByteArray() {
+        return buffer.toByteArray();
+    }
+
+}
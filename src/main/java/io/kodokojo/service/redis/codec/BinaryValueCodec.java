@@ -0,0 +1,120 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
+/**
+ * Compact binary {@link ValueCodec}. An encoded value starts with a header made of {@link #MAGIC} followed by the
+ * version of the format, so a codec is able to read values written by its previous versions. Values which don't
+ * start with this header are read as Java serialized objects, the format used before.
+ */
+public abstract class BinaryValueCodec<T> implements ValueCodec<T> {
+
+    static final byte[] MAGIC = {'K', 'K', 'B'};
+
+    static final int HEADER_SIZE = MAGIC.length + 1;
+
+    private final Class<T> type;
+
+    private final int version;
+
+    protected BinaryValueCodec(Class<T> type, int version) {
+        if (type == null) {
+            throw new IllegalArgumentException("type must be defined.");
+        }
+        if (version <= 0 || version > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("version must be between 1 and " + Byte.MAX_VALUE + ".");
+        }
+        this.type = type;
+        this.version = version;
+    }
+
+    protected abstract void write(BinaryOutput out, T value);
+
+    protected abstract T read(BinaryInput in, int version);
+
+    @Override
+    public byte[] encode(T value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value must be defined.");
+        }
+        BinaryOutput out = new BinaryOutput(256);
+        writeHeader(out);
+        write(out, value);
+        return out.toByteArray();
+    }
+
+    @Override
+    public T decode(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (hasHeader(data, MAGIC)) {
+            return read(new BinaryInput(data, HEADER_SIZE), data[MAGIC.length]);
+        }
+        return decodeJavaSerialized(data);
+    }
+
+    //  Nested values are written without header, in the current format of their codec. A codec must change its version
+    //  when the format of one of the codecs it nests changes.
+    T readNested(BinaryInput in) {
+        return read(in, version);
+    }
+
+    @Override
+    public boolean isCurrentFormat(byte[] data) {
+        return data != null && hasHeader(data, MAGIC) && data[MAGIC.length] == version;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    private void writeHeader(BinaryOutput out) {
+        for (byte b : MAGIC) {
+            out.writeByte(b);
+        }
+        out.writeByte((byte) version);
+    }
+
+    private T decodeJavaSerialized(byte[] data) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return type.cast(in.readObject());
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read legacy value of type " + type.getName() + ".", e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Unable to found class Object ?", e);
+        }
+    }
+
+    static boolean hasHeader(byte[] data, byte[] magic) {
+        if (data.length < magic.length + 1) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (data[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
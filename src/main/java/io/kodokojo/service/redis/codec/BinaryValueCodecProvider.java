@@ -0,0 +1,68 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis.codec;
+
+import io.kodokojo.model.BrickState;
+import io.kodokojo.model.Entity;
+import io.kodokojo.model.Project;
+import io.kodokojo.model.ProjectConfiguration;
+import io.kodokojo.service.redis.UserServiceValue;
+import io.kodokojo.service.redis.UserValue;
+
+import java.security.Key;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Provide compact binary codecs. Values which contain user data in clear are encrypted with the store key, as they were
+ * with Java serialization.
+ */
+public class BinaryValueCodecProvider implements ValueCodecProvider {
+
+    private final Map<Class<?>, ValueCodec<?>> codecs = new HashMap<>();
+
+    public BinaryValueCodecProvider(Key key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must be defined.");
+        }
+        register(UserValue.class, new UserValueCodec());
+        register(UserServiceValue.class, new UserServiceValueCodec());
+        register(Entity.class, new AesValueCodec<>(key, new EntityCodec()));
+        register(ProjectConfiguration.class, new AesValueCodec<>(key, new ProjectConfigurationCodec()));
+        register(Project.class, new AesValueCodec<>(key, new ProjectCodec()));
+        register(BrickState.class, new AesValueCodec<>(key, new BrickStateCodec()));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> ValueCodec<T> getCodec(Class<T> type) {
+        if (type == null) {
+            throw new IllegalArgumentException("type must be defined.");
+        }
+        ValueCodec<T> codec = (ValueCodec<T>) codecs.get(type);
+        if (codec == null) {
+            throw new IllegalArgumentException("No codec defined for type " + type.getName() + ".");
+        }
+        return codec;
+    }
+
+    private <T> void register(Class<T> type, ValueCodec<T> codec) {
+        codecs.put(type, codec);
+    }
+
+}
@@ -0,0 +1,63 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis.codec;
+
+import io.kodokojo.model.Entity;
+import io.kodokojo.model.ProjectConfiguration;
+import io.kodokojo.model.User;
+import org.apache.commons.collections4.IteratorUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EntityCodec extends BinaryValueCodec<Entity> {
+
+    private final ProjectConfigurationCodec projectConfigurationCodec = new ProjectConfigurationCodec();
+
+    public EntityCodec() {
+        super(Entity.class, 1);
+    }
+
+    @Override
+    protected void write(BinaryOutput out, Entity value) {
+        out.writeString(value.getIdentifier())
+                .writeString(value.getName())
+                .writeBoolean(value.isConcrete());
+        List<ProjectConfiguration> projectConfigurations = IteratorUtils.toList(value.getProjectConfigurations());
+        out.writeInt(projectConfigurations.size());
+        projectConfigurations.forEach(projectConfiguration -> projectConfigurationCodec.write(out, projectConfiguration));
+        projectConfigurationCodec.writeUsers(out, IteratorUtils.toList(value.getAdmins()));
+        projectConfigurationCodec.writeUsers(out, IteratorUtils.toList(value.getUsers()));
+    }
+
+    @Override
+    protected Entity read(BinaryInput in, int version) {
+        String identifier = in.readString();
+        String name = in.readString();
+        boolean concrete = in.readBoolean();
+        int nbProjectConfigurations = in.readInt();
+        List<ProjectConfiguration> projectConfigurations = new ArrayList<>(nbProjectConfigurations);
+        for (int i = 0; i < nbProjectConfigurations; i++) {
+            projectConfigurations.add(projectConfigurationCodec.readNested(in));
+        }
+        List<User> admins = projectConfigurationCodec.readUsers(in);
+        List<User> users = projectConfigurationCodec.readUsers(in);
+        return new Entity(identifier, name, concrete, projectConfigurations, admins, users);
+    }
+
+}
@@ -0,0 +1,78 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis.codec;
+
+import io.kodokojo.model.BrickState;
+import io.kodokojo.model.Project;
+import io.kodokojo.model.Stack;
+import io.kodokojo.model.StackType;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+public class ProjectCodec extends BinaryValueCodec<Project> {
+
+    private final BrickStateCodec brickStateCodec = new BrickStateCodec();
+
+    public ProjectCodec() {
+        super(Project.class, 1);
+    }
+
+    @Override
+    protected void write(BinaryOutput out, Project value) {
+        out.writeString(value.getIdentifier())
+                .writeString(value.getProjectConfigurationIdentifier())
+                .writeString(value.getName())
+                .writeDate(value.getSnapshotDate())
+                .writeInt(value.getStacks().size());
+        for (Stack stack : value.getStacks()) {
+            out.writeString(stack.getName()).writeEnum(stack.getStackType());
+            Set<BrickState> brickStates = stack.getBrickStates();
+            out.writeInt(brickStates == null ? -1 : brickStates.size());
+            if (brickStates != null) {
+                brickStates.forEach(brickState -> brickStateCodec.write(out, brickState));
+            }
+        }
+    }
+
+    @Override
+    protected Project read(BinaryInput in, int version) {
+        String identifier = in.readString();
+        String projectConfigurationIdentifier = in.readString();
+        String name = in.readString();
+        Date snapshotDate = in.readDate();
+        int nbStacks = in.readInt();
+        Set<Stack> stacks = new HashSet<>(nbStacks);
+        for (int i = 0; i < nbStacks; i++) {
+            String stackName = in.readString();
+            StackType stackType = in.readEnum(StackType.class);
+            int nbBrickStates = in.readInt();
+            Set<BrickState> brickStates = null;
+            if (nbBrickStates >= 0) {
+                brickStates = new HashSet<>(nbBrickStates);
+                for (int j = 0; j < nbBrickStates; j++) {
+                    brickStates.add(brickStateCodec.readNested(in));
+                }
+            }
+            stacks.add(new Stack(stackName, stackType, brickStates));
+        }
+        return new Project(identifier, projectConfigurationIdentifier, name, snapshotDate, stacks);
+    }
+
+}
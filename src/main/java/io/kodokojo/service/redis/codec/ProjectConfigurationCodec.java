@@ -0,0 +1,138 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis.codec;
+
+import io.kodokojo.model.Brick;
+import io.kodokojo.model.BrickConfiguration;
+import io.kodokojo.model.BrickType;
+import io.kodokojo.model.ProjectConfiguration;
+import io.kodokojo.model.StackConfiguration;
+import io.kodokojo.model.StackType;
+import io.kodokojo.model.User;
+import org.apache.commons.collections4.IteratorUtils;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ProjectConfigurationCodec extends BinaryValueCodec<ProjectConfiguration> {
+
+    private final UserCodec userCodec = new UserCodec();
+
+    public ProjectConfigurationCodec() {
+        super(ProjectConfiguration.class, 1);
+    }
+
+    @Override
+    protected void write(BinaryOutput out, ProjectConfiguration value) {
+        out.writeString(value.getEntityIdentifier())
+                .writeString(value.getIdentifier())
+                .writeString(value.getName());
+        writeUsers(out, IteratorUtils.toList(value.getAdmins()));
+        Set<StackConfiguration> stackConfigurations = value.getStackConfigurations();
+        out.writeInt(stackConfigurations.size());
+        for (StackConfiguration stackConfiguration : stackConfigurations) {
+            out.writeString(stackConfiguration.getName())
+                    .writeEnum(stackConfiguration.getType())
+                    .writeString(stackConfiguration.getLoadBalancerHost())
+                    .writeInt(stackConfiguration.getScmSshPort());
+            Set<BrickConfiguration> brickConfigurations = stackConfiguration.getBrickConfigurations();
+            out.writeInt(brickConfigurations.size());
+            brickConfigurations.forEach(brickConfiguration -> writeBrickConfiguration(out, brickConfiguration));
+        }
+        writeUsers(out, IteratorUtils.toList(value.getUsers()));
+    }
+
+    @Override
+    protected ProjectConfiguration read(BinaryInput in, int version) {
+        String entityIdentifier = in.readString();
+        String identifier = in.readString();
+        String name = in.readString();
+        List<User> admins = readUsers(in);
+        int nbStackConfigurations = in.readInt();
+        Set<StackConfiguration> stackConfigurations = new HashSet<>(nbStackConfigurations);
+        for (int i = 0; i < nbStackConfigurations; i++) {
+            String stackName = in.readString();
+            StackType stackType = in.readEnum(StackType.class);
+            String loadBalancerHost = in.readString();
+            int scmSshPort = in.readInt();
+            int nbBrickConfigurations = in.readInt();
+            Set<BrickConfiguration> brickConfigurations = new HashSet<>(nbBrickConfigurations);
+            for (int j = 0; j < nbBrickConfigurations; j++) {
+                brickConfigurations.add(readBrickConfiguration(in));
+            }
+            stackConfigurations.add(new StackConfiguration(stackName, stackType, brickConfigurations, loadBalancerHost, scmSshPort));
+        }
+        List<User> users = readUsers(in);
+        return new ProjectConfiguration(entityIdentifier, identifier, name, admins, stackConfigurations, users);
+    }
+
+    void writeUsers(BinaryOutput out, List<User> users) {
+        out.writeInt(users.size());
+        users.forEach(user -> userCodec.write(out, user));
+    }
+
+    List<User> readUsers(BinaryInput in) {
+        int nbUsers = in.readInt();
+        List<User> users = new ArrayList<>(nbUsers);
+        for (int i = 0; i < nbUsers; i++) {
+            users.add(userCodec.readNested(in));
+        }
+        return users;
+    }
+
+    private static void writeBrickConfiguration(BinaryOutput out, BrickConfiguration brickConfiguration) {
+        Brick brick = brickConfiguration.getBrick();
+        out.writeBoolean(brick != null);
+        if (brick != null) {
+            out.writeString(brick.getName())
+                    .writeEnum(brick.getType())
+                    .writeString(brick.getVersion());
+        }
+        out.writeString(brickConfiguration.getName())
+                .writeEnum(brickConfiguration.getType())
+                .writeString(brickConfiguration.getUrl())
+                .writeString(brickConfiguration.getVersion())
+                .writeBoolean(brickConfiguration.isWaitRunning());
+        Map<String, Serializable> customData = brickConfiguration.getCustomData();
+        out.writeInt(customData.size());
+        customData.forEach((key, value) -> out.writeString(key).writeSerializable(value));
+    }
+
+    private static BrickConfiguration readBrickConfiguration(BinaryInput in) {
+        Brick brick = null;
+        if (in.readBoolean()) {
+            brick = new Brick(in.readString(), in.readEnum(BrickType.class), in.readString());
+        }
+        BrickConfiguration brickConfiguration = new BrickConfiguration(brick, in.readString(), in.readEnum(BrickType.class), in.readString(), in.readString(), in.readBoolean());
+        int nbCustomData = in.readInt();
+        if (nbCustomData > 0) {
+            Map<String, Serializable> customData = new HashMap<>(nbCustomData);
+            for (int i = 0; i < nbCustomData; i++) {
+                customData.put(in.readString(), in.readSerializable());
+            }
+            brickConfiguration.setCustomData(customData);
+        }
+        return brickConfiguration;
+    }
+
+}
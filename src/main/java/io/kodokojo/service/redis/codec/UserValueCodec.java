@@ -0,0 +1,43 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis.codec;
+
+import io.kodokojo.service.redis.UserValue;
+
+public class UserValueCodec extends BinaryValueCodec<UserValue> {
+
+    public UserValueCodec() {
+        super(UserValue.class, 1);
+    }
+
+    @Override
+    protected void write(BinaryOutput out, UserValue value) {
+        out.writeString(value.getName())
+                .writeString(value.getUsername())
+                .writeString(value.getEntityId())
+                .writeString(value.getEmail())
+                .writeBytes(value.getPassword())
+                .writeString(value.getSshPublicKey());
+    }
+
+    @Override
+    protected UserValue read(BinaryInput in, int version) {
+        return new UserValue(in.readString(), in.readString(), in.readString(), in.readString(), in.readBytes(), in.readString());
+    }
+
+}
@@ -0,0 +1,39 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis.codec;
+
+/**
+ * Encode and decode values stored in Redis.
+ */
+public interface ValueCodec<T> {
+
+    byte[] encode(T value);
+
+    /**
+     * @param data Raw value read from Redis, including values written by a previous format.
+     */
+    T decode(byte[] data);
+
+    /**
+     * @return <code>true</code> if <code>data</code> is already in the format written by {@link #encode(Object)}.
+     */
+    default boolean isCurrentFormat(byte[] data) {
+        return false;
+    }
+
+}
@@ -20,6 +20,7 @@ package io.kodokojo.service.store;
 import io.kodokojo.model.Project;
 import io.kodokojo.model.ProjectConfiguration;
 
+import java.util.Map;
 import java.util.Set;
 
 public interface ProjectFetcher {
@@ -32,5 +33,12 @@ public interface ProjectFetcher {
 
     String getProjectIdByProjectConfigurationId(String projectConfigurationId);
 
+    /**
+     * Lookup in a single call the project identifiers of several project configurations.
+     * @param projectConfigurationIds Identifiers of the project configurations.
+     * @return A map from each given project configuration identifier to its project identifier, or <code>null</code> if no project was started for it.
+     */
+    Map<String, String> getProjectIdsByProjectConfigurationIds(Set<String> projectConfigurationIds);
+
     Project getProjectByProjectConfigurationId(String projectConfigurationId);
 }
@@ -18,11 +18,13 @@
 package io.kodokojo.service.store;
 
 import io.kodokojo.model.BrickConfiguration;
+import io.kodokojo.model.BrickState;
 import io.kodokojo.model.Project;
 import io.kodokojo.model.ProjectConfiguration;
 
 import java.io.Serializable;
 import java.util.Map;
+import java.util.function.UnaryOperator;
 
 public interface ProjectStore extends ProjectFetcher {
 
@@ -32,10 +34,43 @@ public interface ProjectStore extends ProjectFetcher {
 
     String addProject(Project project, String projectConfigurationIdentifier);
 
+    /**
+     * Replace the project, brick states included: states previously stored by
+     * {@link #updateBrickState(String, BrickState)} are replaced by the ones of <code>project</code>.
+     */
     void updateProject(Project project);
 
+    /**
+     * Atomically replace the project by the result of <code>update</code> applied to its current value, brick states
+     * stored by {@link #updateBrickState(String, BrickState)} included. Reserved to structural changes of the project,
+     * brick state changes go through {@link #updateBrickState(String, BrickState)}. When the project or its brick
+     * states are modified concurrently, <code>update</code> is applied again to the latest value, so it must be free of
+     * side effects.
+     *
+     * @return The updated project, or <code>null</code> if no project exist with this identifier.
+     */
+    Project updateProject(String projectIdentifier, UnaryOperator<Project> update);
+
+    /**
+     * Store the state of a brick of the project, without rewriting the project itself. The state is merged into the
+     * {@link Project} returned by {@link #getProjectByIdentifier(String)}, until a later state of the same brick is
+     * stored, or the project is written again.
+     */
+    void updateBrickState(String projectIdentifier, BrickState brickState);
+
     void updateProjectConfiguration(ProjectConfiguration projectConfiguration);
 
+    /**
+     * Atomically replace the project configuration by the result of <code>update</code> applied to its current value,
+     * read from the store and not from a cache, so read-modify-write of several Kodo Kojo instances never overwrite
+     * each other. When the project configuration is modified concurrently, <code>update</code> is applied again to the
+     * latest value, so it must be free of side effects.
+     *
+     * @return The updated project configuration, or <code>null</code> if no project configuration exist with this
+     * identifier.
+     */
+    ProjectConfiguration updateProjectConfiguration(String projectConfigurationIdentifier, UnaryOperator<ProjectConfiguration> update);
+
     void setContextToBrickConfiguration(String projectConfigurationId, BrickConfiguration brickConfiguration, Map<String, Serializable> context);
 
 }
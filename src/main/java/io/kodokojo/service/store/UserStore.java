@@ -37,4 +37,8 @@ public interface UserStore extends UserFetcher {
     boolean addUserService(UserService userService);
 
     boolean userIsAdminOfProjectConfiguration(String username, ProjectConfiguration projectConfiguration);
+
+    boolean userIsAdminOfProjectConfiguration(User user, ProjectConfiguration projectConfiguration);
+
+    void addUserChangeListener(UserChangeListener listener);
 }
@@ -0,0 +1,51 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.bdd.feature;
+
+import com.tngtech.jgiven.junit.ScenarioTest;
+import io.kodokojo.bdd.stage.ApiLoadGiven;
+import io.kodokojo.bdd.stage.ApiLoadThen;
+import io.kodokojo.bdd.stage.ApiLoadWhen;
+import io.kodokojo.commons.DockerIsRequire;
+import io.kodokojo.commons.DockerPresentMethodRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Load may be defined with <code>-Dload.users</code>, <code>-Dload.concurrency</code> and
+ * <code>-Dload.brickStartDelay</code> (in milliseconds).
+ */
+public class ApiLoadIntTest extends ScenarioTest<ApiLoadGiven<?>, ApiLoadWhen<?>, ApiLoadThen<?>> {
+
+    @Rule
+    public DockerPresentMethodRule dockerPresentMethodRule = new DockerPresentMethodRule();
+
+    @Test
+    @DockerIsRequire
+    public void users_create_and_start_projects_concurrently() {
+        int nbUsers = Integer.getInteger("load.users", 20);
+        int concurrency = Integer.getInteger("load.concurrency", 4);
+        long brickStartDelay = Long.getLong("load.brickStartDelay", 0L);
+
+        given().kodokojo_is_started_with_bricks_started_in_$_ms(brickStartDelay, dockerPresentMethodRule.getDockerTestSupport());
+        when().$_users_start_a_project_with_$_concurrent_clients(nbUsers, concurrency);
+        then().throughput_and_latency_percentiles_are_reported()
+                .and().all_projects_are_started_without_error();
+    }
+
+}
@@ -0,0 +1,59 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.bdd.stage;
+
+import com.tngtech.jgiven.CurrentStep;
+import com.tngtech.jgiven.Stage;
+import com.tngtech.jgiven.annotation.ExpectedScenarioState;
+import com.tngtech.jgiven.attachment.Attachment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ApiLoadThen<SELF extends ApiLoadThen<?>> extends Stage<SELF> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApiLoadThen.class);
+
+    @ExpectedScenarioState
+    EndpointLatencyRecorder latencyRecorder;
+
+    @ExpectedScenarioState
+    long loadDuration;
+
+    @ExpectedScenarioState
+    int nbVirtualUsers;
+
+    @ExpectedScenarioState
+    CurrentStep currentStep;
+
+    public SELF throughput_and_latency_percentiles_are_reported() {
+        String report = latencyRecorder.report(loadDuration, TimeUnit.MILLISECONDS);
+        LOGGER.info("Load test of {} users done in {} ms :\n{}", nbVirtualUsers, loadDuration, report);
+        currentStep.addAttachment(Attachment.plainText(report).withTitle("Load report").withFileName("loadReport"));
+        return self();
+    }
+
+    public SELF all_projects_are_started_without_error() {
+        assertThat(latencyRecorder.getErrorCount()).isEqualTo(0);
+        assertThat(latencyRecorder.getCount(ApiLoadWhen.BRICKS_RUNNING)).isEqualTo(nbVirtualUsers);
+        return self();
+    }
+}
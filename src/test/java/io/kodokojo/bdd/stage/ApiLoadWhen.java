@@ -0,0 +1,163 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.bdd.stage;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.tngtech.jgiven.Stage;
+import com.tngtech.jgiven.annotation.ExpectedScenarioState;
+import com.tngtech.jgiven.annotation.ProvidedScenarioState;
+import io.kodokojo.endpoint.dto.WebSocketMessage;
+import io.kodokojo.endpoint.dto.WebSocketMessageGsonAdapter;
+import io.kodokojo.model.BrickState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.websocket.Session;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Each virtual user creates an account, subscribes to WebSocket events, creates a project configuration with the
+ * default bricks and starts it, then waits for all its bricks to be running.
+ */
+public class ApiLoadWhen<SELF extends ApiLoadWhen<?>> extends Stage<SELF> {
+
+    public static final String USER_CREATION = "POST /user";
+
+    public static final String WEBSOCKET_AUTHENTICATION = "WS /event";
+
+    public static final String PROJECT_CONFIGURATION_CREATION = "POST /projectconfig";
+
+    public static final String PROJECT_START = "POST /project";
+
+    public static final String BRICKS_RUNNING = "WS brick RUNNING";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApiLoadWhen.class);
+
+    private static final int NB_DEFAULT_BRICKS = 3;
+
+    private static final long WEBSOCKET_AUTHENTICATION_TIMEOUT = 10;
+
+    private static final long BRICKS_RUNNING_TIMEOUT = 120;
+
+    private static final Gson GSON = new GsonBuilder().registerTypeAdapter(WebSocketMessage.class, new WebSocketMessageGsonAdapter()).create();
+
+    @ExpectedScenarioState
+    HttpUserSupport httpUserSupport;
+
+    @ProvidedScenarioState
+    EndpointLatencyRecorder latencyRecorder;
+
+    @ProvidedScenarioState
+    long loadDuration;
+
+    @ProvidedScenarioState
+    int nbVirtualUsers;
+
+    public SELF $_users_start_a_project_with_$_concurrent_clients(int nbVirtualUsers, int concurrency) {
+        this.nbVirtualUsers = nbVirtualUsers;
+        latencyRecorder = new EndpointLatencyRecorder();
+        ExecutorService executorService = Executors.newFixedThreadPool(concurrency);
+        long begin = System.currentTimeMillis();
+        try {
+            List<Future<?>> futures = new ArrayList<>(nbVirtualUsers);
+            for (int i = 0; i < nbVirtualUsers; i++) {
+                int index = i;
+                futures.add(executorService.submit(() -> runVirtualUser(index)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    LOGGER.debug("Virtual user failed.", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executorService.shutdownNow();
+        }
+        loadDuration = System.currentTimeMillis() - begin;
+        return self();
+    }
+
+    private void runVirtualUser(int index) {
+        UserInfo user = latencyRecorder.record(USER_CREATION, () -> httpUserSupport.createUser(null, "load" + index + "@kodokojo.dev"));
+
+        CountDownLatch authenticated = new CountDownLatch(1);
+        CountDownLatch bricksRunning = new CountDownLatch(NB_DEFAULT_BRICKS);
+        Session webSocketSession = latencyRecorder.record(WEBSOCKET_AUTHENTICATION, () -> {
+            Session res = httpUserSupport.connectToWebSocketEvent(user, new WebSocketEventsListener.CallBack() {
+                @Override
+                public void open(Session session) {
+                    //  Wait the authentication response.
+                }
+
+                @Override
+                public void receive(Session session, String message) {
+                    WebSocketMessage webSocketMessage = GSON.fromJson(message, WebSocketMessage.class);
+                    if ("user".equals(webSocketMessage.getEntity())) {
+                        authenticated.countDown();
+                    } else if ("brick".equals(webSocketMessage.getEntity())
+                            && BrickState.State.RUNNING.name().equals(webSocketMessage.getData().get("state").getAsString())) {
+                        bricksRunning.countDown();
+                    }
+                }
+
+                @Override
+                public void close(Session session) {
+                    //  Nothing to do.
+                }
+            });
+            if (!await(authenticated, WEBSOCKET_AUTHENTICATION_TIMEOUT)) {
+                throw new IllegalStateException("WebSocket of user " + user.getUsername() + " not authenticated.");
+            }
+            return res;
+        });
+
+        try {
+            String projectConfigurationIdentifier = latencyRecorder.record(PROJECT_CONFIGURATION_CREATION, () -> httpUserSupport.createProjectConfiguration("Load" + index, null, user));
+            long begin = System.nanoTime();
+            latencyRecorder.recordCall(PROJECT_START, () -> httpUserSupport.startProject(projectConfigurationIdentifier, user));
+            if (await(bricksRunning, BRICKS_RUNNING_TIMEOUT)) {
+                latencyRecorder.recordDuration(BRICKS_RUNNING, System.nanoTime() - begin, TimeUnit.NANOSECONDS);
+            } else {
+                latencyRecorder.recordError(BRICKS_RUNNING);
+            }
+        } finally {
+            try {
+                webSocketSession.close();
+            } catch (IOException e) {
+                LOGGER.debug("Unable to close WebSocket session of user {}.", user.getUsername(), e);
+            }
+        }
+    }
+
+    private static boolean await(CountDownLatch latch, long timeoutInSeconds) {
+        try {
+            return latch.await(timeoutInSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+}
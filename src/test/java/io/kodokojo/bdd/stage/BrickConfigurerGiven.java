@@ -29,6 +29,7 @@ import com.tngtech.jgiven.annotation.*;
 import io.kodokojo.bdd.stage.brickauthenticator.UserAuthenticator;
 import io.kodokojo.brick.*;
 import io.kodokojo.commons.utils.DockerTestSupport;
+import io.kodokojo.test.utils.TestUtils;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -98,7 +99,7 @@ public class BrickConfigurerGiven<SELF extends BrickConfigurerGiven<?>> extends
         assertThat(brickStarted).isTrue();
         LOGGER.info("Brick {} successfully started.", brickName);
         brickFactory = new DefaultBrickFactory();
-        brickConfigurerProvider = new DefaultBrickConfigurerProvider(new DefaultBrickUrlFactory("kodokojo.dev"));
+        brickConfigurerProvider = new DefaultBrickConfigurerProvider(new DefaultBrickUrlFactory("kodokojo.dev"), TestUtils.createHttpClientFactory(), UserProvisioner.getDefault());
         return self();
     }
 
@@ -28,6 +28,7 @@ import io.kodokojo.commons.utils.DockerTestSupport;
 import io.kodokojo.commons.utils.RSAUtils;
 import io.kodokojo.commons.utils.ssl.SSLKeyPair;
 import io.kodokojo.commons.utils.ssl.SSLUtils;
+import io.kodokojo.config.ActorConfig;
 import io.kodokojo.config.ApplicationConfig;
 import io.kodokojo.config.EmailConfig;
 import io.kodokojo.config.module.ActorModule;
@@ -37,6 +38,8 @@ import io.kodokojo.config.module.endpoint.UserEndpointModule;
 import io.kodokojo.endpoint.HttpEndpoint;
 import io.kodokojo.endpoint.SparkEndpoint;
 import io.kodokojo.endpoint.UserAuthenticator;
+import io.kodokojo.model.BrickType;
+import io.kodokojo.model.ProjectConfiguration;
 import io.kodokojo.service.BrickManager;
 import io.kodokojo.service.*;
 import io.kodokojo.service.dns.DnsManager;
@@ -60,9 +63,12 @@ import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 
@@ -113,6 +119,11 @@ public class BrickStateNotificationGiven<SELF extends BrickStateNotificationGive
 
         Mockito.when(bootstrapProvider.provideLoadBalancerHost(anyString(),anyString())).thenReturn("192.168.22.3");
         Mockito.when(bootstrapProvider.provideSshPortEntrypoint(anyString(),anyString())).thenReturn(10022);
+        try {
+            Mockito.when(brickManager.startAsync(any(ProjectConfiguration.class), any(BrickType.class))).thenReturn(CompletableFuture.completedFuture(new HashSet<>()));
+        } catch (BrickAlreadyExist e) {
+            fail(e.getMessage());
+        }
 
         SecretKey tmpKey = null;
         try {
@@ -150,7 +161,7 @@ public class BrickStateNotificationGiven<SELF extends BrickStateNotificationGive
                 bind(Key.get(new TypeLiteral<UserAuthenticator<SimpleCredential>>() {
                 })).toInstance(new SimpleUserAuthenticator(redisUserManager));
                 DefaultBrickUrlFactory brickUrlFactory = new DefaultBrickUrlFactory("kodokojo.dev");
-                bind(BrickConfigurerProvider.class).toInstance(new DefaultBrickConfigurerProvider(brickUrlFactory));
+                bind(BrickConfigurerProvider.class).toInstance(new DefaultBrickConfigurerProvider(brickUrlFactory, TestUtils.createHttpClientFactory(), UserProvisioner.getDefault()));
                 bind(ApplicationConfig.class).toInstance(new ApplicationConfig() {
                     @Override
                     public int port() {
@@ -205,6 +216,17 @@ public class BrickStateNotificationGiven<SELF extends BrickStateNotificationGive
                 });
                 bind(SSLCertificatProvider.class).toInstance(new WildcardSSLCertificatProvider(caKey));
                 bind(BrickUrlFactory.class).toInstance(brickUrlFactory);
+                bind(ActorConfig.class).toInstance(new ActorConfig() {
+                    @Override
+                    public Integer brickStartPoolSize() {
+                        return 8;
+                    }
+
+                    @Override
+                    public Integer brickStartRoutees() {
+                        return 2;
+                    }
+                });
             }
 
             @Provides
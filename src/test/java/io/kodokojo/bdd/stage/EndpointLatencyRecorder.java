@@ -0,0 +1,115 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.bdd.stage;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Record latency and errors of each endpoint called during a load test.
+ */
+public class EndpointLatencyRecorder {
+
+    private final Map<String, EndpointLatencies> latencies = new ConcurrentHashMap<>();
+
+    public <T> T record(String endpoint, Supplier<T> call) {
+        EndpointLatencies endpointLatencies = latencies.computeIfAbsent(endpoint, key -> new EndpointLatencies());
+        long begin = System.nanoTime();
+        try {
+            T result = call.get();
+            endpointLatencies.durations.add(System.nanoTime() - begin);
+            return result;
+        } catch (RuntimeException | AssertionError e) {
+            endpointLatencies.errors.incrementAndGet();
+            throw e;
+        }
+    }
+
+    public void recordCall(String endpoint, Runnable call) {
+        record(endpoint, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public void recordDuration(String endpoint, long duration, TimeUnit unit) {
+        latencies.computeIfAbsent(endpoint, key -> new EndpointLatencies()).durations.add(unit.toNanos(duration));
+    }
+
+    public void recordError(String endpoint) {
+        latencies.computeIfAbsent(endpoint, key -> new EndpointLatencies()).errors.incrementAndGet();
+    }
+
+    public long getErrorCount() {
+        return latencies.values().stream().mapToLong(endpointLatencies -> endpointLatencies.errors.get()).sum();
+    }
+
+    public long getCount(String endpoint) {
+        EndpointLatencies endpointLatencies = latencies.get(endpoint);
+        return endpointLatencies == null ? 0 : endpointLatencies.durations.size();
+    }
+
+    /**
+     * @param elapsed Duration of the whole load test, used to compute the throughput.
+     * @param unit Unit of <code>elapsed</code>.
+     * @return A report which contain, for each endpoint, the number of calls, errors, throughput and latency percentiles in milliseconds.
+     */
+    public String report(long elapsed, TimeUnit unit) {
+        double seconds = Math.max(unit.toMillis(elapsed), 1) / 1000d;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-24s %8s %8s %10s %10s %10s %10s %10s%n", "endpoint", "count", "errors", "req/s", "p50 (ms)", "p90 (ms)", "p99 (ms)", "max (ms)"));
+        new TreeMap<>(latencies).forEach((endpoint, endpointLatencies) -> {
+            long[] durations = endpointLatencies.durations.stream().mapToLong(Long::longValue).sorted().toArray();
+            sb.append(String.format("%-24s %8d %8d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    endpoint,
+                    durations.length,
+                    endpointLatencies.errors.get(),
+                    durations.length / seconds,
+                    toMillis(percentile(durations, 50)),
+                    toMillis(percentile(durations, 90)),
+                    toMillis(percentile(durations, 99)),
+                    toMillis(durations.length == 0 ? 0 : durations[durations.length - 1])));
+        });
+        return sb.toString();
+    }
+
+    private static long percentile(long[] sortedDurations, int percentile) {
+        if (sortedDurations.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100d * sortedDurations.length) - 1;
+        return sortedDurations[Math.max(index, 0)];
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1000000d;
+    }
+
+    private static class EndpointLatencies {
+
+        private final Queue<Long> durations = new ConcurrentLinkedQueue<>();
+
+        private final AtomicLong errors = new AtomicLong();
+
+    }
+
+}
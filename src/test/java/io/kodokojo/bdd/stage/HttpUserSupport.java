@@ -22,6 +22,7 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.squareup.okhttp.*;
+import io.kodokojo.endpoint.dto.AddUsersJobDto;
 import io.kodokojo.endpoint.dto.BrickConfigDto;
 import io.kodokojo.endpoint.dto.ProjectDto;
 import io.kodokojo.endpoint.dto.StackConfigDto;
@@ -273,16 +274,19 @@ public class HttpUserSupport {
     }
 
 
-    public void addUserToProjectConfiguration(String projectConfigurationId, UserInfo currentUser, Iterator<UserInfo> userToAdds) {
+    public String addUserToProjectConfiguration(String projectConfigurationId, UserInfo currentUser, Iterator<UserInfo> userToAdds) {
         String json = generateUserIdJsonArray(userToAdds);
         Request.Builder builder = createChangeUserOnProjectConfiguration(getApiBaseUrl(), projectConfigurationId, json, UserChangeProjectConfig.ADD);
 
         Request request = addBasicAuthentification(currentUser, builder).build();
-        executeRequestWithExpectedStatus(request, 200);
+        String payload = executeRequestWithExpectedStatus(request, 202);
+        AddUsersJobDto job = new GsonBuilder().create().fromJson(payload, AddUsersJobDto.class);
+        assertThat(job.getJobId()).isNotEmpty();
+        return job.getJobId();
     }
 
-    public void addUserToProjectConfiguration(String projectConfigurationId, UserInfo currentUser, UserInfo userToAdd) {
-        addUserToProjectConfiguration(projectConfigurationId, currentUser, Collections.singletonList(userToAdd).iterator());
+    public String addUserToProjectConfiguration(String projectConfigurationId, UserInfo currentUser, UserInfo userToAdd) {
+        return addUserToProjectConfiguration(projectConfigurationId, currentUser, Collections.singletonList(userToAdd).iterator());
     }
 
     public void removeUserToProjectConfiguration(String projectConfigurationId, UserInfo currentUser, Iterator<UserInfo> userToRemoves) {
@@ -350,12 +354,13 @@ public class HttpUserSupport {
     }
 
 
-    private void executeRequestWithExpectedStatus(Request request, int expectedStatus) {
+    private String executeRequestWithExpectedStatus(Request request, int expectedStatus) {
 
         Response response = null;
         try {
             response = httpClient.newCall(request).execute();
             assertThat(response.code()).isEqualTo(expectedStatus);
+            return response.body().string();
         } catch (IOException e) {
             fail(e.getMessage());
         } finally {
@@ -363,6 +368,7 @@ public class HttpUserSupport {
                 IOUtils.closeQuietly(response.body());
             }
         }
+        return null;
     }
 
     private static String generateUserIdJsonArray(Iterator<UserInfo> userToAdds) {
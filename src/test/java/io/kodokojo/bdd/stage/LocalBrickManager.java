@@ -0,0 +1,66 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.bdd.stage;
+
+import io.kodokojo.brick.BrickAlreadyExist;
+import io.kodokojo.commons.model.Service;
+import io.kodokojo.model.BrickDeploymentState;
+import io.kodokojo.model.BrickType;
+import io.kodokojo.model.ProjectConfiguration;
+import io.kodokojo.service.BrickManager;
+import io.kodokojo.service.ProjectConfigurationException;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Stand-in for Marathon which start every brick after <code>startDelay</code> milliseconds.
+ */
+public class LocalBrickManager implements BrickManager {
+
+    private final long startDelay;
+
+    public LocalBrickManager(long startDelay) {
+        if (startDelay < 0) {
+            throw new IllegalArgumentException("startDelay must be positive.");
+        }
+        this.startDelay = startDelay;
+    }
+
+    @Override
+    public Set<Service> start(ProjectConfiguration projectConfiguration, BrickType brickType) throws BrickAlreadyExist {
+        if (startDelay > 0) {
+            try {
+                Thread.sleep(startDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return Collections.singleton(new Service(projectConfiguration.getName().toLowerCase() + "-" + brickType.name().toLowerCase(), "localhost", 8080));
+    }
+
+    @Override
+    public void configure(ProjectConfiguration projectConfiguration, BrickType brickType) throws ProjectConfigurationException {
+        //  Nothing to do.
+    }
+
+    @Override
+    public boolean stop(BrickDeploymentState brickDeploymentState) {
+        return true;
+    }
+}
@@ -22,6 +22,7 @@ import com.tngtech.jgiven.annotation.ProvidedScenarioState;
 import io.kodokojo.brick.BrickConfigurationStarter;
 import io.kodokojo.brick.DefaultBrickConfigurerProvider;
 import io.kodokojo.brick.DefaultBrickUrlFactory;
+import io.kodokojo.brick.UserProvisioner;
 import io.kodokojo.commons.utils.RSAUtils;
 import io.kodokojo.commons.utils.ssl.SSLKeyPair;
 import io.kodokojo.commons.utils.ssl.SSLUtils;
@@ -29,6 +30,7 @@ import io.kodokojo.service.BrickManager;
 import io.kodokojo.service.*;
 import io.kodokojo.service.dns.NoOpDnsManager;
 import io.kodokojo.service.store.ProjectStore;
+import io.kodokojo.test.utils.TestUtils;
 import org.mockito.Mockito;
 
 import java.security.KeyPair;
@@ -85,7 +87,7 @@ public class ProjectManagerGiven<SELF extends ProjectManagerGiven<?>> extends St
         brickStarter = mock(BrickConfigurationStarter.class);
 
 
-        projectManager = new DefaultProjectManager("kodokojo.dev", configurationStore, projectStore, configProvider, new NoOpDnsManager(), new DefaultBrickConfigurerProvider(new DefaultBrickUrlFactory("kodokojo.dev")), brickStarter, new DefaultBrickUrlFactory("kodokojo.dev"));
+        projectManager = new DefaultProjectManager("kodokojo.dev", configurationStore, projectStore, configProvider, new NoOpDnsManager(), new DefaultBrickConfigurerProvider(new DefaultBrickUrlFactory("kodokojo.dev"), TestUtils.createHttpClientFactory(), UserProvisioner.getDefault()), brickStarter, new DefaultBrickUrlFactory("kodokojo.dev"));
 
         return self();
     }
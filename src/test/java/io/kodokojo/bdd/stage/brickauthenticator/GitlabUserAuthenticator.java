@@ -20,12 +20,13 @@ package io.kodokojo.bdd.stage.brickauthenticator;
 import com.squareup.okhttp.OkHttpClient;
 import io.kodokojo.bdd.stage.UserInfo;
 import io.kodokojo.brick.gitlab.GitlabConfigurer;
+import io.kodokojo.test.utils.TestUtils;
 
 public class GitlabUserAuthenticator implements UserAuthenticator {
 
     @Override
     public boolean authenticate(String url, UserInfo userInfo) {
-        OkHttpClient httpClient = GitlabConfigurer.provideDefaultOkHttpClient();
+        OkHttpClient httpClient = GitlabConfigurer.provideOkHttpClient(TestUtils.createHttpClientFactory());
         return authenticate(httpClient, url, userInfo);
     }
 
@@ -60,6 +60,7 @@ import io.kodokojo.service.dns.NoOpDnsManager;
 import io.kodokojo.service.lifecycle.ApplicationLifeCycleManager;
 import io.kodokojo.service.marathon.MarathonBrickManager;
 import io.kodokojo.service.marathon.MarathonConfigurationStore;
+import io.kodokojo.service.marathon.MarathonEventSubscriber;
 import io.kodokojo.service.redis.RedisUserStore;
 import io.kodokojo.service.store.EntityStore;
 import io.kodokojo.service.store.ProjectStore;
@@ -416,15 +417,26 @@ public class ClusterApplicationGiven<SELF extends ClusterApplicationGiven<?>> ex
 
                     @Provides
                     @Singleton
-                    ConfigurationStore provideConfigurationStore(MarathonConfig marathonConfig) {
-                        return new MarathonConfigurationStore(marathonConfig.url());
+                    ConfigurationStore provideConfigurationStore(MarathonConfig marathonConfig, OkHttpClientFactory httpClientFactory) {
+                        return new MarathonConfigurationStore(marathonConfig.url(), httpClientFactory);
                     }
 
                     @Provides
                     @Singleton
-                    BrickManager provideBrickManager(MarathonConfig marathonConfig, BrickConfigurerProvider brickConfigurerProvider, ProjectStore projectStore, ApplicationConfig applicationConfig, BrickUrlFactory brickUrlFactory) {
+                    MarathonEventSubscriber provideMarathonEventSubscriber(MarathonConfig marathonConfig, OkHttpClientFactory httpClientFactory, ApplicationLifeCycleManager applicationLifeCycleManager) {
+                        MarathonEventSubscriber marathonEventSubscriber = new MarathonEventSubscriber(marathonConfig.url(), httpClientFactory);
+                        marathonEventSubscriber.start();
+                        applicationLifeCycleManager.addService(marathonEventSubscriber);
+                        return marathonEventSubscriber;
+                    }
+
+                    @Provides
+                    @Singleton
+                    BrickManager provideBrickManager(MarathonConfig marathonConfig, BrickConfigurerProvider brickConfigurerProvider, ProjectStore projectStore, ApplicationConfig applicationConfig, BrickUrlFactory brickUrlFactory, MarathonEventSubscriber marathonEventSubscriber, OkHttpClientFactory httpClientFactory, ApplicationLifeCycleManager applicationLifeCycleManager) {
                         MarathonServiceLocator marathonServiceLocator = new MarathonServiceLocator(marathonConfig.url());
-                        return new MarathonBrickManager(marathonConfig.url(), marathonServiceLocator, brickConfigurerProvider, projectStore, false, applicationConfig.domain(), brickUrlFactory);
+                        MarathonBrickManager brickManager = new MarathonBrickManager(marathonConfig.url(), marathonServiceLocator, brickConfigurerProvider, projectStore, false, applicationConfig.domain(), brickUrlFactory, marathonEventSubscriber, httpClientFactory, MarathonBrickManager.DEFAULT_BRICK_START_TIMEOUT);
+                        applicationLifeCycleManager.addService(brickManager);
+                        return brickManager;
                     }
                 });
         Launcher.INJECTOR = injector;
@@ -439,7 +451,7 @@ public class ClusterApplicationGiven<SELF extends ClusterApplicationGiven<?>> ex
                 projectStore,
                 injector.getInstance(BootstrapConfigurationProvider.class),
                 new NoOpDnsManager(),
-                new DefaultBrickConfigurerProvider(brickUrlFactory),
+                injector.getInstance(BrickConfigurerProvider.class),
                 injector.getInstance(BrickConfigurationStarter.class),
                 brickUrlFactory
         );
@@ -17,6 +17,8 @@
  */
 package io.kodokojo.bdd.stage.cluster;
 
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.squareup.okhttp.OkHttpClient;
 import com.tngtech.jgiven.Stage;
 import com.tngtech.jgiven.annotation.ExpectedScenarioState;
@@ -24,6 +26,7 @@ import com.tngtech.jgiven.annotation.ProvidedScenarioState;
 import com.tngtech.jgiven.annotation.Quoted;
 import io.kodokojo.bdd.stage.HttpUserSupport;
 import io.kodokojo.bdd.stage.UserInfo;
+import io.kodokojo.bdd.stage.WebSocketEventsListener;
 import io.kodokojo.bdd.stage.brickauthenticator.GitlabUserAuthenticator;
 import io.kodokojo.bdd.stage.brickauthenticator.JenkinsUserAuthenticator;
 import io.kodokojo.bdd.stage.brickauthenticator.NexusUserAuthenticator;
@@ -72,11 +75,20 @@ public class ClusterApplicationThen<SELF extends ClusterApplicationThen<?>> exte
     @ExpectedScenarioState
     HttpUserSupport httpUserSupport;
 
+    @ExpectedScenarioState
+    WebSocketEventsListener webSocketEventsListener;
+
+    @ExpectedScenarioState
+    String addUsersJobId;
+
     public SELF it_possible_to_log_on_brick_$_with_user_$(@Quoted String brickName, @Quoted String username) {
         OkHttpClient httpClient = provideDefaultOkHttpClient();
         UserAuthenticator userAuthenticator = USER_AUTHENTICATOR.get(brickName);
         assertThat(userAuthenticator).isNotNull();
 
+        if (addUsersJobId != null) {
+            assertThat(waitUsersAddedOnBrick(addUsersJobId, brickName)).isEqualTo("ADDED");
+        }
 
         UserDto userDto = httpUserSupport.getUserDto(currentUser, currentUsers.get(username).getIdentifier());
         ProjectDto projectDto = httpUserSupport.getProjectDto(currentUser, userDto.getProjectConfigurationIds().get(0).getProjectId());
@@ -92,6 +104,32 @@ public class ClusterApplicationThen<SELF extends ClusterApplicationThen<?>> exte
         return self();
     }
 
+    private String waitUsersAddedOnBrick(String jobId, String brickName) {
+        JsonParser parser = new JsonParser();
+        long end = System.currentTimeMillis() + 180000;
+        do {
+            for (String message : webSocketEventsListener.getMessages()) {
+                JsonObject root = (JsonObject) parser.parse(message);
+                if ("updateUsers".equals(root.getAsJsonPrimitive("action").getAsString())) {
+                    JsonObject data = root.getAsJsonObject("data");
+                    String state = data.getAsJsonPrimitive("state").getAsString();
+                    if (jobId.equals(data.getAsJsonPrimitive("jobId").getAsString())
+                            && brickName.equals(data.getAsJsonPrimitive("brickName").getAsString())
+                            && !"ADDING".equals(state)) {
+                        return state;
+                    }
+                }
+            }
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } while (System.currentTimeMillis() < end);
+        fail("Users of job " + jobId + " not added on brick " + brickName + " in time.");
+        return null;
+    }
+
     private OkHttpClient provideDefaultOkHttpClient() {
         OkHttpClient httpClient = new OkHttpClient();
         final TrustManager[] certs = new TrustManager[]{new X509TrustManager() {
@@ -83,6 +83,9 @@ public class ClusterApplicationWhen<SELF extends ClusterApplicationWhen<?>> exte
     @ProvidedScenarioState
     Map<String, UserInfo> currentUsers = new HashMap<>();
 
+    @ProvidedScenarioState
+    String addUsersJobId;
+
     @ProvidedScenarioState
     HttpUserSupport httpUserSupport;
 
@@ -200,7 +203,8 @@ public class ClusterApplicationWhen<SELF extends ClusterApplicationWhen<?>> exte
     public SELF i_add_the_user_$_to_the_project(@Quoted String username) {
         UserInfo userInfo = currentUsers.get(username);
         assertThat(userInfo).isNotNull();
-        httpUserSupport.addUserToProjectConfiguration(projectConfiguration.getIdentifier(), currentUser, userInfo);
+        //  Users are added in background, Then stages wait for the job on the brick they check.
+        addUsersJobId = httpUserSupport.addUserToProjectConfiguration(projectConfiguration.getIdentifier(), currentUser, userInfo);
         return self();
     }
 }
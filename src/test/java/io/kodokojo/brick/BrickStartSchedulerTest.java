@@ -0,0 +1,153 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.brick;
+
+import io.kodokojo.model.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class BrickStartSchedulerTest {
+
+    private List<BrickStartContext> started;
+
+    private BrickStartScheduler scheduler;
+
+    @Before
+    public void setup() {
+        started = new CopyOnWriteArrayList<>();
+        scheduler = new BrickStartScheduler(started::add);
+    }
+
+    @Test
+    public void independent_bricks_of_all_stacks_are_started_at_once() {
+        scheduler.schedule(createContexts("123456",
+                new StackConfiguration("build-A", StackType.BUILD, bricks(BrickType.SCM, BrickType.REPOSITORY), "127.0.0.1", 10022),
+                new StackConfiguration("run-A", StackType.RUN, bricks(BrickType.LOADBALANCER), "127.0.0.1", 0)));
+
+        assertThat(startedTypes()).containsOnly(BrickType.SCM, BrickType.REPOSITORY, BrickType.LOADBALANCER);
+    }
+
+    @Test
+    public void dependent_brick_started_when_its_prerequisite_is_running() {
+        scheduler.schedule(createContexts("123456", new StackConfiguration("build-A", StackType.BUILD, bricks(BrickType.SCM, BrickType.CI, BrickType.REPOSITORY), "127.0.0.1", 10022)));
+        assertThat(startedTypes()).containsOnly(BrickType.SCM, BrickType.REPOSITORY);
+
+        scheduler.receive(brickState("123456", BrickType.SCM, BrickState.State.STARTING));
+        scheduler.receive(brickState("123456", BrickType.SCM, BrickState.State.CONFIGURING));
+        assertThat(startedTypes()).doesNotContain(BrickType.CI);
+
+        scheduler.receive(brickState("123456", BrickType.SCM, BrickState.State.RUNNING));
+        assertThat(startedTypes()).containsOnly(BrickType.SCM, BrickType.REPOSITORY, BrickType.CI);
+        assertThat(started).hasSize(3);
+    }
+
+    @Test
+    public void dependent_brick_started_even_if_its_prerequisite_failed() {
+        scheduler.schedule(createContexts("123456", new StackConfiguration("build-A", StackType.BUILD, bricks(BrickType.SCM, BrickType.CI), "127.0.0.1", 10022)));
+
+        scheduler.receive(brickState("123456", BrickType.SCM, BrickState.State.ONFAILURE));
+
+        assertThat(startedTypes()).containsOnly(BrickType.SCM, BrickType.CI);
+    }
+
+    @Test
+    public void dependent_brick_started_once_its_prerequisite_timed_out() throws InterruptedException {
+        scheduler = new BrickStartScheduler(started::add, 100);
+        scheduler.schedule(createContexts("123456", new StackConfiguration("build-A", StackType.BUILD, bricks(BrickType.SCM, BrickType.CI), "127.0.0.1", 10022)));
+        assertThat(startedTypes()).containsOnly(BrickType.SCM);
+
+        long end = System.currentTimeMillis() + 5000;
+        while (started.size() < 2 && System.currentTimeMillis() < end) {
+            Thread.sleep(20);
+        }
+
+        assertThat(startedTypes()).containsOnly(BrickType.SCM, BrickType.CI);
+        scheduler.receive(brickState("123456", BrickType.SCM, BrickState.State.RUNNING));
+        assertThat(started).hasSize(2);
+        scheduler.stop();
+    }
+
+    @Test
+    public void project_not_scheduled_again_while_its_bricks_are_pending() {
+        scheduler.schedule(createContexts("123456", new StackConfiguration("build-A", StackType.BUILD, bricks(BrickType.SCM, BrickType.CI), "127.0.0.1", 10022)));
+
+        try {
+            scheduler.schedule(createContexts("123456", new StackConfiguration("build-A", StackType.BUILD, bricks(BrickType.SCM, BrickType.CI), "127.0.0.1", 10022)));
+            fail("Project with pending bricks must not be scheduled again.");
+        } catch (IllegalStateException e) {
+            assertThat(startedTypes()).containsOnly(BrickType.SCM);
+        }
+
+        scheduler.receive(brickState("123456", BrickType.SCM, BrickState.State.RUNNING));
+        scheduler.schedule(createContexts("123456", new StackConfiguration("build-A", StackType.BUILD, bricks(BrickType.SCM, BrickType.CI), "127.0.0.1", 10022)));
+        assertThat(startedTypes()).containsExactly(BrickType.SCM, BrickType.CI, BrickType.SCM);
+    }
+
+    @Test
+    public void brick_states_of_another_project_do_not_release_dependent_bricks() {
+        scheduler.schedule(createContexts("123456", new StackConfiguration("build-A", StackType.BUILD, bricks(BrickType.SCM, BrickType.CI), "127.0.0.1", 10022)));
+
+        scheduler.receive(brickState("654321", BrickType.SCM, BrickState.State.RUNNING));
+
+        assertThat(startedTypes()).containsOnly(BrickType.SCM);
+    }
+
+    @Test
+    public void brick_without_prerequisite_in_project_is_not_delayed() {
+        scheduler.schedule(createContexts("123456", new StackConfiguration("build-A", StackType.BUILD, bricks(BrickType.CI), "127.0.0.1", 10022)));
+
+        assertThat(startedTypes()).containsOnly(BrickType.CI);
+    }
+
+    private List<BrickType> startedTypes() {
+        return started.stream().map(context -> context.getBrickConfiguration().getType()).collect(Collectors.toList());
+    }
+
+    private static Set<BrickConfiguration> bricks(BrickType... brickTypes) {
+        Set<BrickConfiguration> res = new HashSet<>();
+        for (BrickType brickType : brickTypes) {
+            res.add(new BrickConfiguration(new Brick(brickType.name().toLowerCase(), brickType, "1.0")));
+        }
+        return res;
+    }
+
+    private static List<BrickStartContext> createContexts(String projectConfigurationIdentifier, StackConfiguration... stackConfigurations) {
+        User owner = new User("123456", "Jean-Pascal THIERY", "jpthiery", "jpthiery@kodokojo.io", "jpthiery", "ssh-rsa AAAA jpthiery@kodokojo.io");
+        List<User> users = Collections.singletonList(owner);
+        ProjectConfiguration projectConfiguration = new ProjectConfiguration("7890", projectConfigurationIdentifier, "Acme", users, new HashSet<>(Arrays.asList(stackConfigurations)), users);
+        List<BrickStartContext> res = new ArrayList<>();
+        for (StackConfiguration stackConfiguration : stackConfigurations) {
+            for (BrickConfiguration brickConfiguration : stackConfiguration.getBrickConfigurations()) {
+                res.add(new BrickStartContext(projectConfiguration, stackConfiguration, brickConfiguration, "kodokojo.dev", "127.0.0.1"));
+            }
+        }
+        return res;
+    }
+
+    private static BrickState brickState(String projectConfigurationIdentifier, BrickType brickType, BrickState.State state) {
+        return new BrickState(projectConfigurationIdentifier, "build-A", brickType.name(), brickType.name().toLowerCase(), state, "1.0");
+    }
+
+}
@@ -0,0 +1,87 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.brick;
+
+import io.kodokojo.model.BrickState;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BrickStateMsgDispatcherTest {
+
+    @Test
+    public void without_coalescing_window_all_states_are_dispatched() {
+        BrickStateMsgDispatcher dispatcher = new BrickStateMsgDispatcher();
+        List<BrickState> received = new CopyOnWriteArrayList<>();
+        dispatcher.addListener(received::add);
+
+        dispatcher.receive(brickState("jenkins", BrickState.State.STARTING));
+        dispatcher.receive(brickState("jenkins", BrickState.State.CONFIGURING));
+        dispatcher.receive(brickState("jenkins", BrickState.State.RUNNING));
+
+        assertThat(received).extracting("state").containsExactly(BrickState.State.STARTING, BrickState.State.CONFIGURING, BrickState.State.RUNNING);
+    }
+
+    @Test
+    public void burst_of_states_of_a_brick_collapsed_to_last_state() throws InterruptedException {
+        BrickStateMsgDispatcher dispatcher = new BrickStateMsgDispatcher(100);
+        List<BrickState> received = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        dispatcher.addListener(brickState -> {
+            received.add(brickState);
+            latch.countDown();
+        });
+
+        dispatcher.receive(brickState("jenkins", BrickState.State.STARTING));
+        dispatcher.receive(brickState("jenkins", BrickState.State.CONFIGURING));
+        dispatcher.receive(brickState("jenkins", BrickState.State.RUNNING));
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(200);
+        assertThat(received).extracting("state").containsExactly(BrickState.State.RUNNING);
+        dispatcher.stop();
+    }
+
+    @Test
+    public void states_of_distinct_bricks_are_not_collapsed() {
+        BrickStateMsgDispatcher dispatcher = new BrickStateMsgDispatcher(60000);
+        List<BrickState> received = new CopyOnWriteArrayList<>();
+        dispatcher.addListener(received::add);
+
+        dispatcher.receive(brickState("jenkins", BrickState.State.STARTING));
+        dispatcher.receive(brickState("gitlab", BrickState.State.STARTING));
+        dispatcher.receive(brickState("jenkins", BrickState.State.RUNNING));
+        assertThat(received).isEmpty();
+
+        //  Pending states are flushed when dispatcher is stopped.
+        dispatcher.stop();
+        assertThat(received).extracting("brickName").containsOnly("jenkins", "gitlab");
+        assertThat(received).extracting("state").containsOnly(BrickState.State.RUNNING, BrickState.State.STARTING);
+        assertThat(received).hasSize(2);
+    }
+
+    private static BrickState brickState(String brickName, BrickState.State state) {
+        return new BrickState("123456", "build-A", "CI", brickName, state, "1.0");
+    }
+
+}
@@ -0,0 +1,115 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.brick;
+
+import io.kodokojo.bdd.stage.StageUtils;
+import io.kodokojo.commons.DockerIsRequire;
+import io.kodokojo.commons.DockerPresentMethodRule;
+import io.kodokojo.commons.model.Service;
+import io.kodokojo.model.BrickState;
+import io.kodokojo.model.Project;
+import io.kodokojo.model.Stack;
+import io.kodokojo.model.StackType;
+import io.kodokojo.service.redis.RedisProjectStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StoreBrickStateListenerIntTest {
+
+    private static final int NB_THREADS = 4;
+
+    private static final int NB_BRICKS = 20;
+
+    private static final int NB_STATES_BY_BRICK = 200;
+
+    @Rule
+    public DockerPresentMethodRule dockerPresentMethodRule = new DockerPresentMethodRule();
+
+    private RedisProjectStore redisProjectStore;
+
+    @Before
+    public void setup() throws NoSuchAlgorithmException {
+        KeyGenerator kg = KeyGenerator.getInstance("AES");
+        SecretKey aesKey = kg.generateKey();
+        Service service = StageUtils.startDockerRedis(dockerPresentMethodRule.getDockerTestSupport());
+        redisProjectStore = new RedisProjectStore(aesKey, service.getHost(), service.getPort(), new DefaultBrickFactory());
+    }
+
+    @After
+    public void tearDown() {
+        if (redisProjectStore != null) {
+            redisProjectStore.stop();
+        }
+    }
+
+    @Test
+    @DockerIsRequire
+    public void no_brick_state_lost_when_states_received_concurrently() throws Exception {
+        Set<Stack> stacks = new HashSet<>();
+        stacks.add(new Stack("build-A", StackType.BUILD, new HashSet<>()));
+        String projectId = redisProjectStore.addProject(new Project("123456", "Acme", new Date(), stacks), "123456");
+        assertThat(projectId).isNotEmpty();
+
+        StoreBrickStateListener listener = new StoreBrickStateListener(redisProjectStore);
+        ExecutorService executor = Executors.newFixedThreadPool(NB_THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < NB_THREADS; thread++) {
+            int threadIndex = thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                //  Each brick is owned by a single thread, so its last state is known, but states of a project are interleaved.
+                for (int version = 1; version <= NB_STATES_BY_BRICK; version++) {
+                    for (int brick = threadIndex; brick < NB_BRICKS; brick += NB_THREADS) {
+                        listener.receive(new BrickState("123456", "build-A", "CI", "brick-" + brick, BrickState.State.values()[version % 3], Integer.toString(version)));
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        Project project = redisProjectStore.getProjectByIdentifier(projectId);
+        Set<BrickState> brickStates = project.getStacks().iterator().next().getBrickStates();
+        assertThat(brickStates).hasSize(NB_BRICKS);
+        assertThat(brickStates).extracting("version").containsOnly(Integer.toString(NB_STATES_BY_BRICK));
+    }
+
+}
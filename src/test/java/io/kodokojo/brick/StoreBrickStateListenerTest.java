@@ -0,0 +1,70 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.brick;
+
+import io.kodokojo.model.BrickState;
+import io.kodokojo.service.store.ProjectStore;
+import org.junit.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StoreBrickStateListenerTest {
+
+    @Test
+    public void intermediate_state_stored_without_rewriting_project() {
+        ProjectStore projectStore = mock(ProjectStore.class);
+        when(projectStore.getProjectIdByProjectConfigurationId("123456")).thenReturn("1234");
+        BrickState brickState = brickState("jenkins", BrickState.State.CONFIGURING);
+
+        new StoreBrickStateListener(projectStore).receive(brickState);
+
+        verify(projectStore).updateBrickState("1234", brickState);
+        verify(projectStore, never()).updateProject(anyString(), any());
+    }
+
+    @Test
+    public void final_state_stored_without_rewriting_project() {
+        ProjectStore projectStore = mock(ProjectStore.class);
+        when(projectStore.getProjectIdByProjectConfigurationId("123456")).thenReturn("1234");
+        BrickState brickState = brickState("jenkins", BrickState.State.RUNNING);
+
+        new StoreBrickStateListener(projectStore).receive(brickState);
+
+        verify(projectStore).updateBrickState("1234", brickState);
+        verify(projectStore, never()).updateProject(anyString(), any());
+    }
+
+    @Test
+    public void state_of_unknown_project_dropped() {
+        ProjectStore projectStore = mock(ProjectStore.class);
+
+        new StoreBrickStateListener(projectStore).receive(brickState("jenkins", BrickState.State.RUNNING));
+
+        verify(projectStore, never()).updateBrickState(anyString(), any(BrickState.class));
+    }
+
+    private static BrickState brickState(String brickName, BrickState.State state) {
+        return new BrickState("123456", "build-A", "CI", brickName, state, "1.0");
+    }
+
+}
@@ -0,0 +1,132 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.brick;
+
+import io.kodokojo.model.User;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.fail;
+
+public class UserProvisionerTest {
+
+    private UserProvisioner userProvisioner;
+
+    @Before
+    public void setup() {
+        userProvisioner = new UserProvisioner(3, 3, 1);
+    }
+
+    @After
+    public void tearDown() {
+        userProvisioner.stop();
+    }
+
+    @Test
+    public void all_users_provisioned_with_bounded_concurrency() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        UserProvisioningReport report = userProvisioner.provision(createUsers(20), user -> {
+            int current = running.incrementAndGet();
+            maxRunning.accumulateAndGet(current, Math::max);
+            Thread.sleep(10);
+            running.decrementAndGet();
+        });
+
+        assertThat(report.isSuccessful()).isTrue();
+        assertThat(report.getProvisioned()).hasSize(20);
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    public void failure_of_a_user_does_not_abort_others() {
+        UserProvisioningReport report = userProvisioner.provision(createUsers(5), user -> {
+            if ("user2".equals(user.getUsername())) {
+                throw new BrickConfigurationException("Conflict");
+            }
+        });
+
+        assertThat(report.isSuccessful()).isFalse();
+        assertThat(report.getFailures()).containsOnly(entry("user2", "Conflict"));
+        assertThat(report.getProvisioned()).containsOnly("user0", "user1", "user3", "user4");
+    }
+
+    @Test
+    public void transient_failure_retried_until_success() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = userProvisioner.retry(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IOException("Internal server error");
+            }
+            return "done";
+        }, e -> e instanceof IOException);
+
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void transient_failure_rethrown_after_max_attempts() {
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            userProvisioner.retry(() -> {
+                attempts.incrementAndGet();
+                throw new IOException("Internal server error");
+            }, e -> e instanceof IOException);
+            fail("Expected an IOException.");
+        } catch (Exception e) {
+            assertThat(e).isInstanceOf(IOException.class);
+        }
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void non_transient_failure_not_retried() {
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            userProvisioner.retry(() -> {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("Conflict");
+            }, e -> e instanceof IOException);
+            fail("Expected an IllegalStateException.");
+        } catch (Exception e) {
+            assertThat(e).isInstanceOf(IllegalStateException.class);
+        }
+        assertThat(attempts.get()).isEqualTo(1);
+    }
+
+    private static List<User> createUsers(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String username = "user" + i;
+            users.add(new User("12345" + i, "Jean-Pascal THIERY", username, username + "@kodokojo.io", "password", "ssh-rsa AAAA " + username + "@kodokojo.io"));
+        }
+        return users;
+    }
+
+}
@@ -62,6 +62,16 @@ public class SecurityModuleTest {
             public String sslRootCaKsPassword() {
                 return "password";
             }
+
+            @Override
+            public Integer authenticationCacheMaxSize() {
+                return 0;
+            }
+
+            @Override
+            public Long authenticationCacheTtl() {
+                return 0L;
+            }
         };
     }
 
@@ -0,0 +1,136 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.endpoint;
+
+import io.kodokojo.brick.BrickUrlFactory;
+import io.kodokojo.model.BrickState;
+import io.kodokojo.model.ProjectConfiguration;
+import io.kodokojo.model.User;
+import io.kodokojo.model.UserAdditionState;
+import io.kodokojo.service.store.ProjectFetcher;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class BrickStateBroadcasterTest {
+
+    private final User admin = new User("1234", "Jean-Pascal THIERY", "jpthiery", "jpthiery@kodokojo.io", "jpascal", "ssh-rsa AAAA jpthiery@kodokojo.io");
+
+    private final User other = new User("5678", "Bob Robert", "brobert", "brobert@kodokojo.io", "bob", "ssh-rsa AAAA brobert@kodokojo.io");
+
+    private UserSessionIndex userSessionIndex;
+
+    private ProjectFetcher projectFetcher;
+
+    private BrickStateBroadcaster broadcaster;
+
+    @Before
+    public void setup() {
+        userSessionIndex = new UserSessionIndex();
+        projectFetcher = mock(ProjectFetcher.class);
+        ProjectConfiguration projectConfiguration = mock(ProjectConfiguration.class);
+        when(projectConfiguration.getName()).thenReturn("Acme");
+        //  Admin is also declared as user, he must be notified only once.
+        when(projectConfiguration.getAdmins()).thenAnswer(invocation -> Collections.singletonList(admin).iterator());
+        when(projectConfiguration.getUsers()).thenAnswer(invocation -> Arrays.asList(admin, other).iterator());
+        when(projectFetcher.getProjectConfigurationById("123456")).thenReturn(projectConfiguration);
+        BrickUrlFactory brickUrlFactory = (entity, projectName, stackName, brickType, brickName) -> brickName + "." + projectName + ".kodokojo.io";
+        broadcaster = new BrickStateBroadcaster(userSessionIndex, projectFetcher, brickUrlFactory);
+    }
+
+    @Test
+    public void each_session_of_project_member_receive_notification_once() {
+        RemoteEndpoint firstTab = connect(admin);
+        RemoteEndpoint secondTab = connect(admin);
+        RemoteEndpoint otherRemote = connect(other);
+
+        broadcaster.broadcast(new BrickState("123456", "build-A", "CI", "jenkins", BrickState.State.RUNNING, "1.0"));
+
+        verify(firstTab, times(1)).sendString(anyString(), any(WriteCallback.class));
+        verify(secondTab, times(1)).sendString(anyString(), any(WriteCallback.class));
+        verify(otherRemote, times(1)).sendString(anyString(), any(WriteCallback.class));
+    }
+
+    @Test
+    public void removed_member_not_notified_from_next_notification() {
+        connect(admin);
+        RemoteEndpoint otherRemote = connect(other);
+
+        broadcaster.broadcast(new BrickState("123456", "build-A", "CI", "jenkins", BrickState.State.STARTING, "1.0"));
+        ProjectConfiguration updated = mock(ProjectConfiguration.class);
+        when(updated.getName()).thenReturn("Acme");
+        when(updated.getAdmins()).thenAnswer(invocation -> Collections.singletonList(admin).iterator());
+        when(updated.getUsers()).thenAnswer(invocation -> Collections.singletonList(admin).iterator());
+        when(projectFetcher.getProjectConfigurationById("123456")).thenReturn(updated);
+        broadcaster.broadcast(new BrickState("123456", "build-A", "CI", "jenkins", BrickState.State.RUNNING, "1.0"));
+
+        verify(otherRemote, times(1)).sendString(anyString(), any(WriteCallback.class));
+    }
+
+    @Test
+    public void unknown_project_configuration_is_not_broadcast() {
+        RemoteEndpoint remote = connect(admin);
+
+        broadcaster.broadcast(new BrickState("654321", "build-A", "CI", "jenkins", BrickState.State.RUNNING, "1.0"));
+
+        verify(remote, never()).sendString(anyString(), any(WriteCallback.class));
+    }
+
+    @Test
+    public void running_brick_with_users_not_provisioned_notify_them() {
+        RemoteEndpoint remote = connect(admin);
+
+        broadcaster.broadcast(new BrickState("123456", "build-A", "CI", "jenkins", BrickState.State.RUNNING, "https://jenkins.acme.kodokojo.io", "Unable to add users aletaxin to brick CI.", "1.0"));
+
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(remote).sendString(json.capture(), any(WriteCallback.class));
+        assertThat(json.getValue()).contains("\"RUNNING\"").contains("Unable to add users aletaxin");
+    }
+
+    @Test
+    public void user_addition_state_sent_as_its_own_message_with_job_identifier() {
+        RemoteEndpoint remote = connect(admin);
+
+        broadcaster.broadcast(new UserAdditionState("job-1", "123456", "build-A", "CI", "jenkins", UserAdditionState.State.ONFAILURE, "Unable to add users: aletaxin"));
+
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(remote).sendString(json.capture(), any(WriteCallback.class));
+        assertThat(json.getValue()).contains("\"updateUsers\"").contains("\"jobId\":\"job-1\"").contains("aletaxin").doesNotContain("updateState");
+    }
+
+    private RemoteEndpoint connect(User user) {
+        Session session = mock(Session.class);
+        RemoteEndpoint remote = mock(RemoteEndpoint.class);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getRemote()).thenReturn(remote);
+        userSessionIndex.add(new UserSession(session, user, new SessionOutbox(session, SessionOutbox.DEFAULT_CAPACITY, OverflowPolicy.COALESCE_BY_BRICK, Runnable::run, new OutboundQueueStatistics())));
+        return remote;
+    }
+
+}
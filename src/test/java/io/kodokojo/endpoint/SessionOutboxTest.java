@@ -0,0 +1,147 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.endpoint;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+public class SessionOutboxTest {
+
+    private Session session;
+
+    private RemoteEndpoint remote;
+
+    private OutboundQueueStatistics statistics;
+
+    @Before
+    public void setup() {
+        session = mock(Session.class);
+        remote = mock(RemoteEndpoint.class);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getRemote()).thenReturn(remote);
+        statistics = new OutboundQueueStatistics();
+    }
+
+    @Test
+    public void messages_written_in_order_one_at_a_time() {
+        doAnswer(invocation -> {
+            ((WriteCallback) invocation.getArguments()[1]).writeSuccess();
+            return null;
+        }).when(remote).sendString(anyString(), any(WriteCallback.class));
+        SessionOutbox outbox = new SessionOutbox(session, 10, OverflowPolicy.DROP_OLDEST, Runnable::run, statistics);
+
+        outbox.offer(null, "first");
+        outbox.offer(null, "second");
+
+        InOrder inOrder = inOrder(remote);
+        inOrder.verify(remote).sendString(eq("first"), any(WriteCallback.class));
+        inOrder.verify(remote).sendString(eq("second"), any(WriteCallback.class));
+        assertThat(outbox.size()).isEqualTo(0);
+        assertThat(statistics.getSentMessageCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void nothing_queued_once_writer_stopped() {
+        SessionOutbox outbox = new SessionOutbox(session, 10, OverflowPolicy.DROP_OLDEST, runnable -> {
+            throw new RejectedExecutionException("writer stopped");
+        }, statistics);
+
+        outbox.offer(null, "first");
+
+        assertThat(outbox.offer(null, "second")).isFalse();
+        assertThat(outbox.size()).isEqualTo(0);
+        verify(remote, never()).sendString(anyString(), any(WriteCallback.class));
+    }
+
+    @Test
+    public void slow_client_drop_oldest_message() {
+        SessionOutbox outbox = new SessionOutbox(session, 2, OverflowPolicy.DROP_OLDEST, Runnable::run, statistics);
+
+        outbox.offer(null, "inflight");
+        outbox.offer(null, "first");
+        outbox.offer(null, "second");
+        outbox.offer(null, "third");
+
+        verify(remote, times(1)).sendString(anyString(), any(WriteCallback.class));
+        assertThat(outbox.size()).isEqualTo(2);
+        assertThat(outbox.getDroppedCount()).isEqualTo(1);
+        assertThat(statistics.getQueuedMessageCount()).isEqualTo(2);
+        assertThat(statistics.getDroppedMessageCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void depth_of_fullest_session_exposed() {
+        SessionOutbox slow = new SessionOutbox(session, 2, OverflowPolicy.DROP_OLDEST, Runnable::run, statistics);
+        SessionOutbox other = new SessionOutbox(session, 10, OverflowPolicy.DROP_OLDEST, Runnable::run, statistics);
+
+        slow.offer(null, "inflight");
+        slow.offer(null, "first");
+        slow.offer(null, "second");
+        other.offer(null, "inflight");
+        other.offer(null, "first");
+
+        assertThat(statistics.getMaxSessionQueuedMessageCount()).isEqualTo(2);
+        assertThat(statistics.getFullSessionCount()).isEqualTo(1);
+
+        slow.close();
+
+        assertThat(statistics.getMaxSessionQueuedMessageCount()).isEqualTo(1);
+        assertThat(statistics.getFullSessionCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void slow_client_coalesce_message_of_same_brick() {
+        SessionOutbox outbox = new SessionOutbox(session, 2, OverflowPolicy.COALESCE_BY_BRICK, Runnable::run, statistics);
+
+        outbox.offer("jenkins", "inflight");
+        outbox.offer("jenkins", "jenkins STARTING");
+        outbox.offer("gitlab", "gitlab STARTING");
+        outbox.offer("jenkins", "jenkins RUNNING");
+
+        assertThat(outbox.size()).isEqualTo(2);
+        assertThat(outbox.getDroppedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void slow_client_disconnected() {
+        SessionOutbox outbox = new SessionOutbox(session, 1, OverflowPolicy.DISCONNECT, Runnable::run, statistics);
+
+        assertThat(outbox.offer(null, "inflight")).isTrue();
+        assertThat(outbox.offer(null, "first")).isTrue();
+        assertThat(outbox.offer(null, "second")).isFalse();
+
+        verify(session).close(eq(1008), anyString());
+        assertThat(outbox.size()).isEqualTo(0);
+        assertThat(outbox.offer(null, "third")).isFalse();
+        assertThat(statistics.getDisconnectedSessionCount()).isEqualTo(1);
+        assertThat(statistics.getQueuedMessageCount()).isEqualTo(0);
+    }
+
+}
@@ -0,0 +1,80 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.endpoint;
+
+import io.kodokojo.model.User;
+import org.eclipse.jetty.websocket.api.Session;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class UserSessionIndexTest {
+
+    private final User user = new User("1234", "Jean-Pascal THIERY", "jpthiery", "jpthiery@kodokojo.io", "jpascal", "ssh-rsa AAAA jpthiery@kodokojo.io");
+
+    @Test
+    public void lookup_user_session_by_session() {
+        UserSessionIndex index = new UserSessionIndex();
+        Session session = mock(Session.class);
+        UserSession userSession = userSession(session);
+
+        index.add(userSession);
+
+        assertThat(index.get(session)).isSameAs(userSession);
+        assertThat(index.get(mock(Session.class))).isNull();
+    }
+
+    @Test
+    public void user_may_have_several_sessions() {
+        UserSessionIndex index = new UserSessionIndex();
+        UserSession firstTab = userSession(mock(Session.class));
+        UserSession secondTab = userSession(mock(Session.class));
+
+        index.add(firstTab);
+        index.add(secondTab);
+
+        assertThat(index.getByUserIdentifier("1234")).containsOnly(firstTab, secondTab);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void removed_session_is_no_more_indexed() {
+        UserSessionIndex index = new UserSessionIndex();
+        Session session = mock(Session.class);
+        UserSession firstTab = userSession(session);
+        UserSession secondTab = userSession(mock(Session.class));
+        index.add(firstTab);
+        index.add(secondTab);
+
+        UserSession removed = index.remove(session);
+
+        assertThat(removed).isSameAs(firstTab);
+        assertThat(index.get(session)).isNull();
+        assertThat(index.getByUserIdentifier("1234")).containsOnly(secondTab);
+
+        index.remove(secondTab.getSession());
+        assertThat(index.getByUserIdentifier("1234")).isEmpty();
+        assertThat(index.size()).isEqualTo(0);
+    }
+
+    private UserSession userSession(Session session) {
+        return new UserSession(session, user, new SessionOutbox(session, SessionOutbox.DEFAULT_CAPACITY, OverflowPolicy.DROP_OLDEST, Runnable::run, new OutboundQueueStatistics()));
+    }
+
+}
@@ -23,6 +23,7 @@ import io.kodokojo.model.BrickType;
 import io.kodokojo.brick.gitlab.GitlabConfigurer;
 import io.kodokojo.brick.jenkins.JenkinsConfigurer;
 import io.kodokojo.brick.nexus.NexusConfigurer;
+import io.kodokojo.test.utils.TestUtils;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -37,7 +38,7 @@ public class DefaultBrickConfigurerProviderTest {
     @Before
     public void setup() {
         brickFactory = new DefaultBrickFactory();
-        brickConfigurerProvider = new DefaultBrickConfigurerProvider(new DefaultBrickUrlFactory("kodokojo.dev"));
+        brickConfigurerProvider = new DefaultBrickConfigurerProvider(new DefaultBrickUrlFactory("kodokojo.dev"), TestUtils.createHttpClientFactory(), UserProvisioner.getDefault());
     }
 
     @Test
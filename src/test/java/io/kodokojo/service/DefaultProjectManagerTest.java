@@ -0,0 +1,154 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service;
+
+import io.kodokojo.brick.*;
+import io.kodokojo.model.*;
+import io.kodokojo.service.dns.DnsManager;
+import io.kodokojo.service.store.ProjectStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.*;
+
+public class DefaultProjectManagerTest {
+
+    private List<UserAdditionState> states;
+
+    private List<BrickState> brickStates;
+
+    private BrickConfigurer brickConfigurer;
+
+    private DefaultProjectManager projectManager;
+
+    @Before
+    public void setup() {
+        states = new CopyOnWriteArrayList<>();
+        brickStates = new CopyOnWriteArrayList<>();
+        BrickStateMsgListener listener = new BrickStateMsgListener() {
+            @Override
+            public void receive(BrickState brickState) {
+                brickStates.add(brickState);
+            }
+
+            @Override
+            public void receive(UserAdditionState userAdditionState) {
+                states.add(userAdditionState);
+            }
+        };
+        brickConfigurer = mock(BrickConfigurer.class);
+        BrickConfigurerProvider brickConfigurerProvider = brick -> brick.getType() == BrickType.LOADBALANCER ? null : brickConfigurer;
+        projectManager = new DefaultProjectManager("kodokojo.dev", mock(ConfigurationStore.class), mock(ProjectStore.class), mock(BootstrapConfigurationProvider.class), mock(DnsManager.class), brickConfigurerProvider, mock(BrickConfigurationStarter.class), new DefaultBrickUrlFactory("kodokojo.dev"), null, listener, 4);
+    }
+
+    @After
+    public void tearDown() {
+        projectManager.stop();
+    }
+
+    @Test
+    public void users_added_on_all_bricks_having_a_configurer() throws Exception {
+        List<User> users = users();
+
+        projectManager.addUsersToProject(createProjectConfiguration(), users);
+
+        verify(brickConfigurer, times(3)).addUsers(any(BrickConfigurerData.class), eq(users));
+        assertThat(statesOf(UserAdditionState.State.ADDING)).hasSize(3);
+        assertThat(statesOf(UserAdditionState.State.ADDED)).hasSize(3);
+        assertThat(states).extracting("brickType").doesNotContain(BrickType.LOADBALANCER.name());
+        assertThat(brickStates).isEmpty();
+    }
+
+    @Test
+    public void brick_on_failure_when_users_could_not_be_added() throws Exception {
+        when(brickConfigurer.addUsers(any(BrickConfigurerData.class), anyListOf(User.class))).thenThrow(new BrickConfigurationException("brick unreachable"));
+
+        projectManager.addUsersToProject(createProjectConfiguration(), users());
+
+        List<UserAdditionState> failures = statesOf(UserAdditionState.State.ONFAILURE);
+        assertThat(failures).hasSize(3);
+        assertThat(failures.get(0).getMessage()).contains("brick unreachable");
+        assertThat(statesOf(UserAdditionState.State.ADDED)).isEmpty();
+        assertThat(brickStates).isEmpty();
+    }
+
+    @Test
+    public void async_users_addition_returns_before_bricks_are_configured() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(brickConfigurer.addUsers(any(BrickConfigurerData.class), anyListOf(User.class))).then(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return invocation.getArguments()[0];
+        });
+
+        String jobId = projectManager.addUsersToProjectAsync(createProjectConfiguration(), users());
+
+        assertThat(jobId).isNotEmpty();
+        assertThat(statesOf(UserAdditionState.State.ADDED)).isEmpty();
+
+        release.countDown();
+        long timeout = System.currentTimeMillis() + 10000;
+        while (statesOf(UserAdditionState.State.ADDED).size() < 3 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertThat(statesOf(UserAdditionState.State.ADDED)).hasSize(3);
+        assertThat(states).extracting("jobIdentifier").containsOnly(jobId);
+    }
+
+    @Test
+    public void async_users_addition_without_users_returns_a_job() {
+        String jobId = projectManager.addUsersToProjectAsync(createProjectConfiguration(), Collections.emptyList());
+
+        assertThat(jobId).isNotEmpty();
+        assertThat(states).isEmpty();
+    }
+
+    private List<UserAdditionState> statesOf(UserAdditionState.State state) {
+        List<UserAdditionState> res = new ArrayList<>();
+        for (UserAdditionState userAdditionState : states) {
+            if (userAdditionState.getState() == state) {
+                res.add(userAdditionState);
+            }
+        }
+        return res;
+    }
+
+    private static List<User> users() {
+        return Collections.singletonList(new User("654321", "John DOE", "jdoe", "jdoe@kodokojo.io", "jdoe", "ssh-rsa AAAA jdoe@kodokojo.io"));
+    }
+
+    private static ProjectConfiguration createProjectConfiguration() {
+        Set<BrickConfiguration> bricks = new HashSet<>();
+        for (BrickType brickType : Arrays.asList(BrickType.SCM, BrickType.CI, BrickType.REPOSITORY, BrickType.LOADBALANCER)) {
+            bricks.add(new BrickConfiguration(new Brick(brickType.name().toLowerCase(), brickType, "1.0")));
+        }
+        StackConfiguration stackConfiguration = new StackConfiguration("build-A", StackType.BUILD, bricks, "127.0.0.1", 10022);
+        User owner = new User("123456", "Jean-Pascal THIERY", "jpthiery", "jpthiery@kodokojo.io", "jpthiery", "ssh-rsa AAAA jpthiery@kodokojo.io");
+        List<User> users = Collections.singletonList(owner);
+        return new ProjectConfiguration("7890", "123456", "Acme", users, Collections.singleton(stackConfiguration), users);
+    }
+
+}
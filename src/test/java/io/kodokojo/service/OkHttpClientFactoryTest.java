@@ -0,0 +1,66 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service;
+
+import com.squareup.okhttp.OkHttpClient;
+import io.kodokojo.test.utils.TestUtils;
+import org.junit.Test;
+
+import java.net.CookieManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OkHttpClientFactoryTest {
+
+    @Test
+    public void all_clients_share_connection_pool_and_dispatcher() {
+        OkHttpClientFactory factory = TestUtils.createHttpClientFactory();
+
+        OkHttpClient marathonClient = factory.marathonClient();
+        OkHttpClient brickClient = factory.brickClient();
+        OkHttpClient sessionClient = factory.brickSessionClient(new CookieManager());
+
+        assertThat(brickClient.getConnectionPool()).isSameAs(marathonClient.getConnectionPool());
+        assertThat(sessionClient.getConnectionPool()).isSameAs(marathonClient.getConnectionPool());
+        assertThat(brickClient.getDispatcher()).isSameAs(marathonClient.getDispatcher());
+        assertThat(sessionClient.getDispatcher()).isSameAs(marathonClient.getDispatcher());
+        assertThat(factory.marathonClient()).isSameAs(marathonClient);
+    }
+
+    @Test
+    public void timeouts_defined_by_target() {
+        OkHttpClientFactory factory = TestUtils.createHttpClientFactory();
+
+        assertThat(factory.marathonClient().getConnectTimeout()).isEqualTo(10000);
+        assertThat(factory.marathonClient().getReadTimeout()).isEqualTo(30000);
+        assertThat(factory.brickClient().getConnectTimeout()).isEqualTo(60000);
+        assertThat(factory.brickClient().getReadTimeout()).isEqualTo(120000);
+    }
+
+    @Test
+    public void session_clients_do_not_share_cookies() {
+        OkHttpClientFactory factory = TestUtils.createHttpClientFactory();
+        CookieManager first = new CookieManager();
+        CookieManager second = new CookieManager();
+
+        assertThat(factory.brickSessionClient(first).getCookieHandler()).isSameAs(first);
+        assertThat(factory.brickSessionClient(second).getCookieHandler()).isSameAs(second);
+        assertThat(factory.brickClient().getCookieHandler()).isNull();
+    }
+
+}
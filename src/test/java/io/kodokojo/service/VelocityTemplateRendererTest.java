@@ -0,0 +1,62 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service;
+
+import io.kodokojo.model.User;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.exception.ResourceNotFoundException;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VelocityTemplateRendererTest {
+
+    @Test
+    public void render_classpath_template_with_context() {
+        VelocityTemplateRenderer renderer = new VelocityTemplateRenderer();
+
+        String script = renderer.render("init_jenkins.groovy.vm", usersContext("jpthiery"));
+
+        assertThat(script).contains("create_or_update_user(\"jpthiery\", \"jpthiery@kodokojo.io\"");
+    }
+
+    @Test
+    public void cached_template_rendered_with_each_context() {
+        VelocityTemplateRenderer renderer = VelocityTemplateRenderer.getInstance();
+
+        String first = renderer.render("add_user_jenkins.groovy.vm", usersContext("jpthiery"));
+        String second = renderer.render("add_user_jenkins.groovy.vm", usersContext("jdoe"));
+
+        assertThat(first).contains("jpthiery").doesNotContain("jdoe");
+        assertThat(second).contains("jdoe").doesNotContain("jpthiery");
+    }
+
+    @Test(expected = ResourceNotFoundException.class)
+    public void unknown_template_not_found() {
+        new VelocityTemplateRenderer().render("marathon/unknown.json.vm", new VelocityContext());
+    }
+
+    private static VelocityContext usersContext(String username) {
+        VelocityContext context = new VelocityContext();
+        context.put("users", Collections.singletonList(new User("123456", "Jean-Pascal THIERY", username, username + "@kodokojo.io", "password", "ssh-rsa AAAA " + username + "@kodokojo.io")));
+        return context;
+    }
+
+}
@@ -23,6 +23,7 @@ import akka.actor.Props;
 import akka.testkit.JavaTestKit;
 import io.kodokojo.brick.BrickUrlFactory;
 import io.kodokojo.brick.DefaultBrickUrlFactory;
+import io.kodokojo.brick.UserProvisioningReport;
 import io.kodokojo.model.BrickState;
 import io.kodokojo.commons.model.Service;
 import io.kodokojo.commons.utils.RSAUtils;
@@ -35,6 +36,7 @@ import io.kodokojo.brick.BrickStartContext;
 import io.kodokojo.service.ConfigurationStore;
 import io.kodokojo.service.ProjectConfigurationException;
 import io.kodokojo.service.SSLCertificatProvider;
+import io.kodokojo.service.UsersNotProvisionedException;
 import org.assertj.core.api.Assertions;
 import org.junit.*;
 
@@ -43,6 +45,7 @@ import java.security.NoSuchAlgorithmException;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -87,7 +90,7 @@ public class BrickConfigurationStarterActorTest {
         try {
             Set<Service> services = new HashSet<>();
             services.add(new Service("acme-ci", "192.168.1.22", 42090));
-            when(brickManager.start(any(ProjectConfiguration.class), eq(BrickType.CI))).thenReturn(services);
+            when(brickManager.startAsync(any(ProjectConfiguration.class), eq(BrickType.CI))).thenReturn(CompletableFuture.completedFuture(services));
         } catch (BrickAlreadyExist e) {
             fail(e.getMessage());
         }
@@ -124,10 +127,42 @@ public class BrickConfigurationStarterActorTest {
         }};
     }
 
+    @Test
+    public void brick_running_with_users_not_provisioned() throws ProjectConfigurationException {
+        try {
+            when(brickManager.startAsync(any(ProjectConfiguration.class), eq(BrickType.CI))).thenReturn(CompletableFuture.completedFuture(new HashSet<>()));
+        } catch (BrickAlreadyExist e) {
+            fail(e.getMessage());
+        }
+        doThrow(new UsersNotProvisionedException("Unable to add users jpthiery to brick CI.", new UserProvisioningReport())).when(brickManager).configure(any(ProjectConfiguration.class), eq(BrickType.CI));
+
+        new JavaTestKit(system) {{
+
+            JavaTestKit probe = new JavaTestKit(system);
+
+            final Props props = Props.create(BrickConfigurationStarterActor.class, brickManager, configurationStore, brickUrlFactory, sslCertificatProvider, probe.getRef());
+
+            ActorRef ref = system.actorOf(props);
+            BrickStartContext context = createBrickStartContext(new BrickConfiguration(new Brick("test", BrickType.CI, "1.0")));
+
+            ref.tell(context, getRef());
+            new AwaitAssert(duration("10 seconds")) {
+                @Override
+                protected void check() {
+                    Object[] objects = probe.receiveN(3);
+                    BrickState last = (BrickState) objects[2];
+                    assertThat(last.getState()).isEqualTo(BrickState.State.RUNNING);
+                    assertThat(last.getMessage()).contains("jpthiery");
+                }
+
+            };
+        }};
+    }
+
     @Test
     public void brick_already_exist() {
         try {
-            when(brickManager.start(any(ProjectConfiguration.class), eq(BrickType.CI))).thenThrow(new BrickAlreadyExist("test", "Acme"));
+            when(brickManager.startAsync(any(ProjectConfiguration.class), eq(BrickType.CI))).thenThrow(new BrickAlreadyExist("test", "Acme"));
         } catch (BrickAlreadyExist e) {
             fail(e.getMessage());
         }
@@ -0,0 +1,78 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.authentification;
+
+import io.kodokojo.model.User;
+import io.kodokojo.service.store.UserStore;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SimpleUserAuthenticatorTest {
+
+    private UserStore userStore;
+
+    private SimpleUserAuthenticator userAuthenticator;
+
+    private User user;
+
+    @Before
+    public void setup() {
+        userStore = mock(UserStore.class);
+        userAuthenticator = new SimpleUserAuthenticator(userStore);
+        user = new User("1234", "Jean-Pascal THIERY", "jpthiery", "jpthiery@kodokojo.io", "jpascal", "ssh-rsa AAAA jpthiery@kodokojo.io");
+        when(userStore.getUserByUsername("jpthiery")).thenReturn(user);
+    }
+
+    @Test
+    public void valid_credentials_lookup_store_once() {
+        User first = userAuthenticator.authenticate(new SimpleCredential("jpthiery", "jpascal"));
+        User second = userAuthenticator.authenticate(new SimpleCredential("jpthiery", "jpascal"));
+
+        assertThat(first).isEqualTo(user);
+        assertThat(second).isEqualTo(user);
+        verify(userStore, times(1)).getUserByUsername("jpthiery");
+    }
+
+    @Test
+    public void invalid_credentials_are_never_cached() {
+        userAuthenticator.authenticate(new SimpleCredential("jpthiery", "jpascal"));
+
+        User result = userAuthenticator.authenticate(new SimpleCredential("jpthiery", "wrong"));
+        userAuthenticator.authenticate(new SimpleCredential("jpthiery", "wrong"));
+
+        assertThat(result).isNull();
+        verify(userStore, times(3)).getUserByUsername("jpthiery");
+    }
+
+    @Test
+    public void user_change_invalidate_cached_authentication() {
+        userAuthenticator.authenticate(new SimpleCredential("jpthiery", "jpascal"));
+
+        userAuthenticator.userChanged("jpthiery");
+        userAuthenticator.authenticate(new SimpleCredential("jpthiery", "jpascal"));
+
+        verify(userStore, times(2)).getUserByUsername("jpthiery");
+    }
+
+}
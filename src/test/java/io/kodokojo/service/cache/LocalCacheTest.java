@@ -0,0 +1,117 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.cache;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LocalCacheTest {
+
+    @Test
+    public void hit_after_put() {
+        LocalCache<String, String> cache = new LocalCache<>(10, 60000);
+
+        cache.put("key", "value");
+
+        assertThat(cache.get("key")).isEqualTo("value");
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void load_on_miss_only() {
+        LocalCache<String, String> cache = new LocalCache<>(10, 60000);
+        int[] loadCount = {0};
+
+        cache.get("key", k -> {
+            loadCount[0]++;
+            return "value";
+        });
+        String value = cache.get("key", k -> {
+            loadCount[0]++;
+            return "other";
+        });
+
+        assertThat(value).isEqualTo("value");
+        assertThat(loadCount[0]).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void evict_least_recently_used_when_full() {
+        LocalCache<String, String> cache = new LocalCache<>(2, 60000);
+
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+        cache.put("c", "3");
+
+        assertThat(cache.getSize()).isEqualTo(2);
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo("1");
+    }
+
+    @Test
+    public void expired_entry_is_evicted() throws InterruptedException {
+        LocalCache<String, String> cache = new LocalCache<>(10, 1);
+
+        cache.put("key", "value");
+        Thread.sleep(20);
+
+        assertThat(cache.get("key")).isNull();
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+        assertThat(cache.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void invalidate_remove_entry() {
+        LocalCache<String, String> cache = new LocalCache<>(10, 60000);
+        cache.put("key", "value");
+
+        cache.invalidate("key");
+
+        assertThat(cache.get("key")).isNull();
+    }
+
+    @Test
+    public void value_loaded_during_invalidation_is_not_cached() {
+        LocalCache<String, String> cache = new LocalCache<>(10, 60000);
+
+        String value = cache.get("key", k -> {
+            cache.invalidate(k);
+            return "stale";
+        });
+
+        assertThat(value).isEqualTo("stale");
+        assertThat(cache.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void disabled_cache_never_store() {
+        LocalCache<String, String> cache = new LocalCache<>(0, 60000);
+
+        cache.put("key", "value");
+
+        assertThat(cache.get("key")).isNull();
+        assertThat(cache.getSize()).isEqualTo(0);
+    }
+
+}
@@ -0,0 +1,64 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.lifecycle;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ApplicationLifeCycleManagerTest {
+
+    @Test
+    public void services_stopped_in_reverse_order_of_addition() {
+        List<String> stopped = new ArrayList<>();
+        ApplicationLifeCycleManager applicationLifeCycleManager = new ApplicationLifeCycleManager();
+        applicationLifeCycleManager.addService(new NamedService("pool", stopped));
+        applicationLifeCycleManager.addService(new NamedService("store", stopped));
+        applicationLifeCycleManager.addService(new NamedService("endpoint", stopped));
+
+        applicationLifeCycleManager.stop();
+
+        assertThat(stopped).containsExactly("endpoint", "store", "pool");
+    }
+
+    private static class NamedService implements ApplicationLifeCycleListener {
+
+        private final String name;
+
+        private final List<String> stopped;
+
+        private NamedService(String name, List<String> stopped) {
+            this.name = name;
+            this.stopped = stopped;
+        }
+
+        @Override
+        public void start() {
+            //  Nothing to do
+        }
+
+        @Override
+        public void stop() {
+            stopped.add(name);
+        }
+    }
+
+}
@@ -0,0 +1,198 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.marathon;
+
+import com.sun.net.httpserver.HttpServer;
+import io.kodokojo.service.OkHttpClientFactory;
+import io.kodokojo.test.utils.TestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class MarathonEventSubscriberTest {
+
+    private static final String APP_ID = "/acme/ci";
+
+    private static final String END_OF_STREAM = "";
+
+    private HttpServer fakeMarathon;
+
+    private ExecutorService fakeMarathonExecutor;
+
+    private BlockingQueue<String> events;
+
+    private AtomicReference<String> tasks;
+
+    private OkHttpClientFactory httpClientFactory;
+
+    private MarathonEventSubscriber subscriber;
+
+    @Before
+    public void setup() throws IOException {
+        events = new LinkedBlockingQueue<>();
+        tasks = new AtomicReference<>();
+        fakeMarathon = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        fakeMarathon.createContext(MarathonEventSubscriber.EVENTS_PATH, exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(": connected\n\n".getBytes());
+                output.flush();
+                String event;
+                while (!END_OF_STREAM.equals(event = events.take())) {
+                    output.write(event.getBytes());
+                    output.flush();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        fakeMarathon.createContext(MarathonEventSubscriber.APPS_PATH + APP_ID + "/tasks", exchange -> {
+            String body = tasks.get();
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.getBytes().length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body.getBytes());
+            }
+        });
+        fakeMarathonExecutor = Executors.newCachedThreadPool();
+        fakeMarathon.setExecutor(fakeMarathonExecutor);
+        fakeMarathon.start();
+        httpClientFactory = TestUtils.createHttpClientFactory();
+        subscriber = new MarathonEventSubscriber("http://localhost:" + fakeMarathon.getAddress().getPort(), httpClientFactory);
+    }
+
+    @After
+    public void tearDown() {
+        subscriber.stop();
+        httpClientFactory.stop();
+        events.add(END_OF_STREAM);
+        fakeMarathon.stop(0);
+        fakeMarathonExecutor.shutdownNow();
+    }
+
+    @Test
+    public void app_ready_when_running_event_streamed() throws Exception {
+        subscriber.start();
+        CompletableFuture<Void> ready = subscriber.awaitReady(APP_ID, false, 10, TimeUnit.SECONDS);
+
+        events.add(sse(MarathonEventSubscriber.STATUS_UPDATE_EVENT, statusUpdate("TASK_STAGING")));
+        events.add(sse(MarathonEventSubscriber.STATUS_UPDATE_EVENT, statusUpdate("TASK_RUNNING")));
+
+        ready.get(10, TimeUnit.SECONDS);
+        assertThat(subscriber.isReady(APP_ID, false)).isTrue();
+    }
+
+    @Test
+    public void health_checked_app_ready_once_alive() {
+        CompletableFuture<Void> ready = subscriber.awaitReady(APP_ID, true, 10, TimeUnit.SECONDS);
+
+        subscriber.handleEvent(MarathonEventSubscriber.STATUS_UPDATE_EVENT, statusUpdate("TASK_RUNNING"));
+        assertThat(ready.isDone()).isFalse();
+
+        subscriber.handleEvent(MarathonEventSubscriber.HEALTH_STATUS_CHANGED_EVENT, healthStatus(false));
+        assertThat(ready.isDone()).isFalse();
+
+        subscriber.handleEvent(MarathonEventSubscriber.HEALTH_STATUS_CHANGED_EVENT, healthStatus(true));
+        assertThat(ready.isDone()).isTrue();
+        assertThat(ready.isCompletedExceptionally()).isFalse();
+    }
+
+    @Test
+    public void already_running_app_ready_immediately() {
+        subscriber.handleEvent(null, "{\"eventType\":\"" + MarathonEventSubscriber.STATUS_UPDATE_EVENT + "\"," + statusUpdate("TASK_RUNNING").substring(1));
+
+        CompletableFuture<Void> ready = subscriber.awaitReady(APP_ID, false, 10, TimeUnit.SECONDS);
+
+        assertThat(ready.isDone()).isTrue();
+    }
+
+    @Test
+    public void killed_task_not_ready() {
+        subscriber.handleEvent(MarathonEventSubscriber.STATUS_UPDATE_EVENT, statusUpdate("TASK_RUNNING"));
+        subscriber.handleEvent(MarathonEventSubscriber.STATUS_UPDATE_EVENT, statusUpdate("TASK_KILLED"));
+
+        assertThat(subscriber.isReady(APP_ID, false)).isFalse();
+    }
+
+    @Test
+    public void app_ready_from_tasks_when_events_lost() throws Exception {
+        tasks.set("{\"tasks\":[{\"id\":\"acme_ci.1234\",\"appId\":\"" + APP_ID + "\",\"startedAt\":\"2016-05-10T10:00:00.000Z\",\"healthCheckResults\":[{\"alive\":true}]}]}");
+
+        CompletableFuture<Void> ready = subscriber.awaitReady(APP_ID, true, 10, TimeUnit.SECONDS);
+
+        ready.get(10, TimeUnit.SECONDS);
+        assertThat(subscriber.isReady(APP_ID, true)).isTrue();
+    }
+
+    @Test
+    public void tasks_read_again_on_connection() throws Exception {
+        subscriber.handleEvent(MarathonEventSubscriber.STATUS_UPDATE_EVENT, statusUpdate("TASK_RUNNING"));
+        //  Task killed while the stream was down.
+        tasks.set("{\"tasks\":[]}");
+
+        subscriber.start();
+
+        long timeout = System.currentTimeMillis() + 10000;
+        while (subscriber.isReady(APP_ID, false) && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertThat(subscriber.isReady(APP_ID, false)).isFalse();
+    }
+
+    @Test
+    public void app_not_ready_times_out() throws InterruptedException {
+        CompletableFuture<Void> ready = subscriber.awaitReady(APP_ID, false, 50, TimeUnit.MILLISECONDS);
+
+        try {
+            ready.get(10, TimeUnit.SECONDS);
+            fail("Expected a TimeoutException.");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(TimeoutException.class);
+        } catch (TimeoutException e) {
+            fail("Readiness future not completed after its timeout.", e);
+        }
+    }
+
+    private static String sse(String eventType, String data) {
+        return "event: " + eventType + "\ndata: " + data + "\n\n";
+    }
+
+    private static String statusUpdate(String taskStatus) {
+        return "{\"appId\":\"" + APP_ID + "\",\"taskId\":\"acme_ci.1234\",\"taskStatus\":\"" + taskStatus + "\",\"host\":\"10.0.0.1\",\"ports\":[31000]}";
+    }
+
+    private static String healthStatus(boolean alive) {
+        return "{\"appId\":\"" + APP_ID + "\",\"taskId\":\"acme_ci.1234\",\"alive\":" + alive + "}";
+    }
+
+}
@@ -0,0 +1,172 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis;
+
+import org.apache.commons.io.FileUtils;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * Launch <code>redis-server</code> processes on the local host, in a temporary directory removed on {@link #close()}.
+ */
+class LocalRedisServers implements Closeable {
+
+    static final String LOCALHOST = "127.0.0.1";
+
+    private static final int CLUSTER_SLOTS = 16384;
+
+    private static final long START_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+    private final Path directory;
+
+    private final List<Process> processes = new ArrayList<>();
+
+    LocalRedisServers() throws IOException {
+        directory = Files.createTempDirectory("redis");
+    }
+
+    static boolean redisServerAvailable() {
+        try {
+            return new ProcessBuilder("redis-server", "--version").start().waitFor() == 0;
+        } catch (IOException | InterruptedException e) {
+            return false;
+        }
+    }
+
+    int startServer(String... options) throws IOException {
+        int port = freePort();
+        List<String> command = new ArrayList<>(Arrays.asList("redis-server", "--port", "" + port, "--bind", LOCALHOST, "--dir", directory.toString(), "--save", "", "--appendonly", "no"));
+        command.addAll(Arrays.asList(options));
+        start(command, port);
+        return port;
+    }
+
+    int startReplica(int masterPort) throws IOException {
+        int port = startServer("--slaveof", LOCALHOST, "" + masterPort);
+        waitUntil(() -> info(port, "replication").contains("master_link_status:up"), "replica on port " + port + " synchronized");
+        return port;
+    }
+
+    int startSentinel(String masterName, int masterPort) throws IOException {
+        int port = freePort();
+        File configuration = directory.resolve("sentinel-" + port + ".conf").toFile();
+        FileUtils.writeStringToFile(configuration, "port " + port + "\n" +
+                "bind " + LOCALHOST + "\n" +
+                "sentinel monitor " + masterName + " " + LOCALHOST + " " + masterPort + " 1\n" +
+                "sentinel down-after-milliseconds " + masterName + " 1000\n" +
+                "sentinel failover-timeout " + masterName + " 5000\n");
+        start(Arrays.asList("redis-server", configuration.getAbsolutePath(), "--sentinel"), port);
+        return port;
+    }
+
+    /**
+     * Start <code>masterCount</code> cluster nodes, share the hash slots between them and wait the cluster is usable.
+     */
+    List<Integer> startCluster(int masterCount) throws IOException {
+        List<Integer> ports = new ArrayList<>();
+        for (int i = 0; i < masterCount; i++) {
+            ports.add(startServer("--cluster-enabled", "yes", "--cluster-config-file", "nodes-" + i + ".conf", "--cluster-node-timeout", "5000"));
+        }
+        int slotsByNode = CLUSTER_SLOTS / masterCount;
+        for (int i = 0; i < masterCount; i++) {
+            int first = i * slotsByNode;
+            int last = i == masterCount - 1 ? CLUSTER_SLOTS : first + slotsByNode;
+            try (Jedis jedis = new Jedis(LOCALHOST, ports.get(i))) {
+                jedis.clusterAddSlots(IntStream.range(first, last).toArray());
+                if (i > 0) {
+                    jedis.clusterMeet(LOCALHOST, ports.get(0));
+                }
+            }
+        }
+        for (int port : ports) {
+            waitUntil(() -> clusterInfo(port).contains("cluster_state:ok"), "cluster node on port " + port + " ready");
+        }
+        return ports;
+    }
+
+    private void start(List<String> command, int port) throws IOException {
+        processes.add(new ProcessBuilder(command).directory(directory.toFile()).redirectErrorStream(true).redirectOutput(directory.resolve("redis-" + port + ".log").toFile()).start());
+        waitUntil(() -> {
+            try (Jedis jedis = new Jedis(LOCALHOST, port)) {
+                return "PONG".equals(jedis.ping());
+            } catch (JedisConnectionException e) {
+                return false;
+            }
+        }, "Redis on port " + port + " started");
+    }
+
+    private static String info(int port, String section) {
+        try (Jedis jedis = new Jedis(LOCALHOST, port)) {
+            return jedis.info(section);
+        }
+    }
+
+    private static String clusterInfo(int port) {
+        try (Jedis jedis = new Jedis(LOCALHOST, port)) {
+            return jedis.clusterInfo();
+        }
+    }
+
+    static void waitUntil(BooleanSupplier condition, String expectation) {
+        long end = System.currentTimeMillis() + START_TIMEOUT;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > end) {
+                throw new IllegalStateException("Timeout while waiting " + expectation + ".");
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting " + expectation + ".", e);
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        processes.forEach(Process::destroy);
+        for (Process process : processes) {
+            try {
+                process.waitFor(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        FileUtils.deleteQuietly(directory.toFile());
+    }
+
+}
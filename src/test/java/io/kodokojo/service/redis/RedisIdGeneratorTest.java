@@ -0,0 +1,109 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis;
+
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class RedisIdGeneratorTest {
+
+    private static final String COUNTER_KEY = "counter";
+
+    private JedisPool pool;
+
+    private Jedis jedis;
+
+    @Before
+    public void setup() {
+        pool = mock(JedisPool.class);
+        jedis = mock(Jedis.class);
+        when(pool.getResource()).thenReturn(jedis);
+    }
+
+    @Test
+    public void id_generated_with_a_redis_incr_when_not_leased() {
+        when(jedis.incr(COUNTER_KEY)).thenReturn(1L, 2L);
+        RedisIdGenerator idGenerator = new RedisIdGenerator(pool, COUNTER_KEY, 1);
+
+        String first = idGenerator.generateId();
+        String second = idGenerator.generateId();
+
+        assertThat(first).hasSize(40).isNotEqualTo(second);
+        verify(jedis, times(2)).incr(COUNTER_KEY);
+        verify(jedis, never()).incrBy(anyString(), anyLong());
+    }
+
+    @Test
+    public void counter_leased_by_block() {
+        when(jedis.incrBy(COUNTER_KEY, 10)).thenReturn(10L, 20L);
+        RedisIdGenerator idGenerator = new RedisIdGenerator(pool, COUNTER_KEY, 10);
+
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 15; i++) {
+            ids.add(idGenerator.generateId());
+        }
+
+        assertThat(ids).hasSize(15);
+        verify(jedis, times(2)).incrBy(COUNTER_KEY, 10);
+        verify(jedis, never()).incr(anyString());
+    }
+
+    @Test
+    public void ids_generated_concurrently_are_unique() throws InterruptedException, ExecutionException {
+        AtomicLong counter = new AtomicLong();
+        when(jedis.incrBy(COUNTER_KEY, 100)).thenAnswer(invocation -> counter.addAndGet(100));
+        RedisIdGenerator idGenerator = new RedisIdGenerator(pool, COUNTER_KEY, 100);
+        int nbThreads = 4;
+        int nbIdsPerThread = 1000;
+
+        ExecutorService executorService = Executors.newFixedThreadPool(nbThreads);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < nbThreads; i++) {
+                futures.add(executorService.submit(() -> {
+                    List<String> ids = new ArrayList<>(nbIdsPerThread);
+                    for (int j = 0; j < nbIdsPerThread; j++) {
+                        ids.add(idGenerator.generateId());
+                    }
+                    return ids;
+                }));
+            }
+            Set<String> ids = new HashSet<>();
+            for (Future<List<String>> future : futures) {
+                ids.addAll(future.get());
+            }
+
+            assertThat(ids).hasSize(nbThreads * nbIdsPerThread);
+            assertThat(counter.get()).isEqualTo(nbThreads * nbIdsPerThread);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis;
+
+import io.kodokojo.brick.DefaultBrickFactory;
+import io.kodokojo.model.BrickState;
+import io.kodokojo.model.Project;
+import io.kodokojo.model.Stack;
+import io.kodokojo.model.StackType;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Brick states written on a local Redis, skipped when <code>redis-server</code> isn't available.
+ */
+public class RedisProjectStoreBrickStatesIntTest {
+
+    private LocalRedisServers redisServers;
+
+    private JedisPool pool;
+
+    private RedisProjectStore redisProjectStore;
+
+    @Before
+    public void setup() throws IOException, NoSuchAlgorithmException {
+        Assume.assumeTrue("redis-server is required", LocalRedisServers.redisServerAvailable());
+        redisServers = new LocalRedisServers();
+        int port = redisServers.startServer();
+        pool = new JedisPool(new JedisPoolConfig(), LocalRedisServers.LOCALHOST, port);
+        KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(128);
+        SecretKey aesKey = generator.generateKey();
+        redisProjectStore = new RedisProjectStore(aesKey, pool, new DefaultBrickFactory(), RedisProjectStore.DEFAULT_CACHE_MAX_SIZE, RedisProjectStore.DEFAULT_CACHE_TTL, AbstractRedisStore.DEFAULT_ID_LEASE_SIZE);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (redisProjectStore != null) {
+            redisProjectStore.stop();
+        }
+        if (pool != null) {
+            pool.destroy();
+        }
+        if (redisServers != null) {
+            redisServers.close();
+        }
+    }
+
+    @Test
+    public void brick_state_read_from_hash() {
+        String projectId = redisProjectStore.addProject(createProject(BrickState.State.STARTING), "123456");
+
+        redisProjectStore.updateBrickState(projectId, brickState(BrickState.State.RUNNING));
+
+        assertThat(jenkinsState(projectId)).isEqualTo(BrickState.State.RUNNING);
+    }
+
+    @Test
+    public void project_written_after_brick_state_not_masked_by_it() {
+        String projectId = redisProjectStore.addProject(createProject(BrickState.State.STARTING), "123456");
+        redisProjectStore.updateBrickState(projectId, brickState(BrickState.State.RUNNING));
+
+        redisProjectStore.updateProject(new Project(projectId, "123456", "Acme", new Date(), Collections.singleton(new Stack("build-A", StackType.BUILD, Collections.singleton(brickState(BrickState.State.ONFAILURE))))));
+
+        assertThat(jenkinsState(projectId)).isEqualTo(BrickState.State.ONFAILURE);
+    }
+
+    @Test
+    public void structural_update_keeps_brick_states() {
+        String projectId = redisProjectStore.addProject(createProject(BrickState.State.STARTING), "123456");
+        redisProjectStore.updateBrickState(projectId, brickState(BrickState.State.RUNNING));
+
+        redisProjectStore.updateProject(projectId, current -> new Project(current.getIdentifier(), current.getProjectConfigurationIdentifier(), "Acme-updated", current.getSnapshotDate(), current.getStacks()));
+
+        assertThat(redisProjectStore.getProjectByIdentifier(projectId).getName()).isEqualTo("Acme-updated");
+        assertThat(jenkinsState(projectId)).isEqualTo(BrickState.State.RUNNING);
+    }
+
+    private BrickState.State jenkinsState(String projectId) {
+        Project project = redisProjectStore.getProjectByIdentifier(projectId);
+        return project.getStacks().iterator().next().getBrickStates().iterator().next().getState();
+    }
+
+    private static Project createProject(BrickState.State state) {
+        Set<Stack> stacks = new HashSet<>();
+        stacks.add(new Stack("build-A", StackType.BUILD, Collections.singleton(brickState(state))));
+        return new Project("123456", "Acme", new Date(), stacks);
+    }
+
+    private static BrickState brickState(BrickState.State state) {
+        return new BrickState("123456", "build-A", "CI", "jenkins", state, "1.651");
+    }
+
+}
@@ -18,17 +18,38 @@
 package io.kodokojo.service.redis;
 
 import io.kodokojo.brick.DefaultBrickFactory;
+import io.kodokojo.commons.utils.RSAUtils;
+import io.kodokojo.model.*;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Transaction;
 
 import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
 import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 public class RedisProjectStoreTest {
@@ -37,12 +58,15 @@ public class RedisProjectStoreTest {
 
     private JedisPool jedisPool;
 
+    private SecretKey secretKey;
+
     @Before
     public void setup() throws NoSuchAlgorithmException {
         KeyGenerator kg = KeyGenerator.getInstance("AES");
+        secretKey = kg.generateKey();
 
         jedisPool = mock(JedisPool.class);
-        redisProjectStore = new RedisProjectStore(kg.generateKey(), "localhost", 6379, new DefaultBrickFactory()) {
+        redisProjectStore = new RedisProjectStore(secretKey, "localhost", 6379, new DefaultBrickFactory()) {
             @Override
             protected JedisPool createJedisPool(String host, int port) {
                 return jedisPool;
@@ -88,4 +112,292 @@ public class RedisProjectStoreTest {
         assertThat(isValid).isFalse();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void project_read_from_cache_until_updated() {
+        Set<Stack> stacks = new HashSet<>();
+        stacks.add(new Stack("build-A", StackType.BUILD, new HashSet<BrickState>()));
+        Project project = new Project("1234", "5678", "Acme", new Date(), stacks);
+
+        Jedis jedis = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedis);
+        when(jedis.get((byte[]) any())).thenReturn(RSAUtils.encryptObjectWithAES(secretKey, project));
+        when(jedis.multi()).thenReturn(mock(Transaction.class));
+
+        Project first = redisProjectStore.getProjectByIdentifier("1234");
+        Project second = redisProjectStore.getProjectByIdentifier("1234");
+
+        assertThat(first).isEqualTo(project);
+        assertThat(second).isEqualTo(project);
+        verify(jedis, times(1)).get((byte[]) any());
+        assertThat(redisProjectStore.getProjectCacheStatistics().getHitCount()).isEqualTo(1);
+
+        redisProjectStore.updateProject(project);
+        redisProjectStore.getProjectByIdentifier("1234");
+
+        verify(jedis, times(2)).get((byte[]) any());
+    }
+
+    @Test
+    public void cached_project_not_modified_by_callers() {
+        Set<Stack> stacks = new HashSet<>();
+        stacks.add(new Stack("build-A", StackType.BUILD, new HashSet<BrickState>()));
+        Project project = new Project("1234", "5678", "Acme", new Date(), stacks);
+
+        Jedis jedis = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedis);
+        when(jedis.get((byte[]) any())).thenReturn(RSAUtils.encryptObjectWithAES(secretKey, project));
+
+        Project first = redisProjectStore.getProjectByIdentifier("1234");
+        first.getStacks().iterator().next().getBrickStates().add(new BrickState("5678", "build-A", "CI", "jenkins", BrickState.State.RUNNING, "1.651"));
+        first.getStacks().add(new Stack("run-A", StackType.RUN, new HashSet<BrickState>()));
+        Project second = redisProjectStore.getProjectByIdentifier("1234");
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second).isEqualTo(project);
+        verify(jedis, times(1)).get((byte[]) any());
+    }
+
+    @Test
+    public void project_ids_fetched_in_one_round_trip() {
+        Jedis jedis = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedis);
+        byte[] existingKey = RedisUtils.aggregateKey(RedisProjectStore.PROJECTCONFIG_TO_PROJECT_PREFIX, "1234");
+        when(jedis.mget((byte[][]) any())).thenAnswer(invocation -> {
+            List<byte[]> res = new ArrayList<>();
+            for (Object key : invocation.getArguments()) {
+                res.add(Arrays.equals((byte[]) key, existingKey) ? "abcd".getBytes() : null);
+            }
+            return res;
+        });
+
+        Map<String, String> projectIds = redisProjectStore.getProjectIdsByProjectConfigurationIds(new HashSet<>(Arrays.asList("1234", "5678")));
+
+        assertThat(projectIds).hasSize(2);
+        assertThat(projectIds.get("1234")).isEqualTo("abcd");
+        assertThat(projectIds.get("5678")).isNull();
+        verify(jedis, times(1)).mget((byte[][]) any());
+    }
+
+    @Test
+    public void unknown_project_configuration_read_in_a_single_command() {
+        Jedis jedis = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedis);
+
+        assertThat(redisProjectStore.getProjectConfigurationById("1234")).isNull();
+
+        verify(jedis).get((byte[]) any());
+        verify(jedis).close();
+        verifyNoMoreInteractions(jedis);
+    }
+
+    @Test
+    public void project_of_unknown_project_configuration_read_in_a_single_command() {
+        Jedis jedis = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedis);
+
+        assertThat(redisProjectStore.getProjectByProjectConfigurationId("1234")).isNull();
+
+        verify(jedis).get((byte[]) any());
+        verify(jedis).close();
+        verifyNoMoreInteractions(jedis);
+    }
+
+    @Test
+    public void project_configuration_and_indexes_written_in_a_single_transaction() {
+        User admin = new User("1234", "Jean-Pascal THIERY", "jpthiery", "jpthiery@kodokojo.io", "jpascal", "ssh-rsa AAAA jpthiery@kodokojo.io");
+        User user = new User("5678", "John DOE", "jdoe", "jdoe@kodokojo.io", "jdoe", "ssh-rsa AAAA jdoe@kodokojo.io");
+        Set<BrickConfiguration> brickConfigurations = new HashSet<>();
+        brickConfigurations.add(new BrickConfiguration(new DefaultBrickFactory().createBrick(DefaultBrickFactory.JENKINS)));
+        Set<StackConfiguration> stackConfigurations = new HashSet<>();
+        stackConfigurations.add(new StackConfiguration("build-A", StackType.BUILD, brickConfigurations, "192.168.22.3", 10022));
+        ProjectConfiguration projectConfiguration = new ProjectConfiguration("4321", "8765", "Acme", Collections.singletonList(admin), stackConfigurations, Collections.singletonList(user));
+
+        Jedis jedis = mock(Jedis.class);
+        Transaction transaction = mock(Transaction.class);
+        when(jedisPool.getResource()).thenReturn(jedis);
+        when(jedis.multi()).thenReturn(transaction);
+
+        redisProjectStore.updateProjectConfiguration(projectConfiguration);
+
+        verify(transaction).set(any(byte[].class), any(byte[].class));
+        verify(transaction, times(2)).sadd(any(byte[].class), any(byte[].class));
+        verify(transaction).exec();
+        verify(jedis, never()).set(any(byte[].class), any(byte[].class));
+        verify(jedis, never()).sadd(any(byte[].class), any(byte[].class));
+    }
+
+    @Test
+    public void project_configuration_update_reads_latest_value_instead_of_cache() {
+        User admin = new User("1234", "Jean-Pascal THIERY", "jpthiery", "jpthiery@kodokojo.io", "jpascal", "ssh-rsa AAAA jpthiery@kodokojo.io");
+        User user = new User("5678", "John DOE", "jdoe", "jdoe@kodokojo.io", "jdoe", "ssh-rsa AAAA jdoe@kodokojo.io");
+        Set<StackConfiguration> stackConfigurations = new HashSet<>();
+        stackConfigurations.add(new StackConfiguration("build-A", StackType.BUILD, new HashSet<>(), "192.168.22.3", 10022));
+        ProjectConfiguration cached = new ProjectConfiguration("4321", "8765", "Acme", Collections.singletonList(admin), stackConfigurations, new ArrayList<>());
+        ProjectConfiguration latest = new ProjectConfiguration("4321", "8765", "Acme", Collections.singletonList(admin), stackConfigurations, Collections.singletonList(user));
+
+        Jedis jedis = mock(Jedis.class);
+        Transaction transaction = mock(Transaction.class);
+        when(jedisPool.getResource()).thenReturn(jedis);
+        when(jedis.get((byte[]) any())).thenReturn(RSAUtils.encryptObjectWithAES(secretKey, cached)).thenReturn(RSAUtils.encryptObjectWithAES(secretKey, latest));
+        when(jedis.multi()).thenReturn(transaction);
+        //  First EXEC aborted by a write of another instance on the watched key.
+        when(transaction.exec()).thenReturn(null).thenReturn(Collections.singletonList("OK"));
+        redisProjectStore.getProjectConfigurationById("8765");
+        List<ProjectConfiguration> updatedValues = new ArrayList<>();
+
+        ProjectConfiguration result = redisProjectStore.updateProjectConfiguration("8765", current -> {
+            updatedValues.add(current);
+            return current;
+        });
+
+        assertThat(updatedValues).hasSize(2);
+        assertThat(result.getUsers()).extracting("identifier").containsExactly("5678");
+        verify(jedis, times(3)).get((byte[]) any());
+        verify(jedis, times(2)).watch(any(byte[].class));
+        verify(transaction, times(2)).exec();
+        verify(jedis, never()).set(any(byte[].class), any(byte[].class));
+    }
+
+    @Test
+    public void project_update_retried_when_project_modified_concurrently() {
+        Set<Stack> stacks = new HashSet<>();
+        stacks.add(new Stack("build-A", StackType.BUILD, new HashSet<BrickState>()));
+        Project project = new Project("1234", "5678", "Acme", new Date(), stacks);
+
+        Jedis jedis = mock(Jedis.class);
+        Transaction transaction = mock(Transaction.class);
+        when(jedisPool.getResource()).thenReturn(jedis);
+        when(jedis.get((byte[]) any())).thenReturn(RSAUtils.encryptObjectWithAES(secretKey, project));
+        when(jedis.multi()).thenReturn(transaction);
+        //  First EXEC aborted by a concurrent write on the watched key.
+        when(transaction.exec()).thenReturn(null).thenReturn(Collections.singletonList("OK"));
+        List<Project> updatedValues = new ArrayList<>();
+
+        Project result = redisProjectStore.updateProject("1234", current -> {
+            updatedValues.add(current);
+            return new Project(current.getIdentifier(), current.getProjectConfigurationIdentifier(), "Acme-updated", current.getSnapshotDate(), current.getStacks());
+        });
+
+        assertThat(result.getName()).isEqualTo("Acme-updated");
+        assertThat(updatedValues).hasSize(2);
+        verify(jedis, times(2)).watch(any(byte[].class), any(byte[].class));
+        verify(transaction, times(2)).exec();
+        verify(jedis, never()).set(any(byte[].class), any(byte[].class));
+    }
+
+    @Test
+    public void project_update_rewrites_brick_states() {
+        Set<BrickState> brickStates = new HashSet<>();
+        brickStates.add(new BrickState("5678", "build-A", "CI", "jenkins", BrickState.State.STARTING, "1.651"));
+        Set<Stack> stacks = new HashSet<>();
+        stacks.add(new Stack("build-A", StackType.BUILD, brickStates));
+        Project project = new Project("1234", "5678", "Acme", new Date(), stacks);
+        Map<byte[], byte[]> storedBrickStates = new HashMap<>();
+        storedBrickStates.put("build-A/jenkins".getBytes(), RSAUtils.encryptObjectWithAES(secretKey, new BrickState("5678", "build-A", "CI", "jenkins", BrickState.State.CONFIGURING, "1.651")));
+
+        Jedis jedis = mock(Jedis.class);
+        Transaction transaction = mock(Transaction.class);
+        when(jedisPool.getResource()).thenReturn(jedis);
+        when(jedis.get((byte[]) any())).thenReturn(RSAUtils.encryptObjectWithAES(secretKey, project));
+        when(jedis.hgetAll((byte[]) any())).thenReturn(storedBrickStates);
+        when(jedis.multi()).thenReturn(transaction);
+        when(transaction.exec()).thenReturn(Arrays.<Object>asList("OK", 1L));
+        List<Project> updatedValues = new ArrayList<>();
+
+        redisProjectStore.updateProject("1234", current -> {
+            updatedValues.add(current);
+            return current;
+        });
+
+        assertThat(updatedValues).hasSize(1);
+        assertThat(updatedValues.get(0).getStacks().iterator().next().getBrickStates()).extracting("state").containsExactly(BrickState.State.CONFIGURING);
+        byte[] brickStatesKey = RedisUtils.aggregateKey(RedisProjectStore.PROJECT_BRICK_STATES_PREFIX, "1234");
+        InOrder inOrder = inOrder(transaction);
+        inOrder.verify(transaction).set(any(byte[].class), any(byte[].class));
+        inOrder.verify(transaction).del(brickStatesKey);
+        inOrder.verify(transaction).hmset(eq(brickStatesKey), anyMapOf(byte[].class, byte[].class));
+    }
+
+    @Test
+    public void project_written_with_its_brick_states_in_a_single_transaction() {
+        Set<BrickState> brickStates = new HashSet<>();
+        brickStates.add(new BrickState("5678", "build-A", "CI", "jenkins", BrickState.State.RUNNING, "1.651"));
+        Set<Stack> stacks = new HashSet<>();
+        stacks.add(new Stack("build-A", StackType.BUILD, brickStates));
+        Project project = new Project("1234", "5678", "Acme", new Date(), stacks);
+
+        Jedis jedis = mock(Jedis.class);
+        Transaction transaction = mock(Transaction.class);
+        when(jedisPool.getResource()).thenReturn(jedis);
+        when(jedis.multi()).thenReturn(transaction);
+
+        redisProjectStore.updateProject(project);
+
+        byte[] brickStatesKey = RedisUtils.aggregateKey(RedisProjectStore.PROJECT_BRICK_STATES_PREFIX, "1234");
+        verify(transaction).set(any(byte[].class), any(byte[].class));
+        verify(transaction).del(brickStatesKey);
+        verify(transaction).hmset(eq(brickStatesKey), anyMapOf(byte[].class, byte[].class));
+        verify(transaction).exec();
+        verify(jedis, never()).set(any(byte[].class), any(byte[].class));
+    }
+
+    @Test
+    public void update_of_unknown_project_return_null() {
+        Jedis jedis = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedis);
+
+        Project result = redisProjectStore.updateProject("1234", current -> current);
+
+        assertThat(result).isNull();
+        verify(jedis).unwatch();
+        verify(jedis, never()).multi();
+    }
+
+    @Test
+    public void brick_state_written_in_a_single_command() {
+        Jedis jedis = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedis);
+
+        redisProjectStore.updateBrickState("1234", new BrickState("5678", "build-A", "CI", "jenkins", BrickState.State.RUNNING, "1.651"));
+
+        verify(jedis).hset(any(byte[].class), any(byte[].class), any(byte[].class));
+        verify(jedis).close();
+        verifyNoMoreInteractions(jedis);
+    }
+
+    @Test
+    public void project_read_with_its_latest_brick_states() {
+        Set<BrickState> brickStates = new HashSet<>();
+        brickStates.add(new BrickState("5678", "build-A", "CI", "jenkins", BrickState.State.STARTING, "1.651"));
+        brickStates.add(new BrickState("5678", "build-A", "SCM", "gitlab", BrickState.State.RUNNING, "8.5.2"));
+        Set<Stack> stacks = new HashSet<>();
+        stacks.add(new Stack("build-A", StackType.BUILD, brickStates));
+        Project project = new Project("1234", "5678", "Acme", new Date(), stacks);
+        Map<byte[], byte[]> storedBrickStates = new HashMap<>();
+        storedBrickStates.put("build-A/jenkins".getBytes(), RSAUtils.encryptObjectWithAES(secretKey, new BrickState("5678", "build-A", "CI", "jenkins", BrickState.State.RUNNING, "1.651")));
+
+        Jedis jedis = mock(Jedis.class);
+        when(jedisPool.getResource()).thenReturn(jedis);
+        when(jedis.get((byte[]) any())).thenReturn(RSAUtils.encryptObjectWithAES(secretKey, project));
+        when(jedis.hgetAll((byte[]) any())).thenReturn(storedBrickStates);
+
+        Project result = redisProjectStore.getProjectByIdentifier("1234");
+
+        Set<BrickState> resultBrickStates = result.getStacks().iterator().next().getBrickStates();
+        assertThat(resultBrickStates).hasSize(2);
+        assertThat(resultBrickStates).extracting("state").containsOnly(BrickState.State.RUNNING);
+    }
+
+    @Test
+    public void shared_pool_not_destroyed_when_store_stops() {
+        JedisPool sharedPool = mock(JedisPool.class);
+        RedisProjectStore store = new RedisProjectStore(secretKey, sharedPool, new DefaultBrickFactory(), RedisProjectStore.DEFAULT_CACHE_MAX_SIZE, RedisProjectStore.DEFAULT_CACHE_TTL, AbstractRedisStore.DEFAULT_ID_LEASE_SIZE);
+
+        store.stop();
+        redisProjectStore.stop();
+
+        verify(sharedPool, never()).destroy();
+        verify(jedisPool).destroy();
+    }
+
+}
@@ -0,0 +1,151 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis;
+
+import io.kodokojo.brick.DefaultBrickFactory;
+import io.kodokojo.model.*;
+import io.kodokojo.model.Stack;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPoolConfig;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Run the stores against Redis Sentinel and Redis Cluster topologies launched locally, skipped when
+ * <code>redis-server</code> isn't available.
+ */
+public class RedisTopologyIntTest {
+
+    private static final String MASTER_NAME = "kodokojo";
+
+    private LocalRedisServers redisServers;
+
+    private SecretKey aesKey;
+
+    @Before
+    public void setup() throws IOException, NoSuchAlgorithmException {
+        Assume.assumeTrue("redis-server is required", LocalRedisServers.redisServerAvailable());
+        redisServers = new LocalRedisServers();
+        KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(128);
+        aesKey = generator.generateKey();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (redisServers != null) {
+            redisServers.close();
+        }
+    }
+
+    @Test
+    public void user_store_follows_sentinel_failover() throws IOException {
+        int masterPort = redisServers.startServer();
+        int replicaPort = redisServers.startReplica(masterPort);
+        int sentinelPort = redisServers.startSentinel(MASTER_NAME, masterPort);
+        Set<String> sentinels = Collections.singleton(LocalRedisServers.LOCALHOST + ":" + sentinelPort);
+        MonitoredJedisSentinelPool pool = new MonitoredJedisSentinelPool(MASTER_NAME, sentinels, new JedisPoolConfig(), 2000, 2000);
+        try {
+            RedisUserStore userStore = new RedisUserStore(aesKey, pool, RedisUserStore.DEFAULT_NEW_ID_TTL, AbstractRedisStore.DEFAULT_ID_LEASE_SIZE);
+            assertThat(pool.getCurrentHostMaster().getPort()).isEqualTo(masterPort);
+            assertThat(userStore.addUser(createUser(userStore.generateId(), "jpthiery"))).isTrue();
+            try (Jedis master = new Jedis(LocalRedisServers.LOCALHOST, masterPort)) {
+                master.waitReplicas(1, 2000);
+            }
+
+            try (Jedis sentinel = new Jedis(LocalRedisServers.LOCALHOST, sentinelPort)) {
+                sentinel.sentinelFailover(MASTER_NAME);
+            }
+            LocalRedisServers.waitUntil(() -> pool.getCurrentHostMaster().getPort() == replicaPort, "replica promoted to master");
+
+            assertThat(userStore.getUserByUsername("jpthiery")).isNotNull();
+            assertThat(userStore.addUser(createUser(userStore.generateId(), "aletaxin"))).isTrue();
+            assertThat(userStore.getUserByUsername("aletaxin")).isNotNull();
+        } finally {
+            pool.destroy();
+        }
+    }
+
+    @Test
+    public void project_store_on_redis_cluster() throws IOException {
+        List<Integer> ports = redisServers.startCluster(3);
+        //  Only one node is given, the others are discovered from the cluster slots.
+        RedisClusterPool pool = new RedisClusterPool(Collections.singleton(new HostAndPort(LocalRedisServers.LOCALHOST, ports.get(0))), new JedisPoolConfig(), 2000, 2000);
+        try {
+            RedisProjectStore projectStore = new RedisProjectStore(aesKey, pool, new DefaultBrickFactory(), RedisProjectStore.DEFAULT_CACHE_MAX_SIZE, RedisProjectStore.DEFAULT_CACHE_TTL, AbstractRedisStore.DEFAULT_ID_LEASE_SIZE);
+            User owner = createUser("1234", "jpthiery");
+
+            Map<String, String> projectIdByProjectConfigurationId = new HashMap<>();
+            for (String name : Arrays.asList("acme-a", "acme-b", "acme-c")) {
+                String projectConfigurationId = projectStore.addProjectConfiguration(createProjectConfiguration(name, owner));
+                String projectId = projectStore.addProject(createProject(name), projectConfigurationId);
+                assertThat(projectId).isNotEmpty();
+                projectIdByProjectConfigurationId.put(projectConfigurationId, projectId);
+            }
+
+            String projectConfigurationId = projectIdByProjectConfigurationId.keySet().iterator().next();
+            String projectId = projectIdByProjectConfigurationId.get(projectConfigurationId);
+            projectStore.updateBrickState(projectId, new BrickState(projectId, "build-A", BrickType.CI.name(), "jenkins", BrickState.State.RUNNING, "1.651"));
+
+            assertThat(projectStore.getProjectConfigurationById(projectConfigurationId)).isNotNull();
+            assertThat(projectStore.getProjectConfigIdsByUserIdentifier("1234")).containsOnlyElementsOf(projectIdByProjectConfigurationId.keySet());
+            assertThat(projectStore.getProjectIdsByProjectConfigurationIds(projectIdByProjectConfigurationId.keySet())).isEqualTo(projectIdByProjectConfigurationId);
+            Project project = projectStore.getProjectByProjectConfigurationId(projectConfigurationId);
+            assertThat(project).isNotNull();
+            assertThat(project.getIdentifier()).isEqualTo(projectId);
+            assertThat(pool.getBorrowCount()).isGreaterThan(0);
+            assertThat(pool.getNumActive()).isEqualTo(0);
+            assertThat(pool.getMaxTotal()).isEqualTo(3 * new JedisPoolConfig().getMaxTotal());
+        } finally {
+            pool.destroy();
+        }
+    }
+
+    private static User createUser(String identifier, String username) {
+        return new User(identifier, "Jean-Pascal THIERY", username, username + "@kodokojo.io", "mysecretpassword", "ssh public key");
+    }
+
+    private static ProjectConfiguration createProjectConfiguration(String name, User owner) {
+        List<User> users = Collections.singletonList(owner);
+        Set<BrickConfiguration> brickConfigurations = new HashSet<>();
+        brickConfigurations.add(new BrickConfiguration(new Brick("jenkins", BrickType.CI, "1.651")));
+        Set<StackConfiguration> stackConfigurations = new HashSet<>();
+        stackConfigurations.add(new StackConfiguration("build-A", StackType.BUILD, brickConfigurations, "127.0.0.1", 10022));
+        return new ProjectConfiguration("123456", name, users, stackConfigurations, users);
+    }
+
+    private static Project createProject(String name) {
+        Set<BrickState> brickStates = new HashSet<>();
+        brickStates.add(new BrickState("123456", "build-A", BrickType.CI.name(), "jenkins", BrickState.State.STARTING, "1.651"));
+        Set<Stack> stacks = new HashSet<>();
+        stacks.add(new Stack("build-A", StackType.BUILD, brickStates));
+        return new Project("123456", name, new Date(), stacks);
+    }
+
+}
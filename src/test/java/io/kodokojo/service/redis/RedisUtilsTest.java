@@ -18,8 +18,18 @@
 package io.kodokojo.service.redis;
 
 import org.junit.Test;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 public class RedisUtilsTest {
 
@@ -32,6 +42,15 @@ public class RedisUtilsTest {
         assertThat(result).isEqualTo(expected);
     }
 
+    @Test
+    public void hash_tagged_keys_of_an_entry_share_a_slot() {
+        byte[] project = RedisUtils.aggregateHashTaggedKey(RedisProjectStore.PROJECT_PREFIX, "1234");
+        byte[] brickStates = RedisUtils.aggregateHashTaggedKey(RedisProjectStore.PROJECT_BRICK_STATES_PREFIX, "1234");
+
+        assertThat(project).isEqualTo("project/{1234}".getBytes());
+        assertThat(RedisClusterPool.getSlot(project)).isEqualTo(RedisClusterPool.getSlot(brickStates));
+    }
+
     @Test
     public void translate_10_to_0a() {
         String encode = RedisUtils.hexEncode(new byte[] {10});
@@ -63,4 +82,41 @@ public class RedisUtilsTest {
         assertThat(encode).isEqualTo("0f");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void translate_negative_byte_to_ff() {
+        String encode = RedisUtils.hexEncode(new byte[] {(byte) 0xff, 0x10});
+        assertThat(encode).isEqualTo("ff10");
+    }
+
+    @Test
+    public void read_from_redis_in_a_single_command() throws IOException {
+        JedisPool pool = mock(JedisPool.class);
+        Jedis jedis = mock(Jedis.class);
+        when(pool.getResource()).thenReturn(jedis);
+        byte[] key = RedisUtils.aggregateKey("prefix/", "macle");
+        ByteArrayOutputStream byteArray = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(byteArray)) {
+            out.writeObject("value");
+        }
+        when(jedis.get(key)).thenReturn(byteArray.toByteArray());
+
+        Object result = RedisUtils.readFromRedis(pool, key);
+
+        assertThat(result).isEqualTo("value");
+        verify(jedis).get(key);
+        verify(jedis).close();
+        verifyNoMoreInteractions(jedis);
+    }
+
+    @Test
+    public void read_missing_value_from_redis_return_null() {
+        JedisPool pool = mock(JedisPool.class);
+        Jedis jedis = mock(Jedis.class);
+        when(pool.getResource()).thenReturn(jedis);
+
+        Object result = RedisUtils.readFromRedis(pool, RedisUtils.aggregateKey("prefix/", "macle"));
+
+        assertThat(result).isNull();
+    }
+
+}
@@ -0,0 +1,174 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis;
+
+import io.kodokojo.commons.utils.RSAUtils;
+import io.kodokojo.model.*;
+import io.kodokojo.model.Stack;
+import io.kodokojo.service.redis.codec.BinaryValueCodecProvider;
+import io.kodokojo.service.redis.codec.ValueCodec;
+import io.kodokojo.service.redis.codec.ValueCodecProvider;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Run the migration on a Redis seeded with values of the previous format, skipped when <code>redis-server</code>
+ * isn't available.
+ */
+public class RedisValueMigrationIntTest {
+
+    private LocalRedisServers redisServers;
+
+    private JedisPool pool;
+
+    private SecretKey aesKey;
+
+    private ValueCodecProvider valueCodecProvider;
+
+    @Before
+    public void setup() throws IOException, NoSuchAlgorithmException {
+        Assume.assumeTrue("redis-server is required", LocalRedisServers.redisServerAvailable());
+        redisServers = new LocalRedisServers();
+        int port = redisServers.startServer();
+        pool = new JedisPool(new JedisPoolConfig(), LocalRedisServers.LOCALHOST, port);
+        KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(128);
+        aesKey = generator.generateKey();
+        valueCodecProvider = new BinaryValueCodecProvider(aesKey);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (pool != null) {
+            pool.destroy();
+        }
+        if (redisServers != null) {
+            redisServers.close();
+        }
+    }
+
+    @Test
+    public void legacy_values_rewritten_in_current_format() {
+        Project project = createProject("1234");
+        BrickState brickState = new BrickState("5678", "build-A", BrickType.CI.name(), "jenkins", BrickState.State.RUNNING, "1.651");
+        try (Jedis jedis = pool.getResource()) {
+            jedis.set("project/1234".getBytes(), RSAUtils.encryptObjectWithAES(aesKey, project));
+            jedis.hset("projectBrickStates/1234".getBytes(), "build-A/jenkins".getBytes(), RSAUtils.encryptObjectWithAES(aesKey, brickState));
+        }
+
+        int migrated = new RedisValueMigration(pool, valueCodecProvider).migrate();
+
+        assertThat(migrated).isEqualTo(2);
+        ValueCodec<Project> projectCodec = valueCodecProvider.getCodec(Project.class);
+        ValueCodec<BrickState> brickStateCodec = valueCodecProvider.getCodec(BrickState.class);
+        try (Jedis jedis = pool.getResource()) {
+            byte[] projectValue = jedis.get("project/1234".getBytes());
+            assertThat(projectCodec.isCurrentFormat(projectValue)).isTrue();
+            assertThat(projectCodec.decode(projectValue).getName()).isEqualTo("Acme");
+            byte[] brickStateValue = jedis.hget("projectBrickStates/1234".getBytes(), "build-A/jenkins".getBytes());
+            assertThat(brickStateCodec.isCurrentFormat(brickStateValue)).isTrue();
+            assertThat(brickStateCodec.decode(brickStateValue).getState()).isEqualTo(BrickState.State.RUNNING);
+        }
+        assertThat(new RedisValueMigration(pool, valueCodecProvider).migrate()).isEqualTo(0);
+    }
+
+    @Test
+    public void bootstrap_values_under_project_prefix_left_untouched() {
+        try (Jedis jedis = pool.getResource()) {
+            jedis.set("project/Acme/build-A/lbHost", "192.168.1.10");
+            jedis.set("project/Acme/build-A/sshPort", "10022");
+            jedis.set("project/1234".getBytes(), RSAUtils.encryptObjectWithAES(aesKey, createProject("1234")));
+        }
+
+        int migrated = new RedisValueMigration(pool, valueCodecProvider).migrate();
+
+        assertThat(migrated).isEqualTo(1);
+        try (Jedis jedis = pool.getResource()) {
+            assertThat(jedis.get("project/Acme/build-A/lbHost")).isEqualTo("192.168.1.10");
+            assertThat(jedis.get("project/Acme/build-A/sshPort")).isEqualTo("10022");
+        }
+    }
+
+    @Test
+    public void undecodable_value_skipped_without_aborting_migration() {
+        try (Jedis jedis = pool.getResource()) {
+            jedis.set("project/0000", "not a project");
+            jedis.set("project/1234".getBytes(), RSAUtils.encryptObjectWithAES(aesKey, createProject("1234")));
+            jedis.set("project/5678".getBytes(), RSAUtils.encryptObjectWithAES(aesKey, createProject("5678")));
+        }
+
+        int migrated = new RedisValueMigration(pool, valueCodecProvider).migrate();
+
+        assertThat(migrated).isEqualTo(2);
+        try (Jedis jedis = pool.getResource()) {
+            assertThat(jedis.get("project/0000")).isEqualTo("not a project");
+        }
+    }
+
+    @Test
+    public void legacy_values_rewritten_on_every_cluster_master() throws IOException {
+        List<Integer> ports = redisServers.startCluster(3);
+        RedisClusterPool clusterPool = new RedisClusterPool(Collections.singleton(new HostAndPort(LocalRedisServers.LOCALHOST, ports.get(0))), new JedisPoolConfig(), 2000, 2000);
+        try {
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                String identifier = "" + (1000 + i);
+                keys.add("project/" + identifier);
+                try (Jedis jedis = RedisUtils.getResource(clusterPool, ("project/" + identifier).getBytes())) {
+                    jedis.set(("project/" + identifier).getBytes(), RSAUtils.encryptObjectWithAES(aesKey, createProject(identifier)));
+                }
+            }
+            assertThat(keys.stream().map(key -> RedisClusterPool.getSlot(key.getBytes()) * 3 / 16384).distinct().count()).isGreaterThan(1);
+
+            int migrated = new RedisValueMigration(clusterPool, valueCodecProvider).migrate();
+
+            assertThat(migrated).isEqualTo(keys.size());
+            ValueCodec<Project> projectCodec = valueCodecProvider.getCodec(Project.class);
+            for (String key : keys) {
+                try (Jedis jedis = RedisUtils.getResource(clusterPool, key.getBytes())) {
+                    assertThat(projectCodec.isCurrentFormat(jedis.get(key.getBytes()))).isTrue();
+                }
+            }
+        } finally {
+            clusterPool.destroy();
+        }
+    }
+
+    private static Project createProject(String identifier) {
+        Set<BrickState> brickStates = new HashSet<>();
+        brickStates.add(new BrickState("5678", "build-A", BrickType.CI.name(), "jenkins", BrickState.State.STARTING, "1.651"));
+        Set<Stack> stacks = new HashSet<>();
+        stacks.add(new Stack("build-A", StackType.BUILD, brickStates));
+        return new Project(identifier, "5678", "Acme", new Date(), stacks);
+    }
+
+}
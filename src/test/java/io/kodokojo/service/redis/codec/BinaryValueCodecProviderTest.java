@@ -0,0 +1,123 @@
+/**
+ * Kodo Kojo - Software factory done right
+ * Copyright © 2016 Kodo Kojo (infos@kodokojo.io)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.kodokojo.service.redis.codec;
+
+import io.kodokojo.brick.DefaultBrickFactory;
+import io.kodokojo.commons.utils.RSAUtils;
+import io.kodokojo.model.*;
+import io.kodokojo.model.Stack;
+import io.kodokojo.service.redis.UserValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BinaryValueCodecProviderTest {
+
+    private final User admin = new User("1234", "Jean-Pascal THIERY", "jpthiery", "jpthiery@kodokojo.io", "jpascal", "ssh-rsa AAAA jpthiery@kodokojo.io");
+
+    private SecretKey secretKey;
+
+    private BinaryValueCodecProvider codecProvider;
+
+    @Before
+    public void setup() throws NoSuchAlgorithmException {
+        KeyGenerator kg = KeyGenerator.getInstance("AES");
+        secretKey = kg.generateKey();
+        codecProvider = new BinaryValueCodecProvider(secretKey);
+    }
+
+    @Test
+    public void project_encoded_smaller_than_java_serialized() {
+        ValueCodec<Project> codec = codecProvider.getCodec(Project.class);
+        Project project = createProject();
+
+        byte[] encoded = codec.encode(project);
+
+        assertThat(codec.isCurrentFormat(encoded)).isTrue();
+        assertThat(codec.decode(encoded)).isEqualTo(project);
+        assertThat(encoded.length).isLessThan(RSAUtils.encryptObjectWithAES(secretKey, project).length);
+    }
+
+    @Test
+    public void legacy_encrypted_project_still_readable() {
+        ValueCodec<Project> codec = codecProvider.getCodec(Project.class);
+        Project project = createProject();
+        byte[] legacy = RSAUtils.encryptObjectWithAES(secretKey, project);
+
+        assertThat(codec.isCurrentFormat(legacy)).isFalse();
+        assertThat(codec.decode(legacy)).isEqualTo(project);
+    }
+
+    @Test
+    public void project_configuration_encoded_with_brick_custom_data() {
+        ValueCodec<ProjectConfiguration> codec = codecProvider.getCodec(ProjectConfiguration.class);
+        BrickConfiguration brickConfiguration = new BrickConfiguration(new DefaultBrickFactory().createBrick(DefaultBrickFactory.JENKINS));
+        Map<String, Serializable> customData = new HashMap<>();
+        customData.put("token", "abcdef");
+        brickConfiguration.setCustomData(customData);
+        Set<BrickConfiguration> brickConfigurations = new HashSet<>();
+        brickConfigurations.add(brickConfiguration);
+        Set<StackConfiguration> stackConfigurations = new HashSet<>();
+        stackConfigurations.add(new StackConfiguration("build-A", StackType.BUILD, brickConfigurations, "192.168.22.3", 10022));
+        ProjectConfiguration projectConfiguration = new ProjectConfiguration("4321", "8765", "Acme", Collections.singletonList(admin), stackConfigurations, Collections.singletonList(admin));
+
+        ProjectConfiguration result = codec.decode(codec.encode(projectConfiguration));
+
+        assertThat(result).isEqualTo(projectConfiguration);
+        assertThat(result.getAdmins().next()).isEqualTo(admin);
+        assertThat(result.getDefaultBrickConfigurations().next().getCustomData()).containsEntry("token", "abcdef");
+    }
+
+    @Test
+    public void legacy_java_serialized_user_value_still_readable() throws IOException {
+        ValueCodec<UserValue> codec = codecProvider.getCodec(UserValue.class);
+        UserValue userValue = new UserValue(admin, new byte[]{1, 2, 3});
+        ByteArrayOutputStream byteArray = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(byteArray)) {
+            out.writeObject(userValue);
+        }
+
+        UserValue legacy = codec.decode(byteArray.toByteArray());
+        UserValue current = codec.decode(codec.encode(userValue));
+
+        assertThat(legacy.getUsername()).isEqualTo("jpthiery");
+        assertThat(current.getUsername()).isEqualTo("jpthiery");
+        assertThat(current.getName()).isEqualTo(userValue.getName());
+        assertThat(current.getPassword()).isEqualTo(new byte[]{1, 2, 3});
+    }
+
+    private static Project createProject() {
+        Set<BrickState> brickStates = new HashSet<>();
+        brickStates.add(new BrickState("8765", "build-A", BrickType.CI.name(), "jenkins", BrickState.State.RUNNING, "1.651"));
+        brickStates.add(new BrickState("8765", "build-A", BrickType.SCM.name(), "gitlab", BrickState.State.ONFAILURE, null, "Unable to start", "8.5.2"));
+        Set<Stack> stacks = new HashSet<>();
+        stacks.add(new Stack("build-A", StackType.BUILD, brickStates));
+        return new Project("1234", "8765", "Acme", new Date(), stacks);
+    }
+
+}
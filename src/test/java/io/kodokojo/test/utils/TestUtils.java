@@ -17,9 +17,15 @@
  */
 package io.kodokojo.test.utils;
 
+import io.kodokojo.commons.utils.properties.PropertyResolver;
+import io.kodokojo.commons.utils.properties.provider.PropertiesValueProvider;
+import io.kodokojo.config.HttpClientConfig;
+import io.kodokojo.service.OkHttpClientFactory;
+
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
+import java.util.Properties;
 
 public class TestUtils {
 
@@ -35,4 +41,10 @@ public class TestUtils {
         return port;
     }
 
+    //  HTTP clients configured with the default values of HttpClientConfig.
+    public static OkHttpClientFactory createHttpClientFactory() {
+        PropertyResolver resolver = new PropertyResolver(new PropertiesValueProvider(new Properties()));
+        return new OkHttpClientFactory(resolver.createProxy(HttpClientConfig.class));
+    }
+
 }